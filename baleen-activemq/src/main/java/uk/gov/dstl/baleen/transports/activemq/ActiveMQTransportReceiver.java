@@ -2,7 +2,9 @@
 package uk.gov.dstl.baleen.transports.activemq;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
@@ -51,12 +53,18 @@ public class ActiveMQTransportReceiver extends AbstractTransportCollectionReader
   }
 
   @Override
-  protected String readFromQueue() throws IOException {
+  protected byte[] readFromQueue() throws IOException {
     try {
       final Message message = consumer.receive();
-      if (message instanceof TextMessage) {
+      if (message instanceof BytesMessage) {
+        final BytesMessage bytesMessage = (BytesMessage) message;
+        final byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(bytes);
+        return bytes;
+      } else if (message instanceof TextMessage) {
+        // As sent by earlier versions
         final TextMessage textMessage = (TextMessage) message;
-        return textMessage.getText();
+        return textMessage.getText().getBytes(StandardCharsets.UTF_8);
       } else {
         throw new IOException("Unsupport message type " + message.getClass().getSimpleName());
       }
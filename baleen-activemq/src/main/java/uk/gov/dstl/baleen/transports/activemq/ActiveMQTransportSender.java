@@ -3,11 +3,11 @@ package uk.gov.dstl.baleen.transports.activemq;
 
 import java.io.IOException;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.Session;
-import javax.jms.TextMessage;
 
 import org.apache.uima.fit.descriptor.ExternalResource;
 
@@ -58,9 +58,10 @@ public class ActiveMQTransportSender extends AbstractTransportConsumer {
   }
 
   @Override
-  protected void writeToQueue(final String id, final String jCas) throws IOException {
+  protected void writeToQueue(final String id, final byte[] jCas) throws IOException {
     try {
-      final TextMessage message = session.createTextMessage(jCas);
+      final BytesMessage message = session.createBytesMessage();
+      message.writeBytes(jCas);
       producer.send(destination, message);
     } catch (final JMSException e) {
       throw new IOException(e);
@@ -13,7 +13,6 @@ import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.FSIndex;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -92,9 +91,7 @@ public class Blacklist extends BaleenAnnotator {
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
     try {
-      et =
-          TypeUtils.getEntityClass(
-              type, JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
+      et = TypeUtils.getEntityClass(type, TypeSystemSingleton.getTypeSystemInstance());
     } catch (UIMAException | BaleenException e) {
       throw new ResourceInitializationException(e);
     }
@@ -131,9 +128,7 @@ public class Blacklist extends BaleenAnnotator {
 
       getMonitor().debug("{} has removed {} entities", this.getClass().getName(), toRemove.size());
     }
-    for (Entity ent : toRemove) {
-      removeFromJCasIndex(ent);
-    }
+    removeFromJCasIndex(toRemove);
   }
 
   private boolean isBlacklisted(String value) {
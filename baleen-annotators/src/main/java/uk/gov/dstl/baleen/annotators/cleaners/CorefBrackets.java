@@ -12,11 +12,10 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
@@ -73,15 +72,10 @@ public class CorefBrackets extends BaleenAnnotator {
 
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
-    JCas jCas;
-    try {
-      jCas = JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance());
-    } catch (UIMAException e) {
-      throw new ResourceInitializationException(e);
-    }
+    TypeSystem typeSystem = TypeSystemSingleton.getTypeSystemInstance();
     for (String type : excludedTypes) {
       try {
-        classTypes.add(TypeUtils.getEntityClass(type, jCas));
+        classTypes.add(TypeUtils.getEntityClass(type, typeSystem));
       } catch (BaleenException e) {
         getMonitor().error("Couldn't parse type {} - type will not be excluded", type, e);
       }
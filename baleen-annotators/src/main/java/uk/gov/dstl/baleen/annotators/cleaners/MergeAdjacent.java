@@ -13,11 +13,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
@@ -74,15 +73,10 @@ public class MergeAdjacent extends BaleenAnnotator {
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
     separatorPattern = Pattern.compile(separator);
 
-    JCas jCas;
-    try {
-      jCas = JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance());
-    } catch (UIMAException e) {
-      throw new ResourceInitializationException(e);
-    }
+    TypeSystem typeSystem = TypeSystemSingleton.getTypeSystemInstance();
     for (String type : types) {
       try {
-        classTypes.add(TypeUtils.getEntityClass(type, jCas));
+        classTypes.add(TypeUtils.getEntityClass(type, typeSystem));
       } catch (BaleenException e) {
         getMonitor().error("Couldn't parse type - type will not be included", e);
       }
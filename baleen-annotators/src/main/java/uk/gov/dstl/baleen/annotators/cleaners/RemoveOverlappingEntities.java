@@ -9,11 +9,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -59,15 +58,10 @@ public class RemoveOverlappingEntities extends AbstractNestedEntities<Entity> {
 
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
-    JCas jCas;
-    try {
-      jCas = JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance());
-    } catch (UIMAException e) {
-      throw new ResourceInitializationException(e);
-    }
+    TypeSystem typeSystem = TypeSystemSingleton.getTypeSystemInstance();
     for (String type : excluded) {
       try {
-        classTypes.add(TypeUtils.getEntityClass(type, jCas));
+        classTypes.add(TypeUtils.getEntityClass(type, typeSystem));
       } catch (BaleenException e) {
         getMonitor().error("Couldn't parse type {} - type will not be excluded", type, e);
       }
@@ -20,7 +20,9 @@ import com.google.common.collect.ImmutableSet;
 
 import uk.gov.dstl.baleen.annotators.coreference.impl.MentionDetector;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Cluster;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.ClusterMerger;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Mention;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionIndex;
 import uk.gov.dstl.baleen.annotators.coreference.impl.enhancers.AcronymEnhancer;
 import uk.gov.dstl.baleen.annotators.coreference.impl.enhancers.AnimacyEnhancer;
 import uk.gov.dstl.baleen.annotators.coreference.impl.enhancers.GenderEnhancer;
@@ -105,11 +107,10 @@ import uk.gov.dstl.baleen.uima.grammar.ParseTree;
  *
  * <p>We discard any algorithms which are for a specific corpus (eg OntoNotes).
  *
- * <p>This is very much unoptimised. Each sieve will calculate over all entities, even though many
- * will already in the same cluster.
- *
- * <p>TODO: At the moment we don't do the clustering properly. We need just perform pairwise
- * operations repeated.
+ * <p>The mentions are indexed once per document (by type, offsets and head word) and the index is
+ * shared by all the sieves, so that each sieve only compares mentions which could match. Each sieve
+ * still considers mentions which are already in the same cluster. The clusters produced by the
+ * sieves are merged into their transitive closure at the end.
  *
  * <p>For more information see the various supporting papers.
  *
@@ -205,8 +206,8 @@ public class SieveCoreference extends BaleenAnnotator {
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
 
-    DependencyGraph dependencyGraph = DependencyGraph.build(jCas);
-    ParseTree parseTree = ParseTree.build(jCas);
+    DependencyGraph dependencyGraph = getSupport().getDerivedData().getDependencyGraph(jCas);
+    ParseTree parseTree = getSupport().getDerivedData().getParseTree(jCas);
 
     // Detect mentions
     List<Mention> mentions = new MentionDetector(jCas, dependencyGraph).detect();
@@ -267,10 +268,13 @@ public class SieveCoreference extends BaleenAnnotator {
     }
   }
 
-  private List<Cluster> sieve(JCas jCas, ParseTree parseTree, List<Mention> mentions) {
+  private List<Cluster> sieve(JCas jCas, ParseTree parseTree, List<Mention> detected) {
 
     List<Cluster> clusters = new ArrayList<>();
 
+    // Index the mentions once, for all the sieves to share
+    MentionIndex mentions = new MentionIndex(detected);
+
     CoreferenceSieve[] sieves =
         new CoreferenceSieve[] {
           new ExtractReferenceTargets(jCas, clusters, mentions), // Good
@@ -350,24 +354,6 @@ public class SieveCoreference extends BaleenAnnotator {
   }
 
   private List<Cluster> mergeClusters(List<Cluster> clusters) {
-    List<Cluster> merged = new ArrayList<>(clusters.size());
-
-    for (Cluster cluster : clusters) {
-
-      boolean overlap = false;
-      for (Cluster mergedCluster : merged) {
-        if (mergedCluster.intersects(cluster)) {
-          mergedCluster.add(cluster);
-          overlap = true;
-          break;
-        }
-      }
-
-      if (!overlap) {
-        merged.add(cluster);
-      }
-    }
-
-    return merged;
+    return ClusterMerger.merge(clusters);
   }
 }
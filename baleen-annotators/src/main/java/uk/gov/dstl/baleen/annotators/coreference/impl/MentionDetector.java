@@ -22,6 +22,7 @@ import uk.gov.dstl.baleen.annotators.coreference.impl.enhancers.SentenceEnhancer
 import uk.gov.dstl.baleen.types.language.PhraseChunk;
 import uk.gov.dstl.baleen.types.language.WordToken;
 import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.uima.CasDerivedDataCache;
 import uk.gov.dstl.baleen.uima.grammar.DependencyGraph;
 
 /** Extract mentions from the jCas. */
@@ -149,14 +150,15 @@ public class MentionDetector {
             .collect(Collectors.toList());
 
     // Remove any noun phrases which cover entities
-    JCasUtil.indexCovering(jCas, Entity.class, PhraseChunk.class)
+    CasDerivedDataCache.getInstance()
+        .indexCovering(jCas, Entity.class, PhraseChunk.class)
         .values()
         .stream()
         .flatMap(Collection::stream)
         .forEach(phrases::remove);
 
     final Map<PhraseChunk, Collection<WordToken>> phraseToWord =
-        JCasUtil.indexCovered(jCas, PhraseChunk.class, WordToken.class);
+        CasDerivedDataCache.getInstance().indexCovered(jCas, PhraseChunk.class, WordToken.class);
 
     // Create an index for head words
     final Multimap<WordToken, PhraseChunk> headToChunk = HashMultimap.create();
@@ -201,7 +203,8 @@ public class MentionDetector {
             });
 
     // Remove all phrases based on their single content
-    JCasUtil.indexCovering(jCas, PhraseChunk.class, WordToken.class)
+    CasDerivedDataCache.getInstance()
+        .indexCovering(jCas, PhraseChunk.class, WordToken.class)
         .entrySet()
         .stream()
         .filter(e -> e.getValue().size() == 1)
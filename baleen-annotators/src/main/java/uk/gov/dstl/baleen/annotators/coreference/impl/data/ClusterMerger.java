@@ -0,0 +1,118 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.coreference.impl.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges clusters which share mentions, using a union-find (disjoint set) structure over the
+ * mentions.
+ *
+ * <p>Clusters are merged transitively, so if A shares a mention with B and B shares a mention with
+ * C then all three are merged, regardless of the order the clusters are provided in.
+ */
+public final class ClusterMerger {
+
+  private final Map<Mention, Integer> ids = new HashMap<>();
+  private int[] parent = new int[16];
+  private int[] rank = new int[16];
+
+  private ClusterMerger() {
+    // Use merge
+  }
+
+  /**
+   * Merge all clusters which share a mention.
+   *
+   * <p>Each merged cluster is the first of the clusters it was merged from, with the mentions of
+   * the later clusters added to it. The merged clusters are returned in the order of those first
+   * clusters.
+   *
+   * @param clusters The clusters to merge
+   * @return The merged clusters
+   */
+  public static List<Cluster> merge(List<Cluster> clusters) {
+    ClusterMerger merger = new ClusterMerger();
+
+    for (Cluster cluster : clusters) {
+      int first = -1;
+      for (Mention m : cluster.getMentions()) {
+        int id = merger.id(m);
+        if (first < 0) {
+          first = id;
+        } else {
+          merger.union(first, id);
+        }
+      }
+    }
+
+    Map<Integer, Cluster> merged = new LinkedHashMap<>();
+    List<Cluster> empty = new ArrayList<>();
+    for (Cluster cluster : clusters) {
+      if (cluster.getSize() == 0) {
+        empty.add(cluster);
+        continue;
+      }
+
+      int root = merger.find(merger.ids.get(cluster.getMentions().iterator().next()));
+      Cluster existing = merged.putIfAbsent(root, cluster);
+      if (existing != null) {
+        existing.add(cluster);
+      }
+    }
+
+    List<Cluster> result = new ArrayList<>(merged.values());
+    result.addAll(empty);
+    return result;
+  }
+
+  private int id(Mention m) {
+    Integer id = ids.get(m);
+    if (id == null) {
+      id = ids.size();
+      ids.put(m, id);
+      if (id >= parent.length) {
+        int length = parent.length * 2;
+        parent = Arrays.copyOf(parent, length);
+        rank = Arrays.copyOf(rank, length);
+      }
+      parent[id] = id;
+    }
+    return id;
+  }
+
+  private int find(int x) {
+    int root = x;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    // Path compression
+    int i = x;
+    while (parent[i] != root) {
+      int next = parent[i];
+      parent[i] = root;
+      i = next;
+    }
+    return root;
+  }
+
+  private void union(int a, int b) {
+    int ra = find(a);
+    int rb = find(b);
+    if (ra == rb) {
+      return;
+    }
+    if (rank[ra] < rank[rb]) {
+      parent[ra] = rb;
+    } else if (rank[ra] > rank[rb]) {
+      parent[rb] = ra;
+    } else {
+      parent[rb] = ra;
+      rank[ra]++;
+    }
+  }
+}
@@ -31,6 +31,10 @@ public class Mention {
 
   private WordToken headWordToken;
 
+  // Cached as they are compared many times by the sieves
+  private String text;
+  private String head;
+
   private List<WordToken> words;
 
   private Person person = Person.UNKNOWN;
@@ -122,12 +126,16 @@ public class Mention {
 
   /** Get the covered text */
   public String getText() {
-    return annotation.getCoveredText();
+    if (text == null) {
+      text = annotation.getCoveredText();
+    }
+    return text;
   }
 
   /** Sets the head word token of the mention */
   public void setHeadWordToken(WordToken headWordToken) {
     this.headWordToken = headWordToken;
+    this.head = null;
   }
 
   /** Returns the head word token */
@@ -137,7 +145,10 @@ public class Mention {
 
   /** Returns the head word as a string */
   public String getHead() {
-    return getHeadWordToken() != null ? getHeadWordToken().getCoveredText() : null;
+    if (head == null && headWordToken != null) {
+      head = headWordToken.getCoveredText();
+    }
+    return head;
   }
 
   /** Returns true is the covered text contains no whitespace and is entirely upper case */
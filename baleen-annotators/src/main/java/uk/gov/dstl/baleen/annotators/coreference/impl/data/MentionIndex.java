@@ -0,0 +1,255 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.coreference.impl.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import com.google.common.base.Strings;
+
+/**
+ * An unmodifiable list of mentions, with indexes to quickly find mentions by type, by offsets and
+ * by head word.
+ *
+ * <p>The index is built once per document and shared by all the coreference sieves, so that they
+ * don't have to repeatedly scan the full list of mentions. All lookups return mentions in the same
+ * order as they appear in the list.
+ */
+public class MentionIndex extends AbstractList<Mention> {
+
+  private final List<Mention> mentions;
+  private final Map<Mention, Integer> positions = new HashMap<>();
+  private final Map<MentionType, List<Mention>> byType = new EnumMap<>(MentionType.class);
+  private final Map<Long, List<Mention>> byOffsets = new HashMap<>();
+  private final Intervals intervals;
+
+  /**
+   * Create a new index over the mentions
+   *
+   * @param mentions The mentions, which should not be modified once indexed
+   */
+  public MentionIndex(List<Mention> mentions) {
+    this.mentions = Collections.unmodifiableList(new ArrayList<>(mentions));
+
+    for (MentionType type : MentionType.values()) {
+      byType.put(type, new ArrayList<>());
+    }
+
+    for (int i = 0; i < this.mentions.size(); i++) {
+      Mention m = this.mentions.get(i);
+      positions.putIfAbsent(m, i);
+      byType.get(m.getType()).add(m);
+      byOffsets
+          .computeIfAbsent(
+              offsetsKey(m.getAnnotation().getBegin(), m.getAnnotation().getEnd()),
+              k -> new ArrayList<>(1))
+          .add(m);
+    }
+
+    intervals = new Intervals(this.mentions);
+  }
+
+  @Override
+  public Mention get(int index) {
+    return mentions.get(index);
+  }
+
+  @Override
+  public int size() {
+    return mentions.size();
+  }
+
+  /** Get the mentions of any of the given types */
+  public List<Mention> getMentions(MentionType... types) {
+    if (types.length == 1) {
+      return Collections.unmodifiableList(byType.get(types[0]));
+    }
+
+    List<Mention> selected = new ArrayList<>();
+    for (MentionType type : types) {
+      selected.addAll(byType.get(type));
+    }
+    return inOrder(selected);
+  }
+
+  /** Get the mentions of any of the given types which have a head word */
+  public List<Mention> getMentionsWithHead(MentionType... types) {
+    List<Mention> selected = new ArrayList<>();
+    for (Mention m : getMentions(types)) {
+      if (!Strings.isNullOrEmpty(m.getHead())) {
+        selected.add(m);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Group mentions of the given types by their head word, ignoring case. Mentions without a head
+   * word are excluded.
+   *
+   * @param types The mention types to include
+   * @return Groups of mentions with the same head word
+   */
+  public Collection<List<Mention>> groupByHead(MentionType... types) {
+    return groupBy(getMentionsWithHead(types), m -> caseInsensitiveKey(m.getHead()));
+  }
+
+  /** Get the mentions which cover exactly the given offsets */
+  public List<Mention> findMentionsExactly(int begin, int end) {
+    List<Mention> found = byOffsets.get(offsetsKey(begin, end));
+    return found == null ? Collections.emptyList() : new ArrayList<>(found);
+  }
+
+  /** Get the mentions which begin at or before <em>begin</em> and end at or before <em>end</em> */
+  public List<Mention> findMentionsUnder(int begin, int end) {
+    return inOrder(intervals.beginningBy(begin, false, end));
+  }
+
+  /** Get the mentions which begin at or before <em>begin</em> and end at or after <em>end</em> */
+  public List<Mention> findMentionAbove(int begin, int end) {
+    return inOrder(intervals.beginningBy(begin, true, end));
+  }
+
+  /**
+   * Group mentions by a key, preserving the order of the mentions within each group and the order
+   * in which the groups are first seen
+   *
+   * @param mentions The mentions to group
+   * @param key Function providing the key for each mention
+   * @return The groups of mentions
+   */
+  public static <K> Collection<List<Mention>> groupBy(
+      List<Mention> mentions, Function<Mention, K> key) {
+    Map<K, List<Mention>> groups = new LinkedHashMap<>();
+    for (Mention m : mentions) {
+      groups.computeIfAbsent(key.apply(m), k -> new ArrayList<>()).add(m);
+    }
+    return groups.values();
+  }
+
+  /**
+   * Create a key such that two strings have the same key if and only if they are equal ignoring
+   * case (as defined by {@link String#equalsIgnoreCase(String)})
+   */
+  public static String caseInsensitiveKey(String s) {
+    char[] chars = s.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  private List<Mention> inOrder(List<Mention> selected) {
+    selected.sort(Comparator.comparingInt(positions::get));
+    return selected;
+  }
+
+  private static long offsetsKey(int begin, int end) {
+    return ((long) begin << 32) | (end & 0xffffffffL);
+  }
+
+  /**
+   * Mentions sorted by their begin offset, with a segment tree holding the minimum and maximum end
+   * offset of each range so that ranges which can't match are skipped.
+   */
+  private static class Intervals {
+    private final Mention[] sorted;
+    private final int[] begins;
+    private final int[] minEnd;
+    private final int[] maxEnd;
+
+    Intervals(List<Mention> mentions) {
+      sorted = mentions.toArray(new Mention[0]);
+      Arrays.sort(sorted, Comparator.comparingInt(m -> m.getAnnotation().getBegin()));
+
+      begins = new int[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        begins[i] = sorted[i].getAnnotation().getBegin();
+      }
+
+      int size = Math.max(1, 4 * sorted.length);
+      minEnd = new int[size];
+      maxEnd = new int[size];
+      if (sorted.length > 0) {
+        build(1, 0, sorted.length - 1);
+      }
+    }
+
+    private void build(int node, int lo, int hi) {
+      if (lo == hi) {
+        minEnd[node] = sorted[lo].getAnnotation().getEnd();
+        maxEnd[node] = minEnd[node];
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      build(2 * node, lo, mid);
+      build(2 * node + 1, mid + 1, hi);
+      minEnd[node] = Math.min(minEnd[2 * node], minEnd[2 * node + 1]);
+      maxEnd[node] = Math.max(maxEnd[2 * node], maxEnd[2 * node + 1]);
+    }
+
+    /**
+     * Find mentions which begin at or before <em>begin</em>, and which end at or after (if
+     * <em>after</em> is true) or at or before (otherwise) <em>end</em>
+     */
+    List<Mention> beginningBy(int begin, boolean after, int end) {
+      List<Mention> found = new ArrayList<>();
+
+      // Number of mentions beginning at or before begin
+      int count = upperBound(begin);
+      if (count > 0) {
+        IntPredicate prune = after ? node -> maxEnd[node] < end : node -> minEnd[node] > end;
+        collect(1, 0, sorted.length - 1, count - 1, prune, after, end, found);
+      }
+      return found;
+    }
+
+    private void collect(
+        int node,
+        int lo,
+        int hi,
+        int last,
+        IntPredicate prune,
+        boolean after,
+        int end,
+        List<Mention> found) {
+      if (lo > last || prune.test(node)) {
+        return;
+      }
+      if (lo == hi) {
+        int e = sorted[lo].getAnnotation().getEnd();
+        if (after ? e >= end : e <= end) {
+          found.add(sorted[lo]);
+        }
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      collect(2 * node, lo, mid, last, prune, after, end, found);
+      collect(2 * node + 1, mid + 1, hi, last, prune, after, end, found);
+    }
+
+    private int upperBound(int value) {
+      int lo = 0;
+      int hi = begins.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (begins[mid] <= value) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return lo;
+    }
+  }
+}
@@ -20,6 +20,7 @@ import uk.gov.dstl.baleen.types.language.PhraseChunk;
 import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.language.WordToken;
 import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.uima.CasDerivedDataCache;
 
 /**
  * Adds the sentence and its index (count from the start) to each mention.
@@ -59,19 +60,22 @@ public class SentenceEnhancer {
             .collect(Collectors.toSet());
 
     final Map<WordToken, Collection<Sentence>> wordToSentence =
-        JCasUtil.indexCovering(jCas, WordToken.class, Sentence.class)
+        CasDerivedDataCache.getInstance()
+            .indexCovering(jCas, WordToken.class, Sentence.class)
             .entrySet()
             .stream()
             .filter(e -> pronounAnnotation.contains(e.getKey()))
             .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
     final Map<Entity, Collection<Sentence>> entityToSentence =
-        JCasUtil.indexCovering(jCas, Entity.class, Sentence.class)
+        CasDerivedDataCache.getInstance()
+            .indexCovering(jCas, Entity.class, Sentence.class)
             .entrySet()
             .stream()
             .filter(e -> entityAnnotation.contains(e.getKey()))
             .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
     final Map<PhraseChunk, Collection<Sentence>> npToSentence =
-        JCasUtil.indexCovering(jCas, PhraseChunk.class, Sentence.class)
+        CasDerivedDataCache.getInstance()
+            .indexCovering(jCas, PhraseChunk.class, Sentence.class)
             .entrySet()
             .stream()
             .filter(e -> npAnnotation.contains(e.getKey()))
@@ -1,7 +1,6 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.annotators.coreference.impl.sieves;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -14,6 +13,7 @@ import com.google.common.base.Strings;
 
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Cluster;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Mention;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionIndex;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionType;
 import uk.gov.dstl.baleen.types.language.PhraseChunk;
 
@@ -26,12 +26,21 @@ public abstract class AbstractCoreferenceSieve implements CoreferenceSieve {
 
   private final JCas jCas;
   private final List<Cluster> clusters;
-  private final List<Mention> mentions;
-
+  private final MentionIndex mentions;
+
+  /**
+   * Constructor
+   *
+   * @param jCas The JCas
+   * @param clusters The clusters, which the sieve will add to
+   * @param mentions The mentions, which should be a {@link MentionIndex} if the same mentions are
+   *     to be used by several sieves (otherwise an index is built for this sieve)
+   */
   protected AbstractCoreferenceSieve(JCas jCas, List<Cluster> clusters, List<Mention> mentions) {
     this.jCas = jCas;
     this.clusters = clusters;
-    this.mentions = mentions;
+    this.mentions =
+        mentions instanceof MentionIndex ? (MentionIndex) mentions : new MentionIndex(mentions);
   }
 
   protected List<Cluster> getClusters() {
@@ -42,35 +51,24 @@ public abstract class AbstractCoreferenceSieve implements CoreferenceSieve {
     return mentions;
   }
 
+  protected MentionIndex getMentionIndex() {
+    return mentions;
+  }
+
   protected List<Mention> getMentions(MentionType mentionType) {
-    return mentions
-        .stream()
-        .filter(m -> m.getType().equals(mentionType))
-        .collect(Collectors.toList());
+    return mentions.getMentions(mentionType);
   }
 
   protected List<Mention> getMentions(MentionType... mentionTypes) {
-    List<MentionType> mentionTypesList = Arrays.asList(mentionTypes);
-    return mentions
-        .stream()
-        .filter(m -> mentionTypesList.contains(m.getType()))
-        .collect(Collectors.toList());
+    return mentions.getMentions(mentionTypes);
   }
 
   protected List<Mention> getMentionsWithHead(MentionType mentionType) {
-    return mentions
-        .stream()
-        .filter(m -> m.getType().equals(mentionType) && hasHead(m))
-        .collect(Collectors.toList());
+    return mentions.getMentionsWithHead(mentionType);
   }
 
   protected List<Mention> getMentionsWithHead(MentionType... mentionTypes) {
-    List<MentionType> mentionTypesList = Arrays.asList(mentionTypes);
-
-    return mentions
-        .stream()
-        .filter(m -> mentionTypesList.contains(m.getType()) && hasHead(m))
-        .collect(Collectors.toList());
+    return mentions.getMentionsWithHead(mentionTypes);
   }
 
   protected JCas getJCas() {
@@ -123,24 +121,15 @@ public abstract class AbstractCoreferenceSieve implements CoreferenceSieve {
   }
 
   protected List<Mention> findMentionsExactly(int begin, int end) {
-    return getMentions()
-        .stream()
-        .filter(m -> begin == m.getAnnotation().getBegin() && m.getAnnotation().getEnd() == end)
-        .collect(Collectors.toList());
+    return mentions.findMentionsExactly(begin, end);
   }
 
   protected List<Mention> findMentionsUnder(int begin, int end) {
-    return getMentions()
-        .stream()
-        .filter(m -> begin >= m.getAnnotation().getBegin() && m.getAnnotation().getEnd() <= end)
-        .collect(Collectors.toList());
+    return mentions.findMentionsUnder(begin, end);
   }
 
   protected List<Mention> findMentionAbove(int begin, int end) {
-    return getMentions()
-        .stream()
-        .filter(m -> m.getAnnotation().getBegin() <= begin && end <= m.getAnnotation().getEnd())
-        .collect(Collectors.toList());
+    return mentions.findMentionAbove(begin, end);
   }
 
   protected Set<String> getModifiers(Mention a) {
@@ -11,6 +11,7 @@ import org.apache.uima.jcas.JCas;
 
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Cluster;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Mention;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionIndex;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionType;
 
 /**
@@ -35,16 +36,20 @@ public class ExactStringMatchSieve extends AbstractCoreferenceSieve {
             .filter(m -> !EXCLUDED.contains(m.getHead().toLowerCase()))
             .collect(Collectors.toList());
 
-    for (int i = 0; i < mentions.size(); i++) {
-      final Mention a = mentions.get(i);
-      final String aText = a.getText();
+    // Only mentions with the same text can match, so just compare within those groups
+    for (List<Mention> group :
+        MentionIndex.groupBy(mentions, m -> MentionIndex.caseInsensitiveKey(m.getText()))) {
+      for (int i = 0; i < group.size(); i++) {
+        final Mention a = group.get(i);
+        final String aText = a.getText();
 
-      for (int j = i + 1; j < mentions.size(); j++) {
-        final Mention b = mentions.get(j);
-        final String bText = b.getText();
+        for (int j = i + 1; j < group.size(); j++) {
+          final Mention b = group.get(j);
+          final String bText = b.getText();
 
-        if (aText.equalsIgnoreCase(bText)) {
-          addToCluster(a, b);
+          if (aText.equalsIgnoreCase(bText)) {
+            addToCluster(a, b);
+          }
         }
       }
     }
@@ -7,6 +7,7 @@ import org.apache.uima.jcas.JCas;
 
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Cluster;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Mention;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionIndex;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionType;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Person;
 
@@ -37,24 +38,22 @@ public class InSentencePronounSieve extends AbstractCoreferenceSieve {
   @Override
   public void sieve() {
 
-    List<Mention> mentions = getMentions(MentionType.PRONOUN);
-
-    for (int i = 0; i < mentions.size(); i++) {
-      final Mention a = mentions.get(i);
-      final String aText = a.getText();
-
-      for (int j = i + 1; j < mentions.size(); j++) {
-        final Mention b = mentions.get(j);
-        final String bText = b.getText();
-
-        if (a.getSentenceIndex() != b.getSentenceIndex()) {
-          continue;
-        }
-
-        if (!(firstPerson(a, b) || secondPerson(a, b) || thirdPerson(a, b))
-            && aText.equalsIgnoreCase(bText)) {
-          // If the text is the same, then ok
-          addToCluster(a, b);
+    // Only compare pronouns within the same sentence
+    for (List<Mention> mentions :
+        MentionIndex.groupBy(getMentions(MentionType.PRONOUN), Mention::getSentenceIndex)) {
+      for (int i = 0; i < mentions.size(); i++) {
+        final Mention a = mentions.get(i);
+        final String aText = a.getText();
+
+        for (int j = i + 1; j < mentions.size(); j++) {
+          final Mention b = mentions.get(j);
+          final String bText = b.getText();
+
+          if (!(firstPerson(a, b) || secondPerson(a, b) || thirdPerson(a, b))
+              && aText.equalsIgnoreCase(bText)) {
+            // If the text is the same, then ok
+            addToCluster(a, b);
+          }
         }
       }
     }
@@ -1,9 +1,14 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.annotators.coreference.impl.sieves;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -126,16 +131,36 @@ public class PreciseConstructsSieve extends AbstractCoreferenceSieve {
   }
 
   private void doAcronym() {
-    for (int i = 0; i < getMentions().size(); i++) {
-      final Mention a = getMentions().get(i);
+    final List<Mention> mentions = getMentions();
+
+    // Only mentions which share an acronym can match, so index the mentions by acronym
+    final Map<String, List<Integer>> byAcronym = new HashMap<>();
+    for (int i = 0; i < mentions.size(); i++) {
+      final Set<String> acronyms = mentions.get(i).getAcronyms();
+      if (acronyms != null) {
+        for (String acronym : acronyms) {
+          byAcronym.computeIfAbsent(acronym, k -> new ArrayList<>()).add(i);
+        }
+      }
+    }
+
+    for (int i = 0; i < mentions.size(); i++) {
+      final Mention a = mentions.get(i);
       final Set<String> aAcronyms = a.getAcronyms();
+      if (aAcronyms == null) {
+        continue;
+      }
+
+      final SortedSet<Integer> candidates = new TreeSet<>();
+      for (String acronym : aAcronyms) {
+        candidates.addAll(byAcronym.get(acronym));
+      }
 
-      for (int j = i + 1; j < getMentions().size(); j++) {
-        final Mention b = getMentions().get(j);
+      for (int j : candidates.tailSet(i + 1)) {
+        final Mention b = mentions.get(j);
         final Set<String> bAcronyms = b.getAcronyms();
 
-        if (aAcronyms != null
-            && bAcronyms != null
+        if (bAcronyms != null
             && b.isAcronym() != a.isAcronym()
             && !Sets.intersection(aAcronyms, bAcronyms).isEmpty()) {
           addToCluster(a, b);
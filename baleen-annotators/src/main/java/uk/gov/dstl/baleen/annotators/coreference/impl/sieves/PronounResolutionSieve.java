@@ -4,7 +4,9 @@ package uk.gov.dstl.baleen.annotators.coreference.impl.sieves;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -44,17 +46,32 @@ public class PronounResolutionSieve extends AbstractCoreferenceSieve {
     List<Mention> filteredMentions =
         getMentions().stream().filter(m -> m.getSentenceIndex() >= 0).collect(Collectors.toList());
 
+    // Only mentions within a few sentences of each other can match, so index by sentence
+    final Map<Integer, List<Integer>> bySentence = new HashMap<>();
+    for (int i = 0; i < filteredMentions.size(); i++) {
+      bySentence
+          .computeIfAbsent(filteredMentions.get(i).getSentenceIndex(), k -> new ArrayList<>())
+          .add(i);
+    }
+
     for (int i = 0; i < filteredMentions.size(); i++) {
       final Mention a = filteredMentions.get(i);
+      final int sentence = a.getSentenceIndex();
 
-      for (int j = i + 1; j < filteredMentions.size(); j++) {
-        final Mention b = filteredMentions.get(j);
+      for (int s = sentence - MAX_SENTENCE_DISTANCE; s <= sentence + MAX_SENTENCE_DISTANCE; s++) {
+        for (int j : bySentence.getOrDefault(s, Collections.emptyList())) {
+          if (j <= i) {
+            continue;
+          }
 
-        if (!validateMentions(a, b)) {
-          continue;
-        }
+          final Mention b = filteredMentions.get(j);
+
+          if (!validateMentions(a, b)) {
+            continue;
+          }
 
-        resolvePronoun(a, b, potential);
+          resolvePronoun(a, b, potential);
+        }
       }
     }
 
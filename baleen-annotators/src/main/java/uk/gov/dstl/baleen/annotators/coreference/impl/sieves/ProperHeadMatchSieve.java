@@ -48,20 +48,22 @@ public class ProperHeadMatchSieve extends AbstractCoreferenceSieve {
   @Override
   public void sieve() {
     // Note: Head must be proper nouns, but ours are by construction
-    List<Mention> mentions = getMentionsWithHead(MentionType.ENTITY, MentionType.NP);
+    // Only mentions with the same head can match, so just compare within those groups
+    for (List<Mention> mentions :
+        getMentionIndex().groupByHead(MentionType.ENTITY, MentionType.NP)) {
+      for (int i = 0; i < mentions.size(); i++) {
+        final Mention a = mentions.get(i);
 
-    for (int i = 0; i < mentions.size(); i++) {
-      final Mention a = mentions.get(i);
+        String aHead = a.getHead().toLowerCase();
 
-      String aHead = a.getHead().toLowerCase();
+        for (int j = i + 1; j < mentions.size(); j++) {
+          final Mention b = mentions.get(j);
 
-      for (int j = i + 1; j < mentions.size(); j++) {
-        final Mention b = mentions.get(j);
+          String bHead = b.getHead().toLowerCase();
 
-        String bHead = b.getHead().toLowerCase();
-
-        if (aHead.equals(bHead) && shouldAddMentionsToCluster(a, b)) {
-          addToCluster(a, b);
+          if (aHead.equals(bHead) && shouldAddMentionsToCluster(a, b)) {
+            addToCluster(a, b);
+          }
         }
       }
     }
@@ -2,7 +2,9 @@
 package uk.gov.dstl.baleen.annotators.coreference.impl.sieves;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.uima.jcas.JCas;
@@ -21,6 +23,9 @@ public class RelaxedHeadMatchSieve extends AbstractCoreferenceSieve {
   private static final Splitter WHITESPACE_SPLITTER =
       Splitter.on(" ").omitEmptyStrings().trimResults();
 
+  // Each mention is compared with many others, so cache what is derived from it
+  private final Map<Mention, List<String>> nonStopWords = new HashMap<>();
+
   /** Constructor for RelaxedHeadMatchSieve */
   public RelaxedHeadMatchSieve(
       JCas jCas, List<Cluster> clusters, List<Mention> mentions, Collection<String> stopwords) {
@@ -47,8 +52,8 @@ public class RelaxedHeadMatchSieve extends AbstractCoreferenceSieve {
 
   // TODO: This should at a cluster level
   private boolean hasSubsetOfNonStopWords(Mention a, Mention b) {
-    final List<String> aNonStop = getNonStopWords(a);
-    final List<String> bNonStop = getNonStopWords(b);
+    final List<String> aNonStop = nonStopWords.computeIfAbsent(a, this::getNonStopWords);
+    final List<String> bNonStop = nonStopWords.computeIfAbsent(b, this::getNonStopWords);
 
     // TODO: This should not include the head word? See the paper for clarification.
 
@@ -88,12 +93,12 @@ public class RelaxedHeadMatchSieve extends AbstractCoreferenceSieve {
       return false;
     }
 
-    // Word inclusion
-    if (!hasSubsetOfNonStopWords(a, b)) {
+    // Do we contain the head word? (Checked before word inclusion, as it's cheaper)
+    if (!aText.contains(bHead)) {
       return false;
     }
 
-    // Do we contain the head word?
-    return aText.contains(bHead);
+    // Word inclusion
+    return hasSubsetOfNonStopWords(a, b);
   }
 }
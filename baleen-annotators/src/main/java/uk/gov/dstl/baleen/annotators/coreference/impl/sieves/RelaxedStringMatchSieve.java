@@ -11,6 +11,7 @@ import org.apache.uima.jcas.JCas;
 
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Cluster;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.Mention;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionIndex;
 import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionType;
 
 /** String matching which is more easily satisfied than exact matching. */
@@ -32,14 +33,18 @@ public class RelaxedStringMatchSieve extends AbstractCoreferenceSieve {
             .filter(m -> !EXCLUDED.contains(m.getHead().toLowerCase()))
             .collect(Collectors.toList());
 
-    for (int i = 0; i < mentions.size(); i++) {
-      final Mention a = mentions.get(i);
+    // Only mentions with the same head can match, so just compare within those groups
+    for (List<Mention> group :
+        MentionIndex.groupBy(mentions, m -> MentionIndex.caseInsensitiveKey(m.getHead()))) {
+      for (int i = 0; i < group.size(); i++) {
+        final Mention a = group.get(i);
 
-      for (int j = i + 1; j < mentions.size(); j++) {
-        final Mention b = mentions.get(j);
+        for (int j = i + 1; j < group.size(); j++) {
+          final Mention b = group.get(j);
 
-        if (a.getHead().equalsIgnoreCase(b.getHead())) {
-          addToCluster(a, b);
+          if (a.getHead().equalsIgnoreCase(b.getHead())) {
+            addToCluster(a, b);
+          }
         }
       }
     }
@@ -2,7 +2,9 @@
 package uk.gov.dstl.baleen.annotators.coreference.impl.sieves;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -25,6 +27,11 @@ public class StrictHeadMatchSieve extends AbstractCoreferenceSieve {
   private static final Splitter WHITESPACE_SPLITTER =
       Splitter.on(" ").omitEmptyStrings().trimResults();
 
+  // Each mention is compared with many others, so cache what is derived from it
+  private final Map<Mention, String> heads = new HashMap<>();
+  private final Map<Mention, List<String>> nonStopWords = new HashMap<>();
+  private final Map<Mention, Set<String>> modifiers = new HashMap<>();
+
   /** Constructor for StrictHeadMatchSieve */
   public StrictHeadMatchSieve(
       JCas jCas,
@@ -60,8 +67,8 @@ public class StrictHeadMatchSieve extends AbstractCoreferenceSieve {
   }
 
   private boolean haveSubsetOfSameModifier(Mention a, Mention b) {
-    final Set<String> aModifiers = getModifiers(a);
-    final Set<String> bModifiers = getModifiers(b);
+    final Set<String> aModifiers = modifiers.computeIfAbsent(a, this::getModifiers);
+    final Set<String> bModifiers = modifiers.computeIfAbsent(b, this::getModifiers);
 
     // NOTE: This is ordered, a is earlier than b and it is unusal to introduce more information
     // to an entity later in the document
@@ -70,8 +77,8 @@ public class StrictHeadMatchSieve extends AbstractCoreferenceSieve {
 
   // TODO: This should at a cluster level
   private boolean hasSubsetOfNonStopWords(Mention a, Mention b) {
-    final List<String> aNonStop = getNonStopWords(a);
-    final List<String> bNonStop = getNonStopWords(b);
+    final List<String> aNonStop = nonStopWords.computeIfAbsent(a, this::getNonStopWords);
+    final List<String> bNonStop = nonStopWords.computeIfAbsent(b, this::getNonStopWords);
 
     // TODO: This should not include the head word? See the paper for clarification.
 
@@ -91,8 +98,8 @@ public class StrictHeadMatchSieve extends AbstractCoreferenceSieve {
   }
 
   private boolean shouldAddToCluster(Mention a, Mention b) {
-    String aHead = a.getHead().toLowerCase();
-    String bHead = b.getHead().toLowerCase();
+    String aHead = heads.computeIfAbsent(a, m -> m.getHead().toLowerCase());
+    String bHead = heads.computeIfAbsent(b, m -> m.getHead().toLowerCase());
 
     // Entity head match - does one head contain the others
     if (!aHead.contains(bHead) && !bHead.contains(aHead)) {
@@ -136,11 +136,11 @@ public class SimpleEventExtractor extends BaleenAnnotator {
   private <T extends Base> void extractEventsFrom(JCas jCas, Collection<T> sections) {
 
     Map<? extends Base, Collection<Location>> locationIndex =
-        JCasUtil.indexCovered(jCas, sectionClass, Location.class);
+        getSupport().getDerivedData().indexCovered(jCas, sectionClass, Location.class);
     Map<? extends Base, Collection<Temporal>> temporalIndex =
-        JCasUtil.indexCovered(jCas, sectionClass, Temporal.class);
+        getSupport().getDerivedData().indexCovered(jCas, sectionClass, Temporal.class);
     Map<? extends Base, Collection<Entity>> entityIndex =
-        JCasUtil.indexCovered(jCas, sectionClass, Entity.class);
+        getSupport().getDerivedData().indexCovered(jCas, sectionClass, Entity.class);
 
     for (T t : sections) {
 
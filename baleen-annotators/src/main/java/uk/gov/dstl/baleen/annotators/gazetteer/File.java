@@ -11,6 +11,7 @@ import org.apache.uima.fit.descriptor.ExternalResource;
 import com.google.common.collect.ImmutableSet;
 
 import uk.gov.dstl.baleen.annotators.gazetteer.helpers.AbstractAhoCorasickAnnotator;
+import uk.gov.dstl.baleen.annotators.gazetteer.helpers.GazetteerUtils;
 import uk.gov.dstl.baleen.core.pipelines.orderers.AnalysisEngineAction;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
 import uk.gov.dstl.baleen.resources.SharedFileResource;
@@ -74,6 +75,11 @@ public class File extends AbstractAhoCorasickAnnotator {
     return gaz;
   }
 
+  @Override
+  protected String getGazetteerFingerprint() {
+    return GazetteerUtils.fingerprintFile(fileName, termSeparator);
+  }
+
   @Override
   public AnalysisEngineAction getAction() {
     return new AnalysisEngineAction(Collections.emptySet(), ImmutableSet.of(entityType));
@@ -66,6 +66,11 @@ public class Mongo extends AbstractAhoCorasickAnnotator {
     return gaz;
   }
 
+  @Override
+  protected String getGazetteerFingerprint() {
+    return GazetteerUtils.fingerprintMongo(mongoResource, collection, valueField);
+  }
+
   @Override
   public AnalysisEngineAction getAction() {
     return new AnalysisEngineAction(Collections.emptySet(), ImmutableSet.of(entityType));
@@ -66,6 +66,11 @@ public class MongoStemming extends AbstractStemmingAhoCorasickAnnotator {
     return gaz;
   }
 
+  @Override
+  protected String getGazetteerFingerprint() {
+    return GazetteerUtils.fingerprintMongo(mongo, collection, valueField);
+  }
+
   @Override
   public AnalysisEngineAction getAction() {
     return new AnalysisEngineAction(Collections.emptySet(), ImmutableSet.of(entityType));
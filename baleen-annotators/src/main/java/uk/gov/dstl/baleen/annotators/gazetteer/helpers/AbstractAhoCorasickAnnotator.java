@@ -1,7 +1,9 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
 
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -15,20 +17,17 @@ import org.ahocorasick.trie.Emit;
 import org.ahocorasick.trie.Trie;
 import org.ahocorasick.trie.Trie.TrieBuilder;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
-import org.apache.uima.cas.CommonArrayFS;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
-import org.apache.uima.jcas.cas.StringArray;
+import org.apache.uima.jcas.cas.AnnotationBase;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.atteo.evo.inflector.English;
-import org.bson.Document;
 
 import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
 
 import uk.gov.dstl.baleen.exceptions.BaleenException;
 import uk.gov.dstl.baleen.resources.gazetteer.IGazetteer;
@@ -120,9 +119,57 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
   @ConfigurationParameter(name = PARAM_PLURALS, defaultValue = "false")
   protected boolean plurals;
 
+  /**
+   * The search engine to use, either <i>trie</i> or <i>compact</i>.
+   *
+   * <p>The <i>trie</i> engine builds an org.ahocorasick Trie for each annotator. The <i>compact</i>
+   * engine builds a {@link CompactAutomaton}, which uses far less memory and is shared between all
+   * annotators (across all pipelines) that have the same gazetteer values and case sensitivity. The
+   * compact engine is recommended for large gazetteers.
+   *
+   * @baleen.config trie
+   */
+  public static final String PARAM_ENGINE = "engine";
+
+  @ConfigurationParameter(name = PARAM_ENGINE, defaultValue = ENGINE_TRIE)
+  protected String engine;
+
+  /**
+   * A directory in which to persist compiled automata when using the <i>compact</i> engine.
+   *
+   * <p>Automata are stored in files named after a hash of the gazetteer values, plurals and case
+   * sensitivity, so a change to any of these results in a new automaton being built. On subsequent
+   * runs the file is memory mapped rather than the automaton being rebuilt, which reduces start up
+   * time and means the automaton is held outside of the heap and shared with other processes using
+   * the same file. If empty, automata are not persisted.
+   *
+   * <p>Where the annotator can cheaply tell whether its gazetteer has changed (the File and Mongo
+   * gazetteers can) the gazetteer itself, with its aliases and additional data, is also persisted
+   * in this directory. On subsequent runs it is read from there rather than from its source, unless
+   * the source has changed.
+   *
+   * @baleen.config
+   */
+  public static final String PARAM_AUTOMATON_CACHE = "automatonCache";
+
+  @ConfigurationParameter(name = PARAM_AUTOMATON_CACHE, defaultValue = "")
+  protected String automatonCache;
+
+  /** Value of {@link #PARAM_ENGINE} to use an org.ahocorasick Trie */
+  public static final String ENGINE_TRIE = "trie";
+
+  /** Value of {@link #PARAM_ENGINE} to use a shared {@link CompactAutomaton} */
+  public static final String ENGINE_COMPACT = "compact";
+
   protected IGazetteer gazetteer;
   protected Class<? extends Annotation> entityType;
   protected Trie trie;
+  protected CompactAutomaton automaton;
+
+  private String automatonKey;
+
+  private List<EntityPropertySetter> setters;
+  private final Map<String, KeywordMetadata> keywordMetadata = new HashMap<>();
 
   private static final String ERROR_CANT_ASSIGN_ENTITY_PROPERTY =
       "Unable to assign property on entity - property will be skipped";
@@ -142,29 +189,102 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
    */
   public abstract IGazetteer configureGazetteer() throws BaleenException;
 
+  /**
+   * Get a fingerprint of the source of the gazetteer, which changes whenever its contents might
+   * have, and is much cheaper to get than loading the gazetteer. It must include any configuration
+   * which affects the contents, other than the case sensitivity.
+   *
+   * <p>If this returns a fingerprint and the automaton cache is in use, the gazetteer is persisted
+   * and read back by fingerprint rather than being configured again. By default there is no
+   * fingerprint, so the gazetteer is always configured.
+   *
+   * @return The fingerprint, or null if there isn't one
+   */
+  protected String getGazetteerFingerprint() {
+    return null;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
-    try {
-      gazetteer = configureGazetteer();
-    } catch (BaleenException be) {
-      throw new ResourceInitializationException(be);
+    String persistedKey = getPersistedGazetteerKey();
+    Path persisted =
+        persistedKey != null ? Paths.get(automatonCache, persistedKey + ".gazetteer") : null;
+    if (persisted != null) {
+      gazetteer = readGazetteer(persisted, persistedKey);
+    }
+
+    if (gazetteer == null) {
+      try {
+        gazetteer = configureGazetteer();
+      } catch (BaleenException be) {
+        throw new ResourceInitializationException(be);
+      }
+
+      if (persisted != null) {
+        writeGazetteer(persisted, persistedKey);
+      }
     }
 
     buildTrie();
 
+    Class<? extends AnnotationBase> found =
+        TypeUtils.getType(type, TypeSystemSingleton.getTypeSystemInstance());
+    entityType = (Class<? extends Annotation>) found;
+    if (entityType == null) {
+      getMonitor().warn("Type {} not found, Entity will be used instead", type);
+      entityType = Entity.class;
+    }
+
+    setters =
+        useAdditionalData ? EntityPropertySetter.forType(entityType) : Collections.emptyList();
+  }
+
+  /**
+   * Get the key to persist the gazetteer under, a hash of its fingerprint and configuration, or
+   * null if it isn't to be persisted
+   */
+  private String getPersistedGazetteerKey() {
+    if (!ENGINE_COMPACT.equalsIgnoreCase(engine) || Strings.isNullOrEmpty(automatonCache)) {
+      return null;
+    }
+
+    String fingerprint = getGazetteerFingerprint();
+    if (fingerprint == null) {
+      return null;
+    }
+
+    return Hashing.sha256()
+        .hashUnencodedChars(
+            getClass().getName()
+                + '\n'
+                + fingerprint
+                + '\n'
+                + caseSensitive
+                + '\n'
+                + useAdditionalData)
+        .toString();
+  }
+
+  private IGazetteer readGazetteer(Path file, String key) {
     try {
-      entityType =
-          (Class<? extends Annotation>)
-              TypeUtils.getType(
-                  type,
-                  JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
-      if (entityType == null) {
-        getMonitor().warn("Type {} not found, Entity will be used instead", type);
-        entityType = Entity.class;
+      IGazetteer read = PersistedGazetteer.read(file, key, caseSensitive);
+      if (read != null) {
+        getMonitor().debug("Read gazetteer from {}", file);
       }
-    } catch (UIMAException e) {
-      throw new ResourceInitializationException(e);
+      return read;
+    } catch (IOException e) {
+      getMonitor().warn("Unable to read gazetteer from {} - it will be reloaded", file, e);
+      return null;
+    }
+  }
+
+  private void writeGazetteer(Path file, String key) {
+    try {
+      PersistedGazetteer.write(file, key, gazetteer, useAdditionalData);
+      getMonitor().debug("Persisted gazetteer to {}", file);
+    } catch (IOException e) {
+      getMonitor().warn("Unable to persist gazetteer to {}", file, e);
     }
   }
 
@@ -173,22 +293,89 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
    * modify the gazetteer before parsing it.
    */
   protected void buildTrie() {
+    List<String> keywords = new ArrayList<>();
+
+    for (String s : gazetteer.getValues()) {
+      keywords.add(s);
+      if (plurals) {
+        keywords.add(pluraliseWord(s));
+      }
+    }
+
+    buildTrie(keywords);
+  }
+
+  /**
+   * Build the search engine for the provided keywords, setting either the <em>trie</em> or the
+   * <em>automaton</em> variable depending on the configured engine.
+   *
+   * @param keywords The keywords to search for
+   */
+  protected void buildTrie(Collection<String> keywords) {
+    if (ENGINE_COMPACT.equalsIgnoreCase(engine)) {
+      automatonKey = CompactAutomatonCache.generateKey(keywords, caseSensitive);
+      automaton =
+          CompactAutomatonCache.getInstance()
+              .acquire(automatonKey, () -> loadOrBuildAutomaton(automatonKey, keywords));
+      return;
+    } else if (!ENGINE_TRIE.equalsIgnoreCase(engine)) {
+      getMonitor().warn("Unknown engine {}, the {} engine will be used", engine, ENGINE_TRIE);
+    }
+
     TrieBuilder builder = Trie.builder().onlyWholeWords();
 
     if (!caseSensitive) {
       builder = builder.ignoreCase();
     }
 
-    for (String s : gazetteer.getValues()) {
+    for (String s : keywords) {
       builder = builder.addKeyword(s);
-      if (plurals) {
-        builder = builder.addKeyword(pluraliseWord(s));
-      }
     }
 
     trie = builder.build();
   }
 
+  /**
+   * Read the automaton from the automaton cache directory if it has previously been persisted,
+   * otherwise build it (and persist it if a cache directory has been configured)
+   */
+  private CompactAutomaton loadOrBuildAutomaton(String key, Collection<String> keywords) {
+    if (Strings.isNullOrEmpty(automatonCache)) {
+      return CompactAutomaton.build(keywords, caseSensitive);
+    }
+
+    Path file = Paths.get(automatonCache, key + ".automaton");
+    try {
+      CompactAutomaton mapped = CompactAutomaton.read(file, key);
+      if (mapped != null) {
+        getMonitor().debug("Memory mapped automaton from {}", file);
+        return mapped;
+      }
+    } catch (IOException e) {
+      getMonitor().warn("Unable to read automaton from {} - it will be rebuilt", file, e);
+    }
+
+    CompactAutomaton built = CompactAutomaton.build(keywords, caseSensitive);
+    try {
+      built.write(file, key);
+      getMonitor().debug("Persisted automaton to {}", file);
+    } catch (IOException e) {
+      getMonitor().warn("Unable to persist automaton to {}", file, e);
+    }
+    return built;
+  }
+
+  /**
+   * Find all the (whole word) occurrences of gazetteer keywords in the text, using whichever engine
+   * has been built.
+   *
+   * @param text The text to search
+   * @return The matches
+   */
+  protected Collection<Emit> parseText(String text) {
+    return automaton != null ? automaton.parseText(text) : trie.parseText(text);
+  }
+
   @Override
   protected final void doProcess(JCas jCas) throws AnalysisEngineProcessException {
     // Final so as to prevent other implementations being non text aware
@@ -207,12 +394,13 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
     Map<String, List<BaleenAnnotation>> entities = new HashMap<>();
 
     String text = block.getCoveredText();
-    Collection<Emit> emits = trie.parseText(text);
+    Collection<Emit> emits = parseText(text);
 
     for (Emit emit : emits) {
       try {
-        String match = text.substring(emit.getStart(), emit.getEnd() + 1);
-        createEntityAndAliases(block, emit.getStart(), emit.getEnd() + 1, match, match, entities);
+        int end = emit.getEnd() + 1;
+        String match = getKeywordMetadata(emit.getKeyword()).value(text, emit.getStart(), end);
+        createEntityAndAliases(block, emit.getStart(), end, match, emit.getKeyword(), entities);
       } catch (BaleenException be) {
         getMonitor()
             .error(
@@ -231,15 +419,16 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
     Map<String, List<BaleenAnnotation>> entities = new HashMap<>();
 
     TransformedString norm = normaliseString(block.getCoveredText());
-    Collection<Emit> emits = trie.parseText(norm.getTransformedString());
+    Collection<Emit> emits = parseText(norm.getTransformedString());
 
     for (Emit emit : emits) {
       try {
         Integer start = norm.getMapping().get(emit.getStart());
         Integer end = norm.getMapping().get(emit.getEnd() + 1);
-        String match = norm.getOriginalString().substring(start, end);
+        String match =
+            getKeywordMetadata(emit.getKeyword()).value(norm.getOriginalString(), start, end);
 
-        createEntityAndAliases(block, start, end, match, match, entities);
+        createEntityAndAliases(block, start, end, match, emit.getKeyword(), entities);
       } catch (BaleenException be) {
         getMonitor()
             .error(
@@ -264,15 +453,32 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
       throws BaleenException {
     BaleenAnnotation ent = createEntity(block, start, end, value, aliasKey);
 
-    List<String> aliases = new ArrayList<>(Arrays.asList(gazetteer.getAliases(aliasKey)));
-    aliases.add(aliasKey);
-
-    String key = generateKey(aliases);
+    entities.computeIfAbsent(getKeywordMetadata(aliasKey).group, k -> new ArrayList<>()).add(ent);
+  }
 
-    List<BaleenAnnotation> groupEntities =
-        entities.containsKey(key) ? entities.get(key) : new ArrayList<>();
-    groupEntities.add(ent);
-    entities.put(key, groupEntities);
+  /**
+   * Get the metadata for a gazetteer key, which is computed the first time the key is matched and
+   * then reused for all subsequent matches
+   */
+  private KeywordMetadata getKeywordMetadata(String gazetteerKey) {
+    KeywordMetadata metadata = keywordMetadata.get(gazetteerKey);
+    if (metadata == null) {
+      List<String> aliases = new ArrayList<>(Arrays.asList(gazetteer.getAliases(gazetteerKey)));
+      aliases.add(gazetteerKey);
+
+      List<EntityPropertySetter.Binding> properties =
+          useAdditionalData
+              ? EntityPropertySetter.bind(
+                  setters,
+                  gazetteer.getAdditionalData(gazetteerKey),
+                  (property, e) ->
+                      getMonitor().warn(ERROR_CANT_ASSIGN_ENTITY_PROPERTY + " ({})", property, e))
+              : Collections.emptyList();
+
+      metadata = new KeywordMetadata(generateKey(aliases).intern(), properties);
+      keywordMetadata.put(gazetteerKey, metadata);
+    }
+    return metadata;
   }
 
   /**
@@ -322,13 +528,11 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
       if (!Strings.isNullOrEmpty(subtype)) ((Entity) ent).setSubType(subtype);
     }
 
-    if (useAdditionalData) {
-      Map<String, Object> additionalData = gazetteer.getAdditionalData(gazetteerKey);
-
-      if (additionalData != null && !additionalData.isEmpty()) {
-        for (Method m : entityType.getMethods()) {
-          setProperty(ent, m, additionalData);
-        }
+    for (EntityPropertySetter.Binding property : getKeywordMetadata(gazetteerKey).properties) {
+      try {
+        property.apply(ent);
+      } catch (BaleenException e) {
+        getMonitor().error(ERROR_CANT_ASSIGN_ENTITY_PROPERTY, e);
       }
     }
 
@@ -366,72 +570,6 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private void setProperty(
-      BaleenAnnotation entity, Method method, Map<String, Object> additionalData) {
-    if (method.getName().startsWith("set")
-        && method.getName().substring(3, 4).matches("[A-Z]")
-        && method.getParameterCount() == 1) {
-      String property = method.getName().substring(3);
-      property = property.substring(0, 1).toLowerCase() + property.substring(1);
-      Object obj = additionalData.get(property);
-
-      if (obj == null) {
-        return;
-      }
-
-      if (method.getParameterTypes()[0].isAssignableFrom(obj.getClass())) {
-        setPropertyObject(entity, method, obj);
-      } else if (method.getParameterTypes()[0].isAssignableFrom(String.class)) {
-        getMonitor()
-            .debug("Converting gazetteer object of type {} to String", obj.getClass().getName());
-
-        if (obj instanceof Document) {
-          // Special case for Mongo Document objects, where the toString function
-          // doesn't convert to JSON as expected (e.g. for GeoJSON)
-          setPropertyString(entity, method, ((Document) obj).toJson());
-        } else {
-          setPropertyString(entity, method, obj.toString());
-        }
-      } else if (List.class.isAssignableFrom(obj.getClass())
-          && CommonArrayFS.class.isAssignableFrom(method.getParameterTypes()[0])) {
-        setPropertyArray(entity, method, (List<Object>) obj);
-      }
-    }
-  }
-
-  private void setPropertyObject(BaleenAnnotation entity, Method method, Object obj) {
-    try {
-      method.invoke(entity, obj);
-    } catch (Exception e) {
-      getMonitor().error(ERROR_CANT_ASSIGN_ENTITY_PROPERTY, e);
-    }
-  }
-
-  private void setPropertyString(BaleenAnnotation entity, Method method, String string) {
-    try {
-      method.invoke(entity, string);
-    } catch (Exception e) {
-      getMonitor().error(ERROR_CANT_ASSIGN_ENTITY_PROPERTY, e);
-    }
-  }
-
-  private void setPropertyArray(BaleenAnnotation entity, Method method, List<Object> obj) {
-    if (StringArray.class.isAssignableFrom(method.getParameterTypes()[0])) {
-      try {
-        StringArray sa = listToStringArray(entity.getCAS().getJCas(), obj);
-        method.invoke(entity, sa);
-      } catch (Exception e) {
-        getMonitor().error(ERROR_CANT_ASSIGN_ENTITY_PROPERTY, e);
-      }
-    } else {
-      getMonitor()
-          .error(
-              "Unsupported array type {} - property will be skipped",
-              method.getParameterTypes()[0].getName());
-    }
-  }
-
   /**
    * Replace repeated horizontal whitespace characters with a single space character, and return a
    * TransformedString that maps between the original and normalised string
@@ -470,18 +608,6 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
     return new TransformedString(s, builder.toString(), indexMap);
   }
 
-  private StringArray listToStringArray(JCas jCas, List<Object> l) {
-    StringArray sa = new StringArray(jCas, l.size());
-
-    int index = 0;
-    for (Object o : l) {
-      sa.set(index, o.toString());
-      index++;
-    }
-
-    return sa;
-  }
-
   @Override
   public void doDestroy() {
     gazetteer.destroy();
@@ -489,9 +615,43 @@ public abstract class AbstractAhoCorasickAnnotator extends BaleenTextAwareAnnota
 
     entityType = null;
     trie = null;
+    setters = null;
+    keywordMetadata.clear();
+
+    if (automatonKey != null) {
+      CompactAutomatonCache.getInstance().release(automatonKey);
+      automatonKey = null;
+    }
+    automaton = null;
   }
 
   private String pluraliseWord(String s) {
     return English.plural(s);
   }
+
+  /** Information about a gazetteer key that is needed each time it is matched */
+  private static class KeywordMetadata {
+    // Key of the alias group the keyword belongs to
+    private final String group;
+    // Properties to set on entities from the additional data
+    private final List<EntityPropertySetter.Binding> properties;
+    // The most recently matched text, reused if the same text is matched again
+    private String lastValue;
+
+    KeywordMetadata(String group, List<EntityPropertySetter.Binding> properties) {
+      this.group = group;
+      this.properties = properties;
+    }
+
+    /** Get the matched text, reusing the previous string if the text is the same */
+    String value(String text, int start, int end) {
+      int length = end - start;
+      if (lastValue == null
+          || lastValue.length() != length
+          || !text.regionMatches(start, lastValue, 0, length)) {
+        lastValue = text.substring(start, end);
+      }
+      return lastValue;
+    }
+  }
 }
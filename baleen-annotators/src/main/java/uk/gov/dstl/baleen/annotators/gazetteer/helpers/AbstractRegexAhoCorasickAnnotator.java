@@ -1,8 +1,6 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,17 +66,7 @@ public abstract class AbstractRegexAhoCorasickAnnotator extends AbstractAhoCoras
       String csValue = caseSensitive ? m.group() : m.group().toLowerCase();
       if (gazetteer.hasValue(csValue)) {
         try {
-          BaleenAnnotation ent = createEntity(block, m.start(), m.end(), m.group(), csValue);
-
-          List<String> aliases = new ArrayList<>(Arrays.asList(gazetteer.getAliases(csValue)));
-          aliases.add(csValue);
-
-          String key = generateKey(aliases);
-
-          List<BaleenAnnotation> groupEntities =
-              entities.containsKey(key) ? entities.get(key) : new ArrayList<>();
-          groupEntities.add(ent);
-          entities.put(key, groupEntities);
+          createEntityAndAliases(block, m.start(), m.end(), m.group(), csValue, entities);
         } catch (Exception e) {
           getMonitor()
               .error(
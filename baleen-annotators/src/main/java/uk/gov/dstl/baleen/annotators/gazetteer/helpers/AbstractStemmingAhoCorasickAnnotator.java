@@ -1,6 +1,7 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -13,8 +14,6 @@ import opennlp.tools.stemmer.snowball.SnowballStemmer;
 import opennlp.tools.stemmer.snowball.SnowballStemmer.ALGORITHM;
 
 import org.ahocorasick.trie.Emit;
-import org.ahocorasick.trie.Trie;
-import org.ahocorasick.trie.Trie.TrieBuilder;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
@@ -70,20 +69,16 @@ public abstract class AbstractStemmingAhoCorasickAnnotator extends AbstractAhoCo
 
   @Override
   protected void buildTrie() {
-    TrieBuilder builder = Trie.builder().onlyWholeWords();
-
-    if (!caseSensitive) {
-      builder = builder.ignoreCase();
-    }
+    List<String> keywords = new ArrayList<>();
 
     for (String s : gazetteer.getValues()) {
       TransformedString stemmed = stem(s.trim());
 
-      builder = builder.addKeyword(stemmed.getTransformedString());
+      keywords.add(stemmed.getTransformedString());
       stemmedToKey.put(stemmed.getTransformedString(), stemmed.getOriginalString());
     }
 
-    trie = builder.build();
+    buildTrie(keywords);
   }
 
   @Override
@@ -91,7 +86,7 @@ public abstract class AbstractStemmingAhoCorasickAnnotator extends AbstractAhoCo
     Map<String, List<BaleenAnnotation>> entities = new HashMap<>();
 
     TransformedString stemmed = stem(block.getCoveredText());
-    Collection<Emit> emits = trie.parseText(stemmed.getTransformedString());
+    Collection<Emit> emits = parseText(stemmed.getTransformedString());
 
     for (Emit emit : emits) {
       try {
@@ -0,0 +1,514 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.ahocorasick.trie.Emit;
+
+/**
+ * A compact, read-only Aho-Corasick automaton stored as a double-array trie.
+ *
+ * <p>All transitions, failure links and outputs are held in primitive int arrays, rather than as a
+ * graph of objects, so the automaton uses a small fraction of the memory of an {@link
+ * org.ahocorasick.trie.Trie} holding the same keywords. Characters are mapped to a dense alphabet,
+ * ordered by frequency, to keep the arrays tightly packed. When the automaton is case insensitive,
+ * keywords are case folded as it is built and only the document text needs folding at search time.
+ *
+ * <p>Matching behaves as an {@link org.ahocorasick.trie.Trie} configured with <code>
+ * onlyWholeWords()</code> (and <code>ignoreCase()</code> if not case sensitive). Once built the
+ * automaton is immutable and can safely be shared between threads.
+ *
+ * <p>An automaton can be written to a versioned binary file with {@link #write(Path, String)}, and
+ * later memory mapped with {@link #read(Path, String)} rather than being rebuilt.
+ */
+public final class CompactAutomaton {
+  private static final int ROOT = 0;
+  private static final int NONE = -1;
+  private static final int ALPHABET_SIZE = Character.MAX_VALUE + 1;
+
+  private static final int MAGIC = 0x42414143; // BAAC
+  private static final int VERSION = 1;
+
+  private final boolean caseSensitive;
+  private final int keywordCount;
+
+  // Alphabet code for each character, 0 if the character isn't in any keyword
+  private final CharBuffer codes;
+  // Transition from state s on code c is to base[s] + c, if check[base[s] + c] == s + 1
+  private final IntBuffer base;
+  private final IntBuffer check;
+  // State to fall back to when there is no transition
+  private final IntBuffer fail;
+  // Length of the keyword ending at each state, or 0 if no keyword ends there
+  private final IntBuffer length;
+  // Next state on the failure chain at which a keyword ends, or NONE
+  private final IntBuffer output;
+
+  private final int size;
+
+  private CompactAutomaton(
+      boolean caseSensitive,
+      int keywordCount,
+      CharBuffer codes,
+      IntBuffer base,
+      IntBuffer check,
+      IntBuffer fail,
+      IntBuffer length,
+      IntBuffer output) {
+    this.caseSensitive = caseSensitive;
+    this.keywordCount = keywordCount;
+    this.codes = codes;
+    this.base = base;
+    this.check = check;
+    this.fail = fail;
+    this.length = length;
+    this.output = output;
+    this.size = base.limit();
+  }
+
+  /**
+   * Build a new automaton from the provided keywords. Empty and duplicate keywords are ignored.
+   *
+   * @param keywords The keywords to search for
+   * @param caseSensitive Whether matching should be case sensitive
+   * @return The built automaton
+   */
+  public static CompactAutomaton build(Collection<String> keywords, boolean caseSensitive) {
+    return new Builder(keywords, caseSensitive).build();
+  }
+
+  /** Returns true if matching is case sensitive */
+  public boolean isCaseSensitive() {
+    return caseSensitive;
+  }
+
+  /** Returns the number of distinct keywords in the automaton */
+  public int getKeywordCount() {
+    return keywordCount;
+  }
+
+  /** Returns the number of slots used by the double array */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the approximate number of bytes used by the automaton (which will be outside of the
+   * heap if the automaton has been memory mapped)
+   */
+  public long getMemoryUsage() {
+    return 2L * ALPHABET_SIZE + 5L * 4L * size;
+  }
+
+  /** Returns true if the automaton is memory mapped from a file, rather than held on the heap */
+  public boolean isMapped() {
+    return base.isDirect();
+  }
+
+  /**
+   * Write the automaton to a file, so that it can later be read with {@link #read(Path, String)}.
+   * The file is written to a temporary location and then moved into place, so that other processes
+   * never see a partially written file.
+   *
+   * @param file The file to write to
+   * @param key A key identifying the keywords and options the automaton was built from
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path file, String key) throws IOException {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    int headerSize = align(4 * 6 + keyBytes.length);
+
+    ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.nativeOrder());
+    header.putInt(MAGIC);
+    header.putInt(VERSION);
+    header.putInt(caseSensitive ? 1 : 0);
+    header.putInt(keywordCount);
+    header.putInt(size);
+    header.putInt(keyBytes.length);
+    header.put(keyBytes);
+    header.rewind();
+
+    Path dir = file.toAbsolutePath().getParent();
+    Files.createDirectories(dir);
+    Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        writeFully(channel, header);
+
+        ByteBuffer bytes = ByteBuffer.allocate(2 * ALPHABET_SIZE).order(ByteOrder.nativeOrder());
+        bytes.asCharBuffer().put(codes.duplicate());
+        writeFully(channel, bytes);
+
+        for (IntBuffer buffer : new IntBuffer[] {base, check, fail, length, output}) {
+          bytes = ByteBuffer.allocate(4 * size).order(ByteOrder.nativeOrder());
+          bytes.asIntBuffer().put(buffer.duplicate());
+          writeFully(channel, bytes);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Memory map an automaton previously written with {@link #write(Path, String)}.
+   *
+   * @param file The file to read
+   * @param key The key the automaton must have been written with
+   * @return The automaton, or null if the file doesn't exist or was written with a different key or
+   *     file format version
+   * @throws IOException if the file exists but can't be read
+   */
+  public static CompactAutomaton read(Path file, String key) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    mapped.order(ByteOrder.nativeOrder());
+
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    if (mapped.remaining() < 4 * 6 || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+      return null;
+    }
+    boolean caseSensitive = mapped.getInt() == 1;
+    int keywordCount = mapped.getInt();
+    int size = mapped.getInt();
+    int keyLength = mapped.getInt();
+    if (keyLength != keyBytes.length) {
+      return null;
+    }
+    byte[] fileKey = new byte[keyLength];
+    mapped.get(fileKey);
+    if (!Arrays.equals(keyBytes, fileKey)) {
+      return null;
+    }
+
+    int position = align(4 * 6 + keyLength);
+    if (mapped.capacity() != position + 2L * ALPHABET_SIZE + 5L * 4L * size) {
+      throw new IOException("Automaton file " + file + " is truncated or corrupt");
+    }
+
+    CharBuffer codes = slice(mapped, position, 2 * ALPHABET_SIZE).asCharBuffer();
+    position += 2 * ALPHABET_SIZE;
+
+    IntBuffer[] buffers = new IntBuffer[5];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = slice(mapped, position, 4 * size).asIntBuffer();
+      position += 4 * size;
+    }
+
+    return new CompactAutomaton(
+        caseSensitive,
+        keywordCount,
+        codes,
+        buffers[0],
+        buffers[1],
+        buffers[2],
+        buffers[3],
+        buffers[4]);
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+    ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(position);
+    duplicate.limit(position + length);
+    return duplicate.slice().order(ByteOrder.nativeOrder());
+  }
+
+  private static int align(int position) {
+    return (position + 7) & ~7;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Find all the whole word occurrences of keywords in the text.
+   *
+   * <p>As for {@link org.ahocorasick.trie.Trie#parseText(CharSequence)}, the end of each emit is
+   * inclusive and the keyword is given in its case folded form.
+   *
+   * @param text The text to search
+   * @return The matches, ordered by their end position
+   */
+  public List<Emit> parseText(CharSequence text) {
+    List<Emit> emits = new ArrayList<>();
+
+    int state = ROOT;
+    for (int i = 0; i < text.length(); i++) {
+      state = next(state, fold(text.charAt(i)));
+
+      int s = length.get(state) > 0 ? state : output.get(state);
+      while (s != NONE) {
+        int start = i - length.get(s) + 1;
+        if (isWholeWord(text, start, i)) {
+          emits.add(new Emit(start, i, keyword(text, start, i)));
+        }
+        s = output.get(s);
+      }
+    }
+
+    return emits;
+  }
+
+  private char fold(char c) {
+    return caseSensitive ? c : Character.toLowerCase(c);
+  }
+
+  private int next(int state, char c) {
+    int code = codes.get(c);
+    if (code == 0) {
+      return ROOT;
+    }
+
+    int s = state;
+    while (true) {
+      int t = base.get(s) + code;
+      if (t < size && check.get(t) == s + 1) {
+        return t;
+      } else if (s == ROOT) {
+        return ROOT;
+      }
+      s = fail.get(s);
+    }
+  }
+
+  private String keyword(CharSequence text, int start, int end) {
+    String keyword = text.subSequence(start, end + 1).toString();
+    return caseSensitive ? keyword : foldCase(keyword);
+  }
+
+  /** Lower case each character, in the same way as the document text is folded when searching */
+  private static String foldCase(String s) {
+    char[] chars = s.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  private static boolean isWholeWord(CharSequence text, int start, int end) {
+    return (start == 0 || !Character.isAlphabetic(text.charAt(start - 1)))
+        && (end + 1 == text.length() || !Character.isAlphabetic(text.charAt(end + 1)));
+  }
+
+  /** Builds the double array breadth first, from the sorted keywords, without an interim trie */
+  private static class Builder {
+    private static final double DENSITY = 0.95;
+
+    private final boolean caseSensitive;
+    private final String[] keywords;
+    private final char[] codes = new char[ALPHABET_SIZE];
+
+    private int[] base;
+    private int[] check;
+    private int[] fail;
+    private int[] length;
+    private int[] output;
+
+    private int size = 1;
+    private int nextCheckPos = 0;
+
+    Builder(Collection<String> keywords, boolean caseSensitive) {
+      this.caseSensitive = caseSensitive;
+      this.keywords =
+          keywords
+              .stream()
+              .filter(k -> k != null && !k.isEmpty())
+              .map(k -> caseSensitive ? k : foldCase(k))
+              .sorted()
+              .distinct()
+              .toArray(String[]::new);
+
+      int capacity = Math.max(1024, this.keywords.length * 2);
+      base = new int[capacity];
+      check = new int[capacity];
+      fail = new int[capacity];
+      length = new int[capacity];
+      output = new int[capacity];
+    }
+
+    CompactAutomaton build() {
+      buildAlphabet();
+
+      output[ROOT] = NONE;
+
+      // Each entry is {state, depth, first keyword, last keyword + 1}
+      Deque<int[]> queue = new ArrayDeque<>();
+      queue.add(new int[] {ROOT, 0, 0, keywords.length});
+
+      while (!queue.isEmpty()) {
+        int[] node = queue.poll();
+        addChildren(node[0], node[1], node[2], node[3], queue);
+      }
+
+      return new CompactAutomaton(
+          caseSensitive,
+          keywords.length,
+          CharBuffer.wrap(codes),
+          IntBuffer.wrap(Arrays.copyOf(base, size)),
+          IntBuffer.wrap(Arrays.copyOf(check, size)),
+          IntBuffer.wrap(Arrays.copyOf(fail, size)),
+          IntBuffer.wrap(Arrays.copyOf(length, size)),
+          IntBuffer.wrap(Arrays.copyOf(output, size)));
+    }
+
+    /** Assign codes to characters, with the most frequent characters having the lowest codes */
+    private void buildAlphabet() {
+      long[] frequency = new long[ALPHABET_SIZE];
+      for (String k : keywords) {
+        for (int i = 0; i < k.length(); i++) {
+          frequency[k.charAt(i)]++;
+        }
+      }
+
+      Integer[] chars =
+          IntStream.range(0, ALPHABET_SIZE)
+              .filter(c -> frequency[c] > 0)
+              .boxed()
+              .toArray(Integer[]::new);
+      Arrays.sort(chars, (a, b) -> Long.compare(frequency[b], frequency[a]));
+
+      for (int i = 0; i < chars.length; i++) {
+        codes[chars[i]] = (char) (i + 1);
+      }
+    }
+
+    private void addChildren(int state, int depth, int lo, int hi, Deque<int[]> queue) {
+      // Group the keywords by their next character, skipping the keyword which ends here
+      List<int[]> children = new ArrayList<>();
+      int i = lo;
+      while (i < hi) {
+        if (keywords[i].length() == depth) {
+          i++;
+          continue;
+        }
+
+        char c = keywords[i].charAt(depth);
+        int start = i;
+        while (i < hi && keywords[i].charAt(depth) == c) {
+          i++;
+        }
+        children.add(new int[] {codes[c], start, i});
+      }
+
+      if (children.isEmpty()) {
+        return;
+      }
+
+      children.sort((a, b) -> Integer.compare(a[0], b[0]));
+      int begin = findBase(children);
+      base[state] = begin;
+
+      for (int[] child : children) {
+        int t = begin + child[0];
+        check[t] = state + 1;
+        size = Math.max(size, t + 1);
+
+        if (keywords[child[1]].length() == depth + 1) {
+          length[t] = depth + 1;
+        }
+
+        fail[t] = state == ROOT ? ROOT : transition(fail[state], child[0]);
+        output[t] = length[fail[t]] > 0 ? fail[t] : output[fail[t]];
+
+        queue.add(new int[] {t, depth + 1, child[1], child[2]});
+      }
+    }
+
+    /** Follow failure links until there is a transition on code, as at search time */
+    private int transition(int state, int code) {
+      int s = state;
+      while (true) {
+        int t = base[s] + code;
+        if (t < size && check[t] == s + 1) {
+          return t;
+        } else if (s == ROOT) {
+          return ROOT;
+        }
+        s = fail[s];
+      }
+    }
+
+    /** Find the first base at which all the children fit into free slots */
+    private int findBase(List<int[]> children) {
+      int first = children.get(0)[0];
+      int last = children.get(children.size() - 1)[0];
+
+      int pos = Math.max(first + 1, nextCheckPos) - 1;
+      int occupied = 0;
+      boolean firstFree = true;
+
+      int begin;
+      outer:
+      while (true) {
+        pos++;
+        ensureCapacity(pos + 1);
+
+        if (check[pos] != 0) {
+          occupied++;
+          continue;
+        } else if (firstFree) {
+          nextCheckPos = pos;
+          firstFree = false;
+        }
+
+        begin = pos - first;
+        ensureCapacity(begin + last + 1);
+        for (int[] child : children) {
+          if (check[begin + child[0]] != 0) {
+            continue outer;
+          }
+        }
+        break;
+      }
+
+      // Once the start of the array is nearly full, stop searching it
+      if ((double) occupied / (pos - nextCheckPos + 1) >= DENSITY) {
+        nextCheckPos = pos;
+      }
+
+      return begin;
+    }
+
+    private void ensureCapacity(int required) {
+      if (required <= base.length) {
+        return;
+      }
+
+      int capacity = Math.max(required, base.length + (base.length >> 1));
+      base = Arrays.copyOf(base, capacity);
+      check = Arrays.copyOf(check, capacity);
+      fail = Arrays.copyOf(fail, capacity);
+      length = Arrays.copyOf(length, capacity);
+      output = Arrays.copyOf(output, capacity);
+    }
+  }
+}
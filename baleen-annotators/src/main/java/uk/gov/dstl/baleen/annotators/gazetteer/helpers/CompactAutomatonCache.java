@@ -0,0 +1,111 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * A singleton store of {@link CompactAutomaton}s, so that annotators (in the same or different
+ * pipelines) with the same gazetteer share a single read-only copy of the automaton rather than
+ * each building their own.
+ *
+ * <p>Automata are reference counted, and are removed from the store once every annotator that
+ * acquired them has released them.
+ */
+public class CompactAutomatonCache {
+  private static final CompactAutomatonCache INSTANCE = new CompactAutomatonCache();
+
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final Map<String, Entry> store = new HashMap<>();
+
+  private CompactAutomatonCache() {
+    // Private constructor
+  }
+
+  /** Get the singleton instance of this class */
+  public static CompactAutomatonCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Generate a key for a set of keywords and options. The key doesn't depend on the order of the
+   * keywords.
+   *
+   * @param keywords The keywords the automaton will be built from
+   * @param caseSensitive Whether the automaton will be case sensitive
+   * @return A key to use with {@link #acquire(String, Supplier)}
+   */
+  public static String generateKey(Collection<String> keywords, boolean caseSensitive) {
+    HashCode keywordsHash =
+        keywords.isEmpty()
+            ? HASH.hashInt(0)
+            : Hashing.combineUnordered(
+                () ->
+                    keywords
+                        .stream()
+                        .map(k -> HASH.hashUnencodedChars(k == null ? "" : k))
+                        .iterator());
+
+    return (caseSensitive ? "cs-" : "ci-") + keywordsHash.toString();
+  }
+
+  /**
+   * Get the automaton for the given key, building it with the supplier if it isn't already held.
+   * Each call must be matched with a call to {@link #release(String)}.
+   *
+   * @param key The key, from {@link #generateKey(Collection, boolean)}
+   * @param builder Builds the automaton if it isn't already held
+   * @return The shared automaton
+   */
+  public CompactAutomaton acquire(String key, Supplier<CompactAutomaton> builder) {
+    Entry entry;
+    synchronized (store) {
+      entry = store.computeIfAbsent(key, k -> new Entry());
+      entry.references++;
+    }
+
+    // Build outside of the store lock, so different automata can be built at the same time
+    synchronized (entry) {
+      if (entry.automaton == null) {
+        entry.automaton = builder.get();
+      }
+      return entry.automaton;
+    }
+  }
+
+  /**
+   * Release an automaton previously acquired, removing it from the store if no longer in use
+   *
+   * @param key The key the automaton was acquired with
+   */
+  public void release(String key) {
+    synchronized (store) {
+      Entry entry = store.get(key);
+      if (entry != null) {
+        entry.references--;
+        if (entry.references <= 0) {
+          store.remove(key);
+        }
+      }
+    }
+  }
+
+  /** Returns true if an automaton is currently held for the key */
+  public boolean contains(String key) {
+    synchronized (store) {
+      return store.containsKey(key);
+    }
+  }
+
+  private static class Entry {
+    private int references = 0;
+    private CompactAutomaton automaton;
+  }
+}
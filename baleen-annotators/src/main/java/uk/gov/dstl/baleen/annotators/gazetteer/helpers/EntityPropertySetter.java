@@ -0,0 +1,187 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.CommonArrayFS;
+import org.apache.uima.jcas.cas.StringArray;
+import org.bson.Document;
+
+import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.types.BaleenAnnotation;
+
+/**
+ * A pre-resolved setter for a property of an entity type, which can be used to set the property
+ * from gazetteer additional data.
+ *
+ * <p>Setters are found by reflection once, with {@link #forType(Class)}, and invoked through a
+ * {@link MethodHandle} so that no reflection is required as each entity is created.
+ */
+public class EntityPropertySetter {
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final String property;
+  private final Class<?> parameterType;
+  private final MethodHandle handle;
+
+  private EntityPropertySetter(String property, Class<?> parameterType, MethodHandle handle) {
+    this.property = property;
+    this.parameterType = parameterType;
+    this.handle = handle;
+  }
+
+  /**
+   * Find the setters for all the properties of an entity type, i.e. public methods named
+   * <em>setXxx</em> with a single parameter.
+   *
+   * @param type The entity type
+   * @return The setters for the type
+   */
+  public static List<EntityPropertySetter> forType(Class<?> type) {
+    List<EntityPropertySetter> setters = new ArrayList<>();
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+    for (Method m : type.getMethods()) {
+      String name = m.getName();
+      if (name.length() > 3
+          && name.startsWith("set")
+          && Character.isUpperCase(name.charAt(3))
+          && m.getParameterCount() == 1) {
+        String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+        try {
+          setters.add(
+              new EntityPropertySetter(
+                  property, m.getParameterTypes()[0], lookup.unreflect(m).asType(SETTER_TYPE)));
+        } catch (IllegalAccessException e) {
+          // Not accessible, so can't be set
+        }
+      }
+    }
+
+    return Collections.unmodifiableList(setters);
+  }
+
+  /** Get the name of the property this setter sets */
+  public String getProperty() {
+    return property;
+  }
+
+  /**
+   * Convert a value from the gazetteer into a form that can be passed to {@link
+   * #set(BaleenAnnotation, Object)}.
+   *
+   * @param value The value from the gazetteer additional data
+   * @return The converted value, or null if the value isn't of a type that can be converted
+   * @throws BaleenException if the value is a list but the property is an unsupported array type
+   */
+  public Object convert(Object value) throws BaleenException {
+    if (parameterType.isAssignableFrom(value.getClass())) {
+      return value;
+    } else if (parameterType.isAssignableFrom(String.class)) {
+      if (value instanceof Document) {
+        // Special case for Mongo Document objects, where the toString function
+        // doesn't convert to JSON as expected (e.g. for GeoJSON)
+        return ((Document) value).toJson();
+      } else {
+        return value.toString();
+      }
+    } else if (value instanceof List && CommonArrayFS.class.isAssignableFrom(parameterType)) {
+      if (!StringArray.class.isAssignableFrom(parameterType)) {
+        throw new BaleenException("Unsupported array type " + parameterType.getName());
+      }
+
+      List<?> list = (List<?>) value;
+      String[] strings = new String[list.size()];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = list.get(i).toString();
+      }
+      return strings;
+    }
+
+    return null;
+  }
+
+  /**
+   * Set the property on an entity
+   *
+   * @param entity The entity
+   * @param value A value previously returned by {@link #convert(Object)}
+   * @throws BaleenException if the property can't be set
+   */
+  public void set(BaleenAnnotation entity, Object value) throws BaleenException {
+    Object arg = value;
+    try {
+      if (value instanceof String[]) {
+        StringArray sa = new StringArray(entity.getCAS().getJCas(), ((String[]) value).length);
+        sa.copyFromArray((String[]) value, 0, 0, sa.size());
+        arg = sa;
+      }
+
+      handle.invokeExact((Object) entity, arg);
+    } catch (CASException e) {
+      throw new BaleenException("Unable to create array for property " + property, e);
+    } catch (Throwable t) {
+      throw new BaleenException("Unable to set property " + property, t);
+    }
+  }
+
+  /**
+   * Pair each setter with the converted value for its property from the additional data, skipping
+   * properties which have no value.
+   *
+   * @param setters The setters for the entity type
+   * @param additionalData The additional data from the gazetteer
+   * @param errors Called with any property that can't be converted
+   * @return The setters and their values
+   */
+  public static List<Binding> bind(
+      List<EntityPropertySetter> setters,
+      Map<String, Object> additionalData,
+      BiConsumer<String, BaleenException> errors) {
+    if (additionalData == null || additionalData.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<Binding> bindings = new ArrayList<>();
+    for (EntityPropertySetter setter : setters) {
+      Object obj = additionalData.get(setter.property);
+      if (obj != null) {
+        try {
+          Object value = setter.convert(obj);
+          if (value != null) {
+            bindings.add(new Binding(setter, value));
+          }
+        } catch (BaleenException e) {
+          errors.accept(setter.property, e);
+        }
+      }
+    }
+    return bindings;
+  }
+
+  /** A setter and the value it should set */
+  public static class Binding {
+    private final EntityPropertySetter setter;
+    private final Object value;
+
+    private Binding(EntityPropertySetter setter, Object value) {
+      this.setter = setter;
+      this.value = value;
+    }
+
+    /** Set the bound value on the entity */
+    public void apply(BaleenAnnotation entity) throws BaleenException {
+      setter.set(entity, value);
+    }
+  }
+}
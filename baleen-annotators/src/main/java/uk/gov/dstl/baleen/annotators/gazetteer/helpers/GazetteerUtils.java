@@ -1,11 +1,18 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
 
+import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.bson.Document;
+
 import com.google.common.base.Strings;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
 
+import uk.gov.dstl.baleen.resources.SharedMongoResource;
 import uk.gov.dstl.baleen.resources.gazetteer.CountryGazetteer;
 import uk.gov.dstl.baleen.resources.gazetteer.MongoGazetteer;
 
@@ -66,4 +73,54 @@ public class GazetteerUtils {
 
     return config;
   }
+
+  /**
+   * Get a fingerprint of a Mongo gazetteer, which changes whenever the contents of the collection
+   * do. It uses the dbHash command, which hashes the collection on the server rather than reading
+   * it.
+   *
+   * @param mongo The Mongo resource
+   * @param collection The name of the collection that the gazetteer is stored in
+   * @param valueField The name of the field in the gazetteer that contains the value
+   * @return The fingerprint, or null if the collection can't be hashed
+   */
+  public static String fingerprintMongo(
+      SharedMongoResource mongo, String collection, String valueField) {
+    MongoDatabase db = mongo.getDB();
+    String name =
+        Strings.isNullOrEmpty(collection) ? MongoGazetteer.DEFAULT_COLLECTION : collection;
+    try {
+      Document result =
+          db.runCommand(
+              new Document("dbHash", 1).append("collections", Collections.singletonList(name)));
+      Document hashes = result.get("collections", Document.class);
+      String hash = hashes != null ? hashes.getString(name) : null;
+      if (hash == null) {
+        return null;
+      }
+      return String.join("|", db.getName(), name, String.valueOf(valueField), hash);
+    } catch (MongoException | ClassCastException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Get a fingerprint of a file gazetteer, from the path, size and modification time of the file.
+   *
+   * @param fileName The name of the file
+   * @param termSeparator The separator of the terms in the file
+   * @return The fingerprint, or null if the file doesn't exist
+   */
+  public static String fingerprintFile(String fileName, String termSeparator) {
+    File file = new File(fileName).getAbsoluteFile();
+    if (!file.isFile()) {
+      return null;
+    }
+    return String.join(
+        "|",
+        file.getPath(),
+        Long.toString(file.length()),
+        Long.toString(file.lastModified()),
+        String.valueOf(termSeparator));
+  }
 }
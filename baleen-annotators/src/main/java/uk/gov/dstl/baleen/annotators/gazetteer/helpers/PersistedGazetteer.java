@@ -0,0 +1,222 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.resource.Resource;
+
+import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.resources.gazetteer.IGazetteer;
+
+/**
+ * A gazetteer held entirely in memory, which is written to and read from a file so that an
+ * annotator can start without loading its gazetteer from the original source.
+ *
+ * <p>The file holds the values of the gazetteer, the aliases of each and, optionally, the
+ * additional data of each. Values which are aliases of each other share their aliases and
+ * additional data, so the additional data of each alias group is only fetched from the source once
+ * when the file is written. Additional data must be serializable.
+ */
+public class PersistedGazetteer implements IGazetteer {
+
+  private static final int MAGIC = 0x42474146;
+  private static final int VERSION = 1;
+
+  private final boolean caseSensitive;
+  private Map<String, Group> values;
+
+  private PersistedGazetteer(boolean caseSensitive, Map<String, Group> values) {
+    this.caseSensitive = caseSensitive;
+    this.values = values;
+  }
+
+  /**
+   * Write the contents of a gazetteer to a file.
+   *
+   * @param file The file to write
+   * @param key A key identifying the gazetteer, which must be given to read it back
+   * @param source The gazetteer to write
+   * @param additionalData Whether to write the additional data of each value
+   * @throws IOException if the file can't be written, or the additional data isn't serializable
+   */
+  public static void write(Path file, String key, IGazetteer source, boolean additionalData)
+      throws IOException {
+    String[] sourceValues = source.getValues();
+
+    Map<List<String>, Integer> groups = new LinkedHashMap<>();
+    int[] groupOfValue = new int[sourceValues.length];
+    List<Map<String, Object>> groupData = new ArrayList<>();
+    for (int i = 0; i < sourceValues.length; i++) {
+      List<String> members = new ArrayList<>(Arrays.asList(source.getAliases(sourceValues[i])));
+      members.add(sourceValues[i]);
+      Collections.sort(members);
+
+      String value = sourceValues[i];
+      groupOfValue[i] =
+          groups.computeIfAbsent(
+              members,
+              m -> {
+                groupData.add(additionalData ? source.getAdditionalData(value) : null);
+                return groupData.size() - 1;
+              });
+    }
+
+    Path dir = file.toAbsolutePath().getParent();
+    Files.createDirectories(dir);
+    Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(temp));
+          ObjectOutputStream out = new ObjectOutputStream(os)) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(key);
+
+        out.writeInt(groups.size());
+        int index = 0;
+        for (List<String> members : groups.keySet()) {
+          out.writeInt(members.size());
+          for (String member : members) {
+            out.writeUTF(member);
+          }
+          Map<String, Object> data = groupData.get(index++);
+          out.writeObject(data == null ? null : new HashMap<>(data));
+        }
+
+        out.writeInt(sourceValues.length);
+        for (int i = 0; i < sourceValues.length; i++) {
+          out.writeUTF(sourceValues[i]);
+          out.writeInt(groupOfValue[i]);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Read a gazetteer previously written with {@link #write(Path, String, IGazetteer, boolean)}.
+   *
+   * @param file The file to read
+   * @param key The key the gazetteer must have been written with
+   * @param caseSensitive Whether the gazetteer was case sensitive
+   * @return The gazetteer, or null if the file doesn't exist or was written with a different key or
+   *     file format version
+   * @throws IOException if the file exists but can't be read
+   */
+  @SuppressWarnings("unchecked")
+  public static PersistedGazetteer read(Path file, String key, boolean caseSensitive)
+      throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try (InputStream is = new BufferedInputStream(Files.newInputStream(file));
+        ObjectInputStream in = new ObjectInputStream(is)) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(in.readUTF())) {
+        return null;
+      }
+
+      Group[] groups = new Group[in.readInt()];
+      for (int i = 0; i < groups.length; i++) {
+        String[] members = new String[in.readInt()];
+        for (int j = 0; j < members.length; j++) {
+          members[j] = in.readUTF();
+        }
+        groups[i] = new Group(members, (Map<String, Object>) in.readObject());
+      }
+
+      int count = in.readInt();
+      Map<String, Group> values = new HashMap<>(count * 2);
+      for (int i = 0; i < count; i++) {
+        values.put(in.readUTF(), groups[in.readInt()]);
+      }
+
+      return new PersistedGazetteer(caseSensitive, values);
+    } catch (ClassNotFoundException | ClassCastException | ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Gazetteer file " + file + " is corrupt", e);
+    }
+  }
+
+  /** Does nothing, the gazetteer is created by {@link #read(Path, String, boolean)} */
+  @Override
+  public void init(Resource connection, Map<String, Object> config) {
+    // Do nothing
+  }
+
+  @Override
+  public String[] getValues() {
+    return values.keySet().toArray(new String[0]);
+  }
+
+  @Override
+  public boolean hasValue(String key) {
+    return values.containsKey(normalise(key));
+  }
+
+  @Override
+  public String[] getAliases(String key) {
+    String val = normalise(key);
+    Group group = values.get(val);
+    if (group == null) {
+      return new String[0];
+    }
+
+    return Arrays.stream(group.members).filter(s -> !s.equals(val)).toArray(String[]::new);
+  }
+
+  @Override
+  public Map<String, Object> getAdditionalData(String key) {
+    Group group = values.get(normalise(key));
+    if (group == null || group.data == null) {
+      return Collections.emptyMap();
+    }
+    return new HashMap<>(group.data);
+  }
+
+  @Override
+  public void destroy() {
+    values = null;
+  }
+
+  /**
+   * Not supported, as there is no source to reload from.
+   *
+   * @throws BaleenException always
+   */
+  @Override
+  public void reloadValues() throws BaleenException {
+    throw new BaleenException("A persisted gazetteer can't be reloaded");
+  }
+
+  private String normalise(String key) {
+    return caseSensitive ? key : key.toLowerCase();
+  }
+
+  /** Values which are aliases of each other, and their additional data */
+  private static class Group {
+    private final String[] members;
+    private final Map<String, Object> data;
+
+    Group(String[] members, Map<String, Object> data) {
+      this.members = members;
+      this.data = data;
+    }
+  }
+}
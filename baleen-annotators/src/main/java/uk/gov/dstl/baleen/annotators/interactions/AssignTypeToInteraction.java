@@ -209,7 +209,7 @@ public class AssignTypeToInteraction extends BaleenAnnotator {
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
     Map<Interaction, Collection<WordToken>> interactionToWords =
-        JCasUtil.indexCovered(jCas, Interaction.class, WordToken.class);
+        getSupport().getDerivedData().indexCovered(jCas, Interaction.class, WordToken.class);
 
     Collection<Interaction> allInteractions =
         new ArrayList<>(JCasUtil.select(jCas, Interaction.class));
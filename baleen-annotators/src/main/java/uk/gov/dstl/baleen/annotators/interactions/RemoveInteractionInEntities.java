@@ -6,7 +6,6 @@ import java.util.Collections;
 import java.util.Map;
 
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 
 import com.google.common.collect.ImmutableSet;
@@ -22,7 +21,7 @@ public class RemoveInteractionInEntities extends BaleenAnnotator {
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
     Map<Interaction, Collection<Entity>> covering =
-        JCasUtil.indexCovering(jCas, Interaction.class, Entity.class);
+        getSupport().getDerivedData().indexCovering(jCas, Interaction.class, Entity.class);
 
     removeFromJCasIndex(covering.keySet());
   }
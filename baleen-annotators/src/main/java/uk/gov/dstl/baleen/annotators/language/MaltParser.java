@@ -32,6 +32,7 @@ import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.language.WordLemma;
 import uk.gov.dstl.baleen.types.language.WordToken;
 import uk.gov.dstl.baleen.uima.BaleenAnnotator;
+import uk.gov.dstl.baleen.uima.utils.SentenceExecutor;
 
 /**
  * Uses a MaltParser to create a dependency grammar.
@@ -55,6 +56,9 @@ import uk.gov.dstl.baleen.uima.BaleenAnnotator;
  *
  * <p>The output of this annotator is Dependency annotations.
  *
+ * <p>The parser model is thread safe, so if the parallel parameter is set the sentences are parsed
+ * in parallel. See {@link SentenceExecutor}.
+ *
  * @baleen.javadoc
  */
 public class MaltParser extends BaleenAnnotator {
@@ -103,6 +107,17 @@ public class MaltParser extends BaleenAnnotator {
   @ConfigurationParameter(name = MaltParser.PARAM_CONVERT_TO_UD, defaultValue = "true")
   private Boolean udTags;
 
+  /**
+   * If true, parse the sentences in parallel. The dependencies are still added to the document in
+   * sentence order.
+   *
+   * @baleen.config false
+   */
+  public static final String PARAM_PARALLEL = "parallel";
+
+  @ConfigurationParameter(name = MaltParser.PARAM_PARALLEL, defaultValue = "false")
+  private boolean parallel;
+
   private ConcurrentMaltParserModel model;
 
   @Override
@@ -144,23 +159,23 @@ public class MaltParser extends BaleenAnnotator {
   @Override
   protected void doProcess(final JCas jCas) throws AnalysisEngineProcessException {
 
-    for (final Sentence sentence : JCasUtil.select(jCas, Sentence.class)) {
-
-      final List<WordToken> wordTokens = JCasUtil.selectCovered(jCas, WordToken.class, sentence);
-
-      final String[] tokens = new String[wordTokens.size()];
+    SentenceExecutor.execute(
+        JCasUtil.select(jCas, Sentence.class),
+        parallel,
+        sentence -> {
+          final List<WordToken> wordTokens =
+              JCasUtil.selectCovered(jCas, WordToken.class, sentence);
 
-      int i = 0;
-      processWordTokens(wordTokens, tokens, i);
+          final String[] tokens = new String[wordTokens.size()];
 
-      try {
-        final ConcurrentDependencyGraph graph = model.parse(tokens);
-        processDependencyNodes(jCas, wordTokens, graph);
+          int i = 0;
+          processWordTokens(wordTokens, tokens, i);
 
-      } catch (final Exception e) {
-        throw new AnalysisEngineProcessException(e);
-      }
-    }
+          return () -> {
+            final ConcurrentDependencyGraph graph = model.parse(tokens);
+            return () -> processDependencyNodes(jCas, wordTokens, graph);
+          };
+        });
   }
 
   private void processWordTokens(List<WordToken> wordTokens, String[] tokens, int i) {
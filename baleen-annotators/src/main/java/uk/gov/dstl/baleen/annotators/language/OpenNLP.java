@@ -19,6 +19,7 @@ import opennlp.tools.util.Span;
 
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.fit.util.FSCollectionFactory;
 import org.apache.uima.fit.util.JCasUtil;
@@ -34,6 +35,7 @@ import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.language.WordToken;
 import uk.gov.dstl.baleen.uima.BaleenTextAwareAnnotator;
 import uk.gov.dstl.baleen.uima.data.TextBlock;
+import uk.gov.dstl.baleen.uima.utils.SentenceExecutor;
 
 /**
  * Annotate linguistic features using the OpenNLP libraries
@@ -43,6 +45,9 @@ import uk.gov.dstl.baleen.uima.data.TextBlock;
  * to the CAS, and associations between the relevant annotations (e.g. WordTokens associated with
  * the Sentence) are made.
  *
+ * <p>If the parallel parameter is set, the tokenizing, tagging and chunking of the sentences of
+ * each text block is spread across threads. See {@link SentenceExecutor}.
+ *
  * @baleen.javadoc
  */
 public class OpenNLP extends BaleenTextAwareAnnotator {
@@ -86,10 +91,23 @@ public class OpenNLP extends BaleenTextAwareAnnotator {
   @ExternalResource(key = KEY_CHUNKS)
   SharedOpenNLPModel chunkModel;
 
+  /**
+   * If true, tokenize, tag and chunk the sentences in parallel. The results are still added to the
+   * document in sentence order.
+   *
+   * @baleen.config false
+   */
+  public static final String PARAM_PARALLEL = "parallel";
+
+  @ConfigurationParameter(name = PARAM_PARALLEL, defaultValue = "false")
+  private boolean parallel;
+
   private SentenceDetectorME sentenceDetector;
-  private TokenizerME wordTokenizer;
-  private POSTaggerME posTagger;
-  private ChunkerME phraseChunker;
+
+  // The OpenNLP tools aren't thread safe (though their models are), so each thread has its own
+  private ThreadLocal<TokenizerME> wordTokenizer;
+  private ThreadLocal<POSTaggerME> posTagger;
+  private ThreadLocal<ChunkerME> phraseChunker;
 
   private final Set<String> prepositions =
       ImmutableSet.of(
@@ -149,9 +167,18 @@ public class OpenNLP extends BaleenTextAwareAnnotator {
 
     try {
       sentenceDetector = new SentenceDetectorME((SentenceModel) sentencesModel.getModel());
-      wordTokenizer = new TokenizerME((TokenizerModel) tokensModel.getModel());
-      posTagger = new POSTaggerME((POSModel) posModel.getModel());
-      phraseChunker = new ChunkerME((ChunkerModel) chunkModel.getModel());
+
+      TokenizerModel tokenizerModel = (TokenizerModel) tokensModel.getModel();
+      POSModel posTaggerModel = (POSModel) posModel.getModel();
+      ChunkerModel chunkerModel = (ChunkerModel) chunkModel.getModel();
+      wordTokenizer = ThreadLocal.withInitial(() -> new TokenizerME(tokenizerModel));
+      posTagger = ThreadLocal.withInitial(() -> new POSTaggerME(posTaggerModel));
+      phraseChunker = ThreadLocal.withInitial(() -> new ChunkerME(chunkerModel));
+
+      // Fail now, rather than on the first sentence, if the models are wrong
+      wordTokenizer.get();
+      posTagger.get();
+      phraseChunker.get();
     } catch (Exception e) {
       getMonitor().error("Unable to create OpenNLP taggers", e);
       throw new ResourceInitializationException(e);
@@ -162,10 +189,20 @@ public class OpenNLP extends BaleenTextAwareAnnotator {
   protected void doProcessTextBlock(TextBlock block) throws AnalysisEngineProcessException {
     List<Sentence> sentences = createBaseSentences(block);
 
-    for (Sentence sentence : sentences) {
-      List<WordToken> wordTokens = addSentenceWordTokensWithPosTags(sentence, block);
-      addSentencePhraseChunk(wordTokens, block);
-    }
+    SentenceExecutor.execute(
+        sentences,
+        parallel,
+        sentence -> {
+          String text = sentence.getCoveredText();
+          return () -> {
+            SentenceAnalysis analysis = analyseSentence(text);
+            return () -> {
+              List<WordToken> wordTokens =
+                  addSentenceWordTokensWithPosTags(sentence, analysis, block);
+              addSentencePhraseChunk(wordTokens, analysis, block);
+            };
+          };
+        });
   }
 
   @Override
@@ -174,6 +211,9 @@ public class OpenNLP extends BaleenTextAwareAnnotator {
     sentencesModel = null;
     posModel = null;
     chunkModel = null;
+    wordTokenizer = null;
+    posTagger = null;
+    phraseChunker = null;
   }
 
   @Override
@@ -206,67 +246,63 @@ public class OpenNLP extends BaleenTextAwareAnnotator {
   }
 
   /**
-   * Use the OpenNLP Word Tokenizer and POS Tagger to produce word tokens for each sentence and add
-   * them to the JCas index
+   * Use the OpenNLP Word Tokenizer, POS Tagger and Chunker on the text of a sentence.
+   *
+   * <p>This doesn't use the JCas, so can run on any thread.
    */
-  private List<WordToken> addSentenceWordTokensWithPosTags(Sentence sentIn, TextBlock block)
-      throws AnalysisEngineProcessException {
-    List<WordToken> wordTokens = new ArrayList<>();
-
-    try {
-      String sentValue = sentIn.getCoveredText();
-
-      if (isUpperCase(sentValue)) {
-        // The sentence model was trained on mixed-case text, and assumes upper-case words are
-        // proper nouns.
-        // If the sentence is entirely upper-case, then make it lower case to improve accuracy.
-        sentValue = sentValue.toLowerCase();
-      }
-
-      Span[] tokens = wordTokenizer.tokenizePos(sentValue);
-      String[] words = new String[tokens.length];
-      for (int a = 0; a < tokens.length; a++) {
-        words[a] = tokens[a].getCoveredText(sentValue).toString();
-      }
-      String[] posTags = posTagger.tag(words);
-
-      for (int a = 0; a < tokens.length; a++) {
-        Span wordSpan = tokens[a];
+  private SentenceAnalysis analyseSentence(String text) {
+    String sentValue = text;
+
+    if (isUpperCase(sentValue)) {
+      // The sentence model was trained on mixed-case text, and assumes upper-case words are
+      // proper nouns.
+      // If the sentence is entirely upper-case, then make it lower case to improve accuracy.
+      sentValue = sentValue.toLowerCase();
+    }
 
-        WordToken wordToken = new WordToken(block.getJCas());
-        // No need to use the block offset, as we are offseting relative to sentence
-        wordToken.setBegin(sentIn.getBegin() + wordSpan.getStart());
-        wordToken.setEnd(sentIn.getBegin() + wordSpan.getEnd());
-        wordToken.setSentenceOrder(a);
-        wordToken.setPartOfSpeech(posTags[a]);
+    Span[] tokens = wordTokenizer.get().tokenizePos(sentValue);
+    String[] words = new String[tokens.length];
+    for (int a = 0; a < tokens.length; a++) {
+      words[a] = tokens[a].getCoveredText(sentValue).toString();
+    }
+    String[] posTags = posTagger.get().tag(words);
 
-        addToJCasIndex(wordToken);
-        wordTokens.add(wordToken);
-      }
-    } catch (Exception e) {
-      throw new AnalysisEngineProcessException(e);
+    // Chunk the words as they appear in the document
+    String[] originalWords = new String[tokens.length];
+    for (int a = 0; a < tokens.length; a++) {
+      originalWords[a] = tokens[a].getCoveredText(text).toString();
     }
+    Span[] chunks = phraseChunker.get().chunkAsSpans(originalWords, posTags);
 
-    return wordTokens;
+    return new SentenceAnalysis(tokens, posTags, chunks);
   }
 
-  /** Add phrase chunks and POS tags to a sentence */
-  private void addSentencePhraseChunk(List<WordToken> tokenList, TextBlock block) {
-    List<PhraseChunk> sentPhraseChunks = new ArrayList<>();
+  /** Add the word tokens, with their POS tags, of a sentence to the JCas index */
+  private List<WordToken> addSentenceWordTokensWithPosTags(
+      Sentence sentIn, SentenceAnalysis analysis, TextBlock block) {
+    List<WordToken> wordTokens = new ArrayList<>();
 
-    String[] tokens = new String[tokenList.size()];
-    String[] posTags = new String[tokenList.size()];
+    for (int a = 0; a < analysis.tokens.length; a++) {
+      Span wordSpan = analysis.tokens[a];
 
-    int ix = 0;
-    for (WordToken token : tokenList) {
-      tokens[ix] = token.getCoveredText();
-      posTags[ix] = token.getPartOfSpeech();
-      ix++;
+      WordToken wordToken = new WordToken(block.getJCas());
+      // No need to use the block offset, as we are offseting relative to sentence
+      wordToken.setBegin(sentIn.getBegin() + wordSpan.getStart());
+      wordToken.setEnd(sentIn.getBegin() + wordSpan.getEnd());
+      wordToken.setSentenceOrder(a);
+      wordToken.setPartOfSpeech(analysis.posTags[a]);
+
+      addToJCasIndex(wordToken);
+      wordTokens.add(wordToken);
     }
 
-    Span[] result = phraseChunker.chunkAsSpans(tokens, posTags);
+    return wordTokens;
+  }
 
-    for (Span element : result) {
+  /** Add the phrase chunks of a sentence to the JCas index */
+  private void addSentencePhraseChunk(
+      List<WordToken> tokenList, SentenceAnalysis analysis, TextBlock block) {
+    for (Span element : analysis.chunks) {
       PhraseChunk chunk = new PhraseChunk(block.getJCas());
 
       chunk.setBegin(tokenList.get(element.getStart()).getBegin());
@@ -275,8 +311,6 @@ public class OpenNLP extends BaleenTextAwareAnnotator {
 
       addPhraseWordsAndHead(chunk, block);
       addToJCasIndex(chunk);
-
-      sentPhraseChunks.add(chunk);
     }
   }
 
@@ -317,4 +351,17 @@ public class OpenNLP extends BaleenTextAwareAnnotator {
 
     return true;
   }
+
+  /** The tokens, tags and chunks of a sentence, relative to the start of the sentence */
+  private static class SentenceAnalysis {
+    private final Span[] tokens;
+    private final String[] posTags;
+    private final Span[] chunks;
+
+    SentenceAnalysis(Span[] tokens, String[] posTags, Span[] chunks) {
+      this.tokens = tokens;
+      this.posTags = posTags;
+      this.chunks = chunks;
+    }
+  }
 }
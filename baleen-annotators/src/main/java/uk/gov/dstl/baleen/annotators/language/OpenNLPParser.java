@@ -101,7 +101,7 @@ public class OpenNLPParser extends BaleenAnnotator {
     // WordTokens.
 
     final Map<Sentence, Collection<WordToken>> sentences =
-        JCasUtil.indexCovered(jCas, Sentence.class, WordToken.class);
+        getSupport().getDerivedData().indexCovered(jCas, Sentence.class, WordToken.class);
 
     sentences
         .entrySet()
@@ -7,7 +7,6 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
@@ -44,9 +43,7 @@ public class FullDocument extends BaleenAnnotator {
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
     try {
-      et =
-          TypeUtils.getEntityClass(
-              type, JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
+      et = TypeUtils.getEntityClass(type, TypeSystemSingleton.getTypeSystemInstance());
     } catch (UIMAException | BaleenException e) {
       throw new ResourceInitializationException(e);
     }
@@ -106,7 +106,9 @@ public class PatternExtractor extends BaleenAnnotator {
   protected void doProcess(final JCas jCas) throws AnalysisEngineProcessException {
 
     final Set<WordToken> wordsCoveredByEntites =
-        JCasUtil.indexCovered(jCas, Entity.class, WordToken.class)
+        getSupport()
+            .getDerivedData()
+            .indexCovered(jCas, Entity.class, WordToken.class)
             .values()
             .stream()
             .flatMap(l -> l.stream())
@@ -9,7 +9,6 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.resource.ResourceInitializationException;
 
 import com.google.common.base.Strings;
@@ -119,9 +118,7 @@ public class Custom extends BaleenTextAwareAnnotator {
       p = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
     }
     try {
-      et =
-          TypeUtils.getEntityClass(
-              type, JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
+      et = TypeUtils.getEntityClass(type, TypeSystemSingleton.getTypeSystemInstance());
     } catch (UIMAException | BaleenException e) {
       throw new ResourceInitializationException(e);
     }
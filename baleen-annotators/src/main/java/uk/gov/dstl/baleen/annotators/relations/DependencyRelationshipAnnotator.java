@@ -70,7 +70,7 @@ public class DependencyRelationshipAnnotator extends AbstractTypedRelationshipAn
   @Override
   protected void preExtract(JCas jCas) {
     super.preExtract(jCas);
-    dependencyGraph = DependencyGraph.build(jCas);
+    dependencyGraph = getSupport().getDerivedData().getDependencyGraph(jCas);
   }
 
   @Override
@@ -83,11 +83,14 @@ public class DependencyRelationshipAnnotator extends AbstractTypedRelationshipAn
   protected void extract(JCas jCas) throws AnalysisEngineProcessException {
 
     Map<uk.gov.dstl.baleen.types.language.Sentence, Collection<Entity>> languageCovered =
-        JCasUtil.indexCovered(jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Entity.class);
+        getSupport()
+            .getDerivedData()
+            .indexCovered(jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Entity.class);
 
     Map<uk.gov.dstl.baleen.types.structure.Sentence, Collection<Entity>> structureCovered =
-        JCasUtil.indexCovered(
-            jCas, uk.gov.dstl.baleen.types.structure.Sentence.class, Entity.class);
+        getSupport()
+            .getDerivedData()
+            .indexCovered(jCas, uk.gov.dstl.baleen.types.structure.Sentence.class, Entity.class);
 
     Map<Offset, Collection<Entity>> sentences =
         cleanSentencesByOffset(languageCovered, structureCovered);
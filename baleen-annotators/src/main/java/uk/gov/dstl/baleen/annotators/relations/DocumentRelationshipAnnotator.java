@@ -16,7 +16,6 @@ import java.util.stream.Stream;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
@@ -80,11 +79,14 @@ public class DocumentRelationshipAnnotator extends AbstractTypedRelationshipAnno
   protected void extract(JCas jCas) throws AnalysisEngineProcessException {
 
     Map<uk.gov.dstl.baleen.types.language.Sentence, Collection<Entity>> languageCovered =
-        JCasUtil.indexCovered(jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Entity.class);
+        getSupport()
+            .getDerivedData()
+            .indexCovered(jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Entity.class);
 
     Map<uk.gov.dstl.baleen.types.structure.Sentence, Collection<Entity>> structureCovered =
-        JCasUtil.indexCovered(
-            jCas, uk.gov.dstl.baleen.types.structure.Sentence.class, Entity.class);
+        getSupport()
+            .getDerivedData()
+            .indexCovered(jCas, uk.gov.dstl.baleen.types.structure.Sentence.class, Entity.class);
 
     SortedMap<Offset, Collection<Entity>> sentences =
         cleanSentencesByOffset(languageCovered, structureCovered);
@@ -18,7 +18,6 @@ import java.util.stream.Collectors;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
@@ -440,10 +439,10 @@ public class PartOfSpeechRelationshipAnnotator extends AbstractTypedRelationship
   protected void extract(JCas jCas) throws AnalysisEngineProcessException {
 
     Map<WordToken, Collection<Entity>> coveredEntities =
-        JCasUtil.indexCovering(jCas, WordToken.class, Entity.class);
+        getSupport().getDerivedData().indexCovering(jCas, WordToken.class, Entity.class);
 
     Map<Sentence, Collection<WordToken>> sentences =
-        JCasUtil.indexCovered(jCas, Sentence.class, WordToken.class);
+        getSupport().getDerivedData().indexCovered(jCas, Sentence.class, WordToken.class);
 
     sentences.forEach((s, tokens) -> processSentence(jCas, s, sort(tokens), coveredEntities));
   }
@@ -15,8 +15,8 @@ import org.apache.commons.collections.ComparatorUtils;
 import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -123,11 +123,10 @@ public class RegExRelationshipAnnotator extends AbstractTypedRelationshipAnnotat
       String targetString = groups.group(1);
       int targetOffset = groups.end(1);
 
-      JCas tempJcas =
-          JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance());
+      TypeSystem typeSystem = TypeSystemSingleton.getTypeSystemInstance();
 
-      sourceType = TypeUtils.getEntityClass(sourceString, tempJcas);
-      targetType = TypeUtils.getEntityClass(targetString, tempJcas);
+      sourceType = TypeUtils.getEntityClass(sourceString, typeSystem);
+      targetType = TypeUtils.getEntityClass(targetString, typeSystem);
 
       String ammended =
           new StringBuilder(pattern)
@@ -108,7 +108,7 @@ public class SentenceRelationshipAnnotator extends AbstractTypedRelationshipAnno
   protected void preExtract(JCas jCas) {
     super.preExtract(jCas);
     if (ValueStrategy.DEPENDENCY.equals(valueStrategy)) {
-      dependencyGraph = DependencyGraph.build(jCas);
+      dependencyGraph = getSupport().getDerivedData().getDependencyGraph(jCas);
     }
   }
 
@@ -122,11 +122,14 @@ public class SentenceRelationshipAnnotator extends AbstractTypedRelationshipAnno
   protected void extract(JCas jCas) throws AnalysisEngineProcessException {
 
     Map<uk.gov.dstl.baleen.types.language.Sentence, Collection<Entity>> languageCovered =
-        JCasUtil.indexCovered(jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Entity.class);
+        getSupport()
+            .getDerivedData()
+            .indexCovered(jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Entity.class);
 
     Map<uk.gov.dstl.baleen.types.structure.Sentence, Collection<Entity>> structureCovered =
-        JCasUtil.indexCovered(
-            jCas, uk.gov.dstl.baleen.types.structure.Sentence.class, Entity.class);
+        getSupport()
+            .getDerivedData()
+            .indexCovered(jCas, uk.gov.dstl.baleen.types.structure.Sentence.class, Entity.class);
 
     Map<Offset, Collection<Entity>> sentences =
         cleanSentencesByOffset(languageCovered, structureCovered);
@@ -93,9 +93,10 @@ public class UbmreConstituent extends AbstractInteractionBasedSentenceRelationsh
   protected void preExtract(JCas jCas) {
     super.preExtract(jCas);
 
-    parseTree = ParseTree.build(jCas);
+    parseTree = getSupport().getDerivedData().getParseTree(jCas);
 
-    interactionCoveringTokens = JCasUtil.indexCovering(jCas, Interaction.class, WordToken.class);
+    interactionCoveringTokens =
+        getSupport().getDerivedData().indexCovering(jCas, Interaction.class, WordToken.class);
   }
 
   @Override
@@ -81,7 +81,7 @@ public class UbmreDependency extends AbstractInteractionBasedRelationshipAnnotat
   protected void preExtract(JCas jCas) {
     super.preExtract(jCas);
 
-    dependencyGraph = DependencyGraph.build(jCas);
+    dependencyGraph = getSupport().getDerivedData().getDependencyGraph(jCas);
   }
 
   @Override
@@ -95,11 +95,11 @@ public class UbmreDependency extends AbstractInteractionBasedRelationshipAnnotat
   protected void extract(JCas jCas) {
 
     final Map<WordToken, Collection<Interaction>> tokenToInteraction =
-        JCasUtil.indexCovered(jCas, WordToken.class, Interaction.class);
+        getSupport().getDerivedData().indexCovered(jCas, WordToken.class, Interaction.class);
     final Map<Entity, Collection<Dependency>> entityToDependency =
-        JCasUtil.indexCovered(jCas, Entity.class, Dependency.class);
+        getSupport().getDerivedData().indexCovered(jCas, Entity.class, Dependency.class);
     final Map<Interaction, Collection<WordToken>> interactionToDependencies =
-        JCasUtil.indexCovered(jCas, Interaction.class, WordToken.class);
+        getSupport().getDerivedData().indexCovered(jCas, Interaction.class, WordToken.class);
 
     final Collection<Entity> entities = JCasUtil.select(jCas, Entity.class);
 
@@ -28,9 +28,9 @@ public abstract class AbstractInteractionBasedSentenceRelationshipAnnotator
   protected final void extract(JCas jCas) {
 
     final Map<Sentence, Collection<Interaction>> sentenceToInteraction =
-        JCasUtil.indexCovered(jCas, Sentence.class, Interaction.class);
+        getSupport().getDerivedData().indexCovered(jCas, Sentence.class, Interaction.class);
     final Map<Sentence, Collection<Entity>> sentenceToEntities =
-        JCasUtil.indexCovered(jCas, Sentence.class, Entity.class);
+        getSupport().getDerivedData().indexCovered(jCas, Sentence.class, Entity.class);
 
     for (final Sentence sentence : JCasUtil.select(jCas, Sentence.class)) {
 
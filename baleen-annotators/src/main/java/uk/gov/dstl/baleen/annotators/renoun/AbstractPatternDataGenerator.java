@@ -104,7 +104,7 @@ public abstract class AbstractPatternDataGenerator extends BaleenSentenceAnnotat
 
   @Override
   protected void preExtract(JCas jCas) throws AnalysisEngineProcessException {
-    graph = DependencyGraph.build(jCas);
+    graph = getSupport().getDerivedData().getDependencyGraph(jCas);
   }
 
   @Override
@@ -21,7 +21,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
@@ -122,9 +121,9 @@ public abstract class AbstractReNounRelationshipAnnotator
   protected void extract(JCas jCas) throws AnalysisEngineProcessException {
 
     Map<WordToken, Collection<Entity>> entities =
-        JCasUtil.indexCovering(jCas, WordToken.class, Entity.class);
+        getSupport().getDerivedData().indexCovering(jCas, WordToken.class, Entity.class);
 
-    DependencyGraph dependencyGraph = DependencyGraph.build(jCas);
+    DependencyGraph dependencyGraph = getSupport().getDerivedData().getDependencyGraph(jCas);
 
     patterns.get().forEach(seed -> processTree(seed, jCas, dependencyGraph, entities));
   }
@@ -18,7 +18,6 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -78,9 +77,7 @@ public class OpenNLP extends BaleenAnnotator {
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
     try {
-      et =
-          TypeUtils.getEntityClass(
-              type, JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
+      et = TypeUtils.getEntityClass(type, TypeSystemSingleton.getTypeSystemInstance());
     } catch (UIMAException | BaleenException e) {
       throw new ResourceInitializationException(e);
     }
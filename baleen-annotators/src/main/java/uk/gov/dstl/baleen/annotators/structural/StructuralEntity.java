@@ -9,7 +9,6 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
@@ -22,7 +21,6 @@ import uk.gov.dstl.baleen.exceptions.BaleenException;
 import uk.gov.dstl.baleen.types.semantic.Entity;
 import uk.gov.dstl.baleen.types.structure.Structure;
 import uk.gov.dstl.baleen.uima.BaleenAnnotator;
-import uk.gov.dstl.baleen.uima.utils.StructureHierarchy;
 import uk.gov.dstl.baleen.uima.utils.StructureUtil;
 import uk.gov.dstl.baleen.uima.utils.TypeSystemSingleton;
 import uk.gov.dstl.baleen.uima.utils.TypeUtils;
@@ -111,8 +109,7 @@ public class StructuralEntity extends BaleenAnnotator {
     confidence = ConfigUtils.stringToFloat(confidenceString, 1.0f);
     try {
       final Class<? extends Entity> et =
-          TypeUtils.getEntityClass(
-              type, JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
+          TypeUtils.getEntityClass(type, TypeSystemSingleton.getTypeSystemInstance());
       constructor = et.getConstructor(JCas.class);
     } catch (UIMAException | BaleenException | NoSuchMethodException | SecurityException e) {
       throw new ResourceInitializationException(e);
@@ -122,7 +119,8 @@ public class StructuralEntity extends BaleenAnnotator {
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
 
-    Nodes<Structure> select = StructureHierarchy.build(jCas, structuralClasses).select(query);
+    Nodes<Structure> select =
+        getSupport().getDerivedData().getStructureHierarchy(jCas, structuralClasses).select(query);
 
     select.forEach(
         node -> {
@@ -11,7 +11,6 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
@@ -111,8 +110,7 @@ public class TableEntity extends BaleenAnnotator {
     getMonitor().debug("The regular expression is \"{}\"", p.pattern());
     try {
       final Class<? extends Entity> et =
-          TypeUtils.getEntityClass(
-              type, JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
+          TypeUtils.getEntityClass(type, TypeSystemSingleton.getTypeSystemInstance());
       constructor = et.getConstructor(JCas.class);
     } catch (UIMAException | BaleenException | NoSuchMethodException | SecurityException e) {
       throw new ResourceInitializationException(e);
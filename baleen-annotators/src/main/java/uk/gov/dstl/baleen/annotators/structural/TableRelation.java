@@ -11,7 +11,6 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -118,14 +117,10 @@ public class TableRelation extends AbstractTypedRelationshipAnnotator {
       source = Pattern.compile(sourcePattern);
       target = Pattern.compile(targetPattern);
       sourceConstructor =
-          TypeUtils.getEntityClass(
-                  sourceType,
-                  JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()))
+          TypeUtils.getEntityClass(sourceType, TypeSystemSingleton.getTypeSystemInstance())
               .getConstructor(JCas.class);
       targetConstructor =
-          TypeUtils.getEntityClass(
-                  targetType,
-                  JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()))
+          TypeUtils.getEntityClass(targetType, TypeSystemSingleton.getTypeSystemInstance())
               .getConstructor(JCas.class);
 
     } catch (UIMAException | BaleenException | NoSuchMethodException | SecurityException e) {
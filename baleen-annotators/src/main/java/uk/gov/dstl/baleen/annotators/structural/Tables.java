@@ -14,7 +14,7 @@ import org.apache.uima.resource.ResourceInitializationException;
 import uk.gov.dstl.baleen.types.structure.Structure;
 import uk.gov.dstl.baleen.types.structure.Table;
 import uk.gov.dstl.baleen.types.structure.TableCell;
-import uk.gov.dstl.baleen.uima.utils.StructureHierarchy;
+import uk.gov.dstl.baleen.uima.CasDerivedDataCache;
 import uk.gov.dstl.baleen.uima.utils.StructureUtil;
 import uk.gov.dstl.baleen.uima.utils.select.ItemHierarchy;
 import uk.gov.dstl.baleen.uima.utils.select.Node;
@@ -39,7 +39,8 @@ public class Tables {
   public Tables(JCas jCas) throws AnalysisEngineProcessException {
     try {
       ItemHierarchy<Structure> hierarchy =
-          StructureHierarchy.build(jCas, StructureUtil.getStructureClasses());
+          CasDerivedDataCache.getInstance()
+              .getStructureHierarchy(jCas, StructureUtil.getStructureClasses());
       nodes = hierarchy.getRoot().select("Table");
     } catch (ResourceInitializationException e) {
       throw new AnalysisEngineProcessException("Can not create structure helper", null, e);
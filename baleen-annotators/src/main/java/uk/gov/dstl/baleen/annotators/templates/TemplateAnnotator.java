@@ -28,7 +28,6 @@ import uk.gov.dstl.baleen.types.structure.Structure;
 import uk.gov.dstl.baleen.types.templates.TemplateField;
 import uk.gov.dstl.baleen.types.templates.TemplateRecord;
 import uk.gov.dstl.baleen.uima.utils.SelectorPath;
-import uk.gov.dstl.baleen.uima.utils.StructureHierarchy;
 import uk.gov.dstl.baleen.uima.utils.StructureUtil;
 
 /**
@@ -161,7 +160,8 @@ public class TemplateAnnotator extends AbstractTemplateAnnotator {
   protected void doProcessRecordDefinitions(
       final JCas jCas, String source, List<TemplateRecordConfiguration> recordDefinitions) {
     RecordStructureManager manager =
-        new RecordStructureManager(StructureHierarchy.build(jCas, structuralClasses));
+        new RecordStructureManager(
+            getSupport().getDerivedData().getStructureHierarchy(jCas, structuralClasses));
 
     Collections.sort(
         recordDefinitions, Comparator.comparing(TemplateRecordConfiguration::getOrder));
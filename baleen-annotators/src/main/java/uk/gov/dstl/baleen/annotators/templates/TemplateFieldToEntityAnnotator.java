@@ -11,7 +11,6 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -95,10 +94,7 @@ public class TemplateFieldToEntityAnnotator extends BaleenAnnotator {
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
     try {
-      et =
-          TypeUtils.getEntityClass(
-              entityType,
-              JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance()));
+      et = TypeUtils.getEntityClass(entityType, TypeSystemSingleton.getTypeSystemInstance());
     } catch (UIMAException | BaleenException e) {
       throw new ResourceInitializationException(e);
     }
@@ -79,7 +79,7 @@ public class WordDistributionDocumentSummary extends BaleenTextAwareAnnotator {
     StringBuilder summaryBuilder = new StringBuilder();
 
     Map<Sentence, Collection<WordToken>> sentenceToWordsMap =
-        JCasUtil.indexCovered(jCas, Sentence.class, WordToken.class);
+        getSupport().getDerivedData().indexCovered(jCas, Sentence.class, WordToken.class);
 
     Map<String, Collection<String>> sentenceToWordsStringMap =
         getSentenceToWordsStringMap(sentenceToWordsMap);
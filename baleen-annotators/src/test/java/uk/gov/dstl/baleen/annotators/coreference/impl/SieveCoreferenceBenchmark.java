@@ -0,0 +1,214 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.coreference.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.Cluster;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.ClusterMerger;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.Mention;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.MentionIndex;
+import uk.gov.dstl.baleen.annotators.coreference.impl.data.Person;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.CoreferenceSieve;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.ExactStringMatchSieve;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.InSentencePronounSieve;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.PronounResolutionSieve;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.ProperHeadMatchSieve;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.RelaxedHeadMatchSieve;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.RelaxedStringMatchSieve;
+import uk.gov.dstl.baleen.annotators.coreference.impl.sieves.StrictHeadMatchSieve;
+import uk.gov.dstl.baleen.resources.data.Gender;
+import uk.gov.dstl.baleen.resources.data.Multiplicity;
+import uk.gov.dstl.baleen.types.language.WordToken;
+import uk.gov.dstl.baleen.types.semantic.Entity;
+
+/**
+ * JMH benchmark of the coreference sieves over a synthetic long document, as the number of mentions
+ * grows.
+ *
+ * <p>The sieves which don't need a parse tree are run over a shared {@link MentionIndex}, and the
+ * resulting clusters merged. Lookups of mentions by offset are also compared against a linear scan
+ * of the mentions, which is what the sieves did before they were indexed.
+ *
+ * <p>This isn't run as part of the unit tests. Run it with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -pl baleen-annotators -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=uk.gov.dstl.baleen.annotators.coreference.impl.SieveCoreferenceBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SieveCoreferenceBenchmark {
+
+  private static final String[] NAMES = {
+    "Smith", "Jones", "Taylor", "Brown", "Williams", "Wilson", "Johnson", "Davies", "Robinson",
+    "Wright", "Thompson", "Evans", "Walker", "White", "Roberts", "Green", "Hall", "Wood"
+  };
+
+  private static final String[] PRONOUNS = {"he", "she", "they", "it"};
+
+  private static final List<String> STOPWORDS = Arrays.asList("the", "a", "an", "of", "and");
+
+  @Param({"1000", "5000", "20000"})
+  public int mentionCount;
+
+  private JCas jCas;
+  private List<Annotation> annotations;
+  private List<WordToken> tokens;
+  private int[] sentences;
+  private int[][] lookups;
+
+  private MentionIndex mentions;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    Random random = new Random(0);
+    jCas = JCasFactory.createJCas();
+
+    // Sentences of three mentions: a name, a pronoun and then either a name or a pronoun
+    StringBuilder sb = new StringBuilder();
+    List<int[]> spans = new ArrayList<>(mentionCount);
+    sentences = new int[mentionCount];
+    for (int i = 0; i < mentionCount; i++) {
+      String word;
+      if (i % 3 == 1 || (i % 3 == 2 && random.nextBoolean())) {
+        word = PRONOUNS[random.nextInt(PRONOUNS.length)];
+      } else {
+        word = NAMES[random.nextInt(NAMES.length)];
+      }
+      int begin = sb.length();
+      sb.append(word);
+      spans.add(new int[] {begin, sb.length()});
+      sentences[i] = i / 3;
+      sb.append(i % 3 == 2 ? ". " : " said that ");
+    }
+    jCas.setDocumentText(sb.toString());
+
+    annotations = new ArrayList<>(mentionCount);
+    tokens = new ArrayList<>(mentionCount);
+    lookups = new int[1000][];
+    for (int i = 0; i < mentionCount; i++) {
+      int[] span = spans.get(i);
+      WordToken token = new WordToken(jCas, span[0], span[1]);
+      boolean name = Character.isUpperCase(sb.charAt(span[0]));
+      token.setPartOfSpeech(name ? "NNP" : "PRP");
+      token.addToIndexes();
+      tokens.add(token);
+
+      if (name) {
+        Entity entity = new Entity(jCas, span[0], span[1]);
+        entity.addToIndexes();
+        annotations.add(entity);
+      } else {
+        annotations.add(token);
+      }
+    }
+
+    for (int i = 0; i < lookups.length; i++) {
+      lookups[i] = spans.get(random.nextInt(mentionCount));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void createMentions() {
+    // The sieves add clusters to the mentions, so each run needs its own
+    List<Mention> list = new ArrayList<>(mentionCount);
+    for (int i = 0; i < annotations.size(); i++) {
+      Annotation a = annotations.get(i);
+      WordToken token = tokens.get(i);
+      Mention m = a instanceof Entity ? new Mention((Entity) a) : new Mention(token);
+      m.setHeadWordToken(token);
+      m.setWords(Collections.singletonList(token));
+      m.setPerson(Person.THIRD);
+      if (a == token) {
+        m.setGender("she".equals(token.getCoveredText()) ? Gender.F : Gender.M);
+        m.setMultiplicity(
+            "they".equals(token.getCoveredText()) ? Multiplicity.PLURAL : Multiplicity.SINGULAR);
+      }
+      m.setSentenceIndex(sentences[i]);
+      list.add(m);
+    }
+    mentions = new MentionIndex(list);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<Cluster> sieves() {
+    List<Cluster> clusters = new ArrayList<>();
+    CoreferenceSieve[] sieves =
+        new CoreferenceSieve[] {
+          new ExactStringMatchSieve(jCas, clusters, mentions),
+          new RelaxedStringMatchSieve(jCas, clusters, mentions),
+          new InSentencePronounSieve(jCas, clusters, mentions),
+          new StrictHeadMatchSieve(jCas, clusters, mentions, true, true, STOPWORDS),
+          new StrictHeadMatchSieve(jCas, clusters, mentions, true, false, STOPWORDS),
+          new StrictHeadMatchSieve(jCas, clusters, mentions, false, true, STOPWORDS),
+          new ProperHeadMatchSieve(jCas, clusters, mentions),
+          new RelaxedHeadMatchSieve(jCas, clusters, mentions, STOPWORDS),
+          new PronounResolutionSieve(jCas, clusters, mentions)
+        };
+    for (CoreferenceSieve sieve : sieves) {
+      sieve.sieve();
+    }
+    return ClusterMerger.merge(clusters);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int indexedLookup() {
+    int found = 0;
+    for (int[] span : lookups) {
+      found += mentions.findMentionsExactly(span[0], span[1]).size();
+    }
+    return found;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int scanLookup() {
+    int found = 0;
+    for (int[] span : lookups) {
+      for (Mention m : mentions) {
+        if (m.getAnnotation().getBegin() == span[0] && m.getAnnotation().getEnd() == span[1]) {
+          found++;
+        }
+      }
+    }
+    return found;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(SieveCoreferenceBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
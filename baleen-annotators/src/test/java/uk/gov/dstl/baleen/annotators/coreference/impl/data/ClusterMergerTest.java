@@ -0,0 +1,46 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.coreference.impl.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
+
+public class ClusterMergerTest {
+
+  @Test
+  public void testMerge() throws Exception {
+    JCas jCas = JCasSingleton.getJCasInstance();
+    jCas.setDocumentText("a b c d e f g");
+
+    Mention a = new Mention(new Entity(jCas, 0, 1));
+    Mention b = new Mention(new Entity(jCas, 2, 3));
+    Mention c = new Mention(new Entity(jCas, 4, 5));
+    Mention d = new Mention(new Entity(jCas, 6, 7));
+    Mention e = new Mention(new Entity(jCas, 8, 9));
+    Mention f = new Mention(new Entity(jCas, 10, 11));
+
+    Cluster ab = new Cluster(a, b);
+    Cluster cd = new Cluster(c, d);
+    Cluster ef = new Cluster(e, f);
+    // Joins the first two clusters, but only after they have been seen
+    Cluster bc = new Cluster(b, c);
+
+    List<Cluster> merged = ClusterMerger.merge(Arrays.asList(ab, cd, ef, bc));
+
+    assertEquals(2, merged.size());
+    assertSame(ab, merged.get(0));
+    assertEquals(ImmutableSet.of(a, b, c, d), merged.get(0).getMentions());
+    assertSame(ef, merged.get(1));
+    assertEquals(ImmutableSet.of(e, f), merged.get(1).getMentions());
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.coreference.impl.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.apache.uima.jcas.JCas;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.dstl.baleen.types.language.PhraseChunk;
+import uk.gov.dstl.baleen.types.language.WordToken;
+import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
+
+public class MentionIndexTest {
+  private JCas jCas;
+
+  private Mention james;
+  private Mention he;
+  private Mention bigJames;
+  private Mention jim;
+
+  @Before
+  public void beforeTest() throws Exception {
+    jCas = JCasSingleton.getJCasInstance();
+    jCas.setDocumentText("James said he saw big James and JAMES.");
+
+    james = new Mention(new Entity(jCas, 0, 5));
+    james.setHeadWordToken(new WordToken(jCas, 0, 5));
+    he = new Mention(new WordToken(jCas, 11, 13));
+    bigJames = new Mention(new PhraseChunk(jCas, 18, 27));
+    bigJames.setHeadWordToken(new WordToken(jCas, 22, 27));
+    jim = new Mention(new Entity(jCas, 32, 37));
+    jim.setHeadWordToken(new WordToken(jCas, 32, 37));
+  }
+
+  @Test
+  public void testByType() {
+    MentionIndex index = new MentionIndex(Arrays.asList(bigJames, james, he, jim));
+
+    assertEquals(4, index.size());
+    assertEquals(Arrays.asList(james, jim), index.getMentions(MentionType.ENTITY));
+    assertEquals(Arrays.asList(he), index.getMentions(MentionType.PRONOUN));
+    assertEquals(
+        Arrays.asList(bigJames, james, jim), index.getMentions(MentionType.ENTITY, MentionType.NP));
+    assertEquals(
+        Arrays.asList(bigJames, james, jim),
+        index.getMentionsWithHead(MentionType.ENTITY, MentionType.NP, MentionType.PRONOUN));
+  }
+
+  @Test
+  public void testGroupByHead() {
+    MentionIndex index = new MentionIndex(Arrays.asList(james, he, bigJames, jim));
+
+    List<List<Mention>> groups =
+        new ArrayList<>(index.groupByHead(MentionType.ENTITY, MentionType.NP));
+    assertEquals(1, groups.size());
+    assertEquals(Arrays.asList(james, bigJames, jim), groups.get(0));
+  }
+
+  @Test
+  public void testOffsets() {
+    MentionIndex index = new MentionIndex(Arrays.asList(james, he, bigJames, jim));
+
+    assertEquals(Arrays.asList(he), index.findMentionsExactly(11, 13));
+    assertTrue(index.findMentionsExactly(11, 12).isEmpty());
+
+    assertEquals(Arrays.asList(james, he), index.findMentionsUnder(18, 26));
+    assertEquals(Arrays.asList(bigJames), index.findMentionAbove(22, 27));
+  }
+
+  @Test
+  public void testSameAsScan() {
+    Random random = new Random(1);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("word ");
+    }
+    jCas.reset();
+    jCas.setDocumentText(sb.toString());
+
+    List<Mention> mentions = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      int begin = random.nextInt(4900);
+      mentions.add(new Mention(new Entity(jCas, begin, begin + random.nextInt(100))));
+    }
+    MentionIndex index = new MentionIndex(mentions);
+
+    for (int i = 0; i < 200; i++) {
+      int begin = random.nextInt(5000);
+      int end = begin + random.nextInt(50);
+
+      assertEquals(
+          mentions
+              .stream()
+              .filter(
+                  m -> begin >= m.getAnnotation().getBegin() && m.getAnnotation().getEnd() <= end)
+              .collect(Collectors.toList()),
+          index.findMentionsUnder(begin, end));
+      assertEquals(
+          mentions
+              .stream()
+              .filter(
+                  m -> m.getAnnotation().getBegin() <= begin && end <= m.getAnnotation().getEnd())
+              .collect(Collectors.toList()),
+          index.findMentionAbove(begin, end));
+    }
+  }
+
+  @Test
+  public void testCaseInsensitiveKey() {
+    assertEquals(
+        MentionIndex.caseInsensitiveKey("JAMES"), MentionIndex.caseInsensitiveKey("James"));
+    assertTrue(
+        !MentionIndex.caseInsensitiveKey("Jim").equals(MentionIndex.caseInsensitiveKey("Jam")));
+  }
+}
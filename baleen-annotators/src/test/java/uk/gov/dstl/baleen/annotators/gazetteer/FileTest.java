@@ -4,13 +4,22 @@ package uk.gov.dstl.baleen.annotators.gazetteer;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.fit.factory.ExternalResourceFactory;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.resource.ExternalResourceDescription;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import uk.gov.dstl.baleen.annotators.testing.AnnotatorTestBase;
 import uk.gov.dstl.baleen.resources.SharedFileResource;
@@ -28,6 +37,8 @@ public class FileTest extends AnnotatorTestBase {
   private static String FILE_NAME = "fileName";
   private static String FILE_GAZETTEER = "fileGazetteer";
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void test() throws Exception {
     ExternalResourceDescription erd =
@@ -299,4 +310,64 @@ public class FileTest extends AnnotatorTestBase {
 
     ae.destroy();
   }
+
+  @Test
+  public void testPersistedGazetteer() throws Exception {
+    Path gazetteer = folder.newFile().toPath();
+    Files.copy(
+        Paths.get(getClass().getResource(GAZETTEER_TXT).toURI()),
+        gazetteer,
+        StandardCopyOption.REPLACE_EXISTING);
+    FileTime modified = Files.getLastModifiedTime(gazetteer);
+    Path cacheDir = folder.newFolder().toPath();
+
+    ExternalResourceDescription erd =
+        ExternalResourceFactory.createExternalResourceDescription(
+            FILE_GAZETTEER, SharedFileResource.class);
+    AnalysisEngineDescription aed =
+        AnalysisEngineFactory.createEngineDescription(
+            File.class,
+            FILE_GAZETTEER,
+            erd,
+            FILE_NAME,
+            gazetteer.toString(),
+            TYPE,
+            LOCATION,
+            File.PARAM_ENGINE,
+            File.ENGINE_COMPACT,
+            File.PARAM_AUTOMATON_CACHE,
+            cacheDir.toString());
+
+    assertEquals(2, processPersisted(aed, "Hello world, also known as earth"));
+    assertEquals(1, Files.list(cacheDir).filter(f -> f.toString().endsWith(".gazetteer")).count());
+
+    // The same size and modification time, so the persisted gazetteer is used
+    String replaced =
+        new String(Files.readAllBytes(gazetteer), StandardCharsets.UTF_8).replace("world", "globe");
+    Files.write(gazetteer, replaced.getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(gazetteer, modified);
+    assertEquals(2, processPersisted(aed, "Hello world, also known as earth"));
+
+    // Once the file is modified the gazetteer is loaded again
+    Files.setLastModifiedTime(gazetteer, FileTime.fromMillis(modified.toMillis() + 10000));
+    assertEquals(0, processPersisted(aed, "Hello world"));
+    assertEquals(1, processPersisted(aed, "Hello globe"));
+  }
+
+  private int processPersisted(AnalysisEngineDescription aed, String text) throws Exception {
+    AnalysisEngine ae = AnalysisEngineFactory.createEngine(aed);
+    try {
+      jCas.reset();
+      jCas.setDocumentText(text);
+      ae.process(jCas);
+
+      int locations = JCasUtil.select(jCas, Location.class).size();
+      if (locations > 1) {
+        assertEquals(1, JCasUtil.select(jCas, ReferenceTarget.class).size());
+      }
+      return locations;
+    } finally {
+      ae.destroy();
+    }
+  }
 }
@@ -4,11 +4,15 @@ package uk.gov.dstl.baleen.annotators.gazetteer;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.fit.util.JCasUtil;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import uk.gov.dstl.baleen.annotators.testing.AnnotatorTestBase;
 import uk.gov.dstl.baleen.types.language.Text;
@@ -17,6 +21,8 @@ import uk.gov.dstl.baleen.types.semantic.ReferenceTarget;
 
 public class ListTest extends AnnotatorTestBase {
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   private static String WORLD = "world";
   private static String NEW_YORK = "New York";
   private static String LOCATION = "Location";
@@ -247,4 +253,68 @@ public class ListTest extends AnnotatorTestBase {
 
     ae.destroy();
   }
+
+  @Test
+  public void testCompactEngine() throws Exception {
+    AnalysisEngineDescription aed =
+        AnalysisEngineFactory.createEngineDescription(
+            List.class,
+            List.PARAM_TERMS,
+            terms,
+            List.PARAM_TYPE,
+            LOCATION,
+            List.PARAM_PLURALS,
+            true,
+            List.PARAM_ENGINE,
+            List.ENGINE_COMPACT);
+
+    AnalysisEngine ae = AnalysisEngineFactory.createEngine(aed);
+
+    jCas.setDocumentText(
+        "There may be many New Yorks and many Parises, but there's only one London (or Londres).");
+
+    ae.process(jCas);
+
+    assertEquals(4, JCasUtil.select(jCas, Location.class).size());
+    Location l1 = JCasUtil.selectByIndex(jCas, Location.class, 0);
+    Location l2 = JCasUtil.selectByIndex(jCas, Location.class, 1);
+    Location l3 = JCasUtil.selectByIndex(jCas, Location.class, 2);
+    Location l4 = JCasUtil.selectByIndex(jCas, Location.class, 3);
+    assertEquals("New Yorks", l1.getValue());
+    assertEquals("Parises", l2.getValue());
+    assertEquals("London", l3.getValue());
+    assertEquals("Londres", l4.getValue());
+    assertEquals(1, JCasUtil.select(jCas, ReferenceTarget.class).size());
+
+    ae.destroy();
+  }
+
+  @Test
+  public void testAutomatonCache() throws Exception {
+    File cacheDir = folder.newFolder();
+    AnalysisEngineDescription aed =
+        AnalysisEngineFactory.createEngineDescription(
+            List.class,
+            List.PARAM_TERMS,
+            terms,
+            List.PARAM_TYPE,
+            LOCATION,
+            List.PARAM_ENGINE,
+            List.ENGINE_COMPACT,
+            List.PARAM_AUTOMATON_CACHE,
+            cacheDir.getAbsolutePath());
+
+    // The first engine builds and persists the automaton, the second memory maps it
+    for (int i = 0; i < 2; i++) {
+      AnalysisEngine ae = AnalysisEngineFactory.createEngine(aed);
+      assertEquals(1, cacheDir.listFiles().length);
+
+      jCas.reset();
+      jCas.setDocumentText("There's only one London (or Londres).");
+      ae.process(jCas);
+
+      assertEquals(2, JCasUtil.select(jCas, Location.class).size());
+      ae.destroy();
+    }
+  }
 }
@@ -0,0 +1,168 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.ahocorasick.trie.Emit;
+import org.ahocorasick.trie.Trie;
+import org.ahocorasick.trie.Trie.TrieBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH comparison of the {@link CompactAutomaton} against the org.ahocorasick {@link Trie}, for
+ * synthetic gazetteers of place-like names.
+ *
+ * <p>Build time and search throughput are measured as benchmarks. The heap retained by each engine
+ * is measured once per trial and printed, as JMH has no direct measure of retained heap.
+ *
+ * <p>This isn't run as part of the unit tests. Run it with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -pl baleen-annotators -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=uk.gov.dstl.baleen.annotators.gazetteer.helpers.CompactAutomatonBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CompactAutomatonBenchmark {
+
+  private static final String[] SYLLABLES = {
+    "al", "ber", "ca", "do", "en", "fa", "gro", "ha", "in", "jo", "ka", "lo", "mi", "na", "or",
+    "pe", "qua", "ri", "sa", "ton", "u", "vi", "wa", "xi", "yo", "za"
+  };
+
+  @Param({"10000", "100000", "1000000"})
+  public int keywordCount;
+
+  @Param({"false"})
+  public boolean caseSensitive;
+
+  private List<String> keywords;
+  private String text;
+
+  private Trie trie;
+  private CompactAutomaton automaton;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0);
+
+    keywords = new ArrayList<>(keywordCount);
+    for (int i = 0; i < keywordCount; i++) {
+      keywords.add(name(random));
+    }
+
+    // A document of roughly 10,000 words, around 1 in 20 of which is a gazetteer entry
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      if (random.nextInt(20) == 0) {
+        sb.append(keywords.get(random.nextInt(keywordCount)));
+      } else {
+        sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+      }
+      sb.append(random.nextInt(15) == 0 ? ". " : " ");
+    }
+    text = sb.toString();
+
+    trie = measureHeap("Trie", this::buildTrie);
+    automaton = measureHeap("CompactAutomaton", this::buildCompact);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Trie buildTrie() {
+    TrieBuilder builder = Trie.builder().onlyWholeWords();
+    if (!caseSensitive) {
+      builder = builder.ignoreCase();
+    }
+    for (String k : keywords) {
+      builder = builder.addKeyword(k);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public CompactAutomaton buildCompact() {
+    return CompactAutomaton.build(keywords, caseSensitive);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public Collection<Emit> parseTrie() {
+    return trie.parseText(text);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public Collection<Emit> parseCompact() {
+    return automaton.parseText(text);
+  }
+
+  private <T> T measureHeap(String name, Supplier<T> builder) {
+    long before = usedHeap();
+    T built = builder.get();
+    long after = usedHeap();
+
+    System.out.printf(
+        "%n%s retained heap for %d keywords: %.1f MB%n",
+        name, keywordCount, (after - before) / (1024.0 * 1024.0));
+    return built;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static String name(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int words = 1 + random.nextInt(3);
+    for (int w = 0; w < words; w++) {
+      if (w > 0) {
+        sb.append(' ');
+      }
+      int syllables = 2 + random.nextInt(3);
+      for (int s = 0; s < syllables; s++) {
+        String syllable = SYLLABLES[random.nextInt(SYLLABLES.length)];
+        sb.append(
+            s == 0 ? Character.toUpperCase(syllable.charAt(0)) + syllable.substring(1) : syllable);
+      }
+    }
+    return sb.toString();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(CompactAutomatonBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
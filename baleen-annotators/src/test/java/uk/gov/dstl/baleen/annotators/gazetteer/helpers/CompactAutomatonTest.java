@@ -0,0 +1,181 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.ahocorasick.trie.Emit;
+import org.ahocorasick.trie.Trie;
+import org.ahocorasick.trie.Trie.TrieBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompactAutomatonTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private static final List<String> KEYWORDS =
+      Arrays.asList("he", "she", "his", "hers", "New York", "York", "new", "", "Straße");
+
+  @Test
+  public void testMatches() {
+    CompactAutomaton automaton = CompactAutomaton.build(KEYWORDS, true);
+
+    assertEquals(8, automaton.getKeywordCount());
+    assertTrue(automaton.isCaseSensitive());
+
+    List<Emit> emits = automaton.parseText("In New York, she said hers was his. York");
+    assertEquals(Arrays.asList("New York", "York", "she", "hers", "his", "York"), keywords(emits));
+
+    Emit first = emits.get(0);
+    assertEquals(3, first.getStart());
+    assertEquals(10, first.getEnd());
+  }
+
+  @Test
+  public void testCaseInsensitive() {
+    CompactAutomaton automaton = CompactAutomaton.build(KEYWORDS, false);
+
+    List<Emit> emits = automaton.parseText("NEW YORK, STRASSE or STRAßE");
+    assertEquals(Arrays.asList("new", "new york", "york", "straße"), keywords(emits));
+  }
+
+  @Test
+  public void testWholeWords() {
+    CompactAutomaton automaton = CompactAutomaton.build(KEYWORDS, true);
+
+    assertTrue(automaton.parseText("ushers theirs").isEmpty());
+    assertEquals(1, automaton.parseText("(he)").size());
+  }
+
+  @Test
+  public void testEmpty() {
+    CompactAutomaton automaton = CompactAutomaton.build(Collections.emptyList(), false);
+
+    assertEquals(0, automaton.getKeywordCount());
+    assertTrue(automaton.parseText("Nothing to find here").isEmpty());
+  }
+
+  @Test
+  public void testSameAsTrie() {
+    Random random = new Random(42);
+    List<String> keywords = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      keywords.add(randomWords(random, 1 + random.nextInt(3)));
+    }
+    String text = randomWords(random, 5000);
+
+    for (boolean caseSensitive : new boolean[] {true, false}) {
+      TrieBuilder builder = Trie.builder().onlyWholeWords();
+      if (!caseSensitive) {
+        builder = builder.ignoreCase();
+      }
+      keywords.forEach(builder::addKeyword);
+
+      List<String> expected = toStrings(builder.build().parseText(text));
+      List<String> actual =
+          toStrings(CompactAutomaton.build(keywords, caseSensitive).parseText(text));
+
+      assertFalse(expected.isEmpty());
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testCache() {
+    CompactAutomatonCache cache = CompactAutomatonCache.getInstance();
+
+    String key = CompactAutomatonCache.generateKey(KEYWORDS, false);
+    List<String> reversed = new ArrayList<>(KEYWORDS);
+    Collections.reverse(reversed);
+    assertEquals(key, CompactAutomatonCache.generateKey(reversed, false));
+    assertFalse(key.equals(CompactAutomatonCache.generateKey(KEYWORDS, true)));
+
+    CompactAutomaton first = cache.acquire(key, () -> CompactAutomaton.build(KEYWORDS, false));
+    CompactAutomaton second =
+        cache.acquire(
+            key,
+            () -> {
+              throw new AssertionError("Automaton should not be rebuilt");
+            });
+    assertSame(first, second);
+
+    cache.release(key);
+    assertTrue(cache.contains(key));
+    cache.release(key);
+    assertFalse(cache.contains(key));
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    String key = CompactAutomatonCache.generateKey(KEYWORDS, false);
+    Path file = folder.getRoot().toPath().resolve("cache").resolve(key + ".automaton");
+
+    CompactAutomaton built = CompactAutomaton.build(KEYWORDS, false);
+    assertFalse(built.isMapped());
+    built.write(file, key);
+    assertTrue(Files.isRegularFile(file));
+
+    CompactAutomaton mapped = CompactAutomaton.read(file, key);
+    assertTrue(mapped.isMapped());
+    assertFalse(mapped.isCaseSensitive());
+    assertEquals(built.getKeywordCount(), mapped.getKeywordCount());
+    assertEquals(built.getSize(), mapped.getSize());
+
+    String text = "NEW YORK, STRASSE or STRAßE. She said hers was his";
+    assertEquals(toStrings(built.parseText(text)), toStrings(mapped.parseText(text)));
+  }
+
+  @Test
+  public void testReadMismatch() throws IOException {
+    String key = CompactAutomatonCache.generateKey(KEYWORDS, true);
+    Path file = folder.getRoot().toPath().resolve(key + ".automaton");
+
+    assertNull(CompactAutomaton.read(file, key));
+
+    CompactAutomaton.build(KEYWORDS, true).write(file, key);
+    assertNull(CompactAutomaton.read(file, CompactAutomatonCache.generateKey(KEYWORDS, false)));
+
+    Files.write(file, new byte[] {1, 2, 3});
+    assertNull(CompactAutomaton.read(file, key));
+  }
+
+  private static List<String> keywords(Collection<Emit> emits) {
+    return emits.stream().map(Emit::getKeyword).collect(Collectors.toList());
+  }
+
+  private static List<String> toStrings(Collection<Emit> emits) {
+    return emits
+        .stream()
+        .map(e -> e.getStart() + ":" + e.getEnd() + ":" + e.getKeyword())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private static String randomWords(Random random, int count) {
+    String[] words = {"alpha", "Beta", "gamma", "al", "be", "ta", "Alpha", "gam", "ma", "delta"};
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        sb.append(random.nextInt(10) == 0 ? "," : " ");
+      }
+      sb.append(words[random.nextInt(words.length)]);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.annotators.gazetteer.helpers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.bson.Document;
+import org.junit.Test;
+
+import uk.gov.dstl.baleen.types.common.Buzzword;
+import uk.gov.dstl.baleen.types.semantic.Location;
+
+public class EntityPropertySetterTest {
+
+  @Test
+  public void testForType() {
+    List<EntityPropertySetter> setters = EntityPropertySetter.forType(Buzzword.class);
+
+    assertTrue(setters.stream().anyMatch(s -> "tags".equals(s.getProperty())));
+    assertTrue(setters.stream().anyMatch(s -> "value".equals(s.getProperty())));
+  }
+
+  @Test
+  public void testBindAndApply() throws Exception {
+    JCas jCas = JCasFactory.createJCas();
+
+    Map<String, Object> data = new HashMap<>();
+    data.put("geoJson", new Document("type", "Point"));
+    data.put("subType", 5);
+    data.put("unknown", "ignored");
+
+    List<String> errors = new ArrayList<>();
+    List<EntityPropertySetter.Binding> bindings =
+        EntityPropertySetter.bind(
+            EntityPropertySetter.forType(Location.class), data, (p, e) -> errors.add(p));
+
+    assertEquals(2, bindings.size());
+    assertTrue(errors.isEmpty());
+
+    Location l = new Location(jCas);
+    for (EntityPropertySetter.Binding b : bindings) {
+      b.apply(l);
+    }
+    assertEquals(new Document("type", "Point").toJson(), l.getGeoJson());
+    assertEquals("5", l.getSubType());
+  }
+
+  @Test
+  public void testStringArray() throws Exception {
+    JCas jCas = JCasFactory.createJCas();
+
+    Map<String, Object> data = new HashMap<>();
+    data.put("tags", Arrays.asList("a", "b"));
+
+    List<EntityPropertySetter.Binding> bindings =
+        EntityPropertySetter.bind(EntityPropertySetter.forType(Buzzword.class), data, (p, e) -> {});
+    assertEquals(1, bindings.size());
+
+    Buzzword b1 = new Buzzword(jCas);
+    Buzzword b2 = new Buzzword(jCas);
+    bindings.get(0).apply(b1);
+    bindings.get(0).apply(b2);
+
+    assertArrayEquals(new String[] {"a", "b"}, b1.getTags().toArray());
+    assertArrayEquals(new String[] {"a", "b"}, b2.getTags().toArray());
+  }
+}
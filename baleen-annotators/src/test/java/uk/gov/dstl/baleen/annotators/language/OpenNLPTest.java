@@ -3,6 +3,7 @@ package uk.gov.dstl.baleen.annotators.language;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.uima.UIMAException;
@@ -30,6 +31,10 @@ public class OpenNLPTest extends AnnotatorTestBase {
   public void beforeTest() throws UIMAException {
     super.beforeTest();
 
+    ae = createEngine(false);
+  }
+
+  private AnalysisEngine createEngine(boolean parallel) throws UIMAException {
     ExternalResourceDescription tokensDesc =
         ExternalResourceFactory.createExternalResourceDescription(
             "tokens", SharedOpenNLPModel.class);
@@ -53,9 +58,11 @@ public class OpenNLPTest extends AnnotatorTestBase {
             "posTags",
             posDesc,
             "phraseChunks",
-            chunksDesc);
+            chunksDesc,
+            OpenNLP.PARAM_PARALLEL,
+            parallel);
 
-    ae = AnalysisEngineFactory.createEngine(desc);
+    return AnalysisEngineFactory.createEngine(desc);
   }
 
   @Test
@@ -109,4 +116,44 @@ public class OpenNLPTest extends AnnotatorTestBase {
         "three sentences",
         phrases.get(2).getCoveredText()); // 3rd chunk of 1st sentence is "some text"
   }
+
+  @Test
+  public void testParallel() throws Exception {
+    String text = "This is some text. It has three sentences. The first sentence has four words.";
+
+    jCas.setDocumentText(text);
+    SimplePipeline.runPipeline(jCas, ae);
+    List<String> expected = describe();
+
+    jCas.reset();
+    jCas.setDocumentText(text);
+    SimplePipeline.runPipeline(jCas, createEngine(true));
+
+    assertEquals(expected, describe());
+  }
+
+  private List<String> describe() {
+    List<String> description = new ArrayList<>();
+    JCasUtil.select(jCas, WordToken.class)
+        .forEach(
+            t ->
+                description.add(
+                    t.getBegin()
+                        + ":"
+                        + t.getEnd()
+                        + ":"
+                        + t.getPartOfSpeech()
+                        + ":"
+                        + t.getSentenceOrder()));
+    JCasUtil.select(jCas, PhraseChunk.class)
+        .forEach(
+            c ->
+                description.add(
+                    c.getCoveredText()
+                        + ":"
+                        + c.getChunkType()
+                        + ":"
+                        + c.getHeadWord().getCoveredText()));
+    return description;
+  }
 }
@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -24,6 +25,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -42,6 +45,9 @@ import uk.gov.dstl.baleen.uima.BaleenCollectionReader;
  * restarted. This can be avoided by using the MoveSourceConsumer (for example), and removing the
  * files after processing
  *
+ * <p>The folders are watched on a background thread, which wakes the pipeline as soon as files are
+ * created or modified.
+ *
  * @baleen.javadoc
  */
 public class FolderReader extends BaleenCollectionReader {
@@ -103,6 +109,8 @@ public class FolderReader extends BaleenCollectionReader {
   private WatchService watcher;
   private Map<WatchKey, Path> watchKeys = new HashMap<>();
   private List<Path> queue = new ArrayList<>();
+  private BlockingQueue<WatchKey> signalledKeys = new LinkedBlockingQueue<>();
+  private Thread watchThread;
 
   @Override
   public void doInitialize(UimaContext context) throws ResourceInitializationException {
@@ -132,6 +140,24 @@ public class FolderReader extends BaleenCollectionReader {
     }
 
     registerFolders();
+
+    WatchService service = watcher;
+    watchThread = new Thread(() -> watch(service), "FolderReader watcher");
+    watchThread.setDaemon(true);
+    watchThread.start();
+  }
+
+  private void watch(WatchService service) {
+    try {
+      while (true) {
+        signalledKeys.add(service.take());
+        signalDocumentAvailable();
+      }
+    } catch (ClosedWatchServiceException e) {
+      // Reader has been closed
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 
   private void registerFolders() {
@@ -206,6 +232,12 @@ public class FolderReader extends BaleenCollectionReader {
     try (InputStream is = new FileInputStream(path.toFile()); ) {
       extractContent(is, path.toString(), jCas);
     }
+
+    // Let the content extractor start on the next files while this one is annotated
+    int prefetch = Math.min(getContentPrefetchSize(), queue.size());
+    for (Path next : new ArrayList<>(queue.subList(0, prefetch))) {
+      prefetchContent(() -> new FileInputStream(next.toFile()), next.toString());
+    }
   }
 
   @Override
@@ -214,21 +246,26 @@ public class FolderReader extends BaleenCollectionReader {
       watcher.close();
       watcher = null;
     }
+    if (watchThread != null) {
+      watchThread.interrupt();
+      watchThread = null;
+    }
 
+    signalledKeys.clear();
     watchKeys.clear();
     queue.clear();
   }
 
   /**
-   * Every time doHasNext() is called, check the WatchService for new events and add all new events
-   * to the queue. Then return true if there are files on the queue, or false otherwise.
+   * Every time doHasNext() is called, check for new events from the WatchService and add all new
+   * events to the queue. Then return true if there are files on the queue, or false otherwise.
    *
    * <p>If the event indicates that a file has been deleted, ensure it is removed from the queue.
    */
   @Override
   public boolean doHasNext() throws IOException, CollectionException {
     WatchKey key;
-    while ((key = watcher.poll()) != null) {
+    while ((key = signalledKeys.poll()) != null) {
       for (WatchEvent<?> event : key.pollEvents()) {
         processEvent(key, event);
         getMonitor().meter("events").mark();
@@ -3,46 +3,311 @@ package uk.gov.dstl.baleen.contentextractors;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.fork.ForkParser;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
 import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.WriteOutContentHandler;
+import org.apache.uima.UimaContext;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
 import org.xml.sax.SAXException;
 
 import com.google.common.base.Strings;
 
 import uk.gov.dstl.baleen.contentextractors.helpers.AbstractContentExtractor;
 
-/** Extracts metadata and text content from the supplied input, using Apache Tika. */
+/**
+ * Extracts metadata and text content from the supplied input, using Apache Tika.
+ *
+ * <p>Documents are parsed on background threads, which share a single Tika parser. The number of
+ * documents parsed at once, the length of text kept from each document, and how long the pipeline
+ * will wait for a document, can all be limited, so a single large document can't stall the
+ * pipeline.
+ *
+ * <p>If the collection reader supports it (as the FolderReader does), the next few documents can be
+ * parsed while the current one is being annotated.
+ *
+ * <p>Parsing can also be done out of process, by a pool of separate JVMs, so a document which
+ * exhausts the memory of the parser doesn't bring down the pipeline.
+ *
+ * @baleen.javadoc
+ */
 public class TikaContentExtractor extends AbstractContentExtractor {
 
   public static final String CORRUPT_FILE_TEXT = "FILE CONTENTS CORRUPT - UNABLE TO PROCESS";
 
+  private static final String METADATA_KEY_TRUNCATED = "baleen:content-truncated";
+
+  /**
+   * The number of documents to parse at once.
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_CONCURRENCY = "concurrency";
+
+  @ConfigurationParameter(name = PARAM_CONCURRENCY, defaultValue = "1")
+  private int concurrency;
+
+  /**
+   * The number of upcoming documents to parse while the current document is processed, if the
+   * collection reader supports it. The text of each is held in memory until it is used.
+   *
+   * @baleen.config 0
+   */
+  public static final String PARAM_PREFETCH = "prefetch";
+
+  @ConfigurationParameter(name = PARAM_PREFETCH, defaultValue = "0")
+  private int prefetch;
+
+  /**
+   * The maximum number of characters of text to extract from a document, or -1 for no limit. Longer
+   * documents are truncated, and given the metadata baleen:content-truncated.
+   *
+   * @baleen.config -1
+   */
+  public static final String PARAM_MAX_LENGTH = "maxLength";
+
+  @ConfigurationParameter(name = PARAM_MAX_LENGTH, defaultValue = "-1")
+  private int maxLength;
+
+  /**
+   * The maximum time, in milliseconds, to wait for a document to be parsed, or 0 to wait
+   * indefinitely. Documents which take longer are treated as corrupt, and the threads (and in fork
+   * mode, the parser) are replaced so later documents don't wait behind them.
+   *
+   * @baleen.config 0
+   */
+  public static final String PARAM_TIMEOUT = "timeout";
+
+  @ConfigurationParameter(name = PARAM_TIMEOUT, defaultValue = "0")
+  private long timeout;
+
+  /**
+   * If true, parse documents in separate JVMs (one per concurrent document) rather than in the
+   * pipeline's JVM.
+   *
+   * @baleen.config false
+   */
+  public static final String PARAM_FORK = "fork";
+
+  @ConfigurationParameter(name = PARAM_FORK, defaultValue = "false")
+  private boolean fork;
+
+  private final AtomicInteger threads = new AtomicInteger();
+  private volatile Parser parser;
+  private volatile ExecutorService executor;
+  private Map<String, Future<Extraction>> prefetched;
+
   @Override
-  public void doProcessStream(InputStream stream, String source, JCas jCas) throws IOException {
-    super.doProcessStream(stream, source, jCas);
+  public void doInitialize(UimaContext context, Map<String, Object> params)
+      throws ResourceInitializationException {
+    super.doInitialize(context, params);
 
-    try {
-      BodyContentHandler textHandler = new BodyContentHandler(Integer.MAX_VALUE);
-      Metadata metadata = new Metadata();
-      ParseContext context = new ParseContext();
+    concurrency = Math.max(1, concurrency);
+    prefetch = Math.max(0, prefetch);
+
+    parser = createParser();
+    executor = createExecutor();
 
-      AutoDetectParser autoParser = new AutoDetectParser();
-      autoParser.parse(stream, textHandler, metadata, context);
+    // Oldest first, so documents the reader skipped don't hold on to their text for ever
+    prefetched =
+        new LinkedHashMap<String, Future<Extraction>>() {
+          private static final long serialVersionUID = 1L;
 
-      jCas.setDocumentText(textHandler.toString());
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Future<Extraction>> eldest) {
+            if (size() > prefetch) {
+              eldest.getValue().cancel(true);
+              return true;
+            }
+            return false;
+          }
+        };
+  }
 
-      for (String name : metadata.names()) {
-        addMetadata(jCas, name, metadata.get(name));
+  private Parser createParser() {
+    if (fork) {
+      ForkParser forkParser =
+          new ForkParser(TikaContentExtractor.class.getClassLoader(), new AutoDetectParser());
+      forkParser.setPoolSize(concurrency);
+      return forkParser;
+    } else {
+      return new AutoDetectParser();
+    }
+  }
+
+  private ExecutorService createExecutor() {
+    return Executors.newFixedThreadPool(
+        concurrency,
+        r -> {
+          Thread t = new Thread(r, "tika-" + threads.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        });
+  }
+
+  /**
+   * Tika often ignores interrupts, so a parse which has timed out may keep its thread (and in fork
+   * mode its JVM) until it finishes. Rather than have later documents queue behind it, start afresh
+   * with new threads and parser. Anything prefetched is parsed again when it is needed.
+   */
+  private synchronized void replaceWorkers() {
+    prefetched.values().forEach(f -> f.cancel(true));
+    prefetched.clear();
+
+    executor.shutdownNow();
+    executor = createExecutor();
+
+    if (parser instanceof ForkParser) {
+      // Closes the JVMs which are idle, and the busy ones once they finish
+      ((ForkParser) parser).close();
+      parser = createParser();
+    }
+  }
+
+  @Override
+  public int getPrefetchSize() {
+    return prefetch;
+  }
+
+  @Override
+  public synchronized void prefetch(StreamOpener opener, String source) {
+    if (prefetch > 0 && !prefetched.containsKey(source)) {
+      prefetched.put(
+          source,
+          executor.submit(
+              () -> {
+                try (InputStream stream = opener.open()) {
+                  return parse(stream);
+                }
+              }));
+    }
+  }
+
+  @Override
+  public void doProcessStream(InputStream stream, String source, JCas jCas) throws IOException {
+    super.doProcessStream(stream, source, jCas);
+
+    Future<Extraction> future;
+    synchronized (this) {
+      future = prefetched.remove(source);
+      if (future == null) {
+        future = executor.submit(() -> parse(stream));
+      }
+    }
+
+    Extraction extraction = await(future, source);
+    if (extraction == null || extraction.error != null) {
+      if (extraction != null) {
+        getMonitor().warn("Couldn't parse metadata from '{}'", source, extraction.error);
       }
-    } catch (SAXException | TikaException e) {
-      getMonitor().warn("Couldn't parse metadata from '{}'", source, e);
       if (Strings.isNullOrEmpty(jCas.getDocumentText())) {
         jCas.setDocumentText(CORRUPT_FILE_TEXT);
       }
+      return;
+    }
+
+    jCas.setDocumentText(extraction.text);
+
+    for (String name : extraction.metadata.names()) {
+      addMetadata(jCas, name, extraction.metadata.get(name));
+    }
+
+    if (extraction.truncated) {
+      getMonitor().warn("Text of '{}' truncated to {} characters", source, maxLength);
+      addMetadata(jCas, METADATA_KEY_TRUNCATED, Boolean.TRUE.toString());
+    }
+  }
+
+  /** Parse a document, on a background thread */
+  private Extraction parse(InputStream stream) throws IOException {
+    WriteOutContentHandler textHandler = new WriteOutContentHandler(maxLength);
+    Metadata metadata = new Metadata();
+    ParseContext context = new ParseContext();
+
+    try {
+      parser.parse(stream, new BodyContentHandler(textHandler), metadata, context);
+      return new Extraction(textHandler.toString(), metadata, false, null);
+    } catch (SAXException e) {
+      if (textHandler.isWriteLimitReached(e)) {
+        return new Extraction(textHandler.toString(), metadata, true, null);
+      }
+      return new Extraction(null, metadata, false, e);
+    } catch (TikaException e) {
+      return new Extraction(null, metadata, false, e);
+    }
+  }
+
+  /** Wait for a document to be parsed, returning null if it takes too long */
+  private Extraction await(Future<Extraction> future, String source) throws IOException {
+    try {
+      if (timeout > 0) {
+        return future.get(timeout, TimeUnit.MILLISECONDS);
+      } else {
+        return future.get();
+      }
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      replaceWorkers();
+      getMonitor().warn("Timed out parsing '{}' after {}ms", source, timeout);
+      return null;
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted parsing " + source, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Unable to parse " + source, cause);
+    }
+  }
+
+  @Override
+  public void doDestroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    if (parser instanceof ForkParser) {
+      ((ForkParser) parser).close();
+    }
+    parser = null;
+    if (prefetched != null) {
+      prefetched.clear();
+    }
+
+    super.doDestroy();
+  }
+
+  /** The result of parsing a document */
+  private static class Extraction {
+    private final String text;
+    private final Metadata metadata;
+    private final boolean truncated;
+    private final Exception error;
+
+    Extraction(String text, Metadata metadata, boolean truncated, Exception error) {
+      this.text = text;
+      this.metadata = metadata;
+      this.truncated = truncated;
+      this.error = error;
     }
   }
 }
@@ -4,6 +4,7 @@ package uk.gov.dstl.baleen.contentextractors;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -11,12 +12,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.impl.CustomResourceSpecifier_impl;
 import org.junit.Test;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+
 import uk.gov.dstl.baleen.types.metadata.Metadata;
 import uk.gov.dstl.baleen.uima.BaleenContentExtractor;
 import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
@@ -109,4 +113,94 @@ public class TikaContentExtractorTest {
 
     assertEquals(TikaContentExtractor.CORRUPT_FILE_TEXT, jCas.getDocumentText());
   }
+
+  @Test
+  public void testTikaMaxLength() throws Exception {
+    JCas jCas = JCasSingleton.getJCasInstance();
+
+    Map<String, Object> params = new HashMap<>();
+    params.put(TikaContentExtractor.PARAM_MAX_LENGTH, "13");
+
+    BaleenContentExtractor contentExtractor = new TikaContentExtractor();
+
+    File f = new File(getClass().getResource("test.docx").getPath());
+
+    contentExtractor.initialize(new CustomResourceSpecifier_impl(), params);
+    try (InputStream is = new FileInputStream(f); ) {
+      contentExtractor.processStream(is, f.getPath(), jCas);
+    }
+    contentExtractor.destroy();
+
+    assertEquals("Test Document", jCas.getDocumentText());
+
+    Map<String, String> metadataMap = new HashMap<>();
+    for (Metadata md : JCasUtil.select(jCas, Metadata.class)) {
+      metadataMap.put(md.getKey(), md.getValue());
+    }
+    assertEquals("true", metadataMap.get("baleen:content-truncated"));
+  }
+
+  @Test
+  public void testTikaPrefetch() throws Exception {
+    JCas jCas = JCasSingleton.getJCasInstance();
+
+    Map<String, Object> params = new HashMap<>();
+    params.put(TikaContentExtractor.PARAM_CONCURRENCY, "2");
+    params.put(TikaContentExtractor.PARAM_PREFETCH, "1");
+
+    TikaContentExtractor contentExtractor = new TikaContentExtractor();
+
+    File f = new File(getClass().getResource("test.txt").getPath());
+
+    contentExtractor.initialize(new CustomResourceSpecifier_impl(), params);
+    assertEquals(1, contentExtractor.getPrefetchSize());
+
+    contentExtractor.prefetch(() -> new FileInputStream(f), f.getPath());
+
+    // The prefetched parse is used, not the stream passed in
+    try (InputStream is = new ByteArrayInputStream(new byte[0])) {
+      contentExtractor.processStream(is, f.getPath(), jCas);
+    }
+    contentExtractor.destroy();
+
+    assertEquals("Hello World\n", jCas.getDocumentText());
+  }
+
+  @Test
+  public void testTikaTimeout() throws Exception {
+    JCas jCas = JCasSingleton.getJCasInstance();
+
+    Map<String, Object> params = new HashMap<>();
+    params.put(TikaContentExtractor.PARAM_TIMEOUT, "500");
+
+    BaleenContentExtractor contentExtractor = new TikaContentExtractor();
+    contentExtractor.initialize(new CustomResourceSpecifier_impl(), params);
+
+    // A stream which hangs, ignoring interrupts, as Tika parsers often do
+    CountDownLatch release = new CountDownLatch(1);
+    InputStream hanging =
+        new InputStream() {
+          @Override
+          public int read() {
+            Uninterruptibles.awaitUninterruptibly(release);
+            return -1;
+          }
+        };
+
+    try {
+      contentExtractor.processStream(hanging, "hanging", jCas);
+      assertEquals(TikaContentExtractor.CORRUPT_FILE_TEXT, jCas.getDocumentText());
+
+      // The next document isn't stuck behind the hung one
+      jCas.reset();
+      File f = new File(getClass().getResource("test.txt").getPath());
+      try (InputStream is = new FileInputStream(f); ) {
+        contentExtractor.processStream(is, f.getPath(), jCas);
+      }
+      assertEquals("Hello World\n", jCas.getDocumentText());
+    } finally {
+      release.countDown();
+      contentExtractor.destroy();
+    }
+  }
 }
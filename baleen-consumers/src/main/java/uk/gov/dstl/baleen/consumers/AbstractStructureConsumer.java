@@ -11,7 +11,6 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 import uk.gov.dstl.baleen.types.structure.Structure;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
-import uk.gov.dstl.baleen.uima.utils.StructureHierarchy;
 import uk.gov.dstl.baleen.uima.utils.StructureUtil;
 import uk.gov.dstl.baleen.uima.utils.select.ItemHierarchy;
 
@@ -40,7 +39,7 @@ public abstract class AbstractStructureConsumer extends BaleenConsumer {
 
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
-    doProcess(StructureHierarchy.build(jCas, structuralClasses));
+    doProcess(getSupport().getDerivedData().getStructureHierarchy(jCas, structuralClasses));
   }
 
   /**
@@ -12,7 +12,6 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.DocumentAnnotation;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -23,6 +22,7 @@ import uk.gov.dstl.baleen.consumers.utils.ConsumerUtils;
 import uk.gov.dstl.baleen.consumers.utils.DefaultFields;
 import uk.gov.dstl.baleen.consumers.utils.EntityRelationConverter;
 import uk.gov.dstl.baleen.resources.SharedElasticsearchResource;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
 import uk.gov.dstl.baleen.types.metadata.Metadata;
 import uk.gov.dstl.baleen.types.metadata.PublishedId;
 import uk.gov.dstl.baleen.types.semantic.Entity;
@@ -35,6 +35,9 @@ import uk.gov.dstl.baleen.uima.BaleenConsumer;
  * <p>The standard Baleen output for Elasticsearch uses nested objects for storing entities, which
  * aren't supported by current versions of Kibana.
  *
+ * <p>Documents and entities are indexed in bulk, as described for {@link
+ * uk.gov.dstl.baleen.consumers.utils.AbstractElasticsearchConsumer}.
+ *
  * @baleen.javadoc
  */
 public class ElasticKibanaConsumer extends BaleenConsumer {
@@ -49,6 +52,8 @@ public class ElasticKibanaConsumer extends BaleenConsumer {
   @ExternalResource(key = KEY_ELASTICSEARCH)
   private SharedElasticsearchResource esResource;
 
+  private ElasticsearchBulkWriter writer;
+
   /**
    * The Elasticsearch index to use
    *
@@ -90,6 +95,47 @@ public class ElasticKibanaConsumer extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_CONTENT_HASH_AS_ID, defaultValue = "true")
   private boolean contentHashAsId = true;
 
+  /**
+   * The number of documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BULK_ACTIONS = "bulkActions";
+
+  @ConfigurationParameter(name = PARAM_BULK_ACTIONS, defaultValue = "1")
+  private int bulkActions = 1;
+
+  /**
+   * The size, in bytes, of the documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 5242880
+   */
+  public static final String PARAM_BULK_SIZE = "bulkSize";
+
+  @ConfigurationParameter(name = PARAM_BULK_SIZE, defaultValue = "5242880")
+  private long bulkSize = 5242880;
+
+  /**
+   * The maximum time, in milliseconds, to buffer documents for before indexing them
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_FLUSH_INTERVAL = "flushInterval";
+
+  @ConfigurationParameter(name = PARAM_FLUSH_INTERVAL, defaultValue = "1000")
+  private long flushInterval = 1000;
+
+  /**
+   * The number of bulk requests to send at once in the background, or 0 to send them during
+   * processing
+   *
+   * @baleen.config 0
+   */
+  public static final String PARAM_CONCURRENT_REQUESTS = "concurrentRequests";
+
+  @ConfigurationParameter(name = PARAM_CONCURRENT_REQUESTS, defaultValue = "0")
+  private int concurrentRequests = 0;
+
   private static final String ES_PARENT = "_parent";
   private static final String ES_PROPERTIES = "properties";
   private static final String ES_DYNAMIC_TEMPLATES = "dynamic_templates";
@@ -117,6 +163,26 @@ public class ElasticKibanaConsumer extends BaleenConsumer {
         throw new ResourceInitializationException(ioe);
       }
     }
+
+    writer =
+        esResource.createBulkWriter(
+            bulkActions,
+            bulkSize,
+            flushInterval,
+            concurrentRequests,
+            getMonitor().timer("bulkLatency"),
+            getMonitor().meter("bulkRejections"));
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    writer.flush();
+  }
+
+  @Override
+  protected void doDestroy() {
+    writer.close();
   }
 
   @Override
@@ -146,27 +212,16 @@ public class ElasticKibanaConsumer extends BaleenConsumer {
 
     // Add document and entities to Elasticsearch
     try {
-      esResource
-          .getClient()
-          .prepareIndex(index, documentType, docId)
-          .setSource(document)
-          .execute()
-          .actionGet();
-    } catch (ElasticsearchException ee) {
-      getMonitor().error("Couldn't persist document to Elasticsearch", ee);
+      writer.add(index, documentType, docId, document);
+    } catch (IOException ioe) {
+      getMonitor().error("Couldn't persist document to Elasticsearch", ioe);
     }
 
     for (Map<String, Object> entity : entities) {
       try {
-        esResource
-            .getClient()
-            .prepareIndex(index, entityType, docId + "-" + entity.get("externalId"))
-            .setSource(entity)
-            .setParent(docId)
-            .execute()
-            .actionGet();
-      } catch (ElasticsearchException ee) {
-        getMonitor().error("Couldn't persist entity to Elasticsearch", ee);
+        writer.add(index, entityType, docId + "-" + entity.get("externalId"), docId, entity);
+      } catch (IOException ioe) {
+        getMonitor().error("Couldn't persist entity to Elasticsearch", ioe);
       }
     }
   }
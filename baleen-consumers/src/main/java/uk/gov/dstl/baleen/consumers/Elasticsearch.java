@@ -2,15 +2,16 @@
 // Modified by NCA (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.consumers;
 
-import java.util.Map;
-
 import org.apache.uima.fit.descriptor.ExternalResource;
-import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
 import uk.gov.dstl.baleen.consumers.utils.AbstractElasticsearchConsumer;
 import uk.gov.dstl.baleen.resources.SharedElasticsearchResource;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
 
 /**
  * Output processed CAS object into Elasticsearch, using the schema defined in
@@ -65,11 +66,14 @@ public class Elasticsearch extends AbstractElasticsearchConsumer {
   }
 
   @Override
-  public void addDocument(String id, Map<String, Object> json) {
-    try {
-      esResource.getClient().prepareIndex(index, type, id).setSource(json).execute().actionGet();
-    } catch (ElasticsearchException ee) {
-      getMonitor().error("Couldn't persist document to Elasticsearch", ee);
-    }
+  protected ElasticsearchBulkWriter createBulkWriter(
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      Timer latency,
+      Meter rejections) {
+    return esResource.createBulkWriter(
+        maxActions, maxBytes, flushInterval, concurrentRequests, latency, rejections);
   }
 }
@@ -4,7 +4,6 @@ package uk.gov.dstl.baleen.consumers;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Map;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.StringEntity;
@@ -13,10 +12,12 @@ import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 
 import uk.gov.dstl.baleen.consumers.utils.AbstractElasticsearchConsumer;
 import uk.gov.dstl.baleen.resources.SharedElasticsearchRestResource;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
 
 /**
  * Use the Elasticsearch REST API to save processed documents, using the schema defined in
@@ -37,8 +38,6 @@ public class ElasticsearchRest extends AbstractElasticsearchConsumer {
   @ExternalResource(key = KEY_ELASTICSEARCH_REST)
   private SharedElasticsearchRestResource esrResource;
 
-  private ObjectMapper objectMapper = new ObjectMapper();
-
   @Override
   public boolean createIndex() {
     RestClient client = esrResource.getClient();
@@ -72,16 +71,14 @@ public class ElasticsearchRest extends AbstractElasticsearchConsumer {
   }
 
   @Override
-  public void addDocument(String id, Map<String, Object> json) {
-    try {
-      HttpEntity entity = new StringEntity(objectMapper.writeValueAsString(json));
-
-      esrResource
-          .getClient()
-          .performRequest(
-              "PUT", "/" + index + "/" + type + "/" + id, Collections.emptyMap(), entity);
-    } catch (IOException ioe) {
-      getMonitor().error("Couldn't persist document to Elasticsearch", ioe);
-    }
+  protected ElasticsearchBulkWriter createBulkWriter(
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      Timer latency,
+      Meter rejections) {
+    return esrResource.createBulkWriter(
+        maxActions, maxBytes, flushInterval, concurrentRequests, latency, rejections);
   }
 }
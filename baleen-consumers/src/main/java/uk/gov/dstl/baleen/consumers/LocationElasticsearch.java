@@ -14,7 +14,6 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.DocumentAnnotation;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.geo.GeoPoint;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -27,6 +26,7 @@ import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import uk.gov.dstl.baleen.consumers.utils.ConsumerUtils;
 import uk.gov.dstl.baleen.resources.SharedElasticsearchResource;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
 import uk.gov.dstl.baleen.types.geo.Coordinate;
 import uk.gov.dstl.baleen.types.semantic.Location;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
@@ -38,6 +38,9 @@ import uk.gov.dstl.baleen.uima.UimaSupport;
  * <p>This creates an index of document id to the location mention using both geo_shape and, for
  * coordinates, geo_point datatypes.
  *
+ * <p>Documents are indexed in bulk, as described for {@link
+ * uk.gov.dstl.baleen.consumers.utils.AbstractElasticsearchConsumer}.
+ *
  * @baleen.javadoc
  */
 public class LocationElasticsearch extends BaleenConsumer {
@@ -73,6 +76,47 @@ public class LocationElasticsearch extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_CONTENT_HASH_AS_ID, defaultValue = "true")
   boolean contentHashAsId = true;
 
+  /**
+   * The number of documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BULK_ACTIONS = "bulkActions";
+
+  @ConfigurationParameter(name = PARAM_BULK_ACTIONS, defaultValue = "1")
+  private int bulkActions = 1;
+
+  /**
+   * The size, in bytes, of the documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 5242880
+   */
+  public static final String PARAM_BULK_SIZE = "bulkSize";
+
+  @ConfigurationParameter(name = PARAM_BULK_SIZE, defaultValue = "5242880")
+  private long bulkSize = 5242880;
+
+  /**
+   * The maximum time, in milliseconds, to buffer documents for before indexing them
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_FLUSH_INTERVAL = "flushInterval";
+
+  @ConfigurationParameter(name = PARAM_FLUSH_INTERVAL, defaultValue = "1000")
+  private long flushInterval = 1000;
+
+  /**
+   * The number of bulk requests to send at once in the background, or 0 to send them during
+   * processing
+   *
+   * @baleen.config 0
+   */
+  public static final String PARAM_CONCURRENT_REQUESTS = "concurrentRequests";
+
+  @ConfigurationParameter(name = PARAM_CONCURRENT_REQUESTS, defaultValue = "0")
+  private int concurrentRequests = 0;
+
   /**
    * Connection to Elasticsearch
    *
@@ -83,6 +127,8 @@ public class LocationElasticsearch extends BaleenConsumer {
   @ExternalResource(key = KEY_ELASTICSEARCH)
   private SharedElasticsearchResource esResource;
 
+  private ElasticsearchBulkWriter writer;
+
   private final ObjectMapper mapper = new ObjectMapper();
 
   private final MapLikeType mapLikeType =
@@ -122,6 +168,26 @@ public class LocationElasticsearch extends BaleenConsumer {
                 ioe);
       }
     }
+
+    writer =
+        esResource.createBulkWriter(
+            bulkActions,
+            bulkSize,
+            flushInterval,
+            concurrentRequests,
+            getMonitor().timer("bulkLatency"),
+            getMonitor().meter("bulkRejections"));
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    writer.flush();
+  }
+
+  @Override
+  protected void doDestroy() {
+    writer.close();
   }
 
   /**
@@ -167,9 +233,9 @@ public class LocationElasticsearch extends BaleenConsumer {
   /** Add the document (provided as JSON) to Elasticsearch, using the id provided. */
   public void addDocument(String id, Map<String, Object> json) {
     try {
-      esResource.getClient().prepareIndex(index, type, id).setSource(json).execute().actionGet();
-    } catch (ElasticsearchException ee) {
-      getMonitor().error("Couldn't persist document to Elasticsearch", ee);
+      writer.add(index, type, id, json);
+    } catch (IOException ioe) {
+      getMonitor().error("Couldn't persist document to Elasticsearch", ioe);
     }
   }
 
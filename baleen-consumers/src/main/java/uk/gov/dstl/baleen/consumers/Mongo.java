@@ -5,6 +5,7 @@ import static java.util.stream.Collectors.toList;
 import static uk.gov.dstl.baleen.uima.utils.UimaTypesUtils.toList;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -19,12 +20,10 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.DocumentAnnotation;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.bson.BsonSerializationException;
 import org.bson.Document;
 
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
@@ -33,6 +32,7 @@ import uk.gov.dstl.baleen.consumers.utils.DefaultFields;
 import uk.gov.dstl.baleen.consumers.utils.EntityRelationConverter;
 import uk.gov.dstl.baleen.consumers.utils.IEntityConverterFields;
 import uk.gov.dstl.baleen.resources.SharedMongoResource;
+import uk.gov.dstl.baleen.resources.utils.MongoBulkWriter;
 import uk.gov.dstl.baleen.types.metadata.Metadata;
 import uk.gov.dstl.baleen.types.metadata.PublishedId;
 import uk.gov.dstl.baleen.types.semantic.Entity;
@@ -114,6 +114,10 @@ import uk.gov.dstl.baleen.uima.utils.ReferentUtils;
  * }
  * </pre>
  *
+ * <p>The output of bulkDocuments documents is buffered and then written in bulk, replacing any
+ * existing output for the same documents. Buffered output is also written after bulkAge
+ * milliseconds, when the pipeline is paused or idle, and when the consumer is destroyed.
+ *
  * @baleen.javadoc
  */
 public class Mongo extends BaleenConsumer {
@@ -189,12 +193,34 @@ public class Mongo extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_OUTPUT_CONTENT, defaultValue = "true")
   private boolean outputContent = false;
 
+  /**
+   * The number of documents to buffer before writing them to Mongo in bulk
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BULK_DOCUMENTS = "bulkDocuments";
+
+  @ConfigurationParameter(name = PARAM_BULK_DOCUMENTS, defaultValue = "1")
+  private int bulkDocuments = 1;
+
+  /**
+   * The maximum time, in milliseconds, to buffer documents for before writing them to Mongo
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_BULK_AGE = "bulkAge";
+
+  @ConfigurationParameter(name = PARAM_BULK_AGE, defaultValue = "1000")
+  private long bulkAge = 1000;
+
   private MongoCollection<Document> entitiesCollection;
 
   private MongoCollection<Document> relationsCollection;
 
   private MongoCollection<Document> documentsCollection;
 
+  private MongoBulkWriter writer;
+
   /**
    * Holds the types of features that we're not interested in persisting (stuff from UIMA for
    * example) We're storing these so that we can loop through the features (and then ignore some of
@@ -239,10 +265,19 @@ public class Mongo extends BaleenConsumer {
     stopFeatures = new HashSet<>();
     stopFeatures.add("uima.cas.AnnotationBase:sofa");
     stopFeatures.add("uk.gov.dstl.baleen.types.BaleenAnnotation:internalId");
+
+    writer = mongoResource.createBulkWriter(bulkDocuments, bulkAge);
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    writer.flush();
   }
 
   @Override
   public void doDestroy() {
+    writer.close();
     entitiesCollection = null;
     relationsCollection = null;
     documentsCollection = null;
@@ -255,49 +290,24 @@ public class Mongo extends BaleenConsumer {
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
     String documentId = getUniqueId(jCas);
-    deleteAnyExistingContent(documentId);
-    saveNewContent(jCas, documentId);
-  }
 
-  private void saveNewContent(JCas jCas, String documentId) {
-    try {
-      saveDocument(documentId, jCas);
-    } catch (MongoException | BsonSerializationException e) {
-      getMonitor()
-          .error(
-              "Unable to persist document to database - document {} will be skipped",
-              getDocumentAnnotation(jCas).getSourceUri(),
-              e);
-      return;
-    }
-
-    try {
-      saveEntities(documentId, jCas);
-    } catch (MongoException | BsonSerializationException e) {
-      getMonitor()
-          .error(
-              "Unable to persist entities to database - document {} will contain no entities",
-              getDocumentAnnotation(jCas).getSourceUri(),
-              e);
-    }
-    try {
-      saveRelations(documentId, jCas);
-    } catch (MongoException | BsonSerializationException e) {
-      getMonitor()
-          .error(
-              "Unable to persist relations to database - document {} will contain no relations",
-              getDocumentAnnotation(jCas).getSourceUri(),
-              e);
-    }
-  }
-
-  private void deleteAnyExistingContent(String documentId) {
-    entitiesCollection.deleteMany(new Document(FIELD_DOCUMENT_ID, documentId));
-    relationsCollection.deleteMany(new Document(FIELD_DOCUMENT_ID, documentId));
-    documentsCollection.deleteMany(new Document(fields.getExternalId(), documentId));
+    // Replaces any existing content in the database
+    writer.replace(
+        documentsCollection,
+        new Document(fields.getExternalId(), documentId),
+        Collections.singletonList(createDocument(documentId, jCas)));
+    writer.replace(
+        entitiesCollection,
+        new Document(FIELD_DOCUMENT_ID, documentId),
+        createEntities(documentId, jCas));
+    writer.replace(
+        relationsCollection,
+        new Document(FIELD_DOCUMENT_ID, documentId),
+        createRelations(documentId, jCas));
+    writer.completeDocument();
   }
 
-  private void saveDocument(String documentId, JCas jCas) {
+  private Document createDocument(String documentId, JCas jCas) {
     Document doc = new Document();
 
     DocumentAnnotation da = getDocumentAnnotation(jCas);
@@ -321,7 +331,7 @@ public class Mongo extends BaleenConsumer {
       doc.append(FIELD_CONTENT, jCas.getDocumentText());
     }
 
-    documentsCollection.insertOne(doc);
+    return doc;
   }
 
   private void addMetadata(JCas jCas, Document doc) {
@@ -346,7 +356,7 @@ public class Mongo extends BaleenConsumer {
     doc.append(FIELD_PUBLISHEDIDS, publishedIds);
   }
 
-  private void saveEntities(String documentId, JCas jCas) {
+  private List<Document> createEntities(String documentId, JCas jCas) {
     EntityRelationConverter converter =
         new EntityRelationConverter(
             getMonitor(),
@@ -358,30 +368,25 @@ public class Mongo extends BaleenConsumer {
     Multimap<ReferenceTarget, Entity> targetted =
         ReferentUtils.createReferentMap(jCas, Entity.class, false);
 
-    List<Document> ents =
-        targetted
-            .asMap()
-            .entrySet()
-            .stream()
-            .map(
-                e -> {
-                  ReferenceTarget referenceTarget = e.getKey();
-                  return new Document()
-                      .append(FIELD_DOCUMENT_ID, documentId)
-                      .append(fields.getExternalId(), ConsumerUtils.getExternalId(e.getValue()))
-                      .append(FIELD_LINKING, referenceTarget.getLinking())
-                      .append(
-                          FIELD_ENTITIES,
-                          e.getValue().stream().map(converter::convertEntity).collect(toList()));
-                })
-            .collect(Collectors.toList());
-
-    if (!ents.isEmpty()) {
-      entitiesCollection.insertMany(ents);
-    }
+    return targetted
+        .asMap()
+        .entrySet()
+        .stream()
+        .map(
+            e -> {
+              ReferenceTarget referenceTarget = e.getKey();
+              return new Document()
+                  .append(FIELD_DOCUMENT_ID, documentId)
+                  .append(fields.getExternalId(), ConsumerUtils.getExternalId(e.getValue()))
+                  .append(FIELD_LINKING, referenceTarget.getLinking())
+                  .append(
+                      FIELD_ENTITIES,
+                      e.getValue().stream().map(converter::convertEntity).collect(toList()));
+            })
+        .collect(Collectors.toList());
   }
 
-  private void saveRelations(String documentId, JCas jCas) {
+  private List<Document> createRelations(String documentId, JCas jCas) {
     EntityRelationConverter converter =
         new EntityRelationConverter(
             getMonitor(),
@@ -390,16 +395,11 @@ public class Mongo extends BaleenConsumer {
             stopFeatures,
             fields);
 
-    List<Document> rels =
-        JCasUtil.select(jCas, Relation.class)
-            .stream()
-            .map(converter::convertRelation)
-            .map(Document::new)
-            .peek(d -> d.append(FIELD_DOCUMENT_ID, documentId))
-            .collect(toList());
-
-    if (!rels.isEmpty()) {
-      relationsCollection.insertMany(rels);
-    }
+    return JCasUtil.select(jCas, Relation.class)
+        .stream()
+        .map(converter::convertRelation)
+        .map(Document::new)
+        .peek(d -> d.append(FIELD_DOCUMENT_ID, documentId))
+        .collect(toList());
   }
 }
@@ -18,10 +18,8 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.StringArray;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.bson.BsonSerializationException;
 import org.bson.Document;
 
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
@@ -31,6 +29,7 @@ import uk.gov.dstl.baleen.consumers.utils.HistoryConverter;
 import uk.gov.dstl.baleen.consumers.utils.IEntityConverterFields;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
 import uk.gov.dstl.baleen.resources.SharedMongoResource;
+import uk.gov.dstl.baleen.resources.utils.MongoBulkWriter;
 import uk.gov.dstl.baleen.types.Base;
 import uk.gov.dstl.baleen.types.language.Paragraph;
 import uk.gov.dstl.baleen.types.language.Sentence;
@@ -38,7 +37,12 @@ import uk.gov.dstl.baleen.types.semantic.Entity;
 import uk.gov.dstl.baleen.types.semantic.Event;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
 
-/** Consumer that adds Events to MongoDB */
+/**
+ * Consumer that adds Events to MongoDB
+ *
+ * <p>The events of bulkDocuments documents are buffered and then written in bulk, replacing any
+ * existing events for the same documents.
+ */
 public class MongoEvents extends BaleenConsumer {
 
   @ExternalResource(key = SharedMongoResource.RESOURCE_KEY)
@@ -91,8 +95,30 @@ public class MongoEvents extends BaleenConsumer {
   )
   private String extractedFrom;
 
+  /**
+   * The number of documents to buffer before writing them to Mongo in bulk
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BULK_DOCUMENTS = "bulkDocuments";
+
+  @ConfigurationParameter(name = PARAM_BULK_DOCUMENTS, defaultValue = "1")
+  private int bulkDocuments = 1;
+
+  /**
+   * The maximum time, in milliseconds, to buffer documents for before writing them to Mongo
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_BULK_AGE = "bulkAge";
+
+  @ConfigurationParameter(name = PARAM_BULK_AGE, defaultValue = "1000")
+  private long bulkAge = 1000;
+
   private MongoCollection<Document> eventsCollection;
 
+  private MongoBulkWriter writer;
+
   static final String PARAGRAPHS = "paragraphs";
   static final String SENTENCES = "sentences";
 
@@ -132,6 +158,19 @@ public class MongoEvents extends BaleenConsumer {
     stopFeatures.add("uk.gov.dstl.baleen.types.BaleenAnnotation:internalId");
 
     textClass = getTextClass();
+
+    writer = mongoResource.createBulkWriter(bulkDocuments, bulkAge);
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    writer.flush();
+  }
+
+  @Override
+  protected void doDestroy() {
+    writer.close();
   }
 
   @Override
@@ -139,19 +178,12 @@ public class MongoEvents extends BaleenConsumer {
 
     String documentId = ConsumerUtils.getExternalId(getDocumentAnnotation(jCas), contentHashAsId);
 
-    // Delete any existing content in the database
-    deleteAllContent(documentId);
-
-    // Save
-    try {
-      saveEvents(documentId, jCas, textClass);
-    } catch (MongoException | BsonSerializationException e) {
-      getMonitor()
-          .error(
-              "Unable to persist relations to database - document {} will contain no relations",
-              getDocumentAnnotation(jCas).getSourceUri(),
-              e);
-    }
+    // Replaces any existing content in the database
+    writer.replace(
+        eventsCollection,
+        new Document(FIELD_DOCUMENT_ID, documentId),
+        createEvents(documentId, jCas, textClass));
+    writer.completeDocument();
   }
 
   private Class<? extends Base> getTextClass() throws ResourceInitializationException {
@@ -172,53 +204,49 @@ public class MongoEvents extends BaleenConsumer {
                 + PARAGRAPHS));
   }
 
-  private <T extends Base> void saveEvents(String documentId, JCas jCas, Class<T> textClass) {
+  private <T extends Base> List<Document> createEvents(
+      String documentId, JCas jCas, Class<T> textClass) {
 
     final Map<Event, Collection<T>> coveringText =
-        JCasUtil.indexCovering(jCas, Event.class, textClass);
-
-    List<Document> eventDocuments =
-        JCasUtil.select(jCas, Event.class)
-            .stream()
-            .map(
-                e -> {
-                  String text =
-                      coveringText
-                          .get(e)
-                          .stream()
-                          .map(T::getCoveredText)
-                          .collect(Collectors.joining(" "));
-
-                  // @formatter:off
-                  Document document =
-                      new Document()
-                          .append(FIELD_TEXT, text)
-                          .append(FIELD_ENTITIES, getEntityDocuments(e))
-                          .append(FIELD_DOCUMENT_ID, documentId)
-                          .append(FIELD_TYPES, getEventTypes(e))
-                          .append(FIELD_VALUE, e.getValue())
-                          .append(FIELD_TOKENS, getEventTokens(e))
-                          .append(FIELD_BEGIN, e.getBegin())
-                          .append(FIELD_END, e.getEnd())
-                          .append(FIELD_CONFIDENCE, e.getConfidence());
-
-                  if (outputHistory) {
-                    HistoryConverter converter =
-                        new HistoryConverter(
-                            e, fields, getSupport().getDocumentHistory(jCas), getMonitor());
-                    Map<String, Object> historyMap = converter.convert();
-                    document.append(FIELD_HISTORY, historyMap);
-                  }
-
-                  return document;
-
-                  // @formatter:on
-                })
-            .collect(Collectors.toList());
-
-    if (!eventDocuments.isEmpty()) {
-      eventsCollection.insertMany(eventDocuments);
-    }
+        getSupport().getDerivedData().indexCovering(jCas, Event.class, textClass);
+
+    return JCasUtil.select(jCas, Event.class)
+        .stream()
+        .map(
+            e -> {
+              String text =
+                  coveringText
+                      .get(e)
+                      .stream()
+                      .map(T::getCoveredText)
+                      .collect(Collectors.joining(" "));
+
+              // @formatter:off
+              Document document =
+                  new Document()
+                      .append(FIELD_TEXT, text)
+                      .append(FIELD_ENTITIES, getEntityDocuments(e))
+                      .append(FIELD_DOCUMENT_ID, documentId)
+                      .append(FIELD_TYPES, getEventTypes(e))
+                      .append(FIELD_VALUE, e.getValue())
+                      .append(FIELD_TOKENS, getEventTokens(e))
+                      .append(FIELD_BEGIN, e.getBegin())
+                      .append(FIELD_END, e.getEnd())
+                      .append(FIELD_CONFIDENCE, e.getConfidence());
+
+              if (outputHistory) {
+                HistoryConverter converter =
+                    new HistoryConverter(
+                        e, fields, getSupport().getDocumentHistory(jCas), getMonitor());
+                Map<String, Object> historyMap = converter.convert();
+                document.append(FIELD_HISTORY, historyMap);
+              }
+
+              return document;
+
+              // @formatter:on
+            })
+        .collect(Collectors.toList());
   }
 
   private List<String> getEventTypes(Event e) {
@@ -239,10 +267,6 @@ public class MongoEvents extends BaleenConsumer {
     return tokens;
   }
 
-  private void deleteAllContent(String documentId) {
-    eventsCollection.deleteMany(new Document(FIELD_DOCUMENT_ID, documentId));
-  }
-
   private List<Document> getEntityDocuments(Event e) {
 
     List<Document> entityDocuments = new ArrayList<>();
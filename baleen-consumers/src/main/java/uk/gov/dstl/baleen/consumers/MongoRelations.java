@@ -13,11 +13,9 @@ import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.bson.BsonSerializationException;
 import org.bson.Document;
 
 import com.google.common.collect.ImmutableMap;
-import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
@@ -25,6 +23,7 @@ import uk.gov.dstl.baleen.consumers.utils.ConsumerUtils;
 import uk.gov.dstl.baleen.consumers.utils.DefaultFields;
 import uk.gov.dstl.baleen.consumers.utils.IEntityConverterFields;
 import uk.gov.dstl.baleen.resources.SharedMongoResource;
+import uk.gov.dstl.baleen.resources.utils.MongoBulkWriter;
 import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.semantic.Relation;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
@@ -42,6 +41,9 @@ import uk.gov.dstl.baleen.uima.BaleenConsumer;
  *     target, begin, end, confidence}
  * </pre>
  *
+ * <p>The relations of bulkDocuments documents are buffered and then written in bulk, replacing any
+ * existing relations for the same documents.
+ *
  * @baleen.javadoc
  */
 public class MongoRelations extends BaleenConsumer {
@@ -85,8 +87,30 @@ public class MongoRelations extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_RELATIONS_COLLECTION, defaultValue = "full_relations")
   private String relationsCollectionName;
 
+  /**
+   * The number of documents to buffer before writing them to Mongo in bulk
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BULK_DOCUMENTS = "bulkDocuments";
+
+  @ConfigurationParameter(name = PARAM_BULK_DOCUMENTS, defaultValue = "1")
+  private int bulkDocuments = 1;
+
+  /**
+   * The maximum time, in milliseconds, to buffer documents for before writing them to Mongo
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_BULK_AGE = "bulkAge";
+
+  @ConfigurationParameter(name = PARAM_BULK_AGE, defaultValue = "1000")
+  private long bulkAge = 1000;
+
   private MongoCollection<Document> relationsCollection;
 
+  private MongoBulkWriter writer;
+
   // Fields
   public static final String FIELD_RELATIONSHIP_TYPE = "relationshipType";
   public static final String FIELD_RELATIONSHIP_SUBTYPE = "relationSubtype";
@@ -126,10 +150,19 @@ public class MongoRelations extends BaleenConsumer {
     relationsCollection.createIndex(
         new Document(ImmutableMap.of(FIELD_SOURCE_VALUE, 1, FIELD_TARGET_VALUE, 1)));
     relationsCollection.createIndex(new Document(FIELD_DOCUMENT_ID, 1));
+
+    writer = mongoResource.createBulkWriter(bulkDocuments, bulkAge);
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    writer.flush();
   }
 
   @Override
   public void doDestroy() {
+    writer.close();
     relationsCollection = null;
   }
 
@@ -141,75 +174,58 @@ public class MongoRelations extends BaleenConsumer {
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
     String documentId = getUniqueId(jCas);
 
-    // Delete any existing content in the database
-    deleteAllContent(documentId);
-
-    // Save
-    try {
-      saveRelations(documentId, jCas);
-    } catch (MongoException | BsonSerializationException e) {
-      getMonitor()
-          .error(
-              "Unable to persist relations to database - document {} will contain no relations",
-              getDocumentAnnotation(jCas).getSourceUri(),
-              e);
-    }
+    // Replaces any existing content in the database
+    writer.replace(
+        relationsCollection,
+        new Document(FIELD_DOCUMENT_ID, documentId),
+        createRelations(documentId, jCas));
+    writer.completeDocument();
   }
 
-  private void deleteAllContent(String documentId) {
-    relationsCollection.deleteMany(new Document(FIELD_DOCUMENT_ID, documentId));
-  }
-
-  private void saveRelations(String documentId, JCas jCas) {
+  private List<Document> createRelations(String documentId, JCas jCas) {
     final Map<Relation, Collection<Sentence>> coveringSentence =
-        JCasUtil.indexCovering(jCas, Relation.class, Sentence.class);
-
-    List<Document> rels =
-        JCasUtil.select(jCas, Relation.class)
-            .stream()
-            .map(
-                r -> {
-                  String sentence =
-                      coveringSentence
-                          .get(r)
-                          .stream()
-                          .map(Sentence::getCoveredText)
-                          .collect(Collectors.joining(". "));
-
-                  // @formatter:off
-                  return new Document()
-                      .append(fields.getExternalId(), r.getExternalId())
-                      .append(FIELD_RELATIONSHIP_TYPE, r.getRelationshipType())
-                      .append(FIELD_RELATIONSHIP_SUBTYPE, r.getRelationSubType())
-                      .append(FIELD_SOURCE_VALUE, r.getSource().getValue())
-                      .append(FIELD_SOURCE_TYPE, r.getSource().getType().getShortName())
-                      .append(FIELD_SOURCE_TYPE_FULL, r.getSource().getType().getName())
-                      .append(FIELD_VALUE, r.getValue())
-                      .append(FIELD_TARGET_VALUE, r.getTarget().getValue())
-                      .append(FIELD_TARGET_TYPE, r.getTarget().getType().getShortName())
-                      .append(FIELD_TARGET_TYPE_FULL, r.getTarget().getType().getName())
-                      .append(FIELD_SENTENCE, sentence)
-                      .append(FIELD_DOCUMENT_ID, documentId)
-                      .append(FIELD_SOURCE, r.getSource().getExternalId())
-                      .append(FIELD_TARGET, r.getTarget().getExternalId())
-                      .append(FIELD_BEGIN, r.getBegin())
-                      .append(FIELD_END, r.getEnd())
-                      .append(FIELD_CONFIDENCE, r.getConfidence())
-                      .append(FIELD_SENTENCE_DISTANCE, r.getSentenceDistance())
-                      .append(FIELD_NORMAL_SENTENCE_DISTANCE, normalize(r.getSentenceDistance()))
-                      .append(FIELD_WORD_DISTANCE, r.getWordDistance())
-                      .append(FIELD_NORMAL_WORD_DISTANCE, normalize(r.getWordDistance()))
-                      .append(FIELD_DEPENDENCY_DISTANCE, r.getDependencyDistance())
-                      .append(
-                          FIELD_NORMAL_DEPENDENCY_DISTANCE, normalize(r.getDependencyDistance()));
-                  // @formatter:on
-
-                })
-            .collect(Collectors.toList());
-
-    if (!rels.isEmpty()) {
-      relationsCollection.insertMany(rels);
-    }
+        getSupport().getDerivedData().indexCovering(jCas, Relation.class, Sentence.class);
+
+    return JCasUtil.select(jCas, Relation.class)
+        .stream()
+        .map(
+            r -> {
+              String sentence =
+                  coveringSentence
+                      .get(r)
+                      .stream()
+                      .map(Sentence::getCoveredText)
+                      .collect(Collectors.joining(". "));
+
+              // @formatter:off
+              return new Document()
+                  .append(fields.getExternalId(), r.getExternalId())
+                  .append(FIELD_RELATIONSHIP_TYPE, r.getRelationshipType())
+                  .append(FIELD_RELATIONSHIP_SUBTYPE, r.getRelationSubType())
+                  .append(FIELD_SOURCE_VALUE, r.getSource().getValue())
+                  .append(FIELD_SOURCE_TYPE, r.getSource().getType().getShortName())
+                  .append(FIELD_SOURCE_TYPE_FULL, r.getSource().getType().getName())
+                  .append(FIELD_VALUE, r.getValue())
+                  .append(FIELD_TARGET_VALUE, r.getTarget().getValue())
+                  .append(FIELD_TARGET_TYPE, r.getTarget().getType().getShortName())
+                  .append(FIELD_TARGET_TYPE_FULL, r.getTarget().getType().getName())
+                  .append(FIELD_SENTENCE, sentence)
+                  .append(FIELD_DOCUMENT_ID, documentId)
+                  .append(FIELD_SOURCE, r.getSource().getExternalId())
+                  .append(FIELD_TARGET, r.getTarget().getExternalId())
+                  .append(FIELD_BEGIN, r.getBegin())
+                  .append(FIELD_END, r.getEnd())
+                  .append(FIELD_CONFIDENCE, r.getConfidence())
+                  .append(FIELD_SENTENCE_DISTANCE, r.getSentenceDistance())
+                  .append(FIELD_NORMAL_SENTENCE_DISTANCE, normalize(r.getSentenceDistance()))
+                  .append(FIELD_WORD_DISTANCE, r.getWordDistance())
+                  .append(FIELD_NORMAL_WORD_DISTANCE, normalize(r.getWordDistance()))
+                  .append(FIELD_DEPENDENCY_DISTANCE, r.getDependencyDistance())
+                  .append(FIELD_NORMAL_DEPENDENCY_DISTANCE, normalize(r.getDependencyDistance()));
+              // @formatter:on
+
+            })
+        .collect(Collectors.toList());
   }
 
   private double normalize(int count) {
@@ -1,7 +1,6 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.consumers;
 
-import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -15,6 +14,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
@@ -58,6 +60,13 @@ import uk.gov.dstl.baleen.uima.BaleenConsumer;
  *
  * Requires PostGIS 2 or later.
  *
+ * <p>Documents are written in transactions of documentsPerTransaction documents, using JDBC
+ * batches. The keys of the rows are reserved from the table sequences up front, rather than read
+ * back after each insert, so each transaction takes a fixed number of round trips to the database.
+ * Documents waiting to be written are held in memory, and are written once the oldest is
+ * maxBatchAge milliseconds old, when the pipeline is paused or runs out of documents, and when the
+ * consumer is destroyed. If the transaction fails then all the documents in it are rolled back.
+ *
  * @baleen.javadoc
  */
 public class Postgres extends BaleenConsumer {
@@ -102,10 +111,40 @@ public class Postgres extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_CONTENT_HASH_AS_ID, defaultValue = "true")
   private boolean contentHashAsId = true;
 
+  /**
+   * The number of documents to write in each transaction
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_DOCUMENTS_PER_TRANSACTION = "documentsPerTransaction";
+
+  @ConfigurationParameter(name = PARAM_DOCUMENTS_PER_TRANSACTION, defaultValue = "1")
+  private int documentsPerTransaction = 1;
+
+  /**
+   * The maximum time, in milliseconds, to hold documents before writing them, or 0 for no limit.
+   * Only used if documentsPerTransaction is greater than 1.
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_MAX_BATCH_AGE = "maxBatchAge";
+
+  @ConfigurationParameter(name = PARAM_MAX_BATCH_AGE, defaultValue = "1000")
+  private long maxBatchAge = 1000;
+
   private PreparedStatement insertDocStatement;
   private PreparedStatement insertDocMetadataStatement;
   private PreparedStatement insertEntityStatement;
   private PreparedStatement insertEntityGeoStatement;
+  private PreparedStatement reserveKeysStatement;
+
+  private String docSequence;
+  private String entitySequence;
+
+  private final List<DocumentRow> pending = new ArrayList<>();
+  private long oldest = 0;
+
+  private ScheduledExecutorService flusher;
 
   private static final ObjectMapper MAPPER = new ObjectMapper();
   private static final MapLikeType MAP_LIKE_TYPE =
@@ -126,39 +165,49 @@ public class Postgres extends BaleenConsumer {
     createTables();
 
     try {
+      Connection conn = postgresResource.getConnection();
+      docSequence = getSequence(conn, getTableName(DOC_ROOT));
+      entitySequence = getSequence(conn, getTableName(ENTITY_ROOT));
+
       insertDocStatement =
-          postgresResource
-              .getConnection()
-              .prepareStatement(
-                  INSERT_INTO_PREFIX
-                      + getTableName(DOC_ROOT)
-                      + " (externalId, type, source, content, language, processed, classification, caveats, releasability) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                  Statement.RETURN_GENERATED_KEYS);
+          conn.prepareStatement(
+              INSERT_INTO_PREFIX
+                  + getTableName(DOC_ROOT)
+                  + " (key, externalId, type, source, content, language, processed, classification, caveats, releasability) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
       insertDocMetadataStatement =
-          postgresResource
-              .getConnection()
-              .prepareStatement(
-                  INSERT_INTO_PREFIX
-                      + getTableName(DOC_METADATA_ROOT)
-                      + " (doc_key, name, value) VALUES (?, ?, ?)");
+          conn.prepareStatement(
+              INSERT_INTO_PREFIX
+                  + getTableName(DOC_METADATA_ROOT)
+                  + " (doc_key, name, value) VALUES (?, ?, ?)");
       insertEntityStatement =
-          postgresResource
-              .getConnection()
-              .prepareStatement(
-                  INSERT_INTO_PREFIX
-                      + getTableName(ENTITY_ROOT)
-                      + " (doc_key, externalId, type, value) VALUES (?, ?, ?, ?)",
-                  Statement.RETURN_GENERATED_KEYS);
+          conn.prepareStatement(
+              INSERT_INTO_PREFIX
+                  + getTableName(ENTITY_ROOT)
+                  + " (key, doc_key, externalId, type, value) VALUES (?, ?, ?, ?, ?)");
       insertEntityGeoStatement =
-          postgresResource
-              .getConnection()
-              .prepareStatement(
-                  INSERT_INTO_PREFIX
-                      + getTableName(ENTITY_GEO_ROOT)
-                      + " (entity_key, geo) VALUES (?, ST_GeomFromGeoJSON(?))");
-    } catch (SQLException e) {
+          conn.prepareStatement(
+              INSERT_INTO_PREFIX
+                  + getTableName(ENTITY_GEO_ROOT)
+                  + " (entity_key, geo) VALUES (?, ST_GeomFromGeoJSON(?))");
+      reserveKeysStatement =
+          conn.prepareStatement("SELECT nextval(?::regclass) FROM generate_series(1, ?)");
+    } catch (SQLException | BaleenException e) {
       throw new ResourceInitializationException(e);
     }
+
+    // Readers such as the transports may block waiting for the next document, so the pipeline
+    // never pauses to complete the batch
+    if (documentsPerTransaction > 1 && maxBatchAge > 0) {
+      flusher =
+          Executors.newSingleThreadScheduledExecutor(
+              r -> {
+                Thread t = new Thread(r, "Postgres flusher");
+                t.setDaemon(true);
+                return t;
+              });
+      long period = Math.max(10, maxBatchAge / 4);
+      flusher.scheduleAtFixedRate(this::flushIfOld, period, period, TimeUnit.MILLISECONDS);
+    }
   }
 
   /** Check that Postgres has at least version 2 of PostGIS installed */
@@ -216,22 +265,66 @@ public class Postgres extends BaleenConsumer {
     }
   }
 
+  /** Get the name of the sequence generating the keys of the table */
+  private String getSequence(Connection conn, String table) throws SQLException, BaleenException {
+    try (PreparedStatement s = conn.prepareStatement("SELECT pg_get_serial_sequence(?, 'key')")) {
+      s.setString(1, table);
+      try (ResultSet rs = s.executeQuery()) {
+        if (rs.next() && rs.getString(1) != null) {
+          return rs.getString(1);
+        }
+      }
+    }
+    throw new BaleenException("No key sequence found for " + table);
+  }
+
   @Override
-  protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
-    Connection conn = postgresResource.getConnection();
+  protected synchronized void doProcess(JCas jCas) throws AnalysisEngineProcessException {
+    if (pending.isEmpty()) {
+      oldest = System.currentTimeMillis();
+    }
+    pending.add(createDocumentRow(jCas));
+    if (pending.size() >= documentsPerTransaction) {
+      flush();
+    }
+  }
 
-    try {
-      // Insert document and metadata into database
-      Integer docKey = executeDocInsert(jCas);
-      for (Metadata md : JCasUtil.select(jCas, Metadata.class)) {
-        executeDocMetadataInsert(docKey, md);
-      }
+  @Override
+  public synchronized void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    flush();
+  }
 
-      processEntities(jCas, docKey);
+  @Override
+  protected void doDestroy() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+      flusher = null;
+    }
+    synchronized (this) {
+      flush();
+    }
+    super.doDestroy();
+  }
 
+  private synchronized void flushIfOld() {
+    if (!pending.isEmpty() && System.currentTimeMillis() - oldest >= maxBatchAge) {
+      flush();
+    }
+  }
+
+  /** Write the pending documents to the database in a single transaction */
+  private void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    Connection conn = postgresResource.getConnection();
+    try {
+      insertDocuments(conn);
       conn.commit();
-    } catch (SQLException | BaleenException e) {
-      getMonitor().error("Unable to insert document into Postgres database", e);
+    } catch (SQLException e) {
+      getMonitor().error("Unable to insert {} documents into Postgres database", pending.size(), e);
       if (conn != null) {
         try {
           conn.rollback();
@@ -242,44 +335,35 @@ public class Postgres extends BaleenConsumer {
                   e2);
         }
       }
+    } finally {
+      pending.clear();
     }
   }
 
-  private Integer executeDocInsert(JCas jCas) throws SQLException, BaleenException {
+  private DocumentRow createDocumentRow(JCas jCas) {
     DocumentAnnotation da = getDocumentAnnotation(jCas);
-    String documentId = ConsumerUtils.getExternalId(da, contentHashAsId);
-
-    insertDocStatement.clearParameters();
-    insertDocStatement.setString(1, documentId);
-    insertDocStatement.setString(2, da.getDocType());
-    insertDocStatement.setString(3, da.getSourceUri());
-    insertDocStatement.setString(4, jCas.getDocumentText());
-    insertDocStatement.setString(5, jCas.getDocumentLanguage());
-    insertDocStatement.setTimestamp(6, new Timestamp(da.getTimestamp()));
-    insertDocStatement.setString(7, da.getDocumentClassification());
-    insertDocStatement.setArray(
-        8, createVarcharArray(postgresResource.getConnection(), da.getDocumentCaveats()));
-    insertDocStatement.setArray(
-        9, createVarcharArray(postgresResource.getConnection(), da.getDocumentReleasability()));
-    insertDocStatement.executeUpdate();
-
-    Integer docKey = getKey(insertDocStatement);
-    if (docKey == null) {
-      throw new BaleenException("No document key returned");
+
+    DocumentRow doc = new DocumentRow();
+    doc.externalId = ConsumerUtils.getExternalId(da, contentHashAsId);
+    doc.type = da.getDocType();
+    doc.source = da.getSourceUri();
+    doc.content = jCas.getDocumentText();
+    doc.language = jCas.getDocumentLanguage();
+    doc.processed = new Timestamp(da.getTimestamp());
+    doc.classification = da.getDocumentClassification();
+    doc.caveats = toArray(da.getDocumentCaveats());
+    doc.releasability = toArray(da.getDocumentReleasability());
+
+    for (Metadata md : JCasUtil.select(jCas, Metadata.class)) {
+      doc.metadata.add(new String[] {md.getKey(), md.getValue()});
     }
 
-    return docKey;
-  }
+    processEntities(jCas, doc);
 
-  private void executeDocMetadataInsert(Integer docKey, Metadata md) throws SQLException {
-    insertDocMetadataStatement.clearParameters();
-    insertDocMetadataStatement.setInt(1, docKey);
-    insertDocMetadataStatement.setString(2, md.getKey());
-    insertDocMetadataStatement.setString(3, md.getValue());
-    insertDocMetadataStatement.executeUpdate();
+    return doc;
   }
 
-  private void processEntities(JCas jCas, Integer docKey) throws SQLException {
+  private void processEntities(JCas jCas, DocumentRow doc) {
     // Insert entities
     Map<ReferenceTarget, List<Entity>> coreferenceEntities = new HashMap<>();
 
@@ -294,12 +378,14 @@ public class Postgres extends BaleenConsumer {
     }
 
     for (List<Entity> entities : coreferenceEntities.values()) {
-      processCoreferencedEntities(docKey, entities);
+      EntityRow entity = processCoreferencedEntities(entities);
+      if (entity != null) {
+        doc.entities.add(entity);
+      }
     }
   }
 
-  private void processCoreferencedEntities(Integer docKey, List<Entity> entities)
-      throws SQLException {
+  private EntityRow processCoreferencedEntities(List<Entity> entities) {
     Set<String> values = new HashSet<>();
     Set<String> externalIds = new HashSet<>();
     Set<String> geoJsons = new HashSet<>();
@@ -324,45 +410,103 @@ public class Postgres extends BaleenConsumer {
 
     if (type == null) {
       // No entities processed
-      return;
+      return null;
+    }
+
+    EntityRow entity = new EntityRow();
+    entity.externalIds = externalIds.toArray(new String[0]);
+    entity.type = type.getName();
+    entity.values = values.toArray(new String[0]);
+    entity.geoJsons = geoJsons;
+    return entity;
+  }
+
+  private void insertDocuments(Connection conn) throws SQLException {
+    int entityCount = 0;
+    for (DocumentRow doc : pending) {
+      entityCount += doc.entities.size();
     }
 
-    Integer entityKey = executeEntityInsert(docKey, values, externalIds, type.getName());
-    if (entityKey != null) {
-      for (String geoJson : geoJsons) {
-        executeEntityGeoInsert(entityKey, geoJson);
+    int[] docKeys = reserveKeys(docSequence, pending.size());
+    int[] entityKeys = reserveKeys(entitySequence, entityCount);
+
+    int entityIndex = 0;
+    for (int i = 0; i < pending.size(); i++) {
+      DocumentRow doc = pending.get(i);
+      int docKey = docKeys[i];
+      addDocBatch(conn, docKey, doc);
+
+      for (String[] md : doc.metadata) {
+        insertDocMetadataStatement.setInt(1, docKey);
+        insertDocMetadataStatement.setString(2, md[0]);
+        insertDocMetadataStatement.setString(3, md[1]);
+        insertDocMetadataStatement.addBatch();
+      }
+
+      for (EntityRow entity : doc.entities) {
+        int entityKey = entityKeys[entityIndex++];
+        insertEntityStatement.setInt(1, entityKey);
+        insertEntityStatement.setInt(2, docKey);
+        insertEntityStatement.setArray(3, conn.createArrayOf(VARCHAR, entity.externalIds));
+        insertEntityStatement.setString(4, entity.type);
+        insertEntityStatement.setArray(5, conn.createArrayOf(VARCHAR, entity.values));
+        insertEntityStatement.addBatch();
+
+        for (String geoJson : entity.geoJsons) {
+          insertEntityGeoStatement.setInt(1, entityKey);
+          insertEntityGeoStatement.setString(2, geoJson);
+          insertEntityGeoStatement.addBatch();
+        }
       }
     }
-  }
 
-  private Integer executeEntityInsert(
-      Integer docKey, Collection<String> values, Collection<String> externalIds, String type)
-      throws SQLException {
-    insertEntityStatement.clearParameters();
-    insertEntityStatement.setInt(1, docKey);
-    insertEntityStatement.setArray(
-        2,
-        postgresResource
-            .getConnection()
-            .createArrayOf(VARCHAR, externalIds.toArray(new String[0])));
-    insertEntityStatement.setString(3, type);
-    insertEntityStatement.setArray(
-        4, postgresResource.getConnection().createArrayOf(VARCHAR, values.toArray(new String[0])));
-    insertEntityStatement.executeUpdate();
-
-    Integer entityKey = getKey(insertEntityStatement);
-    if (entityKey == null) {
-      getMonitor().error("No entity key returned - Geo insertion, if applicable, will be skipped");
+    // Parents before children, to satisfy the foreign keys
+    try {
+      insertDocStatement.executeBatch();
+      insertDocMetadataStatement.executeBatch();
+      insertEntityStatement.executeBatch();
+      insertEntityGeoStatement.executeBatch();
+    } finally {
+      insertDocStatement.clearBatch();
+      insertDocMetadataStatement.clearBatch();
+      insertEntityStatement.clearBatch();
+      insertEntityGeoStatement.clearBatch();
     }
+  }
 
-    return entityKey;
+  private void addDocBatch(Connection conn, int docKey, DocumentRow doc) throws SQLException {
+    insertDocStatement.setInt(1, docKey);
+    insertDocStatement.setString(2, doc.externalId);
+    insertDocStatement.setString(3, doc.type);
+    insertDocStatement.setString(4, doc.source);
+    insertDocStatement.setString(5, doc.content);
+    insertDocStatement.setString(6, doc.language);
+    insertDocStatement.setTimestamp(7, doc.processed);
+    insertDocStatement.setString(8, doc.classification);
+    insertDocStatement.setArray(9, conn.createArrayOf(VARCHAR, doc.caveats));
+    insertDocStatement.setArray(10, conn.createArrayOf(VARCHAR, doc.releasability));
+    insertDocStatement.addBatch();
   }
 
-  private void executeEntityGeoInsert(Integer entityKey, String geoJson) throws SQLException {
-    insertEntityGeoStatement.clearParameters();
-    insertEntityGeoStatement.setInt(1, entityKey);
-    insertEntityGeoStatement.setString(2, geoJson);
-    insertEntityGeoStatement.executeUpdate();
+  /** Reserve count keys from the sequence, in a single query */
+  private int[] reserveKeys(String sequence, int count) throws SQLException {
+    int[] keys = new int[count];
+    if (count == 0) {
+      return keys;
+    }
+
+    reserveKeysStatement.setString(1, sequence);
+    reserveKeysStatement.setInt(2, count);
+    try (ResultSet rs = reserveKeysStatement.executeQuery()) {
+      int i = 0;
+      while (rs.next() && i < count) {
+        keys[i++] = rs.getInt(1);
+      }
+      if (i < count) {
+        throw new SQLException("Only " + i + " of " + count + " keys reserved from " + sequence);
+      }
+    }
+    return keys;
   }
 
   /** Add CRS (assumed to be EPSG:4326) to a GeoJSON string if it doesn't already exist */
@@ -430,20 +574,34 @@ public class Postgres extends BaleenConsumer {
     return ret;
   }
 
-  private Array createVarcharArray(Connection conn, StringArray s) throws SQLException {
+  private String[] toArray(StringArray s) {
     if (s == null) {
-      return conn.createArrayOf(VARCHAR, new String[] {});
+      return new String[] {};
     } else {
-      return conn.createArrayOf(VARCHAR, s.toArray());
+      return s.toArray();
     }
   }
 
-  private Integer getKey(Statement s) throws SQLException {
-    try (ResultSet generatedKeys = s.getGeneratedKeys()) {
-      if (generatedKeys.next()) {
-        return generatedKeys.getInt(1);
-      }
-    }
-    return null;
+  /** A document waiting to be written */
+  private static class DocumentRow {
+    private String externalId;
+    private String type;
+    private String source;
+    private String content;
+    private String language;
+    private Timestamp processed;
+    private String classification;
+    private String[] caveats;
+    private String[] releasability;
+    private final List<String[]> metadata = new ArrayList<>();
+    private final List<EntityRow> entities = new ArrayList<>();
+  }
+
+  /** A set of coreferenced entities waiting to be written */
+  private static class EntityRow {
+    private String[] externalIds;
+    private String type;
+    private String[] values;
+    private Collection<String> geoJsons;
   }
 }
@@ -53,7 +53,6 @@ import uk.gov.dstl.baleen.types.structure.TableHeader;
 import uk.gov.dstl.baleen.types.structure.TableRow;
 import uk.gov.dstl.baleen.types.structure.TextDocument;
 import uk.gov.dstl.baleen.types.structure.Unordered;
-import uk.gov.dstl.baleen.uima.utils.StructureHierarchy;
 import uk.gov.dstl.baleen.uima.utils.StructureUtil;
 import uk.gov.dstl.baleen.uima.utils.select.Node;
 
@@ -458,7 +457,8 @@ public class StructuralHtml extends AbstractHtmlConsumer {
   @Override
   protected void writeBody(final JCas jCas, final Element body) {
 
-    final Node<Structure> root = StructureHierarchy.build(jCas, structuralClasses).getRoot();
+    final Node<Structure> root =
+        getSupport().getDerivedData().getStructureHierarchy(jCas, structuralClasses).getRoot();
 
     walk(body, root);
 
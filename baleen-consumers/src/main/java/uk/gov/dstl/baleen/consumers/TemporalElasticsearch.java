@@ -13,7 +13,6 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.DocumentAnnotation;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -22,6 +21,7 @@ import com.google.common.collect.ImmutableMap;
 
 import uk.gov.dstl.baleen.consumers.utils.ConsumerUtils;
 import uk.gov.dstl.baleen.resources.SharedElasticsearchResource;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
 import uk.gov.dstl.baleen.types.semantic.Temporal;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
 import uk.gov.dstl.baleen.uima.UimaSupport;
@@ -35,6 +35,9 @@ import uk.gov.dstl.baleen.uima.utils.TemporalUtils;
  * and date_rage data types respectively with Single being duplicated in the date_range for
  * convenience.
  *
+ * <p>Documents are indexed in bulk, as described for {@link
+ * uk.gov.dstl.baleen.consumers.utils.AbstractElasticsearchConsumer}.
+ *
  * @baleen.javadoc
  */
 public class TemporalElasticsearch extends BaleenConsumer {
@@ -70,6 +73,47 @@ public class TemporalElasticsearch extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_CONTENT_HASH_AS_ID, defaultValue = "true")
   boolean contentHashAsId = true;
 
+  /**
+   * The number of documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BULK_ACTIONS = "bulkActions";
+
+  @ConfigurationParameter(name = PARAM_BULK_ACTIONS, defaultValue = "1")
+  private int bulkActions = 1;
+
+  /**
+   * The size, in bytes, of the documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 5242880
+   */
+  public static final String PARAM_BULK_SIZE = "bulkSize";
+
+  @ConfigurationParameter(name = PARAM_BULK_SIZE, defaultValue = "5242880")
+  private long bulkSize = 5242880;
+
+  /**
+   * The maximum time, in milliseconds, to buffer documents for before indexing them
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_FLUSH_INTERVAL = "flushInterval";
+
+  @ConfigurationParameter(name = PARAM_FLUSH_INTERVAL, defaultValue = "1000")
+  private long flushInterval = 1000;
+
+  /**
+   * The number of bulk requests to send at once in the background, or 0 to send them during
+   * processing
+   *
+   * @baleen.config 0
+   */
+  public static final String PARAM_CONCURRENT_REQUESTS = "concurrentRequests";
+
+  @ConfigurationParameter(name = PARAM_CONCURRENT_REQUESTS, defaultValue = "0")
+  private int concurrentRequests = 0;
+
   /**
    * Connection to Elasticsearch
    *
@@ -80,6 +124,8 @@ public class TemporalElasticsearch extends BaleenConsumer {
   @ExternalResource(key = KEY_ELASTICSEARCH)
   private SharedElasticsearchResource esResource;
 
+  private ElasticsearchBulkWriter writer;
+
   private static final String ES_TYPE = "type";
   private static final String ES_PROPERTIES = "properties";
   private static final String ES_TYPE_STRING = "string";
@@ -116,6 +162,26 @@ public class TemporalElasticsearch extends BaleenConsumer {
                 ioe);
       }
     }
+
+    writer =
+        esResource.createBulkWriter(
+            bulkActions,
+            bulkSize,
+            flushInterval,
+            concurrentRequests,
+            getMonitor().timer("bulkLatency"),
+            getMonitor().meter("bulkRejections"));
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    writer.flush();
+  }
+
+  @Override
+  protected void doDestroy() {
+    writer.close();
   }
 
   /**
@@ -161,9 +227,9 @@ public class TemporalElasticsearch extends BaleenConsumer {
   /** Add the document (provided as JSON) to Elasticsearch, using the id provided. */
   public void addDocument(String id, Map<String, Object> json) {
     try {
-      esResource.getClient().prepareIndex(index, type, id).setSource(json).execute().actionGet();
-    } catch (ElasticsearchException ee) {
-      getMonitor().error("Couldn't persist document to Elasticsearch", ee);
+      writer.add(index, type, id, json);
+    } catch (IOException ioe) {
+      getMonitor().error("Couldn't persist document to Elasticsearch", ioe);
     }
   }
 
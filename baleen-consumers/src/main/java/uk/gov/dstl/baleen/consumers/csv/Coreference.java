@@ -104,13 +104,13 @@ public class Coreference extends AbstractCsvConsumer {
 
     // This should be all entities and sentences
     final Map<Entity, Collection<Sentence>> coveringSentence =
-        JCasUtil.indexCovering(jCas, Entity.class, Sentence.class);
+        getSupport().getDerivedData().indexCovering(jCas, Entity.class, Sentence.class);
     final Map<Sentence, Collection<Entity>> coveredEntities =
-        JCasUtil.indexCovered(jCas, Sentence.class, Entity.class);
+        getSupport().getDerivedData().indexCovered(jCas, Sentence.class, Entity.class);
     final Map<Sentence, Collection<WordToken>> coveredTokens =
-        JCasUtil.indexCovered(jCas, Sentence.class, WordToken.class);
+        getSupport().getDerivedData().indexCovered(jCas, Sentence.class, WordToken.class);
     final Map<WordToken, Collection<Entity>> coveringEntity =
-        JCasUtil.indexCovering(jCas, WordToken.class, Entity.class);
+        getSupport().getDerivedData().indexCovering(jCas, WordToken.class, Entity.class);
 
     JCasUtil.select(jCas, Entity.class)
         .stream()
@@ -47,7 +47,7 @@ public class CsvEvent extends AbstractCsvConsumer {
     final String source = getDocumentAnnotation(jCas).getSourceUri();
 
     final Map<Event, Collection<Sentence>> coveringSentence =
-        JCasUtil.indexCovering(jCas, Event.class, Sentence.class);
+        getSupport().getDerivedData().indexCovering(jCas, Event.class, Sentence.class);
 
     JCasUtil.select(jCas, Event.class)
         .stream()
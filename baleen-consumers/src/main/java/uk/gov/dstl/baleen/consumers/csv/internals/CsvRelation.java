@@ -60,7 +60,7 @@ public class CsvRelation extends AbstractCsvConsumer {
     final String source = getDocumentAnnotation(jCas).getSourceUri();
 
     final Map<Relation, Collection<Sentence>> coveringSentence =
-        JCasUtil.indexCovering(jCas, Relation.class, Sentence.class);
+        getSupport().getDerivedData().indexCovering(jCas, Relation.class, Sentence.class);
 
     JCasUtil.select(jCas, Relation.class)
         .stream()
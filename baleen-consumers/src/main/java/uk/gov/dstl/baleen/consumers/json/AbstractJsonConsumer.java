@@ -32,6 +32,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import uk.gov.dstl.baleen.consumers.utils.SourceUtils;
 import uk.gov.dstl.baleen.types.BaleenAnnotation;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
+import uk.gov.dstl.baleen.uima.utils.FeatureUtils;
 
 /**
  * Simple implementation of a JSON annotation writer.
@@ -145,7 +146,7 @@ public abstract class AbstractJsonConsumer<T extends BaleenAnnotation> extends B
     Type type = annotation.getType();
     generator.writeStringField("type", type.getName());
 
-    List<Feature> features = type.getFeatures();
+    List<Feature> features = FeatureUtils.getFeatures(type);
     if (annotation instanceof AnnotationFS) {
       AnnotationFS annotationFS = (AnnotationFS) annotation;
       if (!(annotationFS.getEnd() == 0 && annotationFS.getBegin() == 0)) {
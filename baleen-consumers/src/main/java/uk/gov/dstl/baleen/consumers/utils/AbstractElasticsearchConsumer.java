@@ -13,7 +13,12 @@ import org.apache.uima.resource.ResourceInitializationException;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
+import uk.gov.dstl.baleen.uima.UimaSupport;
 
 /**
  * Abstract class for producing the objects required by the Elasticsearch consumers
@@ -21,6 +26,12 @@ import uk.gov.dstl.baleen.uima.BaleenConsumer;
  * <p>The schema used is as defined in {@link SingleDocumentConsumerFormat}}. A default mapping is
  * created to avoid issues where ElasticSearch might guess the wrong type for a field
  *
+ * <p>Documents are indexed in bulk requests of up to bulkActions documents or bulkSize bytes, and
+ * are buffered for no longer than flushInterval milliseconds. Up to concurrentRequests bulk
+ * requests are sent at once in the background, and documents rejected because Elasticsearch is
+ * overloaded are retried with a backoff. The bulkLatency timer and bulkRejections meter are
+ * recorded for each pipeline.
+ *
  * <p>Be aware that this schema is not compatible with that of Baleen 1, which is no longer
  * supported.
  *
@@ -59,6 +70,47 @@ public abstract class AbstractElasticsearchConsumer extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_CONTENT_HASH_AS_ID, defaultValue = "true")
   boolean contentHashAsId = true;
 
+  /**
+   * The number of documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BULK_ACTIONS = "bulkActions";
+
+  @ConfigurationParameter(name = PARAM_BULK_ACTIONS, defaultValue = "1")
+  private int bulkActions = 1;
+
+  /**
+   * The size, in bytes, of the documents to buffer before indexing them in bulk
+   *
+   * @baleen.config 5242880
+   */
+  public static final String PARAM_BULK_SIZE = "bulkSize";
+
+  @ConfigurationParameter(name = PARAM_BULK_SIZE, defaultValue = "5242880")
+  private long bulkSize = 5242880;
+
+  /**
+   * The maximum time, in milliseconds, to buffer documents for before indexing them
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_FLUSH_INTERVAL = "flushInterval";
+
+  @ConfigurationParameter(name = PARAM_FLUSH_INTERVAL, defaultValue = "1000")
+  private long flushInterval = 1000;
+
+  /**
+   * The number of bulk requests to send at once in the background, or 0 to send them during
+   * processing
+   *
+   * @baleen.config 0
+   */
+  public static final String PARAM_CONCURRENT_REQUESTS = "concurrentRequests";
+
+  @ConfigurationParameter(name = PARAM_CONCURRENT_REQUESTS, defaultValue = "0")
+  private int concurrentRequests = 0;
+
   private static final String FORMAT = "format";
   private static final String ES_PROPERTIES = "properties";
   private static final String ES_TYPE = "type";
@@ -72,6 +124,8 @@ public abstract class AbstractElasticsearchConsumer extends BaleenConsumer {
 
   private IEntityConverterFields fields = new DefaultFields();
 
+  private ElasticsearchBulkWriter writer;
+
   @Override
   public void doInitialize(UimaContext aContext) throws ResourceInitializationException {
     boolean indexCreated = createIndex();
@@ -86,6 +140,26 @@ public abstract class AbstractElasticsearchConsumer extends BaleenConsumer {
                 ioe);
       }
     }
+
+    writer =
+        createBulkWriter(
+            bulkActions,
+            bulkSize,
+            flushInterval,
+            concurrentRequests,
+            getMonitor().timer("bulkLatency"),
+            getMonitor().meter("bulkRejections"));
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    super.batchProcessComplete();
+    writer.flush();
+  }
+
+  @Override
+  protected void doDestroy() {
+    writer.close();
   }
 
   /**
@@ -99,6 +173,25 @@ public abstract class AbstractElasticsearchConsumer extends BaleenConsumer {
   /** Add a mapping to Elasticsearch. This will only be called if a new index has been created */
   public abstract void addMapping(XContentBuilder mapping);
 
+  /**
+   * Create the writer used to index documents in bulk, from the shared Elasticsearch resource.
+   *
+   * @param maxActions the number of documents to buffer before sending
+   * @param maxBytes the size of the document sources to buffer before sending
+   * @param flushInterval the maximum time, in milliseconds, to buffer documents for
+   * @param concurrentRequests the number of bulk requests to send at once in the background
+   * @param latency timer for the bulk requests
+   * @param rejections meter for the documents rejected by Elasticsearch
+   * @return the writer
+   */
+  protected abstract ElasticsearchBulkWriter createBulkWriter(
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      Timer latency,
+      Meter rejections);
+
   /** Create a mapping for the new index */
   private XContentBuilder createMappingObject() throws IOException {
     // Just specify known non-String types and potential problem cases
@@ -159,15 +252,29 @@ public abstract class AbstractElasticsearchConsumer extends BaleenConsumer {
 
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
-    Map<String, Object> json =
-        SingleDocumentConsumerFormat.formatCas(
-            jCas, fields, contentHashAsId, getMonitor(), getSupport());
-    String id = (String) json.getOrDefault("externalId", "");
+    String id =
+        ConsumerUtils.getExternalId(UimaSupport.getDocumentAnnotation(jCas), contentHashAsId);
 
-    // Persist to ElasticSearch
-    addDocument(id, json);
+    // Persist to ElasticSearch, writing the JSON straight from the CAS
+    try {
+      writer.add(
+          index,
+          type,
+          id,
+          generator ->
+              SingleDocumentConsumerFormat.writeCas(
+                  generator, jCas, fields, contentHashAsId, getMonitor(), getSupport()));
+    } catch (IOException ioe) {
+      getMonitor().error("Couldn't persist document to Elasticsearch", ioe);
+    }
   }
 
   /** Add the document (provided as JSON) to Elasticsearch, using the id provided. */
-  public abstract void addDocument(String id, Map<String, Object> json);
+  public void addDocument(String id, Map<String, Object> json) {
+    try {
+      writer.add(index, type, id, json);
+    } catch (IOException ioe) {
+      getMonitor().error("Couldn't persist document to Elasticsearch", ioe);
+    }
+  }
 }
@@ -45,7 +45,7 @@ public class ConsumerUtils {
       return da.getHash();
     } else {
       try {
-        return IdentityUtils.hashStrings(da.getSourceUri());
+        return IdentityUtils.getInstance().hash(da.getSourceUri());
       } catch (BaleenException e) {
         return fallbackToUUID(e);
       }
@@ -62,7 +62,7 @@ public class ConsumerUtils {
   public static String getExternalId(Collection<Entity> entities) {
     String[] ids = entities.stream().map(Entity::getExternalId).toArray(String[]::new);
     try {
-      return IdentityUtils.hashStrings(ids);
+      return IdentityUtils.getInstance().hash(ids);
     } catch (BaleenException e) {
       return fallbackToUUID(e);
     }
@@ -82,7 +82,7 @@ public class ConsumerUtils {
       relation.getTarget().getExternalId()
     };
     try {
-      return IdentityUtils.hashStrings(ids);
+      return IdentityUtils.getInstance().hash(ids);
     } catch (BaleenException e) {
       return fallbackToUUID(e);
     }
@@ -4,14 +4,18 @@ package uk.gov.dstl.baleen.consumers.utils;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.jcas.cas.FSArray;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.MapLikeType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -24,9 +28,18 @@ import uk.gov.dstl.baleen.types.semantic.Entity;
 import uk.gov.dstl.baleen.types.semantic.Event;
 import uk.gov.dstl.baleen.types.semantic.Relation;
 import uk.gov.dstl.baleen.uima.UimaMonitor;
+import uk.gov.dstl.baleen.uima.utils.FeatureMetadata;
 import uk.gov.dstl.baleen.uima.utils.FeatureUtils;
-
-/** Converts from an Entity or Relation into a Map representation, adding history if required. */
+import uk.gov.dstl.baleen.uima.utils.RangeKind;
+import uk.gov.dstl.baleen.uima.utils.TypeSystemMetadata;
+
+/**
+ * Converts from an Entity or Relation into a Map representation, adding history if required.
+ *
+ * <p>The write methods produce the same representation directly on a Jackson {@link JsonGenerator},
+ * without creating a map for each annotation, and should be preferred where the output is JSON. The
+ * generator must have a codec, as those created by an {@link ObjectMapper} do.
+ */
 public class EntityRelationConverter {
 
   private static final String GEO_JSON = "geoJson";
@@ -40,8 +53,13 @@ public class EntityRelationConverter {
   private final IEntityConverterFields fields;
   private final boolean mapGeoJsonToObject;
 
+  // Fields written after the features, which replace any feature of the same name
+  private final Set<String> replaced;
+
   private final ObjectMapper mapper = new ObjectMapper();
 
+  private TypeSystemMetadata metadata;
+
   private final MapLikeType mapLikeType =
       TypeFactory.defaultInstance().constructMapLikeType(Map.class, String.class, Object.class);
 
@@ -68,6 +86,13 @@ public class EntityRelationConverter {
     this.stopFeatures = stopFeatures;
     this.fields = fields;
     this.mapGeoJsonToObject = mapGeoJsonToObject;
+
+    replaced = new HashSet<>();
+    replaced.add(fields.getType());
+    replaced.add(fields.getExternalId());
+    if (outputHistory && documentHistory != null) {
+      replaced.add(fields.getHistory());
+    }
   }
 
   /**
@@ -167,9 +192,161 @@ public class EntityRelationConverter {
     return map;
   }
 
+  /**
+   * Write an entity as a JSON object, in the same representation as {@link #convertEntity(Entity)}.
+   *
+   * @param generator the generator to write to
+   * @param entity the entity to write
+   * @throws IOException if the generator fails
+   */
+  public void writeEntity(JsonGenerator generator, Entity entity) throws IOException {
+    writeAnnotation(generator, entity);
+  }
+
+  /**
+   * Write a relation as a JSON object, in the same representation as {@link
+   * #convertRelation(Relation)}.
+   *
+   * @param generator the generator to write to
+   * @param relation the relation to write
+   * @throws IOException if the generator fails
+   */
+  public void writeRelation(JsonGenerator generator, Relation relation) throws IOException {
+    writeAnnotation(generator, relation);
+  }
+
+  /**
+   * Write an event as a JSON object, in the same representation as {@link #convertEvent(Event)}.
+   *
+   * @param generator the generator to write to
+   * @param event the event to write
+   * @throws IOException if the generator fails
+   */
+  public void writeEvent(JsonGenerator generator, Event event) throws IOException {
+    writeAnnotation(generator, event);
+  }
+
+  private void writeAnnotation(JsonGenerator generator, Base base) throws IOException {
+    generator.writeStartObject();
+
+    boolean hasValue = false;
+    for (FeatureMetadata fm : getFeatures(base)) {
+      Feature f = fm.getFeature();
+      if (stopFeatures.contains(f.getName()) || stopFeatures.contains(f.getShortName())) {
+        continue;
+      }
+
+      try {
+        hasValue |= writeFeature(generator, base, fm);
+      } catch (IOException e) {
+        throw e;
+      } catch (Exception e) {
+        getMonitor()
+            .warn(
+                "Couldn't output {} to map. Type '{}' isn't supported.",
+                f.getName(),
+                f.getRange().getShortName(),
+                e);
+      }
+    }
+
+    writeField(generator, fields.getType(), base.getType().getShortName());
+    if (!hasValue && !replaced.contains(FIELD_VALUE)) {
+      writeField(generator, FIELD_VALUE, base.getCoveredText());
+    }
+
+    if (outputHistory && documentHistory != null) {
+      new HistoryConverter(base, fields, documentHistory, monitor).write(generator);
+    }
+
+    writeField(generator, fields.getExternalId(), base.getExternalId());
+
+    generator.writeEndObject();
+  }
+
+  /** Write a feature, returning true if it is a non empty value field */
+  private boolean writeFeature(JsonGenerator generator, Base base, FeatureMetadata fm)
+      throws IOException {
+    Feature f = fm.getFeature();
+    String name = fm.getFieldName();
+    RangeKind kind = fm.getKind();
+
+    if (kind.isPrimitive()) {
+      if (mapGeoJsonToObject && GEO_JSON.equals(f.getShortName())) {
+        writeGeoJson(generator, base.getFeatureValueAsString(f));
+        return false;
+      }
+      Object value = FeatureUtils.featureToObject(f, base);
+      if (FIELD_VALUE.equals(name)) {
+        if (value == null || Strings.isNullOrEmpty(value.toString())) {
+          return false;
+        }
+        writeFeatureField(generator, name, value);
+        return true;
+      }
+      writeFeatureField(generator, name, value);
+    } else if (kind.isPrimitiveArray()) {
+      writeFeatureField(generator, name, FeatureUtils.featureToList(f, base));
+    } else if (kind == RangeKind.REFERENCE_ARRAY) {
+      FSArray fArr = (FSArray) base.getFeatureValue(f);
+      if (fArr != null && !isReplaced(name)) {
+        generator.writeArrayFieldStart(name);
+        for (int x = 0; x < fArr.size(); x++) {
+          FeatureStructure featureStructure = fArr.get(x);
+          if (featureStructure instanceof Entity) {
+            generator.writeString(((Entity) featureStructure).getExternalId());
+          }
+        }
+        generator.writeEndArray();
+      }
+    } else {
+      FeatureStructure ent = base.getFeatureValue(f);
+      if (ent instanceof Entity) {
+        writeFeatureField(generator, name, ((Entity) ent).getExternalId());
+      }
+    }
+    return false;
+  }
+
+  private void writeGeoJson(JsonGenerator generator, String geojson) throws IOException {
+    if (Strings.isNullOrEmpty(geojson) || isReplaced(fields.getGeoJSON())) {
+      return;
+    }
+
+    JsonNode node;
+    try {
+      node = mapper.readTree(geojson);
+    } catch (IOException e) {
+      getMonitor().warn("Unable to persist geoJson", e);
+      return;
+    }
+    generator.writeFieldName(fields.getGeoJSON());
+    generator.writeTree(node);
+  }
+
+  private boolean isReplaced(String name) {
+    return Strings.isNullOrEmpty(name) || replaced.contains(name);
+  }
+
+  /** Write a feature field, unless it is replaced by a field written later */
+  private void writeFeatureField(JsonGenerator generator, String name, Object value)
+      throws IOException {
+    if (!isReplaced(name)) {
+      writeField(generator, name, value);
+    }
+  }
+
+  private static void writeField(JsonGenerator generator, String name, Object value)
+      throws IOException {
+    if (!Strings.isNullOrEmpty(name)) {
+      generator.writeFieldName(name);
+      generator.writeObject(value);
+    }
+  }
+
   private void convertFeatures(Map<String, Object> map, Base base) {
-    for (Feature f : base.getType().getFeatures()) {
-      processFeature(map, base, f);
+    for (FeatureMetadata fm : getFeatures(base)) {
+      processFeature(map, base, fm);
     }
     map.put(fields.getType(), base.getType().getShortName());
     if (map.get(FIELD_VALUE) == null || Strings.isNullOrEmpty(map.get(FIELD_VALUE).toString())) {
@@ -177,13 +354,14 @@ public class EntityRelationConverter {
     }
   }
 
-  private void processFeature(Map<String, Object> map, Base base, Feature f) {
+  private void processFeature(Map<String, Object> map, Base base, FeatureMetadata fm) {
+    Feature f = fm.getFeature();
     if (stopFeatures.contains(f.getName()) || stopFeatures.contains(f.getShortName())) {
       return;
     }
 
     try {
-      convertFeature(map, base, f);
+      convertFeature(map, base, fm);
     } catch (Exception e) {
       getMonitor()
           .warn(
@@ -194,28 +372,28 @@ public class EntityRelationConverter {
     }
   }
 
-  private void convertFeature(Map<String, Object> map, Base base, Feature f) {
-    if (f.getRange().isPrimitive()) {
+  private void convertFeature(Map<String, Object> map, Base base, FeatureMetadata fm) {
+    Feature f = fm.getFeature();
+    String name = fm.getFieldName();
+    if (fm.getKind().isPrimitive()) {
       if (mapGeoJsonToObject && GEO_JSON.equals(f.getShortName())) {
         getMonitor().trace("Feature is GeoJSON - parsing to a database object");
         putGeoJson(map, base.getFeatureValueAsString(f));
       } else {
         getMonitor().trace("Converting primitive feature to an object");
-        map.put(ConsumerUtils.toCamelCase(f.getShortName()), FeatureUtils.featureToObject(f, base));
+        map.put(name, FeatureUtils.featureToObject(f, base));
       }
-    } else if (f.getRange().isArray()
-        && f.getRange().getComponentType() != null
-        && f.getRange().getComponentType().isPrimitive()) {
+    } else if (fm.getKind().isPrimitiveArray()) {
       getMonitor().trace("Converting primitive feature to an array");
-      map.put(ConsumerUtils.toCamelCase(f.getShortName()), FeatureUtils.featureToList(f, base));
+      map.put(name, FeatureUtils.featureToList(f, base));
     } else {
       getMonitor()
           .trace("Feature is not a primitive type - will try to treat the feature as an entity");
-      if (f.getRange().isArray()) {
+      if (fm.getKind().isArray()) {
         getMonitor().trace("Feature is an array - attempting converstion to an array of entities");
         FSArray fArr = (FSArray) base.getFeatureValue(f);
         if (fArr != null) {
-          map.put(ConsumerUtils.toCamelCase(f.getShortName()), getEntityIds(fArr));
+          map.put(name, getEntityIds(fArr));
         }
       } else {
         getMonitor().trace("Feature is singular - attempting conversion to a single entity");
@@ -223,7 +401,7 @@ public class EntityRelationConverter {
         if (ent == null) {
           // Ignore null entities
         } else if (ent instanceof Entity) {
-          map.put(ConsumerUtils.toCamelCase(f.getShortName()), ((Entity) ent).getExternalId());
+          map.put(name, ((Entity) ent).getExternalId());
         } else {
           getMonitor().trace("Unable to persist feature {}", f.getShortName());
         }
@@ -231,6 +409,14 @@ public class EntityRelationConverter {
     }
   }
 
+  private List<FeatureMetadata> getFeatures(Base base) {
+    TypeSystem typeSystem = base.getCAS().getTypeSystem();
+    if (metadata == null || metadata.getTypeSystem() != typeSystem) {
+      metadata = TypeSystemMetadata.forTypeSystem(typeSystem);
+    }
+    return metadata.getFeatures(base.getType());
+  }
+
   private void putGeoJson(Map<String, Object> map, String geojson) {
     try {
       if (!Strings.isNullOrEmpty(geojson)) {
@@ -1,13 +1,17 @@
 // Copyright (c) Committed Software 2018, opensource@committed.io
 package uk.gov.dstl.baleen.consumers.utils;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.base.Strings;
 import com.google.common.primitives.Ints;
 
 import uk.gov.dstl.baleen.core.history.DocumentHistory;
@@ -51,6 +55,56 @@ public class HistoryConverter {
     return map;
   }
 
+  /**
+   * Write the history as a field of the current JSON object, in the same representation as {@link
+   * #convert()}.
+   *
+   * @param generator the generator to write to
+   * @throws IOException if the generator fails
+   */
+  public void write(JsonGenerator generator) throws IOException {
+    if (Strings.isNullOrEmpty(fields.getHistory())) {
+      return;
+    }
+
+    generator.writeArrayFieldStart(fields.getHistory());
+    for (HistoryEvent historyEvent : documentHistory.getHistory(entityInternalId)) {
+      writeEvent(generator, historyEvent);
+
+      if (isMerged(historyEvent)
+          && historyEvent.getParameters(HistoryEvents.PARAM_MERGED_ID).isPresent()) {
+        Collection<HistoryEvent> mergedEvents = getMergedEvents(historyEvent);
+        for (HistoryEvent mergedEvent : mergedEvents) {
+          writeEvent(generator, mergedEvent);
+        }
+      }
+    }
+    generator.writeEndArray();
+  }
+
+  private void writeEvent(JsonGenerator generator, HistoryEvent historyEvent) throws IOException {
+    generator.writeStartObject();
+    if (historyEvent.getRecordable().getInternalId() != entityInternalId) {
+      // Only save the internal id as a reference to entities which aren't this one.
+      writeField(
+          generator, fields.getHistoryRecordable(), historyEvent.getRecordable().getInternalId());
+    }
+    writeField(generator, fields.getHistoryAction(), historyEvent.getAction());
+    writeField(generator, fields.getHistoryType(), historyEvent.getEventType());
+    writeField(generator, fields.getHistoryParameters(), historyEvent.getParameters());
+    writeField(generator, fields.getHistoryReferrer(), historyEvent.getReferrer());
+    writeField(generator, fields.getHistoryTimestamp(), historyEvent.getTimestamp());
+    generator.writeEndObject();
+  }
+
+  private static void writeField(JsonGenerator generator, String name, Object value)
+      throws IOException {
+    if (!Strings.isNullOrEmpty(name)) {
+      generator.writeFieldName(name);
+      generator.writeObject(value);
+    }
+  }
+
   private List<Object> createEventsList() {
     List<Object> list = new LinkedList<>();
     for (HistoryEvent historyEvent : documentHistory.getHistory(entityInternalId)) {
@@ -84,19 +138,23 @@ public class HistoryConverter {
   }
 
   private void addMergedEventsToList(List<Object> list, HistoryEvent historyEvent) {
+    createEventsList(list, getMergedEvents(historyEvent));
+  }
 
+  private Collection<HistoryEvent> getMergedEvents(HistoryEvent historyEvent) {
     Optional<String> mergedId = historyEvent.getParameters(HistoryEvents.PARAM_MERGED_ID);
     Optional<Integer> id = mergedId.map(Ints::tryParse);
     if (id.isPresent()) {
       Collection<HistoryEvent> mergedEvents = documentHistory.getHistory(id.get());
       if (mergedEvents != null) {
-        createEventsList(list, mergedEvents);
+        return mergedEvents;
       } else {
         monitor.warn("Null history for {}", id.get());
       }
     } else {
       monitor.warn("No merge id for merge history of {}", historyEvent.getRecordable());
     }
+    return Collections.emptyList();
   }
 
   private void createEventsList(List<Object> list, Collection<HistoryEvent> mergedHistoryEvents) {
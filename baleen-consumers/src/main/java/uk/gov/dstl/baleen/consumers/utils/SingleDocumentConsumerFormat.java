@@ -1,6 +1,7 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.consumers.utils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -12,6 +13,7 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.DocumentAnnotation;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.base.Strings;
 
 import uk.gov.dstl.baleen.types.metadata.Metadata;
@@ -143,6 +145,83 @@ public class SingleDocumentConsumerFormat {
     return output;
   }
 
+  /**
+   * Write the provided jCas object in the standardised representation, as produced by {@link
+   * #formatCas(JCas, IEntityConverterFields, boolean, UimaMonitor, UimaSupport)}, directly to a
+   * JSON generator. No map is built for the document or its entities and relations, so this should
+   * be preferred where the output is JSON.
+   *
+   * @param generator the generator to write to, which must have a codec
+   * @param jCas
+   * @param fields An instance of IEntityConverterFields to be used
+   * @param contentHashAsId Should a hash of the content be used to generate the ID? If false, then
+   *     a hash of the Source URI is used instead.
+   * @param monitor
+   * @param support
+   * @throws IOException if the generator fails
+   */
+  public static void writeCas(
+      JsonGenerator generator,
+      JCas jCas,
+      IEntityConverterFields fields,
+      boolean contentHashAsId,
+      UimaMonitor monitor,
+      UimaSupport support)
+      throws IOException {
+    Set<String> stopFeatures = ConsumerUtils.getDefaultStopFeatures();
+    EntityRelationConverter entityRelationConverter =
+        new EntityRelationConverter(
+            monitor, false, support.getDocumentHistory(jCas), stopFeatures, fields);
+
+    generator.writeStartObject();
+
+    // Content and language
+    generator.writeStringField("content", jCas.getDocumentText());
+    if (!Strings.isNullOrEmpty(jCas.getDocumentLanguage())) {
+      generator.writeStringField("language", jCas.getDocumentLanguage());
+    }
+
+    // Document Annotations
+    DocumentAnnotation da = UimaSupport.getDocumentAnnotation(jCas);
+    for (Map.Entry<String, Object> e : createDocumentAnnotationMap(da).entrySet()) {
+      generator.writeFieldName(e.getKey());
+      generator.writeObject(e.getValue());
+    }
+
+    generator.writeStringField("externalId", ConsumerUtils.getExternalId(da, contentHashAsId));
+
+    // Metadata Annotations
+    Collection<PublishedId> publishedIds = JCasUtil.select(jCas, PublishedId.class);
+    if (!publishedIds.isEmpty()) {
+      generator.writeArrayFieldStart("publishedId");
+      for (PublishedId publishedId : publishedIds) {
+        generator.writeString(publishedId.getValue());
+      }
+      generator.writeEndArray();
+    }
+
+    Collection<Metadata> metadata = JCasUtil.select(jCas, Metadata.class);
+    if (!metadata.isEmpty()) {
+      generator.writeObjectField("metadata", createMetadataMap(metadata));
+    }
+
+    // Entities
+    generator.writeArrayFieldStart("entities");
+    for (Entity ent : JCasUtil.select(jCas, Entity.class)) {
+      entityRelationConverter.writeEntity(generator, ent);
+    }
+    generator.writeEndArray();
+
+    // Relations
+    generator.writeArrayFieldStart("relations");
+    for (Relation rel : JCasUtil.select(jCas, Relation.class)) {
+      entityRelationConverter.writeRelation(generator, rel);
+    }
+    generator.writeEndArray();
+
+    generator.writeEndObject();
+  }
+
   /** Create a map containing information from the DocumentAnnotation object */
   public static Map<String, Object> createDocumentAnnotationMap(DocumentAnnotation da) {
     Map<String, Object> map = new HashMap<>();
@@ -3,12 +3,33 @@ package uk.gov.dstl.baleen.consumers;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ExternalResourceDescription;
+import org.apache.uima.resource.ResourceSpecifier;
 import org.junit.Test;
 
 import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.resources.SharedPostgresResource;
 import uk.gov.dstl.baleen.types.geo.Coordinate;
 import uk.gov.dstl.baleen.types.semantic.Location;
+import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
 
 public class PostgresTest {
   @Test
@@ -54,4 +75,69 @@ public class PostgresTest {
     assertEquals(Location.class, Postgres.getSuperclass(null, Location.class));
     assertEquals(null, Postgres.getSuperclass(null, null));
   }
+
+  @Test
+  public void testWritesOldBatchWithoutBatchComplete() throws Exception {
+    Connection conn = mock(Connection.class);
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.next()).thenReturn(true);
+    when(rs.getString(anyString())).thenReturn("2.4.0");
+    when(rs.getString(1)).thenReturn("baleen_seq");
+    Statement statement = mock(Statement.class);
+    when(statement.executeQuery(anyString())).thenReturn(rs);
+    when(conn.createStatement()).thenReturn(statement);
+    PreparedStatement other = mock(PreparedStatement.class);
+    when(other.executeQuery()).thenReturn(rs);
+    when(conn.prepareStatement(anyString())).thenReturn(other);
+    PreparedStatement insertDoc = mock(PreparedStatement.class);
+    when(conn.prepareStatement(startsWith("INSERT INTO baleen_docs "))).thenReturn(insertDoc);
+    MockPostgresResource.connection = conn;
+
+    ExternalResourceDescription erd =
+        ExternalResourceFactory.createExternalResourceDescription(
+            "postgres", MockPostgresResource.class);
+    AnalysisEngine ae =
+        AnalysisEngineFactory.createEngine(
+            Postgres.class,
+            "postgres",
+            erd,
+            Postgres.PARAM_DOCUMENTS_PER_TRANSACTION,
+            10,
+            Postgres.PARAM_MAX_BATCH_AGE,
+            1000L);
+    try {
+      JCas jCas = JCasSingleton.getJCasInstance();
+      jCas.setDocumentText("Hello World");
+      ae.process(jCas);
+      ae.process(jCas);
+      verify(insertDoc, never()).executeBatch();
+
+      // Written once the batch is old, though the batch is neither full nor complete
+      verify(insertDoc, timeout(5000)).executeBatch();
+      verify(conn, timeout(5000)).commit();
+    } finally {
+      ae.destroy();
+    }
+  }
+
+  /** A Postgres resource which provides a mock connection */
+  public static class MockPostgresResource extends SharedPostgresResource {
+    private static Connection connection;
+
+    @Override
+    protected boolean doInitialize(
+        ResourceSpecifier aSpecifier, Map<String, Object> aAdditionalParams) {
+      return true;
+    }
+
+    @Override
+    protected void doDestroy() {
+      // Do nothing
+    }
+
+    @Override
+    public Connection getConnection() {
+      return connection;
+    }
+  }
 }
@@ -4,6 +4,8 @@ package uk.gov.dstl.baleen.consumers.utils;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -17,6 +19,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import uk.gov.dstl.baleen.core.history.DocumentHistory;
 import uk.gov.dstl.baleen.core.history.HistoryEvent;
 import uk.gov.dstl.baleen.core.history.HistoryEvents;
@@ -117,6 +122,21 @@ public class HistoryConverterTest {
         nonMergedHistoryMap.get(fields.getHistoryTimestamp()));
   }
 
+  @Test
+  public void testWriteMatchesConvert() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    StringWriter out = new StringWriter();
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+      generator.writeStartObject();
+      historyConverter.write(generator);
+      generator.writeEndObject();
+    }
+
+    assertEquals(
+        mapper.readTree(mapper.writeValueAsString(historyConverter.convert())),
+        mapper.readTree(out.toString()));
+  }
+
   @Test
   public void testMergedHistoryEventIsConverted() {
     Map<String, Object> mergedHistoryMap = (Map<String, Object>) historyList.get(1);
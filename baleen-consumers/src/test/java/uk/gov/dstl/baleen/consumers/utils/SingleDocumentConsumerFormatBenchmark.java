@@ -0,0 +1,138 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.consumers.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uk.gov.dstl.baleen.types.common.Person;
+import uk.gov.dstl.baleen.types.semantic.Location;
+import uk.gov.dstl.baleen.types.semantic.Relation;
+import uk.gov.dstl.baleen.uima.UimaMonitor;
+import uk.gov.dstl.baleen.uima.UimaSupport;
+import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
+
+/**
+ * JMH comparison of serialising a document to JSON through the map built by {@link
+ * SingleDocumentConsumerFormat#formatCas}, as the Elasticsearch consumers did, against writing it
+ * directly with {@link SingleDocumentConsumerFormat#writeCas}.
+ *
+ * <p>Run with -prof gc to compare the allocation per document as well as the throughput.
+ *
+ * <p>This isn't run as part of the unit tests. Run it with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -pl baleen-consumers -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=uk.gov.dstl.baleen.consumers.utils.SingleDocumentConsumerFormatBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SingleDocumentConsumerFormatBenchmark {
+
+  private static final String[] WORDS = {
+    "the", "man", "went", "to", "a", "town", "and", "met", "with", "an", "official"
+  };
+
+  @Param({"10", "100", "1000"})
+  public int entityCount;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final IEntityConverterFields fields = new DefaultFields();
+  private final UimaMonitor monitor =
+      new UimaMonitor("benchmark", SingleDocumentConsumerFormatBenchmark.class);
+  private final UimaSupport support =
+      new UimaSupport(
+          "benchmark", SingleDocumentConsumerFormatBenchmark.class, null, monitor, false);
+
+  private JCas jCas;
+
+  @Setup(Level.Trial)
+  public void setup() throws UIMAException {
+    Random random = new Random(0);
+    jCas = JCasSingleton.getJCasInstance();
+
+    // Each entity is one of 5 words, with some filler between them
+    StringBuilder sb = new StringBuilder();
+    int[] begins = new int[entityCount];
+    for (int i = 0; i < entityCount; i++) {
+      for (int w = random.nextInt(10); w >= 0; w--) {
+        sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+      }
+      begins[i] = sb.length();
+      sb.append("Name").append(i).append(' ');
+    }
+    jCas.setDocumentText(sb.toString());
+
+    Person previous = null;
+    for (int i = 0; i < entityCount; i++) {
+      int end = jCas.getDocumentText().indexOf(' ', begins[i]);
+      if (i % 2 == 0) {
+        Person person = new Person(jCas, begins[i], end);
+        person.setValue(person.getCoveredText());
+        person.setConfidence(random.nextDouble());
+        person.addToIndexes();
+        previous = person;
+      } else {
+        Location location = new Location(jCas, begins[i], end);
+        location.setGeoJson("{\"type\":\"Point\",\"coordinates\":[-0.1,51.5]}");
+        location.addToIndexes();
+
+        Relation relation = new Relation(jCas, previous.getBegin(), end);
+        relation.setRelationshipType("visited");
+        relation.setSource(previous);
+        relation.setTarget(location);
+        relation.addToIndexes();
+      }
+    }
+  }
+
+  @Benchmark
+  public byte[] formatCas() throws IOException {
+    return mapper.writeValueAsBytes(
+        SingleDocumentConsumerFormat.formatCas(jCas, fields, true, monitor, support));
+  }
+
+  @Benchmark
+  public byte[] writeCas() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+      SingleDocumentConsumerFormat.writeCas(generator, jCas, fields, true, monitor, support);
+    }
+    return out.toByteArray();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(SingleDocumentConsumerFormatBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -5,6 +5,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -13,7 +15,17 @@ import org.apache.uima.UIMAException;
 import org.apache.uima.jcas.JCas;
 import org.junit.Test;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uk.gov.dstl.baleen.types.common.Person;
 import uk.gov.dstl.baleen.types.metadata.Metadata;
+import uk.gov.dstl.baleen.types.metadata.PublishedId;
+import uk.gov.dstl.baleen.types.semantic.Location;
+import uk.gov.dstl.baleen.types.semantic.Relation;
+import uk.gov.dstl.baleen.uima.UimaMonitor;
+import uk.gov.dstl.baleen.uima.UimaSupport;
 import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
 
 public class SingleDocumentConsumerFormatTest {
@@ -50,4 +62,51 @@ public class SingleDocumentConsumerFormatTest {
     assertTrue(metadata.containsKey("foo"));
     assertEquals("bar", metadata.get("foo"));
   }
+
+  @Test
+  public void testWriteCasMatchesFormatCas() throws UIMAException, IOException {
+    JCas jCas = JCasSingleton.getJCasInstance();
+    jCas.setDocumentText("James went to London.");
+    jCas.setDocumentLanguage("en");
+
+    Metadata m = new Metadata(jCas);
+    m.setKey("en.hello");
+    m.setValue("Hello World");
+    m.addToIndexes();
+
+    PublishedId pid = new PublishedId(jCas, 0, 0);
+    pid.setValue("123");
+    pid.addToIndexes();
+
+    Person person = new Person(jCas, 0, 5);
+    person.setValue("James");
+    person.addToIndexes();
+
+    Location location = new Location(jCas, 14, 20);
+    location.setGeoJson("{\"type\":\"Point\",\"coordinates\":[-0.1,51.5]}");
+    location.addToIndexes();
+
+    Relation relation = new Relation(jCas, 0, 20);
+    relation.setRelationshipType("visited");
+    relation.setSource(person);
+    relation.setTarget(location);
+    relation.addToIndexes();
+
+    UimaMonitor monitor = new UimaMonitor("test", getClass());
+    UimaSupport support = new UimaSupport("test", getClass(), null, monitor, false);
+    IEntityConverterFields fields = new DefaultFields();
+
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode expected =
+        mapper.readTree(
+            mapper.writeValueAsString(
+                SingleDocumentConsumerFormat.formatCas(jCas, fields, true, monitor, support)));
+
+    StringWriter out = new StringWriter();
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+      SingleDocumentConsumerFormat.writeCas(generator, jCas, fields, true, monitor, support);
+    }
+
+    assertEquals(expected, mapper.readTree(out.toString()));
+  }
 }
@@ -39,6 +39,9 @@ import uk.gov.dstl.baleen.exceptions.BaleenException;
  * <p>Implementations should ensure that super.initialise/close/destroy are called to ensure the
  * cache is maintained.
  *
+ * <p>The cache is concurrent, so histories for different documents are obtained without a shared
+ * lock. Implementations must make load and create safe to call from multiple threads.
+ *
  * @baleen.javadoc
  */
 public abstract class AbstractCachingBaleenHistory<H extends DocumentHistory>
@@ -100,15 +103,13 @@ public abstract class AbstractCachingBaleenHistory<H extends DocumentHistory>
   }
 
   @Override
-  public synchronized DocumentHistory getHistory(String documentId) {
+  public DocumentHistory getHistory(String documentId) {
     try {
       return cachedHistories.get(documentId);
     } catch (ExecutionException e) {
       LOGGER.error("Cache threw exception, this should not happen!", e);
       // Fake the same result we'd expect from the cache
-      H dh = createNewDocumentHistory(documentId);
-      cachedHistories.put(documentId, dh);
-      return dh;
+      return cachedHistories.asMap().computeIfAbsent(documentId, this::createNewDocumentHistory);
     }
   }
 
@@ -133,7 +134,7 @@ public abstract class AbstractCachingBaleenHistory<H extends DocumentHistory>
   }
 
   @Override
-  public synchronized void closeHistory(String documentId) {
+  public void closeHistory(String documentId) {
     LOGGER.info("Deleting history for document {}", documentId);
     cachedHistories.invalidate(documentId);
   }
@@ -0,0 +1,228 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.history.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import uk.gov.dstl.baleen.core.history.HistoryEvent;
+import uk.gov.dstl.baleen.core.history.HistoryEvents;
+import uk.gov.dstl.baleen.core.history.Recordable;
+import uk.gov.dstl.baleen.core.history.RecordableHistoryEvent;
+import uk.gov.dstl.baleen.core.history.impl.RecordableImpl;
+
+/**
+ * An append only store of history events, held in columns of primitives.
+ *
+ * <p>The added, removed and merged events created by {@link HistoryEvents} are reduced to a
+ * timestamp, recordable, interned referrer and an action code, and so cost no objects per event
+ * beyond the covered text. Any other event is held as is. The {@link HistoryEvent}s are only
+ * created again when the buffer is read, with a {@link RecordableImpl} in place of the original
+ * recordable. This also means the buffer does not hold on to the annotations of the document.
+ *
+ * <p>Appends and reads synchronise on the buffer, which is per document, so are uncontended in
+ * normal use.
+ */
+public class HistoryEventBuffer {
+
+  private static final byte ADDED = 0;
+  private static final byte REMOVED = 1;
+  private static final byte MERGED = 2;
+  private static final byte OTHER = 3;
+
+  private static final String ADDED_ACTION = "added";
+  private static final String REMOVED_ACTION = "removed";
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final StringTable STRINGS = new StringTable();
+
+  private int size = 0;
+  private long[] timestamps = new long[INITIAL_CAPACITY];
+  private long[] recordableIds = new long[INITIAL_CAPACITY];
+  private int[] begins = new int[INITIAL_CAPACITY];
+  private int[] ends = new int[INITIAL_CAPACITY];
+  private int[] typeNames = new int[INITIAL_CAPACITY];
+  private int[] referrers = new int[INITIAL_CAPACITY];
+  private byte[] actions = new byte[INITIAL_CAPACITY];
+  private long[] mergedIds = new long[INITIAL_CAPACITY];
+  private String[] texts = new String[INITIAL_CAPACITY];
+  private Map<Integer, HistoryEvent> others;
+
+  /**
+   * Append an event to the buffer.
+   *
+   * @param event the event
+   */
+  public synchronized void add(HistoryEvent event) {
+    ensureCapacity(size + 1);
+
+    byte action = toAction(event);
+    actions[size] = action;
+    if (action == OTHER) {
+      if (others == null) {
+        others = new HashMap<>();
+      }
+      others.put(size, event);
+    } else {
+      Recordable recordable = event.getRecordable();
+      timestamps[size] = event.getTimestamp();
+      recordableIds[size] = recordable.getInternalId();
+      begins[size] = recordable.getBegin();
+      ends[size] = recordable.getEnd();
+      typeNames[size] = STRINGS.intern(recordable.getTypeName());
+      referrers[size] = STRINGS.intern(event.getReferrer());
+      texts[size] = recordable.getCoveredText();
+      if (action == MERGED) {
+        mergedIds[size] = Long.parseLong(event.getParameters(HistoryEvents.PARAM_MERGED_ID, "0"));
+      }
+    }
+    size++;
+  }
+
+  /**
+   * Get the number of events in the buffer.
+   *
+   * @return the number of events
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Get all the events, in the order they were added.
+   *
+   * @return a new list of the events
+   */
+  public synchronized List<HistoryEvent> getAll() {
+    List<HistoryEvent> events = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      events.add(get(i));
+    }
+    return events;
+  }
+
+  /**
+   * Get the events for a recordable, in the order they were added.
+   *
+   * @param recordableId the internal id of the recordable
+   * @return a new list of the events
+   */
+  public synchronized List<HistoryEvent> getForRecordable(long recordableId) {
+    List<HistoryEvent> events = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      if (actions[i] == OTHER) {
+        HistoryEvent event = others.get(i);
+        if (event.getRecordable().getInternalId() == recordableId) {
+          events.add(event);
+        }
+      } else if (recordableIds[i] == recordableId) {
+        events.add(get(i));
+      }
+    }
+    return events;
+  }
+
+  private HistoryEvent get(int i) {
+    if (actions[i] == OTHER) {
+      return others.get(i);
+    }
+
+    Recordable recordable =
+        new RecordableImpl(
+            recordableIds[i], texts[i], begins[i], ends[i], STRINGS.get(typeNames[i]));
+    String referrer = STRINGS.get(referrers[i]);
+
+    switch (actions[i]) {
+      case ADDED:
+        return HistoryEvents.createAdded(timestamps[i], recordable, referrer);
+      case REMOVED:
+        return HistoryEvents.createRemoved(timestamps[i], recordable, referrer);
+      default:
+        return HistoryEvents.createMerged(timestamps[i], recordable, referrer, mergedIds[i]);
+    }
+  }
+
+  private static byte toAction(HistoryEvent event) {
+    if (!(event instanceof RecordableHistoryEvent) || event.getRecordable() == null) {
+      return OTHER;
+    }
+
+    String type = event.getEventType();
+    Map<String, String> parameters = event.getParameters();
+    if (parameters == null) {
+      return OTHER;
+    } else if (HistoryEvents.ADDED_TYPE.equals(type)
+        && ADDED_ACTION.equals(event.getAction())
+        && parameters.isEmpty()) {
+      return ADDED;
+    } else if (HistoryEvents.REMOVED_TYPE.equals(type)
+        && REMOVED_ACTION.equals(event.getAction())
+        && parameters.isEmpty()) {
+      return REMOVED;
+    } else if (HistoryEvents.MERGED_TYPE.equals(type)
+        && parameters.size() == 1
+        && isMergedAction(event.getAction(), parameters.get(HistoryEvents.PARAM_MERGED_ID))) {
+      return MERGED;
+    }
+    return OTHER;
+  }
+
+  private static boolean isMergedAction(String action, String mergedId) {
+    // Only if the event would be recreated exactly from the id
+    try {
+      long id = Long.parseLong(mergedId);
+      return Long.toString(id).equals(mergedId) && String.format("merged [%d]", id).equals(action);
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= timestamps.length) {
+      return;
+    }
+    int length = Math.max(capacity, timestamps.length * 2);
+    timestamps = Arrays.copyOf(timestamps, length);
+    recordableIds = Arrays.copyOf(recordableIds, length);
+    begins = Arrays.copyOf(begins, length);
+    ends = Arrays.copyOf(ends, length);
+    typeNames = Arrays.copyOf(typeNames, length);
+    referrers = Arrays.copyOf(referrers, length);
+    actions = Arrays.copyOf(actions, length);
+    mergedIds = Arrays.copyOf(mergedIds, length);
+    texts = Arrays.copyOf(texts, length);
+  }
+
+  /** Interns the referrers and type names, which are few and repeated across documents. */
+  private static class StringTable {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> values = new CopyOnWriteArrayList<>();
+
+    int intern(String value) {
+      if (value == null) {
+        return -1;
+      }
+      Integer id = ids.get(value);
+      if (id != null) {
+        return id;
+      }
+      synchronized (this) {
+        return ids.computeIfAbsent(
+            value,
+            v -> {
+              values.add(v);
+              return values.size() - 1;
+            });
+      }
+    }
+
+    String get(int id) {
+      return id < 0 ? null : values.get(id);
+    }
+  }
+}
@@ -3,8 +3,6 @@ package uk.gov.dstl.baleen.core.history.memory;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,12 +16,15 @@ import uk.gov.dstl.baleen.history.helpers.AbstractDocumentHistory;
  *
  * <p>As per {@link InMemoryBaleenHistory} it is important that pipelines close() history otherwise
  * event will be held in memory for documents which are no longer required.
+ *
+ * <p>Events are stored compactly in a {@link HistoryEventBuffer}, so reading the history creates
+ * new event objects each time.
  */
 public class InMemoryDocumentHistory extends AbstractDocumentHistory<BaleenHistory> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryBaleenHistory.class);
 
-  private BlockingDeque<HistoryEvent> events = new LinkedBlockingDeque<>();
+  private volatile HistoryEventBuffer events = new HistoryEventBuffer();
 
   /**
    * New instance, should only be used by {@link BaleenHistory} implementation.
@@ -37,6 +38,7 @@ public class InMemoryDocumentHistory extends AbstractDocumentHistory<BaleenHisto
 
   @Override
   public void add(HistoryEvent event) {
+    HistoryEventBuffer events = this.events;
     if (events != null) {
       events.add(event);
     } else {
@@ -48,8 +50,19 @@ public class InMemoryDocumentHistory extends AbstractDocumentHistory<BaleenHisto
 
   @Override
   public Collection<HistoryEvent> getAllHistory() {
+    HistoryEventBuffer events = this.events;
+    if (events != null) {
+      return Collections.unmodifiableList(events.getAll());
+    } else {
+      return Collections.emptyList();
+    }
+  }
+
+  @Override
+  public Collection<HistoryEvent> getHistory(long recordableId) {
+    HistoryEventBuffer events = this.events;
     if (events != null) {
-      return Collections.unmodifiableCollection(events);
+      return Collections.unmodifiableList(events.getForRecordable(recordableId));
     } else {
       return Collections.emptyList();
     }
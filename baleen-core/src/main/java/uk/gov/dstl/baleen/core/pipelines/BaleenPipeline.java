@@ -4,6 +4,7 @@ package uk.gov.dstl.baleen.core.pipelines;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.UIMAException;
 import org.apache.uima.analysis_engine.AnalysisEngine;
@@ -28,12 +29,26 @@ import uk.gov.dstl.baleen.core.pipelines.orderers.IPipelineOrderer;
  *
  * <p>The pipeline can be paused and unpaused. Whilst paused, the pipeline will not look for new
  * documents (but will finish processing the current document).
+ *
+ * <p>When the collection reader has no documents the pipeline waits before asking again, doubling
+ * the wait each time up to a maximum. Collection readers implementing {@link
+ * SignallingCollectionReader} can wake the pipeline as soon as documents are available, and
+ * pausing, unpausing or destroying the pipeline also wakes it.
+ *
+ * <p>Before waiting, if any documents have been processed since it last waited and none are still
+ * in progress, the pipeline calls batchProcessComplete on each of its analysis engines. Consumers
+ * which buffer their output can use this to write it out when the pipeline is paused or has run out
+ * of documents.
  */
 public class BaleenPipeline implements Runnable {
   private static final String PIPELINE_KEY = "pipeline";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BaleenPipeline.class);
 
+  private static final long MIN_IDLE_WAIT = 1;
+  private static final long MAX_IDLE_WAIT = 1000;
+  private static final long DRAIN_WAIT = 10;
+
   private final CollectionReader collectionReader;
   private final List<AnalysisEngine> annotators;
   private final List<AnalysisEngine> consumers;
@@ -41,6 +56,10 @@ public class BaleenPipeline implements Runnable {
   private volatile boolean paused = false;
   private volatile boolean destroy = false;
 
+  private final DocumentSignal signal = new DocumentSignal();
+  private long idleWait = MIN_IDLE_WAIT;
+  private volatile boolean batchInProgress = false;
+
   private final String name;
   private final PipelineConfiguration config;
 
@@ -97,6 +116,10 @@ public class BaleenPipeline implements Runnable {
     this.collectionReader = collectionReader;
     this.annotators = orderer.orderPipeline(annotators);
     this.consumers = orderer.orderPipeline(consumers);
+
+    if (collectionReader instanceof SignallingCollectionReader) {
+      ((SignallingCollectionReader) collectionReader).setDocumentSignal(signal);
+    }
   }
 
   /**
@@ -153,18 +176,24 @@ public class BaleenPipeline implements Runnable {
 
     // While we're not destroying the pipeline, run a continuous loop
     LOGGER.info("Starting {} {}", getType(), name);
-    while (!destroy) {
-      try {
-        while (notPausedAndHasDocuments()) {
-          processDocument(jCas);
-          // Check that we should continue
-          if (destroy) {
-            break;
+    try {
+      while (!destroy) {
+        try {
+          while (notPausedAndHasDocuments()) {
+            processDocument(jCas);
+            // Check that we should continue
+            if (destroy) {
+              break;
+            }
           }
+        } catch (CollectionException | IOException e) {
+          LOGGER.error("Error from collection reader", e);
         }
-      } catch (CollectionException | IOException e) {
-        LOGGER.error("Error from collection reader", e);
+        awaitDocuments();
       }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted whilst waiting for documents on {} {}", getType(), name);
+      Thread.currentThread().interrupt();
     }
     LOGGER.debug("Finished processing loop for {} {}", getType(), name);
 
@@ -175,12 +204,18 @@ public class BaleenPipeline implements Runnable {
   }
 
   private void destroyAnalysisEngines() {
-    for (AnalysisEngine ae : annotators) {
-      AnalysisEngineActionStore.getInstance()
-          .remove((String) ae.getConfigParameterValue(PipelineBuilder.ANNOTATOR_UUID));
-      ae.destroy();
-    }
-    for (AnalysisEngine ae : consumers) {
+    destroyAnalysisEngines(annotators);
+    destroyAnalysisEngines(consumers);
+  }
+
+  /**
+   * Destroy the provided analysis engines, removing their actions from the {@link
+   * AnalysisEngineActionStore}
+   *
+   * @param engines The analysis engines to destroy
+   */
+  protected void destroyAnalysisEngines(List<AnalysisEngine> engines) {
+    for (AnalysisEngine ae : engines) {
       AnalysisEngineActionStore.getInstance()
           .remove((String) ae.getConfigParameterValue(PipelineBuilder.ANNOTATOR_UUID));
       ae.destroy();
@@ -193,6 +228,24 @@ public class BaleenPipeline implements Runnable {
     // Get next document from Collection Reader
     collectionReader.getNext(jCas.getCas());
 
+    processJCas(jCas, annotators, consumers);
+
+    // Prepare the JCas for the next document
+    jCas.reset();
+  }
+
+  /**
+   * Process a JCas, which has already been populated by the collection reader, with each of the
+   * annotators and then each of the consumers in turn.
+   *
+   * @param jCas The populated JCas
+   * @param annotators The (ordered) annotators to use
+   * @param consumers The (ordered) consumers to use
+   */
+  protected void processJCas(
+      JCas jCas, List<AnalysisEngine> annotators, List<AnalysisEngine> consumers) {
+    batchInProgress = true;
+
     // Process JCas with each annotator in turn
     for (AnalysisEngine ae : annotators) {
       processAnalysisEngine(jCas, ae, "annotator");
@@ -202,25 +255,98 @@ public class BaleenPipeline implements Runnable {
     for (AnalysisEngine ae : consumers) {
       processAnalysisEngine(jCas, ae, "consumer");
     }
+  }
 
-    // Prepare the JCas for the next document
-    jCas.reset();
+  /** Returns true if the pipeline is not paused and the collection reader has more documents */
+  protected boolean notPausedAndHasDocuments() throws IOException, CollectionException {
+    if (!paused && collectionReader.hasNext()) {
+      idleWait = MIN_IDLE_WAIT;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Wait, when idle, until the collection reader signals new documents, the pipeline is unpaused or
+   * destroyed, or the idle wait expires. The idle wait doubles each time no documents are found.
+   *
+   * @throws InterruptedException if interrupted whilst waiting
+   */
+  protected void awaitDocuments() throws InterruptedException {
+    if (destroy) {
+      return;
+    }
+    long drainWait = Long.MAX_VALUE;
+    if (batchInProgress) {
+      if (isDrained()) {
+        batchInProgress = false;
+        completeBatch();
+      } else {
+        // Documents are still in progress, so check again soon
+        drainWait = DRAIN_WAIT;
+      }
+    }
+    if (paused) {
+      signal.await(Math.min(MAX_IDLE_WAIT, drainWait), TimeUnit.MILLISECONDS);
+      return;
+    }
+    if (signal.await(Math.min(idleWait, drainWait), TimeUnit.MILLISECONDS)) {
+      idleWait = MIN_IDLE_WAIT;
+    } else {
+      idleWait = Math.min(idleWait * 2, MAX_IDLE_WAIT);
+    }
+  }
+
+  /**
+   * Returns true if no documents are in progress, so the batch can be completed. Called from the
+   * thread reading documents, which is always true for this pipeline as it processes documents on
+   * that thread.
+   */
+  protected boolean isDrained() {
+    return true;
+  }
+
+  /**
+   * Notify the analysis engines that the current batch of documents is complete, called when the
+   * pipeline becomes idle after processing documents, and none are still in progress.
+   */
+  protected void completeBatch() {
+    completeBatch(annotators);
+    completeBatch(consumers);
+  }
+
+  /**
+   * Call batchProcessComplete on each of the provided analysis engines
+   *
+   * @param engines The analysis engines to notify
+   */
+  protected void completeBatch(List<AnalysisEngine> engines) {
+    for (AnalysisEngine ae : engines) {
+      try {
+        ae.batchProcessComplete();
+      } catch (AnalysisEngineProcessException e) {
+        LOGGER.warn("Error completing batch on {} {}", getType(), name, e);
+      }
+    }
   }
 
-  private boolean notPausedAndHasDocuments() throws IOException, CollectionException {
-    return !paused && collectionReader.hasNext();
+  /** Returns whether the pipeline has been asked to destroy itself */
+  protected boolean isDestroyed() {
+    return destroy;
   }
 
   /** Pause the pipeline */
   public void pause() {
     LOGGER.info("Paused {} {}", getType(), name);
     paused = true;
+    signal.signal();
   }
 
   /** Unpause the pipeline */
   public void unpause() {
     LOGGER.info("Unpaused {} {}", getType(), name);
     paused = false;
+    signal.signal();
   }
 
   /** Returns whether the pipeline is currently paused or not */
@@ -233,6 +359,7 @@ public class BaleenPipeline implements Runnable {
     LOGGER.info("Destroying {} {} after current document", getType(), name);
 
     destroy = true;
+    signal.signal();
   }
 
   /** Return the collection reader used by this pipeline */
@@ -0,0 +1,54 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.pipelines;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A signal used to wake an idle pipeline, for example when a collection reader has new documents or
+ * when the pipeline is unpaused or destroyed.
+ *
+ * <p>A signal sent while nobody is waiting is remembered, so the next call to {@link #await(long,
+ * TimeUnit)} returns immediately.
+ */
+public class DocumentSignal {
+
+  private final Lock lock = new ReentrantLock();
+  private final Condition signalled = lock.newCondition();
+  private boolean pending = false;
+
+  /** Send the signal, waking any thread waiting on it */
+  public void signal() {
+    lock.lock();
+    try {
+      pending = true;
+      signalled.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait for the signal, up to the given timeout
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return true if signalled, false if the timeout expired
+   * @throws InterruptedException if interrupted whilst waiting
+   */
+  public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+    lock.lock();
+    try {
+      if (!pending) {
+        signalled.await(timeout, unit);
+      }
+      boolean result = pending;
+      pending = false;
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
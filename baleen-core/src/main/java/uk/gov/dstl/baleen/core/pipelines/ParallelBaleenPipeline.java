@@ -0,0 +1,203 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.pipelines;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.dstl.baleen.core.pipelines.orderers.IPipelineOrderer;
+
+/**
+ * A {@link BaleenPipeline} which processes several documents at once within a single pipeline.
+ *
+ * <p>A single collection reader feeds a bounded pool of JCas objects. Each populated JCas is handed
+ * to one of a fixed number of worker threads, and each worker has its own copy of the annotators
+ * and consumers (resources are shared between the copies, as they are between pipelines). Unlike
+ * <code>multiplicity</code>, only one collection reader is created, so this is safe to use with
+ * readers which can't be shared such as the FolderReader or MongoReader.
+ *
+ * <p>Documents may complete in a different order to that in which they were read.
+ */
+public class ParallelBaleenPipeline extends BaleenPipeline {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelBaleenPipeline.class);
+
+  private final List<EngineSet> engineSets;
+  private final int poolSize;
+
+  private volatile BlockingQueue<JCas> jCasPool;
+
+  /**
+   * Constructor
+   *
+   * @param name Pipeline name
+   * @param config The pipeline configuration object used to build the pipeline
+   * @param orderer The IPipelineOrderer to use to order the pipeline
+   * @param collectionReader The collection reader
+   * @param annotators One list of annotators per worker, to be ordered and used
+   * @param consumers One list of consumers per worker, to be ordered and used
+   * @param poolSize The number of JCas objects to create, which bounds the number of documents in
+   *     progress at any one time
+   */
+  public ParallelBaleenPipeline(
+      String name,
+      PipelineConfiguration config,
+      IPipelineOrderer orderer,
+      CollectionReader collectionReader,
+      List<List<AnalysisEngine>> annotators,
+      List<List<AnalysisEngine>> consumers,
+      int poolSize) {
+    super(name, config, orderer, collectionReader, annotators.get(0), consumers.get(0));
+
+    if (annotators.size() != consumers.size()) {
+      throw new IllegalArgumentException(
+          "The same number of annotator and consumer sets must be provided");
+    }
+
+    List<EngineSet> sets = new ArrayList<>(annotators.size());
+    sets.add(new EngineSet(annotators(), consumers()));
+    for (int i = 1; i < annotators.size(); i++) {
+      sets.add(
+          new EngineSet(
+              orderer.orderPipeline(annotators.get(i)), orderer.orderPipeline(consumers.get(i))));
+    }
+    this.engineSets = Collections.unmodifiableList(sets);
+    this.poolSize = Math.max(poolSize, engineSets.size());
+  }
+
+  /** Get the number of worker threads used by this pipeline */
+  public int getThreads() {
+    return engineSets.size();
+  }
+
+  /** Get the number of JCas objects in the pool used by this pipeline */
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  @Override
+  public void run() {
+    BlockingQueue<JCas> pool = new ArrayBlockingQueue<>(poolSize);
+    jCasPool = pool;
+    try {
+      for (int i = 0; i < poolSize; i++) {
+        pool.add(JCasFactory.createJCas());
+      }
+    } catch (UIMAException e) {
+      LOGGER.error("Unable to create JCas objects - {} will not run", getType(), e);
+      return;
+    }
+
+    BlockingQueue<EngineSet> idle = new ArrayBlockingQueue<>(engineSets.size(), false, engineSets);
+    ExecutorService workers = Executors.newFixedThreadPool(engineSets.size());
+
+    LOGGER.info("Starting {} {} with {} threads", getType(), getName(), engineSets.size());
+    try {
+      while (!isDestroyed()) {
+        try {
+          while (notPausedAndHasDocuments()) {
+            JCas jCas = pool.take();
+            readDocument(jCas, pool);
+            workers.execute(() -> processDocument(jCas, pool, idle));
+
+            // Check that we should continue
+            if (isDestroyed()) {
+              break;
+            }
+          }
+        } catch (CollectionException | IOException e) {
+          LOGGER.error("Error from collection reader", e);
+        }
+        awaitDocuments();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted whilst waiting for a JCas on {} {}", getType(), getName());
+      Thread.currentThread().interrupt();
+    }
+    LOGGER.debug("Finished processing loop for {} {}", getType(), getName());
+
+    // Allow the documents currently in progress to complete
+    workers.shutdown();
+    try {
+      workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted whilst waiting for workers on {} {}", getType(), getName());
+      Thread.currentThread().interrupt();
+    }
+
+    // Destroy collection reader and analysis engines
+    LOGGER.debug("Destroying {} {}", getType(), getName());
+    collectionReader().destroy();
+    for (EngineSet set : engineSets) {
+      destroyAnalysisEngines(set.annotators);
+      destroyAnalysisEngines(set.consumers);
+    }
+  }
+
+  private void readDocument(JCas jCas, BlockingQueue<JCas> pool)
+      throws IOException, CollectionException {
+    LOGGER.debug("Beginning processing of document on {} {}", getType(), getName());
+    try {
+      collectionReader().getNext(jCas.getCas());
+    } catch (IOException | CollectionException | RuntimeException e) {
+      // Return the JCas to the pool, otherwise it will be lost
+      jCas.reset();
+      pool.add(jCas);
+      throw e;
+    }
+  }
+
+  private void processDocument(JCas jCas, BlockingQueue<JCas> pool, BlockingQueue<EngineSet> idle) {
+    // There are as many engine sets as worker threads, so one will always be available
+    EngineSet set = idle.poll();
+    try {
+      processJCas(jCas, set.annotators, set.consumers);
+    } finally {
+      idle.add(set);
+
+      // Prepare the JCas for the next document
+      jCas.reset();
+      pool.add(jCas);
+    }
+  }
+
+  @Override
+  protected boolean isDrained() {
+    // Every JCas is back in the pool once the workers have finished with it
+    BlockingQueue<JCas> pool = jCasPool;
+    return pool == null || pool.remainingCapacity() == 0;
+  }
+
+  @Override
+  protected void completeBatch() {
+    for (EngineSet set : engineSets) {
+      completeBatch(set.annotators);
+      completeBatch(set.consumers);
+    }
+  }
+
+  /** The annotators and consumers belonging to a single worker */
+  private static class EngineSet {
+    private final List<AnalysisEngine> annotators;
+    private final List<AnalysisEngine> consumers;
+
+    EngineSet(List<AnalysisEngine> annotators, List<AnalysisEngine> consumers) {
+      this.annotators = annotators;
+      this.consumers = consumers;
+    }
+  }
+}
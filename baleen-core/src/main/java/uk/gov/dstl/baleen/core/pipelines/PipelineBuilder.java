@@ -58,6 +58,17 @@ import uk.gov.dstl.baleen.exceptions.MissingParameterException;
  * <p>An `orderer` can also be specified to control the ordering of the pipeline. If not specified,
  * the default pipeline orderer will be used instead.
  *
+ * <p>An `execution` section can be used to control how documents are processed. By default a single
+ * document is processed at a time, but if <i>execution.threads</i> is greater than 1 then a {@link
+ * ParallelBaleenPipeline} is created, with a copy of the annotators and consumers for each thread
+ * and a single collection reader. The number of documents held in memory at once can be set with
+ * <i>execution.pool</i>, which defaults to the number of threads.
+ *
+ * <p>Alternatively, if <i>execution.staged</i> is true then a {@link StagedBaleenPipeline} is
+ * created, which reads, annotates and consumes different documents at the same time. The number of
+ * documents that can wait between each of these stages is set with <i>execution.queue</i>, which
+ * defaults to 1.
+ *
  * <p>Any additional properties on the analysis engine are passed as Params to the analysis engine.
  * Additionally, any top level objects that aren't expected are assumed to be global parameters that
  * are passed to all analysis engines. Where locally specified parameters have the same name as
@@ -76,6 +87,9 @@ import uk.gov.dstl.baleen.exceptions.MissingParameterException;
  *
  * orderer: NoOpPipelineOrderer
  *
+ * execution:
+ *   threads: 4
+ *
  * contentExtractor: StructureContentExtractor
  *
  * collectionreader:
@@ -130,6 +144,16 @@ public class PipelineBuilder {
 
   protected static final String HISTORY_KEY = "history";
 
+  protected static final String EXECUTION_KEY = "execution";
+
+  protected static final String THREADS_KEY = EXECUTION_KEY + ".threads";
+
+  protected static final String POOL_KEY = EXECUTION_KEY + ".pool";
+
+  protected static final String STAGED_KEY = EXECUTION_KEY + ".staged";
+
+  protected static final String QUEUE_KEY = EXECUTION_KEY + ".queue";
+
   protected static final String CLASS = "class";
 
   protected static final String DOT_CLASS = "." + CLASS;
@@ -157,6 +181,10 @@ public class PipelineBuilder {
   protected List<Object> annotatorsConfig;
   protected List<Object> consumersConfig;
   protected String pipelineOrderer;
+  protected int threads = 1;
+  protected int poolSize = 1;
+  protected boolean staged = false;
+  protected int queueSize = 1;
 
   private ResourceManager resourceManager;
   private Map<String, ExternalResourceDescription> resourceDescriptors;
@@ -213,23 +241,36 @@ public class PipelineBuilder {
     LOGGER.debug("Creating collection reader");
     CollectionReader collectionReader = createCollectionReader();
 
-    List<AnalysisEngine> annotators;
-    if (annotatorsConfig != null && !annotatorsConfig.isEmpty()) {
-      LOGGER.debug("Creating annotators");
-      annotators = createAnnotators();
-    } else {
-      annotators = Collections.emptyList();
+    List<List<AnalysisEngine>> annotators = new ArrayList<>(threads);
+    List<List<AnalysisEngine>> consumers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      if (annotatorsConfig != null && !annotatorsConfig.isEmpty()) {
+        LOGGER.debug("Creating annotators");
+        annotators.add(createAnnotators());
+      } else {
+        annotators.add(Collections.emptyList());
+      }
+
+      if (consumersConfig != null && !consumersConfig.isEmpty()) {
+        LOGGER.debug("Creating consumers");
+        consumers.add(createConsumers());
+      } else {
+        consumers.add(Collections.emptyList());
+      }
     }
 
-    List<AnalysisEngine> consumers;
-    if (consumersConfig != null && !consumersConfig.isEmpty()) {
-      LOGGER.debug("Creating consumers");
-      consumers = createConsumers();
+    if (threads > 1) {
+      if (staged) {
+        LOGGER.warn("Staged execution is not supported with multiple threads and will be ignored");
+      }
+      return toParallelPipeline(
+          name, yaml, orderer, collectionReader, annotators, consumers, poolSize);
+    } else if (staged) {
+      return toStagedPipeline(
+          name, yaml, orderer, collectionReader, annotators.get(0), consumers.get(0), queueSize);
     } else {
-      consumers = Collections.emptyList();
+      return toPipeline(name, yaml, orderer, collectionReader, annotators.get(0), consumers.get(0));
     }
-
-    return toPipeline(name, yaml, orderer, collectionReader, annotators, consumers);
   }
 
   /* protected so extensions can configure different resources if required */
@@ -264,6 +305,55 @@ public class PipelineBuilder {
     return new BaleenPipeline(name, config, orderer, collectionReader, annotators, consumers);
   }
 
+  /**
+   * Take a number of parameters and return a pipeline which processes documents in parallel
+   *
+   * @param name Pipeline name
+   * @param config baleen configuration
+   * @param orderer Pipeline orderer to use
+   * @param collectionReader Collection reader to use
+   * @param annotators List of annotators for each thread (each can be empty)
+   * @param consumers List of consumers for each thread (each can be empty)
+   * @param poolSize Number of documents which can be in progress at once
+   * @return Configured BaleenPipeline
+   */
+  protected BaleenPipeline toParallelPipeline(
+      String name,
+      PipelineConfiguration config,
+      IPipelineOrderer orderer,
+      CollectionReader collectionReader,
+      List<List<AnalysisEngine>> annotators,
+      List<List<AnalysisEngine>> consumers,
+      int poolSize) {
+    return new ParallelBaleenPipeline(
+        name, config, orderer, collectionReader, annotators, consumers, poolSize);
+  }
+
+  /**
+   * Take a number of parameters and return a pipeline which reads, annotates and consumes documents
+   * concurrently
+   *
+   * @param name Pipeline name
+   * @param config baleen configuration
+   * @param orderer Pipeline orderer to use
+   * @param collectionReader Collection reader to use
+   * @param annotators List of annotators (can be empty)
+   * @param consumers List of consumers (can be empty)
+   * @param queueSize Number of documents which can wait between each stage
+   * @return Configured BaleenPipeline
+   */
+  protected BaleenPipeline toStagedPipeline(
+      String name,
+      PipelineConfiguration config,
+      IPipelineOrderer orderer,
+      CollectionReader collectionReader,
+      List<AnalysisEngine> annotators,
+      List<AnalysisEngine> consumers,
+      int queueSize) {
+    return new StagedBaleenPipeline(
+        name, config, orderer, collectionReader, annotators, consumers, queueSize);
+  }
+
   /**
    * Read configuration into the class variables
    *
@@ -298,12 +388,25 @@ public class PipelineBuilder {
     annotatorsConfig = yaml.getAsList(ANNOTATORS_KEY);
     consumersConfig = yaml.getAsList(CONSUMERS_KEY);
 
+    threads = yaml.get(Integer.class, THREADS_KEY, 1);
+    if (threads < 1) {
+      throw new InvalidParameterException("The number of threads must be positive");
+    }
+    poolSize = Math.max(threads, yaml.get(Integer.class, POOL_KEY, threads));
+
+    staged = yaml.get(Boolean.class, STAGED_KEY, false);
+    queueSize = yaml.get(Integer.class, QUEUE_KEY, 1);
+    if (queueSize < 1) {
+      throw new InvalidParameterException("The queue size must be positive");
+    }
+
     globalConfig = yaml.flatten(getLocalKeys());
     globalConfig.put(PIPELINE_NAME, name);
   }
 
   protected Set<String> getLocalKeys() {
-    return ImmutableSet.of(ORDERER_KEY, COLLECTION_READER_KEY, ANNOTATORS_KEY, CONSUMERS_KEY);
+    return ImmutableSet.of(
+        ORDERER_KEY, COLLECTION_READER_KEY, ANNOTATORS_KEY, CONSUMERS_KEY, EXECUTION_KEY);
   }
 
   /**
@@ -0,0 +1,19 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.pipelines;
+
+/**
+ * A collection reader which can wake the pipeline when new documents become available, rather than
+ * waiting for the pipeline to poll it again.
+ *
+ * <p>The pipeline provides the {@link DocumentSignal} when it is created, and the collection reader
+ * should call {@link DocumentSignal#signal()} whenever {@code hasNext()} may have become true.
+ */
+public interface SignallingCollectionReader {
+
+  /**
+   * Set the signal to use to notify the pipeline of new documents
+   *
+   * @param signal the signal
+   */
+  void setDocumentSignal(DocumentSignal signal);
+}
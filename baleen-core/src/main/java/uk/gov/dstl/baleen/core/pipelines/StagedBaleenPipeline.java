@@ -0,0 +1,200 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.pipelines;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.dstl.baleen.core.pipelines.orderers.IPipelineOrderer;
+
+/**
+ * A {@link BaleenPipeline} which overlaps reading, annotating and consuming of documents.
+ *
+ * <p>Each of the three stages runs on its own thread, with its own JCas, and documents are passed
+ * between the stages through bounded queues. So whilst one document is being written out by the
+ * consumers, the next can be annotated and the one after that read. If a stage falls behind then
+ * the queue in front of it fills up and the earlier stages wait for space (back-pressure).
+ *
+ * <p>Documents are processed in the order they are read, and each annotator and consumer still only
+ * sees one document at a time.
+ */
+public class StagedBaleenPipeline extends BaleenPipeline {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StagedBaleenPipeline.class);
+
+  private static final long POLL_MS = 100;
+
+  private final int queueSize;
+
+  private volatile boolean readingFinished = false;
+  private volatile boolean annotatingFinished = false;
+
+  private volatile BlockingQueue<JCas> jCasPool;
+
+  /**
+   * Constructor
+   *
+   * @param name Pipeline name
+   * @param config The pipeline configuration object used to build the pipeline
+   * @param orderer The IPipelineOrderer to use to order the pipeline
+   * @param collectionReader The collection reader
+   * @param annotators The annotators to be ordered and used
+   * @param consumers The consumers to be ordered and used
+   * @param queueSize The number of documents which can wait between each stage
+   */
+  public StagedBaleenPipeline(
+      String name,
+      PipelineConfiguration config,
+      IPipelineOrderer orderer,
+      CollectionReader collectionReader,
+      List<AnalysisEngine> annotators,
+      List<AnalysisEngine> consumers,
+      int queueSize) {
+    super(name, config, orderer, collectionReader, annotators, consumers);
+    this.queueSize = Math.max(1, queueSize);
+  }
+
+  /** Get the number of documents which can wait between each stage */
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  @Override
+  public void run() {
+    // One JCas being worked on by each stage, plus enough to fill both queues
+    int poolSize = 3 + 2 * queueSize;
+    BlockingQueue<JCas> pool = new ArrayBlockingQueue<>(poolSize);
+    jCasPool = pool;
+    try {
+      for (int i = 0; i < poolSize; i++) {
+        pool.add(JCasFactory.createJCas());
+      }
+    } catch (UIMAException e) {
+      LOGGER.error("Unable to create JCas objects - {} will not run", getType(), e);
+      return;
+    }
+
+    BlockingQueue<JCas> toAnnotate = new ArrayBlockingQueue<>(queueSize);
+    BlockingQueue<JCas> toConsume = new ArrayBlockingQueue<>(queueSize);
+
+    readingFinished = false;
+    annotatingFinished = false;
+
+    ExecutorService stages = Executors.newFixedThreadPool(2);
+    stages.execute(() -> annotate(toAnnotate, toConsume));
+    stages.execute(() -> consume(toConsume, pool));
+
+    LOGGER.info("Starting {} {} with a queue size of {}", getType(), getName(), queueSize);
+    try {
+      read(pool, toAnnotate);
+    } finally {
+      readingFinished = true;
+    }
+    LOGGER.debug("Finished processing loop for {} {}", getType(), getName());
+
+    // Allow the documents currently in the queues to complete
+    stages.shutdown();
+    try {
+      stages.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted whilst waiting for stages on {} {}", getType(), getName());
+      Thread.currentThread().interrupt();
+    }
+
+    // Destroy collection reader and analysis engines
+    LOGGER.debug("Destroying {} {}", getType(), getName());
+    collectionReader().destroy();
+    destroyAnalysisEngines(annotators());
+    destroyAnalysisEngines(consumers());
+  }
+
+  private void read(BlockingQueue<JCas> pool, BlockingQueue<JCas> toAnnotate) {
+    try {
+      while (!isDestroyed()) {
+        try {
+          while (notPausedAndHasDocuments()) {
+            JCas jCas = pool.take();
+            LOGGER.debug("Beginning processing of document on {} {}", getType(), getName());
+            try {
+              collectionReader().getNext(jCas.getCas());
+            } catch (IOException | CollectionException | RuntimeException e) {
+              // Return the JCas to the pool, otherwise it will be lost
+              jCas.reset();
+              pool.add(jCas);
+              throw e;
+            }
+            toAnnotate.put(jCas);
+
+            // Check that we should continue
+            if (isDestroyed()) {
+              break;
+            }
+          }
+        } catch (CollectionException | IOException e) {
+          LOGGER.error("Error from collection reader", e);
+        }
+        awaitDocuments();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted whilst reading on {} {}", getType(), getName());
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void annotate(BlockingQueue<JCas> toAnnotate, BlockingQueue<JCas> toConsume) {
+    try {
+      while (!readingFinished || !toAnnotate.isEmpty()) {
+        JCas jCas = toAnnotate.poll(POLL_MS, TimeUnit.MILLISECONDS);
+        if (jCas != null) {
+          processJCas(jCas, annotators(), Collections.emptyList());
+          toConsume.put(jCas);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted whilst annotating on {} {}", getType(), getName());
+      Thread.currentThread().interrupt();
+    } finally {
+      annotatingFinished = true;
+    }
+  }
+
+  private void consume(BlockingQueue<JCas> toConsume, BlockingQueue<JCas> pool) {
+    try {
+      while (!annotatingFinished || !toConsume.isEmpty()) {
+        JCas jCas = toConsume.poll(POLL_MS, TimeUnit.MILLISECONDS);
+        if (jCas != null) {
+          try {
+            processJCas(jCas, Collections.emptyList(), consumers());
+          } finally {
+            // Prepare the JCas for the next document
+            jCas.reset();
+            pool.add(jCas);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted whilst consuming on {} {}", getType(), getName());
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  protected boolean isDrained() {
+    // Every JCas is back in the pool once the stages have finished with it
+    BlockingQueue<JCas> pool = jCasPool;
+    return pool == null || pool.remainingCapacity() == 0;
+  }
+}
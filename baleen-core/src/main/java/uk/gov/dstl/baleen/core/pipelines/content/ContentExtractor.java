@@ -18,4 +18,45 @@ public interface ContentExtractor extends Resource {
    * @param jCas The JCas object to add data to
    */
   void processStream(InputStream stream, String source, JCas jCas) throws IOException;
+
+  /**
+   * Get the number of documents this content extractor would like to be told about, through {@link
+   * #prefetch(StreamOpener, String)}, before they are processed.
+   *
+   * <p>The default implementation does not prefetch.
+   *
+   * @return the number of documents to prefetch
+   */
+  default int getPrefetchSize() {
+    return 0;
+  }
+
+  /**
+   * Tell the content extractor that a document will be processed soon, so it can start extracting
+   * the content in the background.
+   *
+   * <p>The document will still be passed to {@link #processStream(InputStream, String, JCas)}, with
+   * the same source, and it is up to the content extractor whether it uses that stream or the
+   * prefetched content.
+   *
+   * <p>The default implementation does nothing.
+   *
+   * @param opener opens a stream of the document, which the content extractor must close
+   * @param source The source URI of the document
+   */
+  default void prefetch(StreamOpener opener, String source) {
+    // Do nothing
+  }
+
+  /** Opens an input stream */
+  @FunctionalInterface
+  interface StreamOpener {
+    /**
+     * Open the stream
+     *
+     * @return the stream
+     * @throws IOException if the stream can't be opened
+     */
+    InputStream open() throws IOException;
+  }
 }
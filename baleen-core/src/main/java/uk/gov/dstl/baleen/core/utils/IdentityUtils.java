@@ -6,18 +6,47 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 import uk.gov.dstl.baleen.exceptions.BaleenException;
 
 /**
  * Utility class for identity related functionality, such as hashing strings and getting internal
  * IDs
+ *
+ * <p>The hash used for identities is chosen with the system property (or environment variable)
+ * {@value #ENV_BALEEN_IDENTITY_HASH}. The default, {@link HashAlgorithm#SHA256}, gives the same
+ * identities as previous versions of Baleen. {@link HashAlgorithm#MURMUR3_128} is much faster, but
+ * not cryptographic, and gives different (and shorter) identities, so should not be used where
+ * identities are compared with those already stored by the default.
  */
 public class IdentityUtils {
+  private static final Logger LOGGER = LoggerFactory.getLogger(IdentityUtils.class);
+
+  /** The system property or environment variable which selects the identity hash */
+  public static final String ENV_BALEEN_IDENTITY_HASH = "baleen.identity.hash";
+
   private static final IdentityUtils INSTANCE = new IdentityUtils();
   private AtomicLong id = new AtomicLong(1L);
+  private final HashAlgorithm hashAlgorithm;
+
+  /** The hash algorithms available for identities */
+  public enum HashAlgorithm {
+    /** SHA-256, as hex (64 characters) */
+    SHA256,
+    /** 128-bit Murmur3, as hex (32 characters) */
+    MURMUR3_128
+  }
 
   private IdentityUtils() {
-    // Private constructor as all our functions should be static in a Utils class
+    // Private constructor, use getInstance()
+    hashAlgorithm =
+        getHashAlgorithmFromString(
+            System.getProperty(ENV_BALEEN_IDENTITY_HASH, System.getenv(ENV_BALEEN_IDENTITY_HASH)));
   }
 
   /** Get the singleton instance of IdentityUtils */
@@ -33,6 +62,38 @@ public class IdentityUtils {
     return id.getAndIncrement();
   }
 
+  /** Get the hash algorithm used by {@link #hash(String...)} */
+  public HashAlgorithm getHashAlgorithm() {
+    return hashAlgorithm;
+  }
+
+  /**
+   * Create a hash from one or more strings, using the configured hash algorithm
+   *
+   * @param strings The strings to concatenate and hash
+   * @return The hashed string
+   * @throws BaleenException If the hash can't be created
+   */
+  public String hash(String... strings) throws BaleenException {
+    return hash(hashAlgorithm, strings);
+  }
+
+  /**
+   * Create a hash from one or more strings
+   *
+   * @param algorithm The hash algorithm
+   * @param strings The strings to concatenate and hash
+   * @return The hashed string
+   * @throws BaleenException If the hash can't be created
+   */
+  public static String hash(HashAlgorithm algorithm, String... strings) throws BaleenException {
+    if (algorithm == HashAlgorithm.MURMUR3_128) {
+      return murmurStrings(strings);
+    } else {
+      return hashStrings(strings);
+    }
+  }
+
   /**
    * Create a SHA-256 hash from one or more strings
    *
@@ -72,4 +133,40 @@ public class IdentityUtils {
 
     return hash.toString();
   }
+
+  private static String murmurStrings(String... strings) {
+    if (strings == null) {
+      return "";
+    }
+
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (String s : strings) {
+      if (s != null) {
+        hasher.putString(s, StandardCharsets.UTF_8);
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Get the hash algorithm named by the string, ignoring case and punctuation.
+   *
+   * @param s the name, for example "sha256" or "murmur3-128"
+   * @return the algorithm, or {@link HashAlgorithm#SHA256} if none is named
+   */
+  public static HashAlgorithm getHashAlgorithmFromString(String s) {
+    if (s == null || s.trim().isEmpty()) {
+      return HashAlgorithm.SHA256;
+    }
+
+    String name = s.replaceAll("[^A-Za-z0-9]", "");
+    for (HashAlgorithm a : HashAlgorithm.values()) {
+      if (a.name().replace("_", "").equalsIgnoreCase(name)) {
+        return a;
+      }
+    }
+
+    LOGGER.warn("Unknown identity hash {}, using {}", s, HashAlgorithm.SHA256);
+    return HashAlgorithm.SHA256;
+  }
 }
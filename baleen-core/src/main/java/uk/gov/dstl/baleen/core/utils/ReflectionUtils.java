@@ -2,27 +2,50 @@
 // Modified by NCA (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.core.utils;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
 import io.github.lukehutch.fastclasspathscanner.scanner.ScanResult;
 
+import uk.gov.dstl.baleen.index.ClassIndex;
+
 /**
- * Utility class to hold a singleton classpath scanner, which will speed up use of reflection calls
- * by the Web API
+ * Utility class for finding the sub types of a class.
+ *
+ * <p>Sub types are looked up in the {@link ClassIndex} written when the Baleen modules are built.
+ * Jars and directories on the classpath without an index, such as plugins or third party libraries
+ * which were not compiled with the index processor, are scanned once and their sub types added. If
+ * there is no index on the classpath at all, for example when running from an IDE which does not
+ * run annotation processors, the whole classpath is scanned instead. Either way the results are
+ * cached, so repeated calls are cheap.
  */
 public class ReflectionUtils {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReflectionUtils.class);
+
   private static FastClasspathScanner scanner = null;
   private static ScanResult scanResult = null;
+  private static ScanResult unindexedScanResult = null;
+
+  private static final Map<List<String>, Set<Class<?>>> SUB_TYPES = new ConcurrentHashMap<>();
 
   private ReflectionUtils() {
     // Private constructor
   }
 
   /** Return the singleton instance of the classpath scanner object */
-  public static ScanResult getInstance() {
+  public static synchronized ScanResult getInstance() {
     if (scanner == null) {
       scanner = new FastClasspathScanner("-scala");
     }
@@ -34,30 +57,108 @@ public class ReflectionUtils {
     return scanResult;
   }
 
-  /** Return a set of sub types for the given super type. Scans the full classpath. */
-  @SuppressWarnings("unchecked")
+  /** Return a set of sub types for the given super type, from anywhere on the classpath. */
   public static <T> Set<Class<? extends T>> getSubTypes(Class<T> superType) {
-    if (scanResult == null) {
-      getInstance();
-    }
+    return getSubTypes("", superType);
+  }
 
-    List<String> classNames;
-    if (superType.isInterface()) {
-      classNames = scanResult.getNamesOfClassesImplementing(superType);
-    } else {
-      classNames = scanResult.getNamesOfSubclassesOf(superType);
-    }
+  /** Return a set of sub types for the given super type, in the given package. */
+  @SuppressWarnings("unchecked")
+  public static <T> Set<Class<? extends T>> getSubTypes(String packageName, Class<T> superType) {
+    Set<Class<?>> classes =
+        SUB_TYPES.computeIfAbsent(
+            Arrays.asList(packageName, superType.getName()),
+            k -> findSubTypes(packageName, superType));
 
+    // A new set, as callers may modify it
     Set<Class<? extends T>> ret = new HashSet<>();
-    scanResult.classNamesToClassRefs(classNames).forEach(c -> ret.add((Class<? extends T>) c));
+    classes.forEach(c -> ret.add((Class<? extends T>) c));
     return ret;
   }
 
-  /** Return a set of sub types for the given super type. Scans only the given package. */
-  @SuppressWarnings("unchecked")
-  public static <T> Set<Class<? extends T>> getSubTypes(String packageName, Class<T> superType) {
-    FastClasspathScanner scanner = new FastClasspathScanner(packageName);
-    ScanResult sr = scanner.scan();
+  /**
+   * Return the names of the sub types of the given super type, from anywhere on the classpath.
+   *
+   * @param superType the super type
+   * @return sorted list of class names
+   */
+  public static List<String> getSubTypeNames(Class<?> superType) {
+    List<String> names = new ArrayList<>();
+    getSubTypes(superType).forEach(c -> names.add(c.getName()));
+    Collections.sort(names);
+    return names;
+  }
+
+  private static Set<Class<?>> findSubTypes(String packageName, Class<?> superType) {
+    ClassIndex index = ClassIndex.getInstance();
+    if (index.isEmpty()) {
+      return Collections.unmodifiableSet(scanSubTypes(packageName, superType));
+    }
+
+    return Collections.unmodifiableSet(
+        findSubTypes(index, getUnindexedInstance(index), packageName, superType));
+  }
+
+  /** Return the (shared) scan of the parts of the classpath without an index */
+  private static synchronized ScanResult getUnindexedInstance(ClassIndex index) {
+    if (unindexedScanResult == null) {
+      unindexedScanResult = scanUnindexed(index);
+    }
+    return unindexedScanResult;
+  }
+
+  /** Scan the jars and directories on the classpath which don't hold a class index. */
+  static ScanResult scanUnindexed(ClassIndex index) {
+    FastClasspathScanner unindexedScanner = new FastClasspathScanner("-scala");
+    List<File> unindexed =
+        unindexedScanner
+            .getUniqueClasspathElements()
+            .stream()
+            .filter(f -> !index.isIndexed(f))
+            .collect(Collectors.toList());
+    LOGGER.debug("Scanning {} classpath elements without a class index", unindexed.size());
+
+    return unindexedScanner.overrideClasspath(unindexed).scan();
+  }
+
+  /**
+   * Find sub types in the index, and in the scan of the rest of the classpath. Classes in the scan
+   * may extend indexed classes, so sub types of those are looked for in the scan too.
+   */
+  static Set<Class<?>> findSubTypes(
+      ClassIndex index, ScanResult unindexed, String packageName, Class<?> superType) {
+    Set<String> indexed = index.getSubTypeNames(superType.getName());
+
+    Set<String> names = new HashSet<>(indexed);
+    List<String> superTypes = new ArrayList<>(indexed);
+    superTypes.add(superType.getName());
+    for (String name : superTypes) {
+      names.addAll(unindexed.getNamesOfSubclassesOf(name));
+      names.addAll(unindexed.getNamesOfClassesImplementing(name));
+    }
+
+    String prefix = packageName.isEmpty() ? "" : packageName + ".";
+    ClassLoader classLoader = getClassLoader();
+    Set<Class<?>> classes = new HashSet<>();
+    for (String name : names) {
+      if (name.startsWith(prefix)) {
+        try {
+          classes.add(Class.forName(name, false, classLoader));
+        } catch (ClassNotFoundException | LinkageError e) {
+          LOGGER.debug("Unable to load class {}", name, e);
+        }
+      }
+    }
+    return classes;
+  }
+
+  private static Set<Class<?>> scanSubTypes(String packageName, Class<?> superType) {
+    ScanResult sr;
+    if (packageName.isEmpty()) {
+      sr = getInstance();
+    } else {
+      sr = new FastClasspathScanner(packageName).scan();
+    }
 
     List<String> classNames;
     if (superType.isInterface()) {
@@ -66,8 +167,11 @@ public class ReflectionUtils {
       classNames = sr.getNamesOfSubclassesOf(superType);
     }
 
-    Set<Class<? extends T>> ret = new HashSet<>();
-    sr.classNamesToClassRefs(classNames).forEach(c -> ret.add((Class<? extends T>) c));
-    return ret;
+    return new HashSet<>(sr.classNamesToClassRefs(classNames));
+  }
+
+  private static ClassLoader getClassLoader() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    return classLoader != null ? classLoader : ReflectionUtils.class.getClassLoader();
   }
 }
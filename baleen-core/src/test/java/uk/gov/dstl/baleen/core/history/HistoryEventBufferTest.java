@@ -0,0 +1,91 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import uk.gov.dstl.baleen.core.history.impl.RecordableImpl;
+import uk.gov.dstl.baleen.core.history.memory.HistoryEventBuffer;
+
+public class HistoryEventBufferTest {
+
+  private final Recordable a = new RecordableImpl(1, "a", 0, 1, "typeA");
+  private final Recordable b = new RecordableImpl(2, "b", 2, 3, "typeB");
+
+  @Test
+  public void testRoundTrip() {
+    HistoryEventBuffer buffer = new HistoryEventBuffer();
+    buffer.add(HistoryEvents.createAdded(10, a, "ref1"));
+    buffer.add(HistoryEvents.createMerged(20, a, "ref2", 2));
+    buffer.add(HistoryEvents.createRemoved(30, b, null));
+
+    List<HistoryEvent> events = buffer.getAll();
+    assertEquals(3, buffer.size());
+    assertEquals(3, events.size());
+
+    assertEvent(events.get(0), HistoryEvents.ADDED_TYPE, 10, a, "ref1", "added");
+    assertEvent(events.get(1), HistoryEvents.MERGED_TYPE, 20, a, "ref2", "merged [2]");
+    assertEquals("2", events.get(1).getParameters(HistoryEvents.PARAM_MERGED_ID).get());
+    assertEvent(events.get(2), HistoryEvents.REMOVED_TYPE, 30, b, null, "removed");
+  }
+
+  @Test
+  public void testOtherEventsAreKept() {
+    HistoryEvent other =
+        new RecordableHistoryEvent("custom", 10, a, "ref", "custom", ImmutableMap.of("k", "v"));
+    HistoryEvent merged =
+        new RecordableHistoryEvent(
+            HistoryEvents.MERGED_TYPE,
+            20,
+            b,
+            "ref",
+            "merged [1]",
+            ImmutableMap.of(HistoryEvents.PARAM_MERGED_ID, "1", "extra", "x"));
+
+    HistoryEventBuffer buffer = new HistoryEventBuffer();
+    buffer.add(HistoryEvents.createAdded(0, a, "ref"));
+    buffer.add(other);
+    buffer.add(merged);
+
+    List<HistoryEvent> events = buffer.getAll();
+    assertSame(other, events.get(1));
+    assertSame(merged, events.get(2));
+  }
+
+  @Test
+  public void testForRecordable() {
+    HistoryEventBuffer buffer = new HistoryEventBuffer();
+    for (int i = 0; i < 100; i++) {
+      buffer.add(HistoryEvents.createAdded(i, i % 2 == 0 ? a : b, "ref"));
+    }
+    buffer.add(new RecordableHistoryEvent("custom", b, "ref", "custom"));
+
+    assertEquals(50, buffer.getForRecordable(1).size());
+    assertEquals(51, buffer.getForRecordable(2).size());
+    assertEquals(0, buffer.getForRecordable(3).size());
+  }
+
+  private void assertEvent(
+      HistoryEvent event,
+      String type,
+      long timestamp,
+      Recordable recordable,
+      String referrer,
+      String action) {
+    assertEquals(type, event.getEventType());
+    assertEquals(timestamp, event.getTimestamp());
+    assertEquals(referrer, event.getReferrer());
+    assertEquals(action, event.getAction());
+    assertEquals(recordable.getInternalId(), event.getRecordable().getInternalId());
+    assertEquals(recordable.getCoveredText(), event.getRecordable().getCoveredText());
+    assertEquals(recordable.getBegin(), event.getRecordable().getBegin());
+    assertEquals(recordable.getEnd(), event.getRecordable().getEnd());
+    assertEquals(recordable.getTypeName(), event.getRecordable().getTypeName());
+  }
+}
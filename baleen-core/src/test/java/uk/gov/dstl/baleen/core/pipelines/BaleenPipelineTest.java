@@ -7,12 +7,80 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.Progress;
 import org.junit.Test;
 
 import uk.gov.dstl.baleen.core.pipelines.orderers.NoOpOrderer;
 
 public class BaleenPipelineTest {
+
+  private static CountDownLatch processed;
+  private static CountDownLatch batchCompleted;
+
+  public static class SignallingReader extends JCasCollectionReader_ImplBase
+      implements SignallingCollectionReader {
+
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger calls = new AtomicInteger();
+    private DocumentSignal signal;
+
+    @Override
+    public void setDocumentSignal(DocumentSignal signal) {
+      this.signal = signal;
+    }
+
+    public void addDocument() {
+      available.incrementAndGet();
+      signal.signal();
+    }
+
+    @Override
+    public boolean hasNext() {
+      calls.incrementAndGet();
+      return available.get() > 0;
+    }
+
+    @Override
+    public void getNext(JCas jCas) {
+      available.decrementAndGet();
+      jCas.setDocumentText("Signalled");
+    }
+
+    @Override
+    public Progress[] getProgress() {
+      return new Progress[0];
+    }
+  }
+
+  public static class CountingAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) {
+      processed.countDown();
+    }
+  }
+
+  public static class BatchingConsumer extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) {
+      // Do nothing
+    }
+
+    @Override
+    public void batchProcessComplete() {
+      batchCompleted.countDown();
+    }
+  }
+
   @Test
   public void testNameAndYaml() throws IOException {
     BaleenPipeline bop =
@@ -46,4 +114,71 @@ public class BaleenPipelineTest {
     bop.unpause();
     assertFalse(bop.isPaused());
   }
+
+  @Test(timeout = 30000)
+  public void testIdleWaitAndSignal() throws UIMAException, IOException, InterruptedException {
+    processed = new CountDownLatch(1);
+    SignallingReader reader =
+        (SignallingReader) CollectionReaderFactory.createReader(SignallingReader.class);
+
+    BaleenPipeline bop =
+        new BaleenPipeline(
+            "Test Name",
+            new YamlPipelineConfiguration(),
+            new NoOpOrderer(),
+            reader,
+            Collections.singletonList(AnalysisEngineFactory.createEngine(CountingAnnotator.class)),
+            Collections.emptyList());
+
+    Thread t = new Thread(bop);
+    t.start();
+    try {
+      Thread.sleep(500);
+      // Backing off, rather than spinning on hasNext
+      assertTrue(reader.calls.get() < 50);
+
+      reader.addDocument();
+      assertTrue(processed.await(10, TimeUnit.SECONDS));
+
+      bop.pause();
+      bop.unpause();
+    } finally {
+      bop.destroy();
+      t.join(10000);
+    }
+    assertFalse(t.isAlive());
+  }
+
+  @Test
+  public void testBatchCompletedWhenIdle() throws UIMAException, IOException, InterruptedException {
+    processed = new CountDownLatch(1);
+    batchCompleted = new CountDownLatch(1);
+    SignallingReader reader =
+        (SignallingReader) CollectionReaderFactory.createReader(SignallingReader.class);
+
+    BaleenPipeline bop =
+        new BaleenPipeline(
+            "Test Name",
+            new YamlPipelineConfiguration(),
+            new NoOpOrderer(),
+            reader,
+            Collections.singletonList(AnalysisEngineFactory.createEngine(CountingAnnotator.class)),
+            Collections.singletonList(AnalysisEngineFactory.createEngine(BatchingConsumer.class)));
+
+    Thread t = new Thread(bop);
+    t.start();
+    try {
+      Thread.sleep(100);
+      // Nothing processed yet, so no batch to complete
+      assertEquals(1, batchCompleted.getCount());
+
+      reader.addDocument();
+      assertTrue(processed.await(10, TimeUnit.SECONDS));
+      assertTrue(batchCompleted.await(10, TimeUnit.SECONDS));
+    } finally {
+      bop.destroy();
+      t.join(10000);
+    }
+    assertFalse(t.isAlive());
+  }
 }
@@ -0,0 +1,44 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.pipelines;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DocumentSignalTest {
+
+  @Test
+  public void testTimeout() throws InterruptedException {
+    DocumentSignal signal = new DocumentSignal();
+    assertFalse(signal.await(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testSignalBeforeAwait() throws InterruptedException {
+    DocumentSignal signal = new DocumentSignal();
+    signal.signal();
+    assertTrue(signal.await(0, TimeUnit.MILLISECONDS));
+    assertFalse(signal.await(0, TimeUnit.MILLISECONDS));
+  }
+
+  @Test(timeout = 10000)
+  public void testSignalWakesWaiter() throws InterruptedException {
+    DocumentSignal signal = new DocumentSignal();
+    Thread t =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              signal.signal();
+            });
+    t.start();
+    assertTrue(signal.await(1, TimeUnit.MINUTES));
+    t.join();
+  }
+}
@@ -0,0 +1,158 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.pipelines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import uk.gov.dstl.baleen.core.pipelines.orderers.NoOpOrderer;
+import uk.gov.dstl.baleen.testing.DummyCollectionReader;
+
+public class ParallelBaleenPipelineTest {
+
+  private static final Set<String> DOCUMENTS = ConcurrentHashMap.newKeySet();
+  private static final AtomicInteger IN_PROGRESS = new AtomicInteger();
+  private static final List<String> COMPLETED = Collections.synchronizedList(new ArrayList<>());
+  private static CountDownLatch latch;
+
+  public static class RecordingAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) {
+      DOCUMENTS.add(jCas.getDocumentText());
+      latch.countDown();
+    }
+  }
+
+  public static class SlowBatchingConsumer extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) {
+      IN_PROGRESS.incrementAndGet();
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      DOCUMENTS.add(jCas.getDocumentText());
+      IN_PROGRESS.decrementAndGet();
+    }
+
+    @Override
+    public void batchProcessComplete() {
+      COMPLETED.add(DOCUMENTS.size() + "/" + IN_PROGRESS.get());
+      latch.countDown();
+    }
+  }
+
+  @Test
+  public void testProcessesAllDocuments() throws Exception {
+    DOCUMENTS.clear();
+    latch = new CountDownLatch(DummyCollectionReader.DOCUMENT_COUNT);
+
+    List<List<AnalysisEngine>> annotators = new ArrayList<>();
+    List<List<AnalysisEngine>> consumers = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      annotators.add(Collections.singletonList(createRecordingAnnotator()));
+      consumers.add(Collections.emptyList());
+    }
+
+    ParallelBaleenPipeline pipeline =
+        new ParallelBaleenPipeline(
+            "Test Name",
+            new YamlPipelineConfiguration(),
+            new NoOpOrderer(),
+            CollectionReaderFactory.createReader(DummyCollectionReader.class),
+            annotators,
+            consumers,
+            1);
+
+    assertEquals(2, pipeline.getThreads());
+    assertEquals(2, pipeline.getPoolSize());
+
+    Thread t = new Thread(pipeline);
+    t.start();
+    try {
+      assertTrue(latch.await(30, TimeUnit.SECONDS));
+    } finally {
+      pipeline.destroy();
+      t.join(30000);
+    }
+
+    assertEquals(DummyCollectionReader.DOCUMENT_COUNT.intValue(), DOCUMENTS.size());
+    assertTrue(DOCUMENTS.contains("This is document number 1"));
+    assertTrue(DOCUMENTS.contains("This is document number 5"));
+  }
+
+  @Test
+  public void testCompletesBatchOnceDrained() throws Exception {
+    DOCUMENTS.clear();
+    COMPLETED.clear();
+    IN_PROGRESS.set(0);
+    // Called on the consumer of each worker
+    latch = new CountDownLatch(2);
+
+    List<List<AnalysisEngine>> annotators = new ArrayList<>();
+    List<List<AnalysisEngine>> consumers = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      annotators.add(Collections.emptyList());
+      consumers.add(
+          Collections.singletonList(
+              AnalysisEngineFactory.createEngine(SlowBatchingConsumer.class)));
+    }
+
+    ParallelBaleenPipeline pipeline =
+        new ParallelBaleenPipeline(
+            "Test Name",
+            new YamlPipelineConfiguration(),
+            new NoOpOrderer(),
+            CollectionReaderFactory.createReader(DummyCollectionReader.class),
+            annotators,
+            consumers,
+            2);
+
+    Thread t = new Thread(pipeline);
+    t.start();
+    try {
+      assertTrue(latch.await(30, TimeUnit.SECONDS));
+    } finally {
+      pipeline.destroy();
+      t.join(30000);
+    }
+
+    // Every document was consumed, and none were in progress, when the batch completed
+    String drained = DummyCollectionReader.DOCUMENT_COUNT + "/0";
+    assertEquals(Arrays.asList(drained, drained), COMPLETED.subList(0, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMismatchedEngines() throws Exception {
+    new ParallelBaleenPipeline(
+        "Test Name",
+        new YamlPipelineConfiguration(),
+        new NoOpOrderer(),
+        null,
+        Collections.singletonList(Collections.emptyList()),
+        Arrays.asList(Collections.emptyList(), Collections.emptyList()),
+        1);
+  }
+
+  private AnalysisEngine createRecordingAnnotator() throws UIMAException {
+    return AnalysisEngineFactory.createEngine(RecordingAnnotator.class);
+  }
+}
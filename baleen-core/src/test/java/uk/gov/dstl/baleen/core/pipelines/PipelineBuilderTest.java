@@ -3,6 +3,8 @@
 package uk.gov.dstl.baleen.core.pipelines;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
@@ -77,6 +79,37 @@ public class PipelineBuilderTest {
     assertEquals("circle", con1.getConfigParameterValue("shape"));
   }
 
+  @Test
+  public void testParallel() throws Exception {
+    String yaml = Files.asCharSource(getFile("parallelConfig.yaml"), StandardCharsets.UTF_8).read();
+
+    PipelineBuilder pb = new PipelineBuilder("Test Pipeline", new YamlPipelineConfiguration(yaml));
+    BaleenPipeline pipeline = pb.createNewPipeline();
+
+    assertTrue(pipeline instanceof ParallelBaleenPipeline);
+    ParallelBaleenPipeline parallel = (ParallelBaleenPipeline) pipeline;
+    assertEquals(3, parallel.getThreads());
+    assertEquals(3, parallel.getPoolSize());
+
+    assertEquals(2, pipeline.annotators().size());
+    assertEquals(1, pipeline.consumers().size());
+    assertNull(pipeline.annotators().get(0).getConfigParameterValue("execution.threads"));
+  }
+
+  @Test
+  public void testStaged() throws Exception {
+    String yaml = Files.asCharSource(getFile("stagedConfig.yaml"), StandardCharsets.UTF_8).read();
+
+    PipelineBuilder pb = new PipelineBuilder("Test Pipeline", new YamlPipelineConfiguration(yaml));
+    BaleenPipeline pipeline = pb.createNewPipeline();
+
+    assertTrue(pipeline instanceof StagedBaleenPipeline);
+    assertEquals(4, ((StagedBaleenPipeline) pipeline).getQueueSize());
+
+    assertEquals(1, pipeline.annotators().size());
+    assertEquals(1, pipeline.consumers().size());
+  }
+
   @Test
   public void testLegacy() throws Exception {
     String yaml = Files.asCharSource(getFile("legacyConfig.yaml"), StandardCharsets.UTF_8).read();
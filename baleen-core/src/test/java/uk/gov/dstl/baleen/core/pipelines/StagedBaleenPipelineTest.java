@@ -0,0 +1,125 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.core.pipelines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import uk.gov.dstl.baleen.core.pipelines.orderers.NoOpOrderer;
+import uk.gov.dstl.baleen.testing.DummyCollectionReader;
+
+public class StagedBaleenPipelineTest {
+
+  private static final List<String> ANNOTATED = Collections.synchronizedList(new ArrayList<>());
+  private static final List<String> CONSUMED = Collections.synchronizedList(new ArrayList<>());
+  private static final List<Integer> COMPLETED = Collections.synchronizedList(new ArrayList<>());
+  private static CountDownLatch latch;
+
+  public static class RecordingAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) {
+      ANNOTATED.add(jCas.getDocumentText());
+    }
+  }
+
+  public static class RecordingConsumer extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) {
+      CONSUMED.add(jCas.getDocumentText());
+      latch.countDown();
+    }
+  }
+
+  public static class SlowBatchingConsumer extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      CONSUMED.add(jCas.getDocumentText());
+    }
+
+    @Override
+    public void batchProcessComplete() {
+      COMPLETED.add(CONSUMED.size());
+      latch.countDown();
+    }
+  }
+
+  @Test
+  public void testProcessesAllDocumentsInOrder() throws Exception {
+    ANNOTATED.clear();
+    CONSUMED.clear();
+    latch = new CountDownLatch(DummyCollectionReader.DOCUMENT_COUNT);
+
+    StagedBaleenPipeline pipeline =
+        new StagedBaleenPipeline(
+            "Test Name",
+            new YamlPipelineConfiguration(),
+            new NoOpOrderer(),
+            CollectionReaderFactory.createReader(DummyCollectionReader.class),
+            Collections.singletonList(AnalysisEngineFactory.createEngine(RecordingAnnotator.class)),
+            Collections.singletonList(AnalysisEngineFactory.createEngine(RecordingConsumer.class)),
+            2);
+
+    assertEquals(2, pipeline.getQueueSize());
+
+    Thread t = new Thread(pipeline);
+    t.start();
+    try {
+      assertTrue(latch.await(30, TimeUnit.SECONDS));
+    } finally {
+      pipeline.destroy();
+      t.join(30000);
+    }
+
+    assertEquals(DummyCollectionReader.DOCUMENT_COUNT.intValue(), CONSUMED.size());
+    for (int i = 0; i < DummyCollectionReader.DOCUMENT_COUNT; i++) {
+      assertEquals("This is document number " + (i + 1), ANNOTATED.get(i));
+      assertEquals("This is document number " + (i + 1), CONSUMED.get(i));
+    }
+  }
+
+  @Test
+  public void testCompletesBatchOnceDrained() throws Exception {
+    CONSUMED.clear();
+    COMPLETED.clear();
+    latch = new CountDownLatch(1);
+
+    StagedBaleenPipeline pipeline =
+        new StagedBaleenPipeline(
+            "Test Name",
+            new YamlPipelineConfiguration(),
+            new NoOpOrderer(),
+            CollectionReaderFactory.createReader(DummyCollectionReader.class),
+            Collections.emptyList(),
+            Collections.singletonList(
+                AnalysisEngineFactory.createEngine(SlowBatchingConsumer.class)),
+            2);
+
+    Thread t = new Thread(pipeline);
+    t.start();
+    try {
+      assertTrue(latch.await(30, TimeUnit.SECONDS));
+    } finally {
+      pipeline.destroy();
+      t.join(30000);
+    }
+
+    // The documents still queued when the reader ran out were consumed before the batch completed
+    assertEquals(DummyCollectionReader.DOCUMENT_COUNT, COMPLETED.get(0));
+  }
+}
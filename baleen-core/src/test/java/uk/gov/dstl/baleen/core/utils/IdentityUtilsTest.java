@@ -2,9 +2,11 @@
 package uk.gov.dstl.baleen.core.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 import org.junit.Test;
 
+import uk.gov.dstl.baleen.core.utils.IdentityUtils.HashAlgorithm;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
 
 public class IdentityUtilsTest {
@@ -21,4 +23,32 @@ public class IdentityUtilsTest {
         IdentityUtils.hashStrings("Hello", "World"));
     assertEquals("", IdentityUtils.hashStrings((String[]) null));
   }
+
+  @Test
+  public void testMurmur() throws BaleenException {
+    String hash = IdentityUtils.hash(HashAlgorithm.MURMUR3_128, "Hello", "World");
+    assertEquals(32, hash.length());
+    assertEquals(hash, IdentityUtils.hash(HashAlgorithm.MURMUR3_128, "HelloWorld"));
+    assertNotEquals(hash, IdentityUtils.hash(HashAlgorithm.MURMUR3_128, "Hello"));
+    assertEquals("", IdentityUtils.hash(HashAlgorithm.MURMUR3_128, (String[]) null));
+  }
+
+  @Test
+  public void testDefaultIsCompatible() throws BaleenException {
+    assertEquals(HashAlgorithm.SHA256, IdentityUtils.getInstance().getHashAlgorithm());
+    assertEquals(
+        IdentityUtils.hashStrings("Hello", "World"),
+        IdentityUtils.getInstance().hash("Hello", "World"));
+  }
+
+  @Test
+  public void testGetHashAlgorithmFromString() {
+    assertEquals(HashAlgorithm.SHA256, IdentityUtils.getHashAlgorithmFromString(null));
+    assertEquals(HashAlgorithm.SHA256, IdentityUtils.getHashAlgorithmFromString("sha-256"));
+    assertEquals(
+        HashAlgorithm.MURMUR3_128, IdentityUtils.getHashAlgorithmFromString("murmur3_128"));
+    assertEquals(
+        HashAlgorithm.MURMUR3_128, IdentityUtils.getHashAlgorithmFromString("Murmur3-128"));
+    assertEquals(HashAlgorithm.SHA256, IdentityUtils.getHashAlgorithmFromString("md5"));
+  }
 }
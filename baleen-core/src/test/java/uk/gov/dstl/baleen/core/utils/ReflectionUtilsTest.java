@@ -2,13 +2,132 @@
 // Modified by NCA (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.core.utils;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.lukehutch.fastclasspathscanner.scanner.ScanResult;
+
+import uk.gov.dstl.baleen.core.web.servlets.AbstractComponentApiServlet;
+import uk.gov.dstl.baleen.core.web.servlets.CollectionReadersServlet;
+import uk.gov.dstl.baleen.core.web.servlets.ConsumersServlet;
+import uk.gov.dstl.baleen.index.ClassIndex;
 
 public class ReflectionUtilsTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testCanGetInstance() {
     assertNotNull(ReflectionUtils.getInstance());
   }
+
+  @Test
+  public void testGetSubTypes() {
+    Set<Class<? extends AbstractComponentApiServlet>> types =
+        ReflectionUtils.getSubTypes(AbstractComponentApiServlet.class);
+    assertTrue(types.contains(CollectionReadersServlet.class));
+    assertTrue(types.contains(ConsumersServlet.class));
+    assertFalse(types.contains(AbstractComponentApiServlet.class));
+
+    // Callers get their own copy
+    types.clear();
+    assertFalse(ReflectionUtils.getSubTypes(AbstractComponentApiServlet.class).isEmpty());
+  }
+
+  @Test
+  public void testGetSubTypesInPackage() {
+    assertTrue(
+        ReflectionUtils.getSubTypes(
+                "uk.gov.dstl.baleen.core.web", AbstractComponentApiServlet.class)
+            .contains(ConsumersServlet.class));
+    assertTrue(
+        ReflectionUtils.getSubTypes(
+                "uk.gov.dstl.baleen.core.history", AbstractComponentApiServlet.class)
+            .isEmpty());
+  }
+
+  @Test
+  public void testGetSubTypeNames() {
+    List<String> names = ReflectionUtils.getSubTypeNames(AbstractComponentApiServlet.class);
+    assertTrue(names.contains(ConsumersServlet.class.getName()));
+
+    List<String> sorted = new ArrayList<>(names);
+    Collections.sort(sorted);
+    assertEquals(sorted, names);
+  }
+
+  @Test
+  public void testGetSubTypesWithoutIndex() throws Exception {
+    // A plugin, compiled without the index processor
+    File src = folder.newFolder("src");
+    File out = folder.newFolder("out");
+    File source = new File(src, "PluginServlet.java");
+    Files.write(
+        source.toPath(),
+        ("package plugin; public class PluginServlet extends "
+                + ConsumersServlet.class.getName()
+                + " {}")
+            .getBytes(StandardCharsets.UTF_8));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertEquals(
+        0,
+        compiler.run(
+            null,
+            null,
+            null,
+            "-proc:none",
+            "-d",
+            out.getPath(),
+            "-classpath",
+            System.getProperty("java.class.path"),
+            source.getPath()));
+
+    Thread thread = Thread.currentThread();
+    ClassLoader original = thread.getContextClassLoader();
+    try (URLClassLoader classLoader =
+        new URLClassLoader(new URL[] {out.toURI().toURL()}, getClass().getClassLoader())) {
+      thread.setContextClassLoader(classLoader);
+
+      ClassIndex index = ClassIndex.load(classLoader);
+      assertFalse(index.isIndexed(out));
+      ScanResult unindexed = ReflectionUtils.scanUnindexed(index);
+
+      // Found whether it extends the type directly or through an indexed class
+      for (Class<?> superType :
+          Arrays.asList(ConsumersServlet.class, AbstractComponentApiServlet.class)) {
+        Set<String> names = new HashSet<>();
+        ReflectionUtils.findSubTypes(index, unindexed, "", superType)
+            .forEach(c -> names.add(c.getName()));
+        assertTrue(names.contains("plugin.PluginServlet"));
+      }
+
+      Set<Class<?>> types =
+          ReflectionUtils.findSubTypes(
+              index, unindexed, "uk.gov.dstl.baleen", AbstractComponentApiServlet.class);
+      assertTrue(types.contains(ConsumersServlet.class));
+      assertTrue(types.stream().noneMatch(c -> c.getName().startsWith("plugin.")));
+    } finally {
+      thread.setContextClassLoader(original);
+    }
+  }
 }
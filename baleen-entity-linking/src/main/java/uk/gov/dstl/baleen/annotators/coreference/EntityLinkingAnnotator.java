@@ -1,7 +1,12 @@
 // Copyright (c) Committed Software 2018, opensource@committed.io
 package uk.gov.dstl.baleen.annotators.coreference;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -25,6 +30,7 @@ import uk.gov.dstl.baleen.entity.linking.collector.JCasInformationCollector;
 import uk.gov.dstl.baleen.entity.linking.collector.ProperNounInformationCollector;
 import uk.gov.dstl.baleen.entity.linking.ranker.BagOfWordsCandidateRanker;
 import uk.gov.dstl.baleen.resources.SharedStopwordResource;
+import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.language.WordToken;
 import uk.gov.dstl.baleen.types.semantic.Entity;
 import uk.gov.dstl.baleen.types.semantic.ReferenceTarget;
@@ -138,8 +144,9 @@ public class EntityLinkingAnnotator<T extends Entity> extends BaleenAnnotator {
   /**
    * Configuration arguments for candidate supplier. This is mandatory for the
    * MongoCandidateSupplier. Mandatory fields for MongoCandidateSupplier are "collection" and
-   * "searchField" Should be an array of Strings of key value pairs. For example, ["collection",
-   * "peopleCollection", "language", "en", "port", "1234"]
+   * "searchField", with optional "searchMode" (index or regex) and "cacheSize". Should be an array
+   * of Strings of key value pairs. For example, ["collection", "peopleCollection", "language",
+   * "en", "port", "1234"]
    *
    * @baleen.config {}
    */
@@ -197,12 +204,14 @@ public class EntityLinkingAnnotator<T extends Entity> extends BaleenAnnotator {
   @Override
   protected void doProcess(JCas jCas) throws AnalysisEngineProcessException {
 
-    Set<EntityInformation<T>> entityInformationSet =
-        informationCollector.getEntityInformation(jCas, entityClass);
+    Collection<EntityInformation<T>> entityInformations =
+        groupByReferenceTarget(informationCollector.getEntityInformation(jCas, entityClass));
 
-    entityInformationSet.forEach(
-        entityInformation -> {
-          Collection<Candidate> candidates = candidateSupplier.getCandidates(entityInformation);
+    Map<EntityInformation<T>, Collection<Candidate>> allCandidates =
+        candidateSupplier.getAllCandidates(entityInformations);
+
+    allCandidates.forEach(
+        (entityInformation, candidates) -> {
           if (candidates.size() == 1) {
             setLinking(jCas, entityInformation, candidates.iterator().next().getId());
             return;
@@ -216,6 +225,41 @@ public class EntityLinkingAnnotator<T extends Entity> extends BaleenAnnotator {
         });
   }
 
+  /**
+   * Merge any entity information for the same reference target, so each cluster of mentions is
+   * looked up and linked once.
+   */
+  private Collection<EntityInformation<T>> groupByReferenceTarget(
+      Set<EntityInformation<T>> entityInformationSet) {
+    Map<ReferenceTarget, List<EntityInformation<T>>> grouped = new LinkedHashMap<>();
+    List<EntityInformation<T>> ungrouped = new ArrayList<>();
+    for (EntityInformation<T> entityInformation : entityInformationSet) {
+      ReferenceTarget referenceTarget = entityInformation.getReferenceTarget();
+      if (referenceTarget == null) {
+        ungrouped.add(entityInformation);
+      } else {
+        grouped.computeIfAbsent(referenceTarget, k -> new ArrayList<>()).add(entityInformation);
+      }
+    }
+
+    List<EntityInformation<T>> result = new ArrayList<>(ungrouped);
+    for (Map.Entry<ReferenceTarget, List<EntityInformation<T>>> entry : grouped.entrySet()) {
+      List<EntityInformation<T>> group = entry.getValue();
+      if (group.size() == 1) {
+        result.add(group.get(0));
+      } else {
+        Set<T> mentions = new LinkedHashSet<>();
+        Set<Sentence> sentences = new LinkedHashSet<>();
+        for (EntityInformation<T> entityInformation : group) {
+          mentions.addAll(entityInformation.getMentions());
+          sentences.addAll(entityInformation.getSentences());
+        }
+        result.add(new EntityInformation<>(entry.getKey(), mentions, sentences));
+      }
+    }
+    return result;
+  }
+
   private void setLinking(JCas jCas, EntityInformation<T> entityInformation, String linking) {
     removeFromJCasIndex(entityInformation.getReferenceTarget());
     ReferenceTarget referenceTarget = new ReferenceTarget(jCas);
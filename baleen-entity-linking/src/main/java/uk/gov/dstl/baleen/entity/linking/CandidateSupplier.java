@@ -2,6 +2,8 @@
 package uk.gov.dstl.baleen.entity.linking;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import uk.gov.dstl.baleen.exceptions.BaleenException;
 import uk.gov.dstl.baleen.types.semantic.Entity;
@@ -21,6 +23,22 @@ public interface CandidateSupplier<T extends Entity> {
    */
   Collection<Candidate> getCandidates(EntityInformation<T> entityInformation);
 
+  /**
+   * Retrieve the candidates for each of the given entities, for example all the entities in a
+   * document. Implementations can override this to look up the candidates together.
+   *
+   * @param entityInformations The supplied information about the entities of interest
+   * @return a Map from each entity information to its Collection of Candidates
+   */
+  default Map<EntityInformation<T>, Collection<Candidate>> getAllCandidates(
+      Collection<EntityInformation<T>> entityInformations) {
+    Map<EntityInformation<T>, Collection<Candidate>> candidates = new LinkedHashMap<>();
+    for (EntityInformation<T> entityInformation : entityInformations) {
+      candidates.put(entityInformation, getCandidates(entityInformation));
+    }
+    return candidates;
+  }
+
   /**
    * Configure the CandidateSupplier
    *
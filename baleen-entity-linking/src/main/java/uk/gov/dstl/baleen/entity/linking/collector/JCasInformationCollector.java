@@ -7,7 +7,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 
 import com.google.common.collect.Multimap;
@@ -17,6 +16,7 @@ import uk.gov.dstl.baleen.entity.linking.InformationCollector;
 import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.semantic.Entity;
 import uk.gov.dstl.baleen.types.semantic.ReferenceTarget;
+import uk.gov.dstl.baleen.uima.CasDerivedDataCache;
 import uk.gov.dstl.baleen.uima.utils.ReferentUtils;
 
 /** Collects basic information about the entity from the JCas */
@@ -26,7 +26,8 @@ public class JCasInformationCollector implements InformationCollector {
   public <T extends Entity> Set<EntityInformation<T>> getEntityInformation(
       JCas jCas, Class<T> clazz) {
     Multimap<ReferenceTarget, T> map = ReferentUtils.createReferentMap(jCas, clazz);
-    Map<T, Collection<Sentence>> index = JCasUtil.indexCovering(jCas, clazz, Sentence.class);
+    Map<T, Collection<Sentence>> index =
+        CasDerivedDataCache.getInstance().indexCovering(jCas, clazz, Sentence.class);
 
     Set<EntityInformation<T>> infos = new HashSet<>();
     for (Map.Entry<ReferenceTarget, Collection<T>> entry : map.asMap().entrySet()) {
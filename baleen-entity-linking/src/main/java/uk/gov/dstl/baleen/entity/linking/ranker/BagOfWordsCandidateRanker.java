@@ -6,6 +6,12 @@ import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import uk.gov.dstl.baleen.core.metrics.Metrics;
+import uk.gov.dstl.baleen.core.metrics.MetricsFactory;
 import uk.gov.dstl.baleen.entity.linking.Candidate;
 import uk.gov.dstl.baleen.entity.linking.CandidateRanker;
 import uk.gov.dstl.baleen.entity.linking.EntityInformation;
@@ -21,16 +27,34 @@ import uk.gov.dstl.baleen.types.semantic.Entity;
  * <p>It is assumed that words that occur more in the candidate are more important in defining that
  * candidate so are scored high if they also occur in the entity information.
  *
+ * <p>The bag of words for each candidate is cached by candidate id, up to {@link #MAX_CACHED_BAGS}
+ * candidates, for the lifetime of the ranker. Cache hits and misses are recorded as the
+ * bagCacheHits and bagCacheMisses meters.
+ *
  * @param <T>
  */
 public class BagOfWordsCandidateRanker<T extends Entity> implements CandidateRanker<T> {
 
+  /** The maximum number of candidate bags of words to cache */
+  public static final long MAX_CACHED_BAGS = 10000;
+
   private static final int BOOST = 10;
   private BagOfWordsFactory bagOfWordsFactory;
 
+  private final Cache<String, BagOfWords> candidateBags =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_BAGS).build();
+
+  private Meter hits;
+  private Meter misses;
+
   @Override
   public void initialize(Collection<String> stopwords) {
     bagOfWordsFactory = new BagOfWordsFactory(stopwords);
+    candidateBags.invalidateAll();
+
+    Metrics metrics = MetricsFactory.getMetrics(BagOfWordsCandidateRanker.class);
+    hits = metrics.getMeter("bagCacheHits");
+    misses = metrics.getMeter("bagCacheMisses");
   }
 
   @Override
@@ -74,7 +98,22 @@ public class BagOfWordsCandidateRanker<T extends Entity> implements CandidateRan
   }
 
   private int getBagScore(BagOfWords entityBag, Candidate candidate) {
-    BagOfWords candidateBag = bagOfWordsFactory.bagLines(candidate.getKeyValuePairs().values());
-    return candidateBag.retain(entityBag).size();
+    return getCandidateBag(candidate).retain(entityBag).size();
+  }
+
+  private BagOfWords getCandidateBag(Candidate candidate) {
+    String id = candidate.getId();
+    BagOfWords bag = id == null ? null : candidateBags.getIfPresent(id);
+    if (bag != null) {
+      hits.mark();
+      return bag;
+    }
+
+    misses.mark();
+    bag = bagOfWordsFactory.bagLines(candidate.getKeyValuePairs().values());
+    if (id != null) {
+      candidateBags.put(id, bag);
+    }
+    return bag;
   }
 }
@@ -1,37 +1,58 @@
 // Copyright (c) Committed Software 2018, opensource@committed.io
 package uk.gov.dstl.baleen.entity.linking.supplier.mongo;
 
+import static com.mongodb.client.model.Filters.in;
 import static com.mongodb.client.model.Filters.or;
 import static com.mongodb.client.model.Filters.regex;
+import static com.mongodb.client.model.Projections.include;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
-import com.mongodb.client.FindIterable;
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
+import uk.gov.dstl.baleen.core.metrics.Metrics;
+import uk.gov.dstl.baleen.core.metrics.MetricsFactory;
 import uk.gov.dstl.baleen.entity.linking.Candidate;
 import uk.gov.dstl.baleen.entity.linking.CandidateSupplier;
 import uk.gov.dstl.baleen.entity.linking.EntityInformation;
 import uk.gov.dstl.baleen.entity.linking.util.DefaultCandidate;
 import uk.gov.dstl.baleen.entity.linking.util.StringArgumentsHandler;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.exceptions.InvalidParameterException;
 import uk.gov.dstl.baleen.types.semantic.Entity;
 
 /**
  * Candidate Supplier for retrieving candidates from Mongo
  *
+ * <p>By default the search field of every document in the collection is tokenised into an in memory
+ * {@link TokenIndex} when the supplier is configured, and candidates are the documents sharing a
+ * token with a mention. Tokens shared by more than maxTokenFrequency documents are ignored. The
+ * candidates for all the entities in a document are then fetched by id, in batches of up to 1000
+ * ids per query. Setting the searchMode to regex instead queries Mongo with a case insensitive
+ * regular expression for each word of each mention, which also matches partial words but can not
+ * use an index.
+ *
+ * <p>The candidates for each mention value are cached, up to cacheSize values. Cache hits and
+ * misses are recorded as the candidateCacheHits and candidateCacheMisses meters.
+ *
  * @param <T> The type of Entity the Candidates relate to
  */
 public class MongoCandidateSupplier<T extends Entity> implements CandidateSupplier<T> {
@@ -47,12 +68,43 @@ public class MongoCandidateSupplier<T extends Entity> implements CandidateSuppli
   /** Thew document ID field */
   public static final String PARAM_ID_FIELD = "idField";
 
+  /** The search mode, either index (default) or regex */
+  public static final String PARAM_SEARCH_MODE = "searchMode";
+
+  /** The maximum number of mention values to cache the candidates of (default 10000) */
+  public static final String PARAM_CACHE_SIZE = "cacheSize";
+
+  /**
+   * The most documents a token can be in and still be searched on, in index mode (default 1000, 0
+   * for no limit)
+   */
+  public static final String PARAM_MAX_TOKEN_FREQUENCY = "maxTokenFrequency";
+
+  /** Search using the in memory token index */
+  public static final String SEARCH_MODE_INDEX = "index";
+
+  /** Search using regular expressions */
+  public static final String SEARCH_MODE_REGEX = "regex";
+
+  private static final String DEFAULT_CACHE_SIZE = "10000";
+
+  private static final String DEFAULT_MAX_TOKEN_FREQUENCY = "1000";
+
+  // Keeps each $in query well within Mongo's limit on the size of a command
+  private static final int ID_BATCH_SIZE = 1000;
+
   private Map<String, String> argumentsMap = new HashMap<>();
 
   private final Function<Map<String, String>, MongoFactory> factorySupplier;
 
   private MongoFactory mongoFactory;
   private MongoDatabase mongoDatabase;
+  private MongoCollection<Document> collection;
+  private String searchField;
+  private TokenIndex tokenIndex;
+  private Cache<String, Collection<Candidate>> cache;
+  private Meter hits;
+  private Meter misses;
 
   /** Default constructor */
   public MongoCandidateSupplier() {
@@ -65,25 +117,28 @@ public class MongoCandidateSupplier<T extends Entity> implements CandidateSuppli
 
   @Override
   public Collection<Candidate> getCandidates(EntityInformation<T> entityInformation) {
+    return getAllCandidates(Collections.singletonList(entityInformation)).get(entityInformation);
+  }
 
-    Collection<Candidate> candidates = new HashSet<>();
-
-    MongoCollection<Document> collection =
-        mongoDatabase.getCollection(argumentsMap.get(PARAM_COLLECTION));
+  @Override
+  public Map<EntityInformation<T>, Collection<Candidate>> getAllCandidates(
+      Collection<EntityInformation<T>> entityInformations) {
 
-    Optional<Bson> buildQuery = buildQuery(entityInformation);
-    if (buildQuery.isPresent()) {
-      FindIterable<Document> documents = collection.find(buildQuery.get());
+    Set<String> values = new HashSet<>();
+    for (EntityInformation<T> entityInformation : entityInformations) {
+      values.addAll(getMentionValues(entityInformation));
+    }
+    Map<String, Collection<Candidate>> candidatesByValue = getCandidatesByValue(values);
 
-      for (Document document : documents) {
-        Map<String, String> map = new MongoDocumentFlattener(document).flatten();
-        String candidateID =
-            document.get(argumentsMap.getOrDefault(PARAM_ID_FIELD, DEFAULT_MONGO_ID)).toString();
-        String candidateName = document.get(argumentsMap.get(PARAM_SEARCH_FIELD)).toString();
-        candidates.add(new DefaultCandidate(candidateID, candidateName, map));
+    Map<EntityInformation<T>, Collection<Candidate>> result = new LinkedHashMap<>();
+    for (EntityInformation<T> entityInformation : entityInformations) {
+      Collection<Candidate> candidates = new HashSet<>();
+      for (String value : getMentionValues(entityInformation)) {
+        candidates.addAll(candidatesByValue.get(value));
       }
+      result.put(entityInformation, candidates);
     }
-    return candidates;
+    return result;
   }
 
   @Override
@@ -91,30 +146,145 @@ public class MongoCandidateSupplier<T extends Entity> implements CandidateSuppli
     argumentsMap = new StringArgumentsHandler(argumentPairs).createStringsMap();
     mongoFactory = factorySupplier.apply(argumentsMap);
     mongoDatabase = mongoFactory.createDatabase();
+    collection = mongoDatabase.getCollection(argumentsMap.get(PARAM_COLLECTION));
+    searchField = argumentsMap.get(PARAM_SEARCH_FIELD);
+
+    String searchMode = argumentsMap.getOrDefault(PARAM_SEARCH_MODE, SEARCH_MODE_INDEX);
+    tokenIndex = null;
+    if (SEARCH_MODE_INDEX.equalsIgnoreCase(searchMode)) {
+      tokenIndex = buildIndex(parseMaxTokenFrequency());
+    } else if (!SEARCH_MODE_REGEX.equalsIgnoreCase(searchMode)) {
+      throw new InvalidParameterException("Unknown search mode " + searchMode);
+    }
+
+    try {
+      cache =
+          CacheBuilder.newBuilder()
+              .maximumSize(
+                  Long.parseLong(argumentsMap.getOrDefault(PARAM_CACHE_SIZE, DEFAULT_CACHE_SIZE)))
+              .build();
+    } catch (NumberFormatException e) {
+      throw new InvalidParameterException("Invalid cache size", e);
+    }
+
+    Metrics metrics = MetricsFactory.getMetrics(MongoCandidateSupplier.class);
+    hits = metrics.getMeter("candidateCacheHits");
+    misses = metrics.getMeter("candidateCacheMisses");
   }
 
-  private Optional<Bson> buildQuery(EntityInformation<T> entityInformation) {
-    List<String> searchValues = new ArrayList<>();
-    entityInformation
-        .getMentions()
-        .stream()
-        .filter(m -> m.getValue() != null)
-        .forEach(
-            mention -> {
-              String[] mentionSearchTerms = mention.getValue().split(" ");
-              searchValues.addAll(Arrays.asList(mentionSearchTerms));
-            });
+  private int parseMaxTokenFrequency() throws InvalidParameterException {
+    try {
+      return Integer.parseInt(
+          argumentsMap.getOrDefault(PARAM_MAX_TOKEN_FREQUENCY, DEFAULT_MAX_TOKEN_FREQUENCY));
+    } catch (NumberFormatException e) {
+      throw new InvalidParameterException("Invalid max token frequency", e);
+    }
+  }
 
-    if (searchValues.isEmpty()) {
-      return Optional.empty();
+  private TokenIndex buildIndex(int maxTokenFrequency) {
+    TokenIndex index = new TokenIndex(maxTokenFrequency);
+    for (Document document : collection.find().projection(include(searchField))) {
+      Object value = document.get(searchField);
+      if (value != null) {
+        index.add(document.get(DEFAULT_MONGO_ID), value.toString());
+      }
     }
+    return index;
+  }
 
-    List<Bson> bsonList = new ArrayList<>();
-    for (String partialSearchTerm : searchValues) {
-      bsonList.add(regex(argumentsMap.get(PARAM_SEARCH_FIELD), partialSearchTerm, "i"));
+  private Collection<String> getMentionValues(EntityInformation<T> entityInformation) {
+    Collection<T> mentions = entityInformation.getMentions();
+    if (mentions == null) {
+      return Collections.emptySet();
+    }
+    Set<String> values = new LinkedHashSet<>();
+    for (T mention : mentions) {
+      if (mention.getValue() != null) {
+        values.add(mention.getValue());
+      }
+    }
+    return values;
+  }
+
+  private Map<String, Collection<Candidate>> getCandidatesByValue(Set<String> values) {
+    Map<String, Collection<Candidate>> candidatesByValue =
+        new HashMap<>(cache.getAllPresent(values));
+
+    List<String> missing = new ArrayList<>();
+    for (String value : values) {
+      if (!candidatesByValue.containsKey(value)) {
+        missing.add(value);
+      }
+    }
+
+    hits.mark((long) values.size() - missing.size());
+    misses.mark(missing.size());
+
+    if (tokenIndex != null) {
+      searchIndex(missing, candidatesByValue);
+    } else {
+      for (String value : missing) {
+        candidatesByValue.put(value, find(buildQuery(value)));
+      }
     }
 
-    return Optional.of(or(bsonList));
+    for (String value : missing) {
+      cache.put(value, candidatesByValue.get(value));
+    }
+    return candidatesByValue;
+  }
+
+  private void searchIndex(
+      Collection<String> values, Map<String, Collection<Candidate>> candidatesByValue) {
+    Map<String, Set<Object>> idsByValue = new HashMap<>();
+    Set<Object> allIds = new HashSet<>();
+    for (String value : values) {
+      Set<Object> ids = tokenIndex.search(value);
+      idsByValue.put(value, ids);
+      allIds.addAll(ids);
+    }
+
+    Map<Object, Candidate> candidatesById = new HashMap<>();
+    for (List<Object> ids : Iterables.partition(allIds, ID_BATCH_SIZE)) {
+      for (Document document : collection.find(in(DEFAULT_MONGO_ID, ids))) {
+        candidatesById.put(document.get(DEFAULT_MONGO_ID), toCandidate(document));
+      }
+    }
+
+    for (Map.Entry<String, Set<Object>> entry : idsByValue.entrySet()) {
+      Collection<Candidate> candidates = new HashSet<>();
+      for (Object id : entry.getValue()) {
+        Candidate candidate = candidatesById.get(id);
+        if (candidate != null) {
+          candidates.add(candidate);
+        }
+      }
+      candidatesByValue.put(entry.getKey(), candidates);
+    }
+  }
+
+  private Collection<Candidate> find(Bson query) {
+    Collection<Candidate> candidates = new HashSet<>();
+    for (Document document : collection.find(query)) {
+      candidates.add(toCandidate(document));
+    }
+    return candidates;
+  }
+
+  private Candidate toCandidate(Document document) {
+    Map<String, String> map = new MongoDocumentFlattener(document).flatten();
+    String candidateID =
+        document.get(argumentsMap.getOrDefault(PARAM_ID_FIELD, DEFAULT_MONGO_ID)).toString();
+    String candidateName = document.get(searchField).toString();
+    return new DefaultCandidate(candidateID, candidateName, map);
+  }
+
+  private Bson buildQuery(String value) {
+    List<Bson> bsonList = new ArrayList<>();
+    for (String partialSearchTerm : value.split(" ")) {
+      bsonList.add(regex(searchField, partialSearchTerm, "i"));
+    }
+    return or(bsonList);
   }
 
   @Override
@@ -0,0 +1,96 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.entity.linking.supplier.mongo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An in memory inverted index from normalised tokens to the ids of the documents containing them.
+ *
+ * <p>Tokens are split on any character that is not a letter or digit, and lower cased. Tokens found
+ * in more than a maximum number of documents (such as "the" or "street") are too common to tell the
+ * documents apart, so are ignored when searching.
+ */
+public class TokenIndex {
+
+  private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final Map<String, List<Object>> postings = new HashMap<>();
+  private final int maxPostings;
+
+  /** Create an index which searches on every token */
+  public TokenIndex() {
+    this(0);
+  }
+
+  /**
+   * Create an index which ignores common tokens when searching
+   *
+   * @param maxPostings the most documents a token can be in and still be searched on, or 0 for no
+   *     limit
+   */
+  public TokenIndex(int maxPostings) {
+    this.maxPostings = maxPostings;
+  }
+
+  /**
+   * Add the document to the index
+   *
+   * @param id the document id
+   * @param value the text to index the document by
+   */
+  public void add(Object id, String value) {
+    for (String token : tokenise(value)) {
+      postings.computeIfAbsent(token, k -> new ArrayList<>(1)).add(id);
+    }
+  }
+
+  /**
+   * Find the ids of the documents which share a token, other than a common token, with the value
+   *
+   * @param value the text to search for
+   * @return the ids of the matching documents
+   */
+  public Set<Object> search(String value) {
+    Set<Object> ids = new LinkedHashSet<>();
+    for (String token : tokenise(value)) {
+      List<Object> tokenIds = postings.getOrDefault(token, Collections.emptyList());
+      if (maxPostings <= 0 || tokenIds.size() <= maxPostings) {
+        ids.addAll(tokenIds);
+      }
+    }
+    return ids;
+  }
+
+  /** @return the number of distinct tokens in the index */
+  public int size() {
+    return postings.size();
+  }
+
+  /**
+   * Split the value into normalised tokens
+   *
+   * @param value the text to tokenise
+   * @return the distinct tokens
+   */
+  public static Collection<String> tokenise(String value) {
+    if (value == null) {
+      return Collections.emptySet();
+    }
+    Set<String> tokens = new LinkedHashSet<>();
+    for (String token : SPLIT.split(value.toLowerCase(Locale.ROOT))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+}
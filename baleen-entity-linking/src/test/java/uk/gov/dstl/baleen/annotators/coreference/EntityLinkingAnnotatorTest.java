@@ -1,6 +1,8 @@
 // Copyright (c) Committed Software 2018, opensource@committed.io
 package uk.gov.dstl.baleen.annotators.coreference;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.util.HashSet;
@@ -19,6 +21,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import uk.gov.dstl.baleen.annotators.testing.AbstractAnnotatorTest;
 import uk.gov.dstl.baleen.annotators.testing.Annotations;
 import uk.gov.dstl.baleen.entity.linking.EntityInformation;
+import uk.gov.dstl.baleen.entity.linking.util.MentionInformationCollector;
 import uk.gov.dstl.baleen.entity.linking.util.MockCandidateRanker;
 import uk.gov.dstl.baleen.entity.linking.util.MockCandidateSupplier;
 import uk.gov.dstl.baleen.entity.linking.util.MockInformationCollector;
@@ -81,6 +84,30 @@ public class EntityLinkingAnnotatorTest extends AbstractAnnotatorTest {
     assertNotNull(linking);
   }
 
+  @Test
+  public void testMentionsAreGroupedByReferenceTarget()
+      throws AnalysisEngineProcessException, ResourceInitializationException {
+
+    Person chris1 = Annotations.createPerson(jCas, 9, 14, "Chris");
+    Person chris2 = Annotations.createPerson(jCas, 16, 21, "Chris");
+    ReferenceTarget chris = Annotations.createReferenceTarget(jCas, chris1, chris2);
+
+    // @formatter:off
+    processJCas(
+        EntityLinkingAnnotator.KEY_STOPWORDS, stopwords,
+        EntityLinkingAnnotator.PARAM_ENTITY_TYPE, PERSON,
+        EntityLinkingAnnotator.PARAM_INFORMATION_COLLECTOR,
+            MentionInformationCollector.class.getName(),
+        EntityLinkingAnnotator.PARAM_CANDIDATE_SUPPLIER, MockCandidateSupplier.class.getName(),
+        EntityLinkingAnnotator.PARAM_CANDIDATE_RANKER, MockCandidateRanker.class.getName());
+    // @formatter:on
+
+    assertEquals(1, MockCandidateSupplier.lastRequested);
+    assertEquals("id", chris1.getReferent().getLinking());
+    assertEquals(chris1.getReferent(), chris2.getReferent());
+    assertNotEquals(chris, chris1.getReferent());
+  }
+
   @Test(expected = ResourceInitializationException.class)
   public void testResourceInitializationExceptionIsThrownIfClassIsNotFound()
       throws AnalysisEngineProcessException, ResourceInitializationException {
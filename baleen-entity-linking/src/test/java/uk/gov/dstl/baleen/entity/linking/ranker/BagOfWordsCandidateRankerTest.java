@@ -14,10 +14,12 @@ import org.apache.uima.jcas.JCas;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.codahale.metrics.Meter;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import uk.gov.dstl.baleen.annotators.testing.Annotations;
+import uk.gov.dstl.baleen.core.metrics.MetricsFactory;
 import uk.gov.dstl.baleen.entity.linking.Candidate;
 import uk.gov.dstl.baleen.entity.linking.EntityInformation;
 import uk.gov.dstl.baleen.entity.linking.util.DefaultCandidate;
@@ -152,4 +154,18 @@ public class BagOfWordsCandidateRankerTest {
     assertTrue(topCandidate.isPresent());
     assertEquals(exact, topCandidate.get());
   }
+
+  @Test
+  public void testCandidateBagsAreCached() {
+    Meter hits =
+        MetricsFactory.getMetrics(BagOfWordsCandidateRanker.class).getMeter("bagCacheHits");
+    Candidate candidate =
+        new DefaultCandidate("cached", "cached", ImmutableMap.of("surname", "Major"));
+
+    ranker.getTopCandidate(entityInformation, ImmutableSet.of(candidate));
+    long before = hits.getCount();
+    ranker.getTopCandidate(entityInformation, ImmutableSet.of(candidate));
+
+    assertEquals(before + 1, hits.getCount());
+  }
 }
@@ -23,12 +23,14 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import com.github.fakemongo.Fongo;
+import com.google.common.collect.ImmutableList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
 import uk.gov.dstl.baleen.entity.linking.Candidate;
 import uk.gov.dstl.baleen.entity.linking.EntityInformation;
+import uk.gov.dstl.baleen.exceptions.InvalidParameterException;
 import uk.gov.dstl.baleen.types.common.Person;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -144,6 +146,102 @@ public class MongoCandidateSupplierTest {
     assertNotNull("Returned candidates should include " + NAME1, candidate);
   }
 
+  @Test
+  public void testIndexMatchesWholeTokensIgnoringCase() {
+    List<Person> hammond = people("hammond");
+    when(entityInformation.getMentions()).thenReturn(hammond);
+    Collection<Candidate> candidates = mongoCandidateSupplier.getCandidates(entityInformation);
+    assertEquals(1, candidates.size());
+    assertNotNull(findCandidateByName(candidates, NAME2));
+
+    List<Person> partial = people("Ham");
+    when(entityInformation.getMentions()).thenReturn(partial);
+    assertTrue(mongoCandidateSupplier.getCandidates(entityInformation).isEmpty());
+  }
+
+  @Test
+  public void testRegexModeMatchesPartialWords() throws Exception {
+    mongoCandidateSupplier.configure(
+        new String[] {
+          MongoCandidateSupplier.PARAM_COLLECTION, COLLECTION_NAME,
+          MongoCandidateSupplier.PARAM_SEARCH_FIELD, NAME,
+          MongoCandidateSupplier.PARAM_SEARCH_MODE, MongoCandidateSupplier.SEARCH_MODE_REGEX
+        });
+
+    List<Person> partial = people("Ham");
+    when(entityInformation.getMentions()).thenReturn(partial);
+    Collection<Candidate> candidates = mongoCandidateSupplier.getCandidates(entityInformation);
+    assertEquals(1, candidates.size());
+    assertNotNull(findCandidateByName(candidates, NAME2));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testAllCandidates() {
+    EntityInformation<Person> jeremy = mock(EntityInformation.class);
+    List<Person> jeremyMentions = people("Jeremy");
+    when(jeremy.getMentions()).thenReturn(jeremyMentions);
+    EntityInformation<Person> richard = mock(EntityInformation.class);
+    List<Person> richardMentions = people("Richard", "Hammond");
+    when(richard.getMentions()).thenReturn(richardMentions);
+
+    Map<EntityInformation<Person>, Collection<Candidate>> candidates =
+        mongoCandidateSupplier.getAllCandidates(ImmutableList.of(jeremy, richard));
+
+    assertEquals(2, candidates.size());
+    assertEquals(1, candidates.get(jeremy).size());
+    assertNotNull(findCandidateByName(candidates.get(jeremy), NAME1));
+    assertEquals(1, candidates.get(richard).size());
+    assertNotNull(findCandidateByName(candidates.get(richard), NAME2));
+  }
+
+  @Test
+  public void testCandidatesAreCached() {
+    List<Person> mentions = people("Jeremy");
+    when(entityInformation.getMentions()).thenReturn(mentions);
+    assertEquals(1, mongoCandidateSupplier.getCandidates(entityInformation).size());
+
+    testCandidatesCollection.deleteMany(new Document());
+    assertEquals(1, mongoCandidateSupplier.getCandidates(entityInformation).size());
+  }
+
+  @Test
+  public void testIndexIgnoresCommonTokens() throws Exception {
+    testCandidatesCollection.insertOne(new Document().append(NAME, "Jeremy Kyle"));
+    mongoCandidateSupplier.configure(
+        new String[] {
+          MongoCandidateSupplier.PARAM_COLLECTION, COLLECTION_NAME,
+          MongoCandidateSupplier.PARAM_SEARCH_FIELD, NAME,
+          MongoCandidateSupplier.PARAM_MAX_TOKEN_FREQUENCY, "1"
+        });
+
+    List<Person> mentions = people("Jeremy Clarkson");
+    when(entityInformation.getMentions()).thenReturn(mentions);
+    Collection<Candidate> candidates = mongoCandidateSupplier.getCandidates(entityInformation);
+    assertEquals(1, candidates.size());
+    assertNotNull(findCandidateByName(candidates, NAME1));
+  }
+
+  @Test(expected = InvalidParameterException.class)
+  public void testInvalidSearchMode() throws Exception {
+    mongoCandidateSupplier.configure(
+        new String[] {
+          MongoCandidateSupplier.PARAM_COLLECTION, COLLECTION_NAME,
+          MongoCandidateSupplier.PARAM_SEARCH_FIELD, NAME,
+          MongoCandidateSupplier.PARAM_SEARCH_MODE, "missing"
+        });
+  }
+
+  private List<Person> people(String... names) {
+    List<Person> people = new ArrayList<>();
+    for (String name : names) {
+      Person person = mock(Person.class);
+      when(person.getValue()).thenReturn(name);
+      people.add(person);
+    }
+    return people;
+  }
+
   private Candidate findCandidateByName(Collection<Candidate> candidates, String name) {
     for (Candidate candidate : candidates) {
       if (candidate.getKeyValuePairs().get("name").equals(name)) {
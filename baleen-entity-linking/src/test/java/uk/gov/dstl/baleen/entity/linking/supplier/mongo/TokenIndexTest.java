@@ -0,0 +1,46 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.entity.linking.supplier.mongo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class TokenIndexTest {
+
+  @Test
+  public void testTokenise() {
+    assertEquals(
+        ImmutableList.of("jeremy", "clarkson", "o", "brien"),
+        ImmutableList.copyOf(TokenIndex.tokenise("Jeremy  CLARKSON, O'Brien")));
+    assertTrue(TokenIndex.tokenise(null).isEmpty());
+    assertTrue(TokenIndex.tokenise(" - ").isEmpty());
+  }
+
+  @Test
+  public void testSearch() {
+    TokenIndex index = new TokenIndex();
+    index.add(1, "Jeremy Clarkson");
+    index.add(2, "Richard Hammond");
+    index.add(3, "James May");
+
+    assertEquals(6, index.size());
+    assertEquals(ImmutableSet.of(1), index.search("jeremy"));
+    assertEquals(ImmutableSet.of(1, 2), index.search("Clarkson and Hammond"));
+    assertTrue(index.search("Jer").isEmpty());
+  }
+
+  @Test
+  public void testSearchIgnoresCommonTokens() {
+    TokenIndex index = new TokenIndex(2);
+    index.add(1, "Jeremy Clarkson");
+    index.add(2, "Jeremy Kyle");
+    index.add(3, "Jeremy Paxman");
+
+    assertEquals(ImmutableSet.of(2), index.search("Jeremy Kyle"));
+    assertTrue(index.search("Jeremy").isEmpty());
+  }
+}
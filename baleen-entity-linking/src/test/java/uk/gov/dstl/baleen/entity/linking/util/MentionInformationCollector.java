@@ -0,0 +1,30 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.entity.linking.util;
+
+import static java.util.stream.Collectors.toSet;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+
+import uk.gov.dstl.baleen.entity.linking.EntityInformation;
+import uk.gov.dstl.baleen.entity.linking.InformationCollector;
+import uk.gov.dstl.baleen.types.semantic.Entity;
+
+/** Information collector returning a separate entity information for each mention */
+public class MentionInformationCollector implements InformationCollector {
+
+  @Override
+  public <T extends Entity> Set<EntityInformation<T>> getEntityInformation(
+      JCas jCas, Class<T> clazz) {
+    return JCasUtil.select(jCas, clazz)
+        .stream()
+        .map(
+            e ->
+                new EntityInformation<T>(
+                    e.getReferent(), Collections.singleton(e), Collections.emptySet()))
+        .collect(toSet());
+  }
+}
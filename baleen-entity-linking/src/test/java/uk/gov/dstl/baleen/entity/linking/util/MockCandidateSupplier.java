@@ -9,9 +9,18 @@ import uk.gov.dstl.baleen.entity.linking.Candidate;
 import uk.gov.dstl.baleen.entity.linking.CandidateSupplier;
 import uk.gov.dstl.baleen.entity.linking.EntityInformation;
 
-@SuppressWarnings("rawtypes")
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class MockCandidateSupplier implements CandidateSupplier {
 
+  /** The number of entity informations in the last call to getAllCandidates */
+  public static int lastRequested;
+
+  @Override
+  public Map getAllCandidates(Collection entityInformations) {
+    lastRequested = entityInformations.size();
+    return CandidateSupplier.super.getAllCandidates(entityInformations);
+  }
+
   @Override
   public Collection<Candidate> getCandidates(EntityInformation entityInformation) {
     Collection<Candidate> candidates = new HashSet<>();
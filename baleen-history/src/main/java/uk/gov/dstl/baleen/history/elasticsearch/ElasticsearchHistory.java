@@ -2,27 +2,49 @@
 package uk.gov.dstl.baleen.history.elasticsearch;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
 
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ExternalResource;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.get.GetAction;
 import org.elasticsearch.action.get.GetRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
 import org.elasticsearch.action.index.IndexAction;
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
 
 import uk.gov.dstl.baleen.core.history.HistoryEvent;
 import uk.gov.dstl.baleen.core.history.memory.AbstractCachingBaleenHistory;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.history.utils.BackgroundBulkWriter;
 import uk.gov.dstl.baleen.history.utils.HistoryModule;
 import uk.gov.dstl.baleen.resources.SharedElasticsearchResource;
 
@@ -36,7 +58,20 @@ import uk.gov.dstl.baleen.resources.SharedElasticsearchResource;
  * <p>Thus the in memory and the ES history are not necessarily in sync (though this should make no
  * difference in Baleen's use case).
  *
- * <p>You must ensure that close is called to persist the data to ES.
+ * <p>You must ensure that close is called to persist the data to ES. Closed histories are written
+ * to ES in bulk on a background thread, controlled by history.bulkSize, history.bulkLatency and
+ * history.queueSize. A history that is requested again before it has been written is served from
+ * memory.
+ *
+ * <p>The ids of the documents in the history index are read into a bloom filter when the history is
+ * first requested, and ids are added as histories are closed. Documents which are definitely not in
+ * the index, typically every document when ingesting new data, are not requested from ES. Size the
+ * filter for the expected number of documents with history.expectedDocuments.
+ *
+ * <p>The filter doesn't see histories written to the index by anything else (such as another Baleen
+ * instance) after it is read. So the history of a document which wasn't requested is merged with
+ * any history in the index when it is written, reading all the histories in each bulk write at
+ * once.
  *
  * <p>Use the history.esIndex and history.esType to configure where the data is stored in
  * Elasticsearch.
@@ -78,8 +113,61 @@ public class ElasticsearchHistory
   @ConfigurationParameter(name = PARAM_TYPE, defaultValue = "event")
   private String esType;
 
+  /**
+   * The maximum number of histories to write to Elasticsearch at once
+   *
+   * @baleen.config 100
+   */
+  public static final String PARAM_BULK_SIZE = "history.bulkSize";
+
+  @ConfigurationParameter(name = PARAM_BULK_SIZE, defaultValue = "100")
+  private int bulkSize;
+
+  /**
+   * The maximum time, in milliseconds, a closed history waits before being written
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_BULK_LATENCY = "history.bulkLatency";
+
+  @ConfigurationParameter(name = PARAM_BULK_LATENCY, defaultValue = "1000")
+  private long bulkLatency;
+
+  /**
+   * The maximum number of closed histories waiting to be written, after which closing blocks
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_QUEUE_SIZE = "history.queueSize";
+
+  @ConfigurationParameter(name = PARAM_QUEUE_SIZE, defaultValue = "1000")
+  private int queueSize;
+
+  /**
+   * The expected number of documents in the history index, used to size the bloom filter
+   *
+   * @baleen.config 1000000
+   */
+  public static final String PARAM_EXPECTED_DOCUMENTS = "history.expectedDocuments";
+
+  @ConfigurationParameter(name = PARAM_EXPECTED_DOCUMENTS, defaultValue = "1000000")
+  private long expectedDocuments;
+
+  private static final double BLOOM_FALSE_POSITIVES = 0.01;
+  private static final int SCROLL_SIZE = 1000;
+
   private ObjectMapper mapper;
 
+  private BackgroundBulkWriter<ESHistory> writer;
+
+  private final Map<String, ESHistory> unwritten = new ConcurrentHashMap<>();
+
+  // Documents whose history was started without reading ES, so must be merged when written
+  private final Set<String> unread = ConcurrentHashMap.newKeySet();
+
+  private BloomFilter<CharSequence> knownDocuments;
+  private boolean knownDocumentsRead = false;
+
   /** New instance, used by UimaFit. */
   public ElasticsearchHistory() {
     // Do nothing
@@ -105,6 +193,10 @@ public class ElasticsearchHistory
     // It might be worth setting the mapping explicitly here, but that will
     // depend on the specific events (which might be extended outside core).
     // So currently we trust ES to do the right thing.
+
+    writer =
+        new BackgroundBulkWriter<>(
+            "ElasticsearchHistory writer", queueSize, bulkSize, bulkLatency, this::write);
   }
 
   @Override
@@ -118,22 +210,155 @@ public class ElasticsearchHistory
       return;
     }
 
+    ESHistory esh = new ESHistory(documentId, new ArrayList<>(dh.getAllHistory()));
+    unwritten.put(documentId, esh);
+    markKnown(documentId);
+    writer.add(esh);
+
+    super.closeHistory(documentId);
+  }
+
+  private void write(List<ESHistory> histories) {
+    Client client = elasticsearch.getClient();
+    Map<String, Collection<HistoryEvent>> existing = readUnread(histories);
+    BulkRequestBuilder bulk = client.prepareBulk();
+    for (ESHistory esh : histories) {
+      try {
+        ESHistory merged = esh;
+        Collection<HistoryEvent> events = existing.get(esh.getDocumentId());
+        if (events != null && !events.isEmpty()) {
+          List<HistoryEvent> all = new ArrayList<>(events);
+          all.addAll(esh.getEvents());
+          merged = new ESHistory(esh.getDocumentId(), all);
+        }
+
+        bulk.add(
+            new IndexRequestBuilder(client, IndexAction.INSTANCE)
+                .setIndex(esIndex)
+                .setType(esType)
+                .setId(esh.getDocumentId())
+                .setSource(mapper.writeValueAsBytes(merged), XContentType.JSON));
+      } catch (JsonProcessingException e) {
+        LOGGER.warn(
+            "Unable to convert history to source, so can't be persisted {}",
+            esh.getDocumentId(),
+            e);
+      }
+    }
+
     try {
-      byte[] source = mapper.writeValueAsBytes(new ESHistory(documentId, dh.getAllHistory()));
-
-      new IndexRequestBuilder(elasticsearch.getClient(), IndexAction.INSTANCE)
-          .setIndex(documentId)
-          .setIndex(esIndex)
-          .setType(esType)
-          .setId(documentId)
-          .setSource(source, XContentType.JSON)
-          .get();
-
-    } catch (JsonProcessingException e) {
-      LOGGER.warn("Unable to convert history to source, so can't be persisted {}", documentId, e);
+      if (bulk.numberOfActions() > 0) {
+        BulkResponse response = bulk.get();
+        if (response.hasFailures()) {
+          LOGGER.warn("Unable to persist some histories: {}", response.buildFailureMessage());
+        }
+      }
+    } finally {
+      // Only remove the histories written, a document may have been closed again since
+      histories.forEach(esh -> unwritten.remove(esh.getDocumentId(), esh));
+      existing.keySet().forEach(unread::remove);
     }
+  }
 
-    super.closeHistory(documentId);
+  /** Read the histories in ES of the documents which were started without reading them */
+  private Map<String, Collection<HistoryEvent>> readUnread(List<ESHistory> histories) {
+    MultiGetRequestBuilder get = elasticsearch.getClient().prepareMultiGet();
+    for (ESHistory esh : histories) {
+      if (unread.contains(esh.getDocumentId())) {
+        get.add(esIndex, esType, esh.getDocumentId());
+      }
+    }
+    if (get.request().getItems().isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, Collection<HistoryEvent>> existing = new HashMap<>();
+    for (MultiGetItemResponse item : get.get()) {
+      if (item.isFailed()) {
+        // Most likely the index doesn't exist yet
+        existing.put(item.getId(), Collections.emptyList());
+        continue;
+      }
+      GetResponse response = item.getResponse();
+      if (!response.isExists() || response.isSourceEmpty()) {
+        existing.put(item.getId(), Collections.emptyList());
+        continue;
+      }
+      try {
+        ESHistory esh = mapper.readValue(response.getSourceAsBytes(), ESHistory.class);
+        existing.put(item.getId(), esh == null ? Collections.emptyList() : esh.getEvents());
+      } catch (IOException e) {
+        LOGGER.warn(
+            "Unable to read existing history of {}, so it will be replaced", item.getId(), e);
+        existing.put(item.getId(), Collections.emptyList());
+      }
+    }
+    return existing;
+  }
+
+  /**
+   * Get the bloom filter of documents which may have a history in ES, reading the ids from the
+   * history index on first use.
+   */
+  private synchronized BloomFilter<CharSequence> getKnownDocuments() {
+    if (!knownDocumentsRead) {
+      knownDocumentsRead = true;
+      knownDocuments =
+          BloomFilter.create(
+              Funnels.stringFunnel(StandardCharsets.UTF_8),
+              Math.max(1, expectedDocuments),
+              BLOOM_FALSE_POSITIVES);
+      if (!readKnownDocuments()) {
+        knownDocuments = null;
+      }
+    }
+    return knownDocuments;
+  }
+
+  private synchronized void markKnown(String documentId) {
+    BloomFilter<CharSequence> known = getKnownDocuments();
+    if (known != null) {
+      known.put(documentId);
+    }
+  }
+
+  private synchronized boolean mightExist(String documentId) {
+    BloomFilter<CharSequence> known = getKnownDocuments();
+    return known == null || known.mightContain(documentId);
+  }
+
+  private boolean readKnownDocuments() {
+    Client client = elasticsearch.getClient();
+    try {
+      SearchResponse response =
+          client
+              .prepareSearch(esIndex)
+              .setTypes(esType)
+              .setQuery(QueryBuilders.matchAllQuery())
+              .setFetchSource(false)
+              .setSize(SCROLL_SIZE)
+              .setScroll(TimeValue.timeValueMinutes(1))
+              .get();
+
+      while (response.getHits().getHits().length > 0) {
+        for (SearchHit hit : response.getHits().getHits()) {
+          knownDocuments.put(hit.getId());
+        }
+        response =
+            client
+                .prepareSearchScroll(response.getScrollId())
+                .setScroll(TimeValue.timeValueMinutes(1))
+                .get();
+      }
+      client.prepareClearScroll().addScrollId(response.getScrollId()).get();
+      return true;
+    } catch (IndexNotFoundException e) {
+      // No history has been written yet
+      return true;
+    } catch (ElasticsearchException e) {
+      LOGGER.warn("Unable to read existing document ids, so all histories will be requested", e);
+      return false;
+    }
   }
 
   @Override
@@ -144,6 +369,18 @@ public class ElasticsearchHistory
   @Override
   protected ElasticsearchDocumentHistory loadExistingDocumentHistory(String documentId)
       throws BaleenException {
+    ESHistory pending = unwritten.get(documentId);
+    if (pending != null) {
+      return new ElasticsearchDocumentHistory(
+          this, documentId, new LinkedBlockingDeque<HistoryEvent>(pending.getEvents()));
+    }
+
+    if (!mightExist(documentId)) {
+      // Let the parent implementation create a new history, merged with ES when written
+      unread.add(documentId);
+      return null;
+    }
+
     try {
       GetResponse response =
           new GetRequestBuilder(elasticsearch.getClient(), GetAction.INSTANCE)
@@ -169,4 +406,13 @@ public class ElasticsearchHistory
       throw new BaleenException(e);
     }
   }
+
+  @Override
+  public void destroy() {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+    super.destroy();
+  }
 }
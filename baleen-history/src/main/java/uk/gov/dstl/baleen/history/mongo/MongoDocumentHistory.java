@@ -15,6 +15,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.Lists;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
 
 import uk.gov.dstl.baleen.core.history.HistoryEvent;
@@ -26,9 +27,10 @@ import uk.gov.dstl.baleen.history.helpers.AbstractDocumentHistory;
 /**
  * Stores history in a Mongo collection.
  *
- * <p>Note that this implementation is 'live', when you add an event it is pushed to the database.
- * When you get events it performs a query. Thus no data is retained in memory. This is particularly
- * important for getHistory since you will not want to repeatedly call get() in a loop.
+ * <p>Note that this implementation is 'live', when you add an event it is queued to be pushed to
+ * the database in bulk by {@link MongoHistory}. When you get events any queued events are written
+ * and then it performs a query. Thus no data is retained in memory. This is particularly important
+ * for getHistory since you will not want to repeatedly call get() in a loop.
  *
  * <p>Each document through Baleen is stored as its own Mongo document, in a structure of
  *
@@ -87,17 +89,21 @@ public class MongoDocumentHistory extends AbstractDocumentHistory<MongoHistory>
             "$push",
             new Document("entities." + event.getRecordable().getInternalId(), convert(event)));
 
-    collection.updateOne(
-        new Document(DOC_ID, getDocumentId()), insert, new UpdateOptions().upsert(true));
+    getHistory()
+        .queue(
+            new UpdateOneModel<>(
+                new Document(DOC_ID, getDocumentId()), insert, new UpdateOptions().upsert(true)));
   }
 
   @Override
   public Collection<HistoryEvent> getAllHistory() {
+    getHistory().flush();
     return convert(collection.find(new Document(DOC_ID, getDocumentId())).first());
   }
 
   @Override
   public Collection<HistoryEvent> getHistory(long recordableId) {
+    getHistory().flush();
     // Get the document, but only for specific entity
     return convert(
         collection
@@ -1,15 +1,21 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.history.mongo;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.bson.Document;
 
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 
 import uk.gov.dstl.baleen.core.history.AbstractBaleenHistory;
 import uk.gov.dstl.baleen.core.history.DocumentHistory;
+import uk.gov.dstl.baleen.history.utils.BackgroundBulkWriter;
 import uk.gov.dstl.baleen.resources.SharedMongoResource;
 
 /**
@@ -20,6 +26,10 @@ import uk.gov.dstl.baleen.resources.SharedMongoResource;
  *
  * <p>The specifics of implementation are discussed in @link MongoDocumentHistory.
  *
+ * <p>Events are written to Mongo in bulk on a background thread, rather than one update per event
+ * on the pipeline thread. Use history.bulkSize, history.bulkLatency and history.queueSize to
+ * control the batching. Reading a history waits for any outstanding writes.
+ *
  * <p>For implementors wishing for a different db structure they should override
  * MongoDocumentHistory, and then add configuration options here. (Example would be to store an
  * entity per Mongo document, rather than a document per Mongo document).
@@ -48,8 +58,40 @@ public class MongoHistory extends AbstractBaleenHistory {
   @ConfigurationParameter(name = PARAM_COLLECTION, defaultValue = "history")
   private String collectionName;
 
+  /**
+   * The maximum number of events to write to Mongo at once
+   *
+   * @baleen.config 500
+   */
+  public static final String PARAM_BULK_SIZE = "history.bulkSize";
+
+  @ConfigurationParameter(name = PARAM_BULK_SIZE, defaultValue = "500")
+  private int bulkSize;
+
+  /**
+   * The maximum time, in milliseconds, an event waits before being written
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_BULK_LATENCY = "history.bulkLatency";
+
+  @ConfigurationParameter(name = PARAM_BULK_LATENCY, defaultValue = "1000")
+  private long bulkLatency;
+
+  /**
+   * The maximum number of events waiting to be written, after which adding an event blocks
+   *
+   * @baleen.config 10000
+   */
+  public static final String PARAM_QUEUE_SIZE = "history.queueSize";
+
+  @ConfigurationParameter(name = PARAM_QUEUE_SIZE, defaultValue = "10000")
+  private int queueSize;
+
   private MongoCollection<Document> collection;
 
+  private BackgroundBulkWriter<UpdateOneModel<Document>> writer;
+
   /** New instance, used for UIMA fit dependency injection. */
   public MongoHistory() {
     // Empty contructor, do nothing
@@ -66,6 +108,10 @@ public class MongoHistory extends AbstractBaleenHistory {
 
     collection = mongo.getDB().getCollection(collectionName);
     collection.createIndex(new Document("docId", 1));
+
+    writer =
+        new BackgroundBulkWriter<>(
+            "MongoHistory writer", queueSize, bulkSize, bulkLatency, this::write);
   }
 
   @Override
@@ -77,4 +123,32 @@ public class MongoHistory extends AbstractBaleenHistory {
   public void closeHistory(String documentId) {
     // Do nothing
   }
+
+  /**
+   * Queue an update to be written to the history collection.
+   *
+   * @param update the update
+   */
+  void queue(UpdateOneModel<Document> update) {
+    writer.add(update);
+  }
+
+  /** Wait until all the queued updates have been written. */
+  void flush() {
+    writer.flush();
+  }
+
+  private void write(List<UpdateOneModel<Document>> updates) {
+    // Ordered, so events for the same document are pushed in the order they were added
+    collection.bulkWrite(new ArrayList<WriteModel<Document>>(updates));
+  }
+
+  @Override
+  public void destroy() {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+    super.destroy();
+  }
 }
@@ -0,0 +1,170 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.history.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes items in bulk on a background thread.
+ *
+ * <p>Items are held in a bounded queue, and {@link #add(Object)} blocks while the queue is full.
+ * The background thread passes the queued items to the writer in batches of up to batchSize, and
+ * waits no longer than latency milliseconds for a batch to fill, or not at all while {@link
+ * #flush()} is waiting. Errors thrown by the writer are logged and the batch is dropped, as history
+ * is not critical to processing.
+ *
+ * @param <T> the type of item written
+ */
+public class BackgroundBulkWriter<T> implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundBulkWriter.class);
+
+  // Queued to wake the background thread when a flush is waiting
+  private static final Object FLUSH = new Object();
+
+  private final BlockingQueue<Object> queue;
+  private final int batchSize;
+  private final long latency;
+  private final Consumer<List<T>> writer;
+  private final Thread thread;
+
+  private final Object lock = new Object();
+  private long outstanding = 0;
+  private volatile int flushing = 0;
+  private volatile boolean running = true;
+
+  /**
+   * New instance, which starts the background thread.
+   *
+   * @param name the name of the background thread
+   * @param capacity the maximum number of items waiting to be written
+   * @param batchSize the maximum number of items passed to the writer at once
+   * @param latency the maximum time, in milliseconds, to wait for a batch to fill
+   * @param writer the function writing each batch
+   */
+  public BackgroundBulkWriter(
+      String name, int capacity, int batchSize, long latency, Consumer<List<T>> writer) {
+    this.queue = new LinkedBlockingQueue<>(Math.max(1, capacity));
+    this.batchSize = Math.max(1, batchSize);
+    this.latency = Math.max(0, latency);
+    this.writer = writer;
+
+    thread = new Thread(this::run, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Queue an item to be written, blocking while the queue is full.
+   *
+   * @param item the item
+   */
+  public void add(T item) {
+    synchronized (lock) {
+      outstanding++;
+    }
+    try {
+      queue.put(item);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      completed(1);
+      LOGGER.warn("Interrupted while queuing item, which will not be written");
+    }
+  }
+
+  /** Wait until all the queued items have been written. */
+  public void flush() {
+    synchronized (lock) {
+      if (outstanding == 0) {
+        return;
+      }
+      flushing++;
+      try {
+        // If the queue is full there's no need to wake the thread, it won't be waiting
+        queue.offer(FLUSH);
+        while (outstanding > 0) {
+          lock.wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        flushing--;
+      }
+    }
+  }
+
+  /** Write the remaining items and stop the background thread. */
+  @Override
+  public void close() {
+    flush();
+    running = false;
+    thread.interrupt();
+  }
+
+  private void run() {
+    List<Object> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        Object first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null || first == FLUSH) {
+          continue;
+        }
+        batch.add(first);
+        fill(batch);
+      } catch (InterruptedException e) {
+        // Closing, anything outstanding was flushed before the interrupt
+      }
+
+      if (!batch.isEmpty()) {
+        write(batch);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+  }
+
+  private void fill(List<Object> batch) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + latency;
+    queue.drainTo(batch, batchSize - batch.size());
+    while (batch.size() < batchSize && flushing == 0) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        return;
+      }
+      Object next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+      if (next == null || next == FLUSH) {
+        return;
+      }
+      batch.add(next);
+      queue.drainTo(batch, batchSize - batch.size());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void write(List<Object> batch) {
+    batch.removeIf(item -> item == FLUSH);
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      writer.accept((List<T>) (List<?>) batch);
+    } catch (Exception e) {
+      LOGGER.warn("Unable to write {} items", batch.size(), e);
+    } finally {
+      completed(batch.size());
+    }
+  }
+
+  private void completed(int count) {
+    synchronized (lock) {
+      outstanding -= count;
+      lock.notifyAll();
+    }
+  }
+}
@@ -2,6 +2,8 @@
 // Modified by NCA (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.history.elasticsearch;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static uk.gov.dstl.baleen.resources.SharedElasticsearchResource.PARAM_CLUSTER;
 import static uk.gov.dstl.baleen.resources.SharedElasticsearchResource.PARAM_PORT;
 
@@ -16,6 +18,9 @@ import org.junit.Test;
 
 import com.google.common.collect.Maps;
 
+import uk.gov.dstl.baleen.core.history.DocumentHistory;
+import uk.gov.dstl.baleen.core.history.HistoryEvents;
+import uk.gov.dstl.baleen.core.history.impl.RecordableImpl;
 import uk.gov.dstl.baleen.history.helpers.AbstractHistoryTest;
 import uk.gov.dstl.baleen.resources.EmbeddedElasticsearch5;
 import uk.gov.dstl.baleen.resources.SharedElasticsearchResource;
@@ -61,4 +66,43 @@ public class ElasticsearchHistoryTest extends AbstractHistoryTest {
   public void test() {
     testGenericHistory(history);
   }
+
+  @Test
+  public void testPersistedHistoryIsLoaded() throws Exception {
+    DocumentHistory dh = history.getHistory("persisted");
+    dh.add(HistoryEvents.createAdded(new RecordableImpl(1, "a", 0, 1, "type"), "ref"));
+    dh.close();
+
+    // Destroying writes the outstanding histories
+    history.destroy();
+
+    history = new ElasticsearchHistory(elasticsearchResource);
+    history.initialize(new CustomResourceSpecifier_impl(), Maps.newHashMap());
+
+    assertEquals(1, history.getHistory("persisted").getAllHistory().size());
+    assertTrue(history.getHistory("new").getAllHistory().isEmpty());
+  }
+
+  @Test
+  public void testHistoryWrittenElsewhereIsMerged() throws Exception {
+    // Reads the (empty) index
+    assertTrue(history.getHistory("new").getAllHistory().isEmpty());
+
+    ElasticsearchHistory other = new ElasticsearchHistory(elasticsearchResource);
+    other.initialize(new CustomResourceSpecifier_impl(), Maps.newHashMap());
+    DocumentHistory otherDh = other.getHistory("shared");
+    otherDh.add(HistoryEvents.createAdded(new RecordableImpl(1, "a", 0, 1, "type"), "other"));
+    otherDh.close();
+    other.destroy();
+
+    DocumentHistory dh = history.getHistory("shared");
+    dh.add(HistoryEvents.createAdded(new RecordableImpl(2, "b", 0, 1, "type"), "ref"));
+    dh.close();
+    history.destroy();
+
+    history = new ElasticsearchHistory(elasticsearchResource);
+    history.initialize(new CustomResourceSpecifier_impl(), Maps.newHashMap());
+
+    assertEquals(2, history.getHistory("shared").getAllHistory().size());
+  }
 }
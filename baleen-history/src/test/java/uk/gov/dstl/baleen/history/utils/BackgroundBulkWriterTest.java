@@ -0,0 +1,90 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.history.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BackgroundBulkWriterTest {
+
+  @Test
+  public void testBatches() {
+    List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+    try (BackgroundBulkWriter<Integer> writer =
+        new BackgroundBulkWriter<>("test", 100, 10, 1000, batches::add)) {
+      for (int i = 0; i < 25; i++) {
+        writer.add(i);
+      }
+      writer.flush();
+    }
+
+    List<Integer> written = new ArrayList<>();
+    batches.forEach(written::addAll);
+    assertEquals(25, written.size());
+    for (int i = 0; i < 25; i++) {
+      assertEquals(Integer.valueOf(i), written.get(i));
+    }
+    batches.forEach(b -> assertTrue(b.size() <= 10));
+  }
+
+  @Test
+  public void testLatency() {
+    List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+    try (BackgroundBulkWriter<Integer> writer =
+        new BackgroundBulkWriter<>("test", 100, 10, 10, written::addAll)) {
+      writer.add(1);
+      long start = System.currentTimeMillis();
+      writer.flush();
+      assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+    assertEquals(1, written.size());
+  }
+
+  @Test
+  public void testFlushDoesNotWaitForPartialBatch() throws InterruptedException {
+    List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+    try (BackgroundBulkWriter<Integer> writer =
+        new BackgroundBulkWriter<>("test", 100, 10, 10000, written::addAll)) {
+      writer.add(1);
+      long start = System.currentTimeMillis();
+      writer.flush();
+      assertTrue(System.currentTimeMillis() - start < 1000);
+      assertEquals(1, written.size());
+
+      // And once the background thread is already waiting for the batch to fill
+      writer.add(2);
+      Thread.sleep(100);
+      start = System.currentTimeMillis();
+      writer.flush();
+      assertTrue(System.currentTimeMillis() - start < 1000);
+      assertEquals(2, written.size());
+    }
+  }
+
+  @Test
+  public void testErrorsAreDropped() {
+    List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+    try (BackgroundBulkWriter<Integer> writer =
+        new BackgroundBulkWriter<>(
+            "test",
+            100,
+            1,
+            10,
+            b -> {
+              if (b.contains(1)) {
+                throw new IllegalStateException();
+              }
+              written.addAll(b);
+            })) {
+      writer.add(1);
+      writer.add(2);
+      writer.flush();
+    }
+    assertEquals(Collections.singletonList(2), written);
+  }
+}
@@ -0,0 +1,188 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.index;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An index of the classes in Baleen modules and their supertypes, written at build time by {@link
+ * ClassIndexProcessor}.
+ *
+ * <p>Each module jar holds an index of its own classes at {@value #RESOURCE}. The indexes of all
+ * the jars on the classpath are read once, so finding the subtypes of a class is a lookup rather
+ * than a scan of the classpath.
+ *
+ * <p>Only classes compiled with this module on the classpath are indexed. Callers can use {@link
+ * #isIndexed(File)} to find the parts of the classpath which were not, and need to be scanned.
+ */
+public class ClassIndex {
+
+  /** The location of the index within each jar */
+  public static final String RESOURCE = "META-INF/baleen/classes.idx";
+
+  static final String SEPARATOR = "\t";
+  static final String OBJECT = "java.lang.Object";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClassIndex.class);
+
+  private final int size;
+  private final Map<String, Set<String>> subTypes;
+  private final Set<File> locations;
+
+  private ClassIndex(int size, Map<String, Set<String>> subTypes, Set<File> locations) {
+    this.size = size;
+    this.subTypes = subTypes;
+    this.locations = locations;
+  }
+
+  /**
+   * Get the index of the classpath of the context class loader.
+   *
+   * @return the (shared) index
+   */
+  public static ClassIndex getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Read the indexes visible to a class loader.
+   *
+   * @param classLoader the class loader
+   * @return the index
+   */
+  public static ClassIndex load(ClassLoader classLoader) {
+    int size = 0;
+    Map<String, Set<String>> subTypes = new HashMap<>();
+    Set<File> locations = new HashSet<>();
+
+    try {
+      Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+      while (resources.hasMoreElements()) {
+        URL url = resources.nextElement();
+        size += read(url, subTypes);
+
+        File location = getLocation(url);
+        if (location != null) {
+          locations.add(location);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Unable to read class indexes", e);
+    }
+
+    return new ClassIndex(size, subTypes, locations);
+  }
+
+  /** Get the jar or directory an index was read from, or null if it isn't a local file */
+  private static File getLocation(URL url) {
+    String location = url.toString();
+    if (!location.endsWith(RESOURCE)) {
+      return null;
+    }
+    location = location.substring(0, location.length() - RESOURCE.length());
+    if (location.startsWith("jar:") && location.endsWith("!/")) {
+      location = location.substring("jar:".length(), location.length() - "!/".length());
+    }
+
+    try {
+      URL file = new URL(location);
+      if (!"file".equals(file.getProtocol())) {
+        return null;
+      }
+      return new File(file.toURI()).getCanonicalFile();
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      LOGGER.debug("Unable to find the location of class index {}", url, e);
+      return null;
+    }
+  }
+
+  private static int read(URL url, Map<String, Set<String>> subTypes) throws IOException {
+    int size = 0;
+    try (InputStream is = url.openStream();
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] names = line.split(SEPARATOR);
+        if (names[0].isEmpty()) {
+          continue;
+        }
+        size++;
+        for (int i = 1; i < names.length; i++) {
+          subTypes.computeIfAbsent(names[i], k -> new HashSet<>()).add(names[0]);
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Is the index empty, for example because none of the classpath was compiled with the index
+   * processor?
+   *
+   * @return true if there are no classes in the index
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Get the number of classes in the index.
+   *
+   * @return the number of classes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the names of the indexed classes which extend or implement the given type, directly or
+   * indirectly. The type itself is not included.
+   *
+   * @param typeName the name of the class or interface
+   * @return unmodifiable set of class names
+   */
+  public Set<String> getSubTypeNames(String typeName) {
+    Set<String> names = subTypes.get(typeName);
+    return names == null ? Collections.emptySet() : Collections.unmodifiableSet(names);
+  }
+
+  /**
+   * Does the given jar or directory on the classpath hold an index? If not, its classes will not be
+   * in this index.
+   *
+   * @param location the jar or directory
+   * @return true if an index was read from it
+   */
+  public boolean isIndexed(File location) {
+    try {
+      return locations.contains(location.getCanonicalFile());
+    } catch (IOException e) {
+      return locations.contains(location.getAbsoluteFile());
+    }
+  }
+
+  private static class Holder {
+    private static final ClassIndex INSTANCE = load(getClassLoader());
+
+    private static ClassLoader getClassLoader() {
+      ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+      return classLoader != null ? classLoader : ClassIndex.class.getClassLoader();
+    }
+  }
+}
@@ -0,0 +1,167 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor which writes the {@link ClassIndex} for the classes being compiled.
+ *
+ * <p>The processor is registered as a service, so runs automatically when compiling anything with
+ * this module on the classpath. It records each class, including nested classes, with all the
+ * classes it extends and interfaces it implements, directly or indirectly.
+ *
+ * <p>Only part of a module may be recompiled (for example by an IDE), so the index already in the
+ * output is merged with the classes being compiled. Entries for classes which no longer exist are
+ * dropped.
+ */
+@SupportedAnnotationTypes("*")
+public class ClassIndexProcessor extends AbstractProcessor {
+
+  private final Map<String, Set<String>> classes = new TreeMap<>();
+  private Map<String, Set<String>> previous = Collections.emptyMap();
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    previous = readPrevious();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element e : roundEnv.getRootElements()) {
+      add(e);
+    }
+
+    if (roundEnv.processingOver()) {
+      mergePrevious();
+      if (!classes.isEmpty()) {
+        write();
+      }
+    }
+
+    // Don't claim the annotations, so other processors still see them
+    return false;
+  }
+
+  private void add(Element element) {
+    if (element.getKind() == ElementKind.CLASS) {
+      TypeElement type = (TypeElement) element;
+      Set<String> supertypes = new LinkedHashSet<>();
+      addSupertypes(type.asType(), supertypes);
+      classes.put(getName(type), supertypes);
+    }
+
+    for (Element enclosed : element.getEnclosedElements()) {
+      if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+        add(enclosed);
+      }
+    }
+  }
+
+  private void addSupertypes(TypeMirror type, Set<String> supertypes) {
+    for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type)) {
+      if (supertype.getKind() != TypeKind.DECLARED) {
+        continue;
+      }
+      String name = getName((TypeElement) ((DeclaredType) supertype).asElement());
+      if (!ClassIndex.OBJECT.equals(name) && supertypes.add(name)) {
+        addSupertypes(supertype, supertypes);
+      }
+    }
+  }
+
+  private String getName(TypeElement type) {
+    return processingEnv.getElementUtils().getBinaryName(type).toString();
+  }
+
+  private Map<String, Set<String>> readPrevious() {
+    Map<String, Set<String>> index = new TreeMap<>();
+    try {
+      FileObject file =
+          processingEnv
+              .getFiler()
+              .getResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.RESOURCE);
+      try (BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          String[] names = line.split(ClassIndex.SEPARATOR);
+          if (!names[0].isEmpty()) {
+            index.put(names[0], new LinkedHashSet<>(Arrays.asList(names).subList(1, names.length)));
+          }
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // No previous index, so this is a full build
+    }
+    return index;
+  }
+
+  private void mergePrevious() {
+    Elements elements = processingEnv.getElementUtils();
+    for (Map.Entry<String, Set<String>> e : previous.entrySet()) {
+      // Binary names of nested classes use $, canonical names (as looked up here) use .
+      if (!classes.containsKey(e.getKey())
+          && elements.getTypeElement(e.getKey().replace('$', '.')) != null) {
+        classes.put(e.getKey(), e.getValue());
+      }
+    }
+  }
+
+  private void write() {
+    try {
+      FileObject file =
+          processingEnv
+              .getFiler()
+              .createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.RESOURCE);
+      try (Writer writer =
+          new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (Map.Entry<String, Set<String>> e : classes.entrySet()) {
+          writer.write(e.getKey());
+          for (String supertype : e.getValue()) {
+            writer.write(ClassIndex.SEPARATOR);
+            writer.write(supertype);
+          }
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(Kind.WARNING, "Unable to write class index: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableSet;
+
+public class ClassIndexProcessorTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testPartialCompileKeepsExistingClasses() throws Exception {
+    File src = folder.newFolder("src");
+    File out = folder.newFolder("out");
+
+    File base = source(src, "Base", "public interface Base {}");
+    File first = source(src, "First", "public class First implements Base {}");
+    File second = source(src, "Second", "public class Second implements Base {}");
+
+    compile(out, base, first, second);
+    assertEquals(ImmutableSet.of("test.First", "test.Second"), subTypes(out));
+    assertTrue(isIndexed(out, out));
+    assertFalse(isIndexed(out, src));
+
+    // Recompile one class, as an IDE would after an edit
+    compile(out, second);
+    assertEquals(ImmutableSet.of("test.First", "test.Second"), subTypes(out));
+
+    // Classes which have gone are dropped
+    assertTrue(new File(out, "test/First.class").delete());
+    compile(out, second);
+    assertEquals(ImmutableSet.of("test.Second"), subTypes(out));
+  }
+
+  private File source(File dir, String name, String body) throws IOException {
+    File file = new File(dir, name + ".java");
+    Files.write(file.toPath(), ("package test; " + body).getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private void compile(File out, File... sources) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+      Iterable<? extends JavaFileObject> units =
+          fileManager.getJavaFileObjectsFromFiles(Arrays.asList(sources));
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              null,
+              Arrays.asList("-d", out.getPath(), "-classpath", out.getPath()),
+              null,
+              units);
+      task.setProcessors(Collections.singletonList(new ClassIndexProcessor()));
+      assertTrue(task.call());
+    }
+  }
+
+  private static Set<String> subTypes(File out) throws IOException {
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] {out.toURI().toURL()}, null)) {
+      return ClassIndex.load(classLoader).getSubTypeNames("test.Base");
+    }
+  }
+
+  private static boolean isIndexed(File out, File location) throws IOException {
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] {out.toURI().toURL()}, null)) {
+      return ClassIndex.load(classLoader).isIndexed(location);
+    }
+  }
+}
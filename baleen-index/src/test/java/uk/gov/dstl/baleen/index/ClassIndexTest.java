@@ -0,0 +1,51 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class ClassIndexTest {
+
+  @Test
+  public void testIndexesTestClasses() {
+    ClassIndex index = ClassIndex.getInstance();
+    assertFalse(index.isEmpty());
+
+    Set<String> named = index.getSubTypeNames(Named.class.getName());
+    assertEquals(
+        ImmutableSet.of(
+            AbstractNamed.class.getName(), Person.class.getName(), Person.Child.class.getName()),
+        named);
+
+    assertEquals(
+        ImmutableSet.of(Person.class.getName(), Person.Child.class.getName()),
+        index.getSubTypeNames(AbstractNamed.class.getName()));
+  }
+
+  @Test
+  public void testUnknownType() {
+    assertTrue(ClassIndex.getInstance().getSubTypeNames("not.a.Type").isEmpty());
+  }
+
+  @Test
+  public void testEmptyClassLoader() {
+    ClassIndex index = ClassIndex.load(new ClassLoader(null) {});
+    assertTrue(index.isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  interface Named {}
+
+  abstract static class AbstractNamed implements Named {}
+
+  static class Person extends AbstractNamed {
+    static class Child extends Person {}
+  }
+}
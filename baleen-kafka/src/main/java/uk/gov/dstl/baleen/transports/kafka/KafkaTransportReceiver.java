@@ -9,6 +9,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ExternalResource;
@@ -64,11 +65,11 @@ public class KafkaTransportReceiver extends AbstractTransportCollectionReader {
   @ConfigurationParameter(name = PARAM_AUTO_OFFSET_RESET, defaultValue = "earliest")
   private String autoOffsetReset;
 
-  private Consumer<String, String> consumer = null;
+  private Consumer<String, byte[]> consumer = null;
 
   // NO reason in the current implementation for this to be concurrent, but if might be necessary to
   // move Kafka to another thread so this is done in preparation for that.
-  private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+  private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
 
   @Override
   protected void createQueue() throws BaleenException {
@@ -79,7 +80,7 @@ public class KafkaTransportReceiver extends AbstractTransportCollectionReader {
             ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
             StringDeserializer.class.getName(),
             ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
-            StringDeserializer.class.getName(),
+            ByteArrayDeserializer.class.getName(),
             ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
             maxPollDocs,
             ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG,
@@ -98,7 +99,7 @@ public class KafkaTransportReceiver extends AbstractTransportCollectionReader {
   }
 
   @Override
-  protected String readFromQueue() throws IOException {
+  protected byte[] readFromQueue() throws IOException {
     // Kafka will provide a number of documents at one (depending on the max.poll.records)
 
     // We'll check if we have any documents already, and if not then we poll to get more to refill
@@ -108,7 +109,7 @@ public class KafkaTransportReceiver extends AbstractTransportCollectionReader {
 
       // No documents in the queue, so ask Kafka for more...
       while (queue.isEmpty()) {
-        final ConsumerRecords<String, String> records = consumer.poll(consumerReadTimeout);
+        final ConsumerRecords<String, byte[]> records = consumer.poll(consumerReadTimeout);
         records.forEach(r -> queue.add(r.value()));
       }
     }
@@ -2,10 +2,12 @@
 package uk.gov.dstl.baleen.transports.kafka;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.uima.fit.descriptor.ExternalResource;
 
@@ -18,6 +20,9 @@ import uk.gov.dstl.baleen.transports.components.AbstractTransportConsumer;
  *
  * <p>This requires a {@link SharedKafkaResource} to be available to the pipeline.
  *
+ * <p>The queue length is the number of messages sent but not yet acknowledged by Kafka, so the
+ * capacity limits the number of messages in flight.
+ *
  * @baleen.javadoc
  */
 public class KafkaTransportSender extends AbstractTransportConsumer {
@@ -27,6 +32,8 @@ public class KafkaTransportSender extends AbstractTransportConsumer {
 
   private Producer<Object, Object> producer;
 
+  private final AtomicInteger inFlight = new AtomicInteger();
+
   @Override
   protected void createQueue() throws BaleenException {
     producer =
@@ -35,7 +42,7 @@ public class KafkaTransportSender extends AbstractTransportConsumer {
             ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
             StringSerializer.class.getName(),
             ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-            StringSerializer.class.getName());
+            ByteArraySerializer.class.getName());
   }
 
   @Override
@@ -47,12 +54,26 @@ public class KafkaTransportSender extends AbstractTransportConsumer {
   }
 
   @Override
-  protected void writeToQueue(final String id, final String jCas) throws IOException {
-    producer.send(new ProducerRecord<>(topic, id, jCas));
+  protected void writeToQueue(final String id, final byte[] jCas) throws IOException {
+    inFlight.incrementAndGet();
+    producer.send(
+        new ProducerRecord<>(topic, id, jCas),
+        (metadata, exception) -> {
+          if (exception != null) {
+            getMonitor().warn("Error sending to Kafka", exception);
+          }
+          inFlight.decrementAndGet();
+          signalCapacity();
+        });
+  }
+
+  @Override
+  protected int getDefaultCapacity() {
+    return 100;
   }
 
   @Override
   protected int getQueueLength() {
-    return 0;
+    return inFlight.get();
   }
 }
@@ -13,14 +13,14 @@ import uk.gov.dstl.baleen.exceptions.BaleenException;
  * A fake Kafka consumer used for unit testing.
  *
  * <p>This is extremely limited and designed for the most simple unit tests. The consumer/producer
- * will always return the same values. This class assumes you will ask for string,string for key
+ * will always return the same values. This class assumes you will ask for string,byte[] for key
  * value.
  */
 public class MockKafkaResource extends SharedKafkaResource {
 
-  private MockConsumer<String, String> mockConsumer =
-      new MockConsumer<String, String>(OffsetResetStrategy.EARLIEST);
-  private MockProducer<String, String> mockProducer = new MockProducer<>();
+  private MockConsumer<String, byte[]> mockConsumer =
+      new MockConsumer<String, byte[]>(OffsetResetStrategy.EARLIEST);
+  private MockProducer<String, byte[]> mockProducer = new MockProducer<>();
 
   @Override
   @SuppressWarnings("unchecked")
@@ -37,12 +37,12 @@ public class MockKafkaResource extends SharedKafkaResource {
   }
 
   /** @return the mock consumer for testing */
-  public MockConsumer<String, String> getMockConsumer() {
+  public MockConsumer<String, byte[]> getMockConsumer() {
     return mockConsumer;
   }
 
   /** @return the mock producer for testing */
-  public MockProducer<String, String> getMockProducer() {
+  public MockProducer<String, byte[]> getMockProducer() {
     return mockProducer;
   }
 }
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.when;
 import static uk.gov.dstl.baleen.uima.BaleenCollectionReader.KEY_CONTENT_EXTRACTOR;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -61,11 +62,13 @@ public class KafkaTransportsTest {
     JCas in = JCasFactory.createJCas();
     kafkaTransportSender.process(in);
 
-    MockProducer<String, String> mockProducer = mockKafkaResource.getMockProducer();
+    MockProducer<String, byte[]> mockProducer = mockKafkaResource.getMockProducer();
 
-    List<ProducerRecord<String, String>> history = mockProducer.history();
+    List<ProducerRecord<String, byte[]>> history = mockProducer.history();
     assertTrue(history.size() == 1);
-    assertEquals(JCasSerializationTester.EMPTY_JSON, history.get(0).value());
+    assertEquals(
+        JCasSerializationTester.EMPTY_JSON,
+        new String(history.get(0).value(), StandardCharsets.UTF_8));
     kafkaTransportSender.closeQueue();
   }
 
@@ -80,7 +83,7 @@ public class KafkaTransportsTest {
                 .getUimaContext()
                 .getResourceObject(SharedKafkaResource.RESOURCE_KEY);
 
-    MockConsumer<String, String> consumer = mockKafkaResource.getMockConsumer();
+    MockConsumer<String, byte[]> consumer = mockKafkaResource.getMockConsumer();
     consumer.assign(
         Arrays.asList(new TopicPartition(KafkaTransportReceiver.PARAM_TOPIC_DEFAULT, 0)));
 
@@ -89,12 +92,12 @@ public class KafkaTransportsTest {
     consumer.updateBeginningOffsets(beginningOffsets);
 
     consumer.addRecord(
-        new ConsumerRecord<String, String>(
+        new ConsumerRecord<String, byte[]>(
             KafkaTransportReceiver.PARAM_TOPIC_DEFAULT,
             0,
             0L,
             "mykey",
-            JCasSerializationTester.TEST_JSON));
+            JCasSerializationTester.TEST_JSON.getBytes(StandardCharsets.UTF_8)));
 
     JCasSerializationTester tester = new JCasSerializationTester();
     kafkaTransportReceiver.getNext(tester.getOut());
@@ -7,7 +7,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.clulab.struct.CorefChains;
 import org.clulab.struct.CorefMention;
@@ -21,6 +20,7 @@ import com.google.common.collect.Multimap;
 import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.semantic.Entity;
 import uk.gov.dstl.baleen.types.semantic.ReferenceTarget;
+import uk.gov.dstl.baleen.uima.CasDerivedDataCache;
 import uk.gov.dstl.baleen.uima.utils.ReferentUtils;
 
 /** Uses the jCas and a {@link SentenceFactory} to create {@link OdinDocument}s */
@@ -49,7 +49,7 @@ public class DocumentFactory {
   public DocumentFactory(JCas jCas, SentenceFactory sentenceFactory) {
     this(
         jCas,
-        JCasUtil.indexCovering(jCas, Entity.class, Sentence.class),
+        CasDerivedDataCache.getInstance().indexCovering(jCas, Entity.class, Sentence.class),
         ReferentUtils.createReferentMap(jCas, Entity.class),
         sentenceFactory);
   }
@@ -14,7 +14,6 @@ import java.util.Optional;
 import java.util.Set;
 
 import org.apache.uima.cas.Type;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.FSArray;
 import org.clulab.struct.DirectedGraph;
@@ -33,6 +32,7 @@ import uk.gov.dstl.baleen.types.language.Sentence;
 import uk.gov.dstl.baleen.types.language.WordLemma;
 import uk.gov.dstl.baleen.types.language.WordToken;
 import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.uima.CasDerivedDataCache;
 
 /** A factory to create Odin {@link Sentence}s from the given {@link JCas}. */
 public class SentenceFactory {
@@ -53,12 +53,13 @@ public class SentenceFactory {
    */
   public SentenceFactory(JCas jCas) {
     this(
-        JCasUtil.indexCovered(
-            jCas, uk.gov.dstl.baleen.types.language.Sentence.class, WordToken.class),
-        JCasUtil.indexCovering(jCas, WordToken.class, Entity.class),
-        JCasUtil.indexCovering(jCas, WordToken.class, PhraseChunk.class),
-        JCasUtil.indexCovered(
-            jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Dependency.class));
+        CasDerivedDataCache.getInstance()
+            .indexCovered(jCas, uk.gov.dstl.baleen.types.language.Sentence.class, WordToken.class),
+        CasDerivedDataCache.getInstance().indexCovering(jCas, WordToken.class, Entity.class),
+        CasDerivedDataCache.getInstance().indexCovering(jCas, WordToken.class, PhraseChunk.class),
+        CasDerivedDataCache.getInstance()
+            .indexCovered(
+                jCas, uk.gov.dstl.baleen.types.language.Sentence.class, Dependency.class));
   }
 
   /**
@@ -2,7 +2,6 @@
 package uk.gov.dstl.baleen.transports.rabbitmq;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ExternalResource;
@@ -63,8 +62,7 @@ public class RabbitMQTransportReceiver extends AbstractTransportCollectionReader
   }
 
   @Override
-  protected String readFromQueue() throws IOException {
-    final byte[] bs = supplier.get();
-    return new String(bs, StandardCharsets.UTF_8);
+  protected byte[] readFromQueue() throws IOException {
+    return supplier.get();
   }
 }
@@ -2,7 +2,6 @@
 package uk.gov.dstl.baleen.transports.rabbitmq;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ExternalResource;
@@ -63,8 +62,8 @@ public class RabbitMQTransportSender extends AbstractTransportConsumer {
   }
 
   @Override
-  protected void writeToQueue(final String id, final String jCas) throws IOException {
-    consumer.accept(jCas.getBytes(StandardCharsets.UTF_8));
+  protected void writeToQueue(final String id, final byte[] jCas) throws IOException {
+    consumer.accept(jCas);
   }
 
   @Override
@@ -2,6 +2,7 @@
 package uk.gov.dstl.baleen.transports.redis;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.apache.uima.fit.descriptor.ExternalResource;
@@ -37,8 +38,8 @@ public class RedisTransportReceiver extends AbstractTransportCollectionReader {
   }
 
   @Override
-  protected String readFromQueue() throws IOException {
-    final List<String> brpop = jedis.brpop(topic, "0");
+  protected byte[] readFromQueue() throws IOException {
+    final List<byte[]> brpop = jedis.brpop(0, topic.getBytes(StandardCharsets.UTF_8));
     // First is the list (=topic), second is the value
     return brpop.get(1);
   }
@@ -2,6 +2,7 @@
 package uk.gov.dstl.baleen.transports.redis;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.uima.fit.descriptor.ExternalResource;
 
@@ -36,8 +37,8 @@ public class RedisTransportSender extends AbstractTransportConsumer {
   }
 
   @Override
-  protected void writeToQueue(final String id, final String jCas) throws IOException {
-    jedis.lpush(topic, jCas);
+  protected void writeToQueue(final String id, final byte[] jCas) throws IOException {
+    jedis.lpush(topic.getBytes(StandardCharsets.UTF_8), jCas);
   }
 
   @Override
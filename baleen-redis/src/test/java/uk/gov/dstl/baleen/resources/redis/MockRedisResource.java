@@ -1,6 +1,7 @@
 // Copyright (c) Committed Software 2018, opensource@committed.io
 package uk.gov.dstl.baleen.resources.redis;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -19,8 +20,8 @@ import redis.clients.jedis.Jedis;
  */
 public class MockRedisResource extends SharedRedisResource {
 
-  private final BlockingDeque<String> consumed = new LinkedBlockingDeque<>();
-  private final BlockingDeque<String> supply = new LinkedBlockingDeque<>();
+  private final BlockingDeque<byte[]> consumed = new LinkedBlockingDeque<>();
+  private final BlockingDeque<byte[]> supply = new LinkedBlockingDeque<>();
 
   @Override
   protected boolean doInitialize(
@@ -34,16 +35,16 @@ public class MockRedisResource extends SharedRedisResource {
     // We use very limited jedis commands!
     return new Jedis() {
       @Override
-      public List<String> brpop(final String... args) {
+      public List<byte[]> brpop(final int timeout, final byte[]... keys) {
         try {
-          return Arrays.asList(args[0], supply.takeFirst());
+          return Arrays.asList(keys[0], supply.takeFirst());
         } catch (final InterruptedException e) {
           return Collections.emptyList();
         }
       }
 
       @Override
-      public Long lpush(final String key, final String... strings) {
+      public Long lpush(final byte[] key, final byte[]... strings) {
         Arrays.stream(strings).forEach(consumed::add);
         return (long) consumed.size();
       }
@@ -62,7 +63,7 @@ public class MockRedisResource extends SharedRedisResource {
 
   public String sent() {
     try {
-      return consumed.takeFirst();
+      return new String(consumed.takeFirst(), StandardCharsets.UTF_8);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       return null;
@@ -70,6 +71,6 @@ public class MockRedisResource extends SharedRedisResource {
   }
 
   public void recieve(String string) {
-    supply.add(string);
+    supply.add(string.getBytes(StandardCharsets.UTF_8));
   }
 }
@@ -14,7 +14,12 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
 import org.elasticsearch.transport.client.PreBuiltTransportClient;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
 import uk.gov.dstl.baleen.core.utils.ConfigUtils;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchTransportBulkWriter;
 import uk.gov.dstl.baleen.uima.BaleenResource;
 
 /**
@@ -55,6 +60,16 @@ public class SharedElasticsearchResource extends BaleenResource {
   @ConfigurationParameter(name = PARAM_CLUSTER, defaultValue = "elasticsearch")
   private String esCluster;
 
+  /**
+   * The number of times to retry documents rejected by Elasticsearch during bulk indexing
+   *
+   * @baleen.config 3
+   */
+  public static final String PARAM_BULK_RETRIES = "elasticsearch.bulkRetries";
+
+  @ConfigurationParameter(name = PARAM_BULK_RETRIES, defaultValue = "3")
+  private String bulkRetriesString;
+
   private TransportClient client = null;
 
   @Override
@@ -83,6 +98,38 @@ public class SharedElasticsearchResource extends BaleenResource {
     return client;
   }
 
+  /**
+   * Create a writer which buffers documents and indexes them in bulk.
+   *
+   * <p>The caller must close the writer to index any remaining documents.
+   *
+   * @param maxActions the number of documents to buffer before sending
+   * @param maxBytes the size of the document sources to buffer before sending
+   * @param flushInterval the maximum time, in milliseconds, to buffer documents for, or 0 for no
+   *     limit
+   * @param concurrentRequests the number of bulk requests to send at once in the background
+   * @param latency timer for the bulk requests
+   * @param rejections meter for the documents rejected by Elasticsearch
+   * @return the writer
+   */
+  public ElasticsearchBulkWriter createBulkWriter(
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      Timer latency,
+      Meter rejections) {
+    return new ElasticsearchTransportBulkWriter(
+        client,
+        maxActions,
+        maxBytes,
+        flushInterval,
+        concurrentRequests,
+        ConfigUtils.stringToInteger(bulkRetriesString, 3),
+        latency,
+        rejections);
+  }
+
   @Override
   protected void doDestroy() {
     if (client != null) {
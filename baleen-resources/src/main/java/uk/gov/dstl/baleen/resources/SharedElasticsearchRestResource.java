@@ -23,8 +23,13 @@ import org.elasticsearch.client.RestClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Strings;
 
+import uk.gov.dstl.baleen.core.utils.ConfigUtils;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchBulkWriter;
+import uk.gov.dstl.baleen.resources.utils.ElasticsearchRestBulkWriter;
 import uk.gov.dstl.baleen.uima.BaleenResource;
 
 /**
@@ -63,6 +68,16 @@ public class SharedElasticsearchRestResource extends BaleenResource {
   @ConfigurationParameter(name = PARAM_PASS, defaultValue = "")
   private String pass;
 
+  /**
+   * The number of times to retry documents rejected by Elasticsearch during bulk indexing
+   *
+   * @baleen.config 3
+   */
+  public static final String PARAM_BULK_RETRIES = "elasticsearchrest.bulkRetries";
+
+  @ConfigurationParameter(name = PARAM_BULK_RETRIES, defaultValue = "3")
+  private String bulkRetriesString;
+
   RestClient client;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SharedElasticsearchResource.class);
@@ -108,6 +123,38 @@ public class SharedElasticsearchRestResource extends BaleenResource {
     return client;
   }
 
+  /**
+   * Create a writer which buffers documents and indexes them in bulk.
+   *
+   * <p>The caller must close the writer to index any remaining documents.
+   *
+   * @param maxActions the number of documents to buffer before sending
+   * @param maxBytes the size of the document sources to buffer before sending
+   * @param flushInterval the maximum time, in milliseconds, to buffer documents for, or 0 for no
+   *     limit
+   * @param concurrentRequests the number of bulk requests to send at once in the background
+   * @param latency timer for the bulk requests
+   * @param rejections meter for the documents rejected by Elasticsearch
+   * @return the writer
+   */
+  public ElasticsearchBulkWriter createBulkWriter(
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      Timer latency,
+      Meter rejections) {
+    return new ElasticsearchRestBulkWriter(
+        client,
+        maxActions,
+        maxBytes,
+        flushInterval,
+        concurrentRequests,
+        ConfigUtils.stringToInteger(bulkRetriesString, 3),
+        latency,
+        rejections);
+  }
+
   @Override
   protected void doDestroy() {
     try {
@@ -22,6 +22,9 @@ import uk.gov.dstl.baleen.uima.BaleenResource;
  * <p>This provides a simple queue resource that can be used in a single baleen instance instead of
  * external message queues. It is primarily aimed at development and testing.
  *
+ * <p>Queues may hold any type of message. The caller is responsible for using the same type of
+ * message for all the consumers and suppliers of a topic.
+ *
  * @baleen.javadoc
  */
 public class SharedMemoryQueueResource extends BaleenResource {
@@ -41,7 +44,7 @@ public class SharedMemoryQueueResource extends BaleenResource {
 
   private int queueCapacity;
 
-  private static final Map<String, BlockingDeque<String>> queues = new HashMap<>();
+  private static final Map<String, BlockingDeque<Object>> queues = new HashMap<>();
 
   @Override
   protected boolean doInitialize(ResourceSpecifier specifier, Map<String, Object> additionalParams)
@@ -58,8 +61,8 @@ public class SharedMemoryQueueResource extends BaleenResource {
    * @param topic
    * @return the consumer
    */
-  public Consumer<String> createConsumer(final String topic) {
-    final BlockingDeque<String> queue = getQueue(topic);
+  public <T> Consumer<T> createConsumer(final String topic) {
+    final BlockingDeque<T> queue = getQueue(topic);
     return queue::addLast;
   }
 
@@ -69,8 +72,8 @@ public class SharedMemoryQueueResource extends BaleenResource {
    * @param topic
    * @return the supplier
    */
-  public Supplier<String> createSupplier(final String topic) {
-    final BlockingDeque<String> queue = getQueue(topic);
+  public <T> Supplier<T> createSupplier(final String topic) {
+    final BlockingDeque<T> queue = getQueue(topic);
     return queue::pollFirst;
   }
 
@@ -80,8 +83,8 @@ public class SharedMemoryQueueResource extends BaleenResource {
    * @param topic
    * @return the consumer
    */
-  public Consumer<String> createBlockingConsumer(final String topic) {
-    final BlockingDeque<String> queue = getQueue(topic);
+  public <T> Consumer<T> createBlockingConsumer(final String topic) {
+    final BlockingDeque<T> queue = getQueue(topic);
     return t -> {
       boolean accepted = false;
       while (!accepted) {
@@ -100,12 +103,12 @@ public class SharedMemoryQueueResource extends BaleenResource {
    * @param topic
    * @return the supplier
    */
-  public Supplier<String> createBlockingSupplier(final String topic) {
-    final BlockingDeque<String> queue = getQueue(topic);
+  public <T> Supplier<T> createBlockingSupplier(final String topic) {
+    final BlockingDeque<T> queue = getQueue(topic);
     return () -> {
       while (true) {
         try {
-          final String s = queue.pollFirst(1, TimeUnit.MINUTES);
+          final T s = queue.pollFirst(1, TimeUnit.MINUTES);
           if (s != null) {
             return s;
           }
@@ -122,12 +125,13 @@ public class SharedMemoryQueueResource extends BaleenResource {
    * @param topic
    * @return the queue
    */
-  public BlockingDeque<String> getQueue(final String topic) {
-    return getOrCreateQueue(topic);
+  @SuppressWarnings("unchecked")
+  public <T> BlockingDeque<T> getQueue(final String topic) {
+    return (BlockingDeque<T>) getOrCreateQueue(topic);
   }
 
-  private synchronized BlockingDeque<String> getOrCreateQueue(final String topic) {
-    BlockingDeque<String> queue = queues.get(topic);
+  private synchronized BlockingDeque<Object> getOrCreateQueue(final String topic) {
+    BlockingDeque<Object> queue = queues.get(topic);
     if (queue == null) {
       queue = new LinkedBlockingDeque<>(queueCapacity);
       queues.put(topic, queue);
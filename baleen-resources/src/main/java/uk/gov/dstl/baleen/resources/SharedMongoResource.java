@@ -17,6 +17,7 @@ import com.mongodb.client.MongoDatabase;
 
 import uk.gov.dstl.baleen.core.utils.ConfigUtils;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.resources.utils.MongoBulkWriter;
 import uk.gov.dstl.baleen.uima.BaleenResource;
 
 /**
@@ -90,11 +91,24 @@ public class SharedMongoResource extends BaleenResource {
   @ConfigurationParameter(name = PARAM_PASS, defaultValue = "")
   private String mongoPass;
 
+  /**
+   * The number of times to retry failed bulk writes
+   *
+   * @baleen.config 3
+   */
+  public static final String PARAM_BULK_RETRIES = "mongo.bulkRetries";
+
+  @ConfigurationParameter(name = PARAM_BULK_RETRIES, defaultValue = "3")
+  private String bulkRetriesString;
+
+  private int bulkRetries;
+
   @Override
   protected boolean doInitialize(
       ResourceSpecifier aSpecifier, Map<String, Object> aAdditionalParams)
       throws ResourceInitializationException {
     mongoPort = ConfigUtils.stringToInteger(mongoPortString, 27017);
+    bulkRetries = ConfigUtils.stringToInteger(bulkRetriesString, 3);
 
     try {
       connectToMongo(mongoHost, mongoPort, mongoDb, mongoUser, mongoPass);
@@ -175,6 +189,19 @@ public class SharedMongoResource extends BaleenResource {
     return db;
   }
 
+  /**
+   * Create a writer which buffers the output of several documents and writes it to Mongo in bulk.
+   *
+   * <p>The caller must close the writer to write any remaining output.
+   *
+   * @param maxDocuments the number of documents to buffer before writing
+   * @param maxAge the maximum time, in milliseconds, to buffer output for, or 0 for no limit
+   * @return the writer
+   */
+  public MongoBulkWriter createBulkWriter(int maxDocuments, long maxAge) {
+    return new MongoBulkWriter(maxDocuments, maxAge, bulkRetries);
+  }
+
   /**
    * Creates a Mongo URI string, without the username:password
    *
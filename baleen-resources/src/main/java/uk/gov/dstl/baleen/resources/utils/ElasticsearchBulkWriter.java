@@ -0,0 +1,397 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.resources.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Buffers documents and indexes them in Elasticsearch in bulk.
+ *
+ * <p>The buffer is sent as a bulk request when it holds maxActions documents or maxBytes bytes of
+ * source, when the oldest document is older than flushInterval milliseconds, on {@link #flush()}
+ * and on {@link #close()}. Up to concurrentRequests bulk requests are sent at once in the
+ * background, and adding documents blocks while that many are in flight. With concurrentRequests of
+ * 0 bulk requests are sent by the caller.
+ *
+ * <p>Documents rejected by Elasticsearch because it is overloaded (429 Too Many Requests) are sent
+ * again, with an exponential backoff, up to maxRetries times. Any other failures are logged. The
+ * time taken by each bulk request is recorded by the latency timer and the number of rejected
+ * documents by the rejections meter.
+ *
+ * <p>Documents are added either as maps or as a {@link SourceWriter}, which streams the JSON of the
+ * document straight into the request buffer.
+ *
+ * <p>Subclasses send the bulk requests over a particular client.
+ */
+public abstract class ElasticsearchBulkWriter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchBulkWriter.class);
+
+  private static final long RETRY_BACKOFF = 50;
+
+  private final int maxActions;
+  private final long maxBytes;
+  private final long flushInterval;
+  private final int maxRetries;
+  private final Timer latency;
+  private final Meter rejections;
+
+  private final int permits;
+  private final Semaphore inFlight;
+  private final ExecutorService executor;
+  private final ScheduledExecutorService flusher;
+
+  private List<IndexAction> actions = new ArrayList<>();
+  private long bytes = 0;
+  private long oldest = 0;
+
+  /**
+   * New instance.
+   *
+   * @param maxActions the number of documents to buffer before sending
+   * @param maxBytes the size of the document sources to buffer before sending
+   * @param flushInterval the maximum time, in milliseconds, to buffer documents for, or 0 for no
+   *     limit
+   * @param concurrentRequests the number of bulk requests to send at once in the background
+   * @param maxRetries the number of times to retry rejected documents
+   * @param latency timer for the bulk requests
+   * @param rejections meter for the documents rejected by Elasticsearch
+   */
+  protected ElasticsearchBulkWriter(
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      int maxRetries,
+      Timer latency,
+      Meter rejections) {
+    this.maxActions = Math.max(1, maxActions);
+    this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+    this.flushInterval = flushInterval;
+    this.maxRetries = Math.max(0, maxRetries);
+    this.latency = latency;
+    this.rejections = rejections;
+
+    permits = Math.max(1, concurrentRequests);
+    inFlight = new Semaphore(permits);
+    executor =
+        concurrentRequests > 0
+            ? Executors.newFixedThreadPool(
+                concurrentRequests, r -> daemon(r, "ElasticsearchBulkWriter"))
+            : null;
+
+    if (flushInterval > 0 && this.maxActions > 1) {
+      flusher =
+          Executors.newSingleThreadScheduledExecutor(
+              r -> daemon(r, "ElasticsearchBulkWriter flusher"));
+      long period = Math.max(10, flushInterval / 4);
+      flusher.scheduleAtFixedRate(this::flushIfOld, period, period, TimeUnit.MILLISECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  private static Thread daemon(Runnable r, String name) {
+    Thread t = new Thread(r, name);
+    t.setDaemon(true);
+    return t;
+  }
+
+  /**
+   * Index a document.
+   *
+   * @param index the index
+   * @param type the type
+   * @param id the id of the document
+   * @param source the document
+   * @throws IOException if the document can not be serialised
+   */
+  public void add(String index, String type, String id, Map<String, Object> source)
+      throws IOException {
+    add(index, type, id, null, source);
+  }
+
+  /**
+   * Index a document with a parent.
+   *
+   * @param index the index
+   * @param type the type
+   * @param id the id of the document
+   * @param parent the id of the parent document, or null
+   * @param source the document
+   * @throws IOException if the document can not be serialised
+   */
+  public void add(String index, String type, String id, String parent, Map<String, Object> source)
+      throws IOException {
+    add(new IndexAction(index, type, id, parent, toSource(source)));
+  }
+
+  /**
+   * Index a document written directly as JSON, without first building a map of it.
+   *
+   * @param index the index
+   * @param type the type
+   * @param id the id of the document
+   * @param source writes the document
+   * @throws IOException if the document can not be written
+   */
+  public void add(String index, String type, String id, SourceWriter source) throws IOException {
+    add(index, type, id, null, source);
+  }
+
+  /**
+   * Index a document with a parent, written directly as JSON.
+   *
+   * @param index the index
+   * @param type the type
+   * @param id the id of the document
+   * @param parent the id of the parent document, or null
+   * @param source writes the document
+   * @throws IOException if the document can not be written
+   */
+  public void add(String index, String type, String id, String parent, SourceWriter source)
+      throws IOException {
+    add(new IndexAction(index, type, id, parent, toSource(source)));
+  }
+
+  private void add(IndexAction action) {
+    List<IndexAction> batch = null;
+    synchronized (this) {
+      if (actions.isEmpty()) {
+        oldest = System.currentTimeMillis();
+      }
+      actions.add(action);
+      bytes += action.getSource().length;
+      if (actions.size() >= maxActions || bytes >= maxBytes) {
+        batch = take();
+      }
+    }
+    submit(batch);
+  }
+
+  /** Send everything buffered and wait for all the bulk requests to complete. */
+  public void flush() {
+    submit(take());
+    inFlight.acquireUninterruptibly(permits);
+    inFlight.release(permits);
+  }
+
+  private void flushIfOld() {
+    List<IndexAction> batch = null;
+    synchronized (this) {
+      if (!actions.isEmpty() && System.currentTimeMillis() - oldest >= flushInterval) {
+        batch = take();
+      }
+    }
+    submit(batch);
+  }
+
+  private synchronized List<IndexAction> take() {
+    List<IndexAction> batch = actions;
+    actions = new ArrayList<>();
+    bytes = 0;
+    return batch;
+  }
+
+  private void submit(List<IndexAction> batch) {
+    if (batch == null || batch.isEmpty()) {
+      return;
+    }
+
+    inFlight.acquireUninterruptibly();
+    if (executor == null) {
+      try {
+        write(batch);
+      } finally {
+        inFlight.release();
+      }
+      return;
+    }
+
+    try {
+      executor.execute(
+          () -> {
+            try {
+              write(batch);
+            } finally {
+              inFlight.release();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // Closed, so send it ourselves
+      try {
+        write(batch);
+      } finally {
+        inFlight.release();
+      }
+    }
+  }
+
+  private void write(List<IndexAction> batch) {
+    List<IndexAction> remaining = batch;
+    for (int attempt = 0; ; attempt++) {
+      List<Integer> rejected;
+      Timer.Context context = latency.time();
+      try {
+        rejected = send(remaining);
+      } catch (IOException e) {
+        LOGGER.error("Unable to index {} documents in Elasticsearch", remaining.size(), e);
+        return;
+      } finally {
+        context.stop();
+      }
+
+      if (rejected.isEmpty()) {
+        return;
+      }
+      rejections.mark(rejected.size());
+
+      List<IndexAction> retry = new ArrayList<>(rejected.size());
+      for (Integer i : rejected) {
+        retry.add(remaining.get(i));
+      }
+      remaining = retry;
+
+      if (attempt >= maxRetries) {
+        LOGGER.error(
+            "Elasticsearch rejected {} documents after {} retries, they will not be indexed",
+            remaining.size(),
+            maxRetries);
+        return;
+      }
+      backoff(attempt);
+    }
+  }
+
+  private void backoff(int attempt) {
+    try {
+      Thread.sleep(RETRY_BACKOFF << Math.min(attempt, 10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Serialise a document to JSON.
+   *
+   * @param source the document
+   * @return the JSON
+   * @throws IOException if the document can not be serialised
+   */
+  protected abstract byte[] toSource(Map<String, Object> source) throws IOException;
+
+  /**
+   * Write a document as JSON.
+   *
+   * @param source writes the document
+   * @return the JSON
+   * @throws IOException if the document can not be written
+   */
+  protected abstract byte[] toSource(SourceWriter source) throws IOException;
+
+  /**
+   * Write a document as JSON using a generator from the mapper, which is also the generator's
+   * codec.
+   *
+   * @param mapper the mapper
+   * @param source writes the document
+   * @return the JSON
+   * @throws IOException if the document can not be written
+   */
+  protected static byte[] toSource(ObjectMapper mapper, SourceWriter source) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+      source.write(generator);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Send a bulk request. Failures of individual documents, other than rejections, should be logged
+   * by the implementation.
+   *
+   * @param actions the documents to index
+   * @return the positions, in actions, of the documents rejected because Elasticsearch is
+   *     overloaded, which will be sent again
+   * @throws IOException if the request fails for any other reason
+   */
+  protected abstract List<Integer> send(List<IndexAction> actions) throws IOException;
+
+  /** Send everything buffered, wait for it to complete and stop the background threads. */
+  @Override
+  public void close() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+    }
+    flush();
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  /** Writes a document to a JSON generator, as a single object. */
+  @FunctionalInterface
+  public interface SourceWriter {
+    /**
+     * Write the document.
+     *
+     * @param generator the generator
+     * @throws IOException if the generator fails
+     */
+    void write(JsonGenerator generator) throws IOException;
+  }
+
+  /** A document to be indexed. */
+  public static class IndexAction {
+    private final String index;
+    private final String type;
+    private final String id;
+    private final String parent;
+    private final byte[] source;
+
+    IndexAction(String index, String type, String id, String parent, byte[] source) {
+      this.index = index;
+      this.type = type;
+      this.id = id;
+      this.parent = parent;
+      this.source = source;
+    }
+
+    public String getIndex() {
+      return index;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public String getParent() {
+      return parent;
+    }
+
+    public byte[] getSource() {
+      return source;
+    }
+  }
+}
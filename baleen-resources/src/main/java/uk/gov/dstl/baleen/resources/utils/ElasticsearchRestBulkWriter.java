@@ -0,0 +1,129 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.resources.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** {@link ElasticsearchBulkWriter} sending bulk requests to the REST API. */
+public class ElasticsearchRestBulkWriter extends ElasticsearchBulkWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchRestBulkWriter.class);
+
+  private static final int TOO_MANY_REQUESTS = 429;
+  private static final byte NEWLINE = '\n';
+
+  private final RestClient client;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * New instance.
+   *
+   * @param client the REST client
+   * @param maxActions the number of documents to buffer before sending
+   * @param maxBytes the size of the document sources to buffer before sending
+   * @param flushInterval the maximum time, in milliseconds, to buffer documents for
+   * @param concurrentRequests the number of bulk requests to send at once in the background
+   * @param maxRetries the number of times to retry rejected documents
+   * @param latency timer for the bulk requests
+   * @param rejections meter for the documents rejected by Elasticsearch
+   */
+  public ElasticsearchRestBulkWriter(
+      RestClient client,
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      int maxRetries,
+      Timer latency,
+      Meter rejections) {
+    super(maxActions, maxBytes, flushInterval, concurrentRequests, maxRetries, latency, rejections);
+    this.client = client;
+  }
+
+  @Override
+  protected byte[] toSource(Map<String, Object> source) throws IOException {
+    return objectMapper.writeValueAsBytes(source);
+  }
+
+  @Override
+  protected byte[] toSource(SourceWriter source) throws IOException {
+    return toSource(objectMapper, source);
+  }
+
+  @Override
+  protected List<Integer> send(List<IndexAction> actions) throws IOException {
+    Response response;
+    try {
+      response =
+          client.performRequest(
+              "POST",
+              "/_bulk",
+              Collections.emptyMap(),
+              new ByteArrayEntity(createBody(actions), ContentType.APPLICATION_JSON));
+    } catch (ResponseException e) {
+      if (e.getResponse().getStatusLine().getStatusCode() == TOO_MANY_REQUESTS) {
+        List<Integer> all = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+          all.add(i);
+        }
+        return all;
+      }
+      throw e;
+    }
+
+    JsonNode result = objectMapper.readTree(response.getEntity().getContent());
+    List<Integer> rejected = new ArrayList<>();
+    if (result.path("errors").asBoolean(false)) {
+      JsonNode items = result.path("items");
+      for (int i = 0; i < items.size(); i++) {
+        JsonNode item = items.get(i).path("index");
+        if (item.path("status").asInt() == TOO_MANY_REQUESTS) {
+          rejected.add(i);
+        } else if (item.has("error")) {
+          LOGGER.warn(
+              "Couldn't persist document {} to Elasticsearch: {}",
+              actions.get(i).getId(),
+              item.get("error"));
+        }
+      }
+    }
+    return rejected;
+  }
+
+  private byte[] createBody(List<IndexAction> actions) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    for (IndexAction action : actions) {
+      Map<String, Object> metadata = new LinkedHashMap<>();
+      metadata.put("_index", action.getIndex());
+      metadata.put("_type", action.getType());
+      metadata.put("_id", action.getId());
+      if (action.getParent() != null) {
+        metadata.put("_parent", action.getParent());
+      }
+
+      body.write(objectMapper.writeValueAsBytes(Collections.singletonMap("index", metadata)));
+      body.write(NEWLINE);
+      body.write(action.getSource());
+      body.write(NEWLINE);
+    }
+    return body.toByteArray();
+  }
+}
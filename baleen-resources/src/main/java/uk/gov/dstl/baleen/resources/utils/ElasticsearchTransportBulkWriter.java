@@ -0,0 +1,130 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.resources.utils;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** {@link ElasticsearchBulkWriter} sending bulk requests over the transport client. */
+public class ElasticsearchTransportBulkWriter extends ElasticsearchBulkWriter {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(ElasticsearchTransportBulkWriter.class);
+
+  private final Client client;
+  private final ObjectMapper objectMapper = createObjectMapper();
+
+  /**
+   * New instance.
+   *
+   * @param client the transport client
+   * @param maxActions the number of documents to buffer before sending
+   * @param maxBytes the size of the document sources to buffer before sending
+   * @param flushInterval the maximum time, in milliseconds, to buffer documents for
+   * @param concurrentRequests the number of bulk requests to send at once in the background
+   * @param maxRetries the number of times to retry rejected documents
+   * @param latency timer for the bulk requests
+   * @param rejections meter for the documents rejected by Elasticsearch
+   */
+  public ElasticsearchTransportBulkWriter(
+      Client client,
+      int maxActions,
+      long maxBytes,
+      long flushInterval,
+      int concurrentRequests,
+      int maxRetries,
+      Timer latency,
+      Meter rejections) {
+    super(maxActions, maxBytes, flushInterval, concurrentRequests, maxRetries, latency, rejections);
+    this.client = client;
+  }
+
+  @Override
+  protected byte[] toSource(Map<String, Object> source) throws IOException {
+    return BytesReference.toBytes(XContentFactory.jsonBuilder().map(source).bytes());
+  }
+
+  @Override
+  protected byte[] toSource(SourceWriter source) throws IOException {
+    return toSource(objectMapper, source);
+  }
+
+  private static ObjectMapper createObjectMapper() {
+    // Write dates as XContent does
+    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+    dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return new ObjectMapper().setDateFormat(dateFormat);
+  }
+
+  @Override
+  protected List<Integer> send(List<IndexAction> actions) throws IOException {
+    BulkRequestBuilder bulk = client.prepareBulk();
+    for (IndexAction action : actions) {
+      IndexRequestBuilder request =
+          client
+              .prepareIndex(action.getIndex(), action.getType(), action.getId())
+              .setSource(action.getSource(), XContentType.JSON);
+      if (action.getParent() != null) {
+        request.setParent(action.getParent());
+      }
+      bulk.add(request);
+    }
+
+    BulkResponse response;
+    try {
+      response = bulk.get();
+    } catch (EsRejectedExecutionException e) {
+      return all(actions);
+    } catch (ElasticsearchException e) {
+      throw new IOException(e);
+    }
+
+    List<Integer> rejected = new ArrayList<>();
+    if (response.hasFailures()) {
+      for (BulkItemResponse item : response.getItems()) {
+        if (!item.isFailed()) {
+          continue;
+        }
+        if (item.status() == RestStatus.TOO_MANY_REQUESTS) {
+          rejected.add(item.getItemId());
+        } else {
+          LOGGER.warn(
+              "Couldn't persist document {} to Elasticsearch: {}",
+              item.getId(),
+              item.getFailureMessage());
+        }
+      }
+    }
+    return rejected;
+  }
+
+  private static List<Integer> all(List<IndexAction> actions) {
+    List<Integer> all = new ArrayList<>(actions.size());
+    for (int i = 0; i < actions.size(); i++) {
+      all.add(i);
+    }
+    return all;
+  }
+}
@@ -0,0 +1,222 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.resources.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BSONException;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+
+/**
+ * Buffers the output of several documents and writes it to Mongo in bulk.
+ *
+ * <p>The output of a document is added with {@link #replace(MongoCollection, Document, List)},
+ * which replaces anything in the collection matching the filter with the given Mongo documents.
+ * Once all the output of a document has been added call {@link #completeDocument()}. The buffer is
+ * written when it holds the output of maxDocuments documents, when the oldest output is older than
+ * maxAge milliseconds, on {@link #flush()} and on {@link #close()}.
+ *
+ * <p>For each collection all the deletes are sent as one unordered bulk write, followed by all the
+ * inserts. A later replace with the same filter supersedes an earlier one that is still buffered,
+ * so a document processed twice is not duplicated.
+ *
+ * <p>Writes are at least once. Failed writes are retried, with a backoff, up to maxRetries times
+ * before they are logged and dropped. If a bulk write can't be serialised (for example a Mongo
+ * document is too large) each operation is written on its own, so only the bad ones are dropped.
+ * Inserts are retried with the ids they were first sent with, so an insert which had succeeded
+ * fails with a duplicate key error, which is ignored.
+ */
+public class MongoBulkWriter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MongoBulkWriter.class);
+
+  private static final long RETRY_BACKOFF = 100;
+  private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+  private final int maxDocuments;
+  private final long maxAge;
+  private final int maxRetries;
+
+  private final Map<MongoCollection<Document>, Map<Document, List<Document>>> pending =
+      new LinkedHashMap<>();
+  private int documents = 0;
+  private long oldest = 0;
+
+  private final ScheduledExecutorService flusher;
+
+  /**
+   * New instance.
+   *
+   * @param maxDocuments the number of documents to buffer before writing
+   * @param maxAge the maximum time, in milliseconds, to buffer output for, or 0 for no limit
+   * @param maxRetries the number of times to retry failed writes
+   */
+  public MongoBulkWriter(int maxDocuments, long maxAge, int maxRetries) {
+    this.maxDocuments = Math.max(1, maxDocuments);
+    this.maxAge = maxAge;
+    this.maxRetries = Math.max(0, maxRetries);
+
+    if (maxAge > 0 && this.maxDocuments > 1) {
+      flusher =
+          Executors.newSingleThreadScheduledExecutor(
+              r -> {
+                Thread t = new Thread(r, "MongoBulkWriter flusher");
+                t.setDaemon(true);
+                return t;
+              });
+      long period = Math.max(10, maxAge / 4);
+      flusher.scheduleAtFixedRate(this::flushIfOld, period, period, TimeUnit.MILLISECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  /**
+   * Replace the Mongo documents matching the filter with the given documents.
+   *
+   * @param collection the collection
+   * @param filter the filter matching the existing documents
+   * @param documents the new documents, which may be empty
+   */
+  public synchronized void replace(
+      MongoCollection<Document> collection, Document filter, List<Document> documents) {
+    if (pending.isEmpty()) {
+      oldest = System.currentTimeMillis();
+    }
+    pending
+        .computeIfAbsent(collection, c -> new LinkedHashMap<>())
+        .put(filter, new ArrayList<>(documents));
+  }
+
+  /** Mark the output of a document as complete, writing the buffer if it is full. */
+  public synchronized void completeDocument() {
+    documents++;
+    if (documents >= maxDocuments) {
+      flush();
+    }
+  }
+
+  /** Write everything buffered to Mongo. */
+  public synchronized void flush() {
+    for (Map.Entry<MongoCollection<Document>, Map<Document, List<Document>>> e :
+        pending.entrySet()) {
+      MongoCollection<Document> collection = e.getKey();
+
+      List<WriteModel<Document>> deletes = new ArrayList<>();
+      List<WriteModel<Document>> inserts = new ArrayList<>();
+      for (Map.Entry<Document, List<Document>> replacement : e.getValue().entrySet()) {
+        deletes.add(new DeleteManyModel<>(replacement.getKey()));
+        for (Document document : replacement.getValue()) {
+          inserts.add(new InsertOneModel<>(document));
+        }
+      }
+
+      write(collection, deletes);
+      write(collection, inserts);
+    }
+
+    pending.clear();
+    documents = 0;
+  }
+
+  private synchronized void flushIfOld() {
+    if (!pending.isEmpty() && System.currentTimeMillis() - oldest >= maxAge) {
+      flush();
+    }
+  }
+
+  private void write(MongoCollection<Document> collection, List<WriteModel<Document>> writes) {
+    List<WriteModel<Document>> remaining = writes;
+    for (int attempt = 0; !remaining.isEmpty(); attempt++) {
+      try {
+        collection.bulkWrite(remaining, UNORDERED);
+        return;
+      } catch (MongoBulkWriteException e) {
+        remaining = getRetryable(remaining, e.getWriteErrors());
+      } catch (MongoException e) {
+        LOGGER.warn("Bulk write to {} failed", collection.getNamespace(), e);
+      } catch (BSONException e) {
+        writeSeparately(collection, remaining, e);
+        return;
+      }
+
+      if (remaining.isEmpty()) {
+        return;
+      }
+      if (attempt >= maxRetries) {
+        LOGGER.error(
+            "Unable to write {} operations to {} after {} retries, they will be skipped",
+            remaining.size(),
+            collection.getNamespace(),
+            maxRetries);
+        return;
+      }
+      backoff(attempt);
+    }
+  }
+
+  private void writeSeparately(
+      MongoCollection<Document> collection, List<WriteModel<Document>> writes, BSONException e) {
+    if (writes.size() == 1) {
+      LOGGER.error(
+          "Unable to serialise operation for {}, it will be skipped", collection.getNamespace(), e);
+      return;
+    }
+
+    LOGGER.warn(
+        "Unable to serialise bulk write to {}, writing {} operations separately",
+        collection.getNamespace(),
+        writes.size(),
+        e);
+    for (WriteModel<Document> w : writes) {
+      write(collection, Collections.singletonList(w));
+    }
+  }
+
+  private List<WriteModel<Document>> getRetryable(
+      List<WriteModel<Document>> writes, List<BulkWriteError> errors) {
+    List<WriteModel<Document>> retry = new ArrayList<>();
+    for (BulkWriteError error : errors) {
+      // A duplicate key means an earlier attempt succeeded
+      if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+        retry.add(writes.get(error.getIndex()));
+      }
+    }
+    return retry;
+  }
+
+  private void backoff(int attempt) {
+    try {
+      Thread.sleep(RETRY_BACKOFF << Math.min(attempt, 10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Write everything buffered and stop the background flushing. */
+  @Override
+  public void close() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+    }
+    flush();
+  }
+}
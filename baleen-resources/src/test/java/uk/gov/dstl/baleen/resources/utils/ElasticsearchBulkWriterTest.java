@@ -0,0 +1,187 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.resources.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ElasticsearchBulkWriterTest {
+
+  private static final Map<String, Object> SOURCE = Collections.singletonMap("key", "value");
+
+  @Test
+  public void testSendsWhenFull() throws IOException {
+    RecordingWriter writer = new RecordingWriter(3, 0, 0, 0, 0);
+    writer.add("index", "type", "1", SOURCE);
+    writer.add("index", "type", "2", SOURCE);
+    assertEquals(0, writer.requests.size());
+
+    writer.add("index", "type", "3", SOURCE);
+    assertEquals(1, writer.requests.size());
+    assertEquals(3, writer.requests.get(0).size());
+
+    writer.close();
+    assertEquals(1, writer.requests.size());
+    assertEquals(1, writer.timer.getCount());
+  }
+
+  @Test
+  public void testSendsWhenLarge() throws IOException {
+    // Each source is 15 bytes
+    RecordingWriter writer = new RecordingWriter(100, 20, 0, 0, 0);
+    writer.add("index", "type", "1", SOURCE);
+    assertEquals(0, writer.requests.size());
+
+    writer.add("index", "type", "2", SOURCE);
+    assertEquals(1, writer.requests.size());
+    writer.close();
+  }
+
+  @Test
+  public void testSendsInBackgroundAndOnClose() throws IOException {
+    RecordingWriter writer = new RecordingWriter(2, 0, 0, 2, 0);
+    for (int i = 0; i < 5; i++) {
+      writer.add("index", "type", Integer.toString(i), "parent", SOURCE);
+    }
+    writer.flush();
+    assertEquals(3, writer.requests.size());
+    assertEquals(5, writer.sent());
+    assertEquals("parent", writer.requests.get(0).get(0).getParent());
+
+    writer.add("index", "type", "5", SOURCE);
+    writer.close();
+    assertEquals(6, writer.sent());
+  }
+
+  @Test
+  public void testSendsWhenOld() throws IOException, InterruptedException {
+    RecordingWriter writer = new RecordingWriter(100, 0, 50, 0, 0);
+    writer.add("index", "type", "1", SOURCE);
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (writer.requests.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, writer.requests.size());
+    writer.close();
+  }
+
+  @Test
+  public void testRetriesRejected() throws IOException {
+    RecordingWriter writer = new RecordingWriter(3, 0, 0, 0, 2);
+    writer.rejections = 2;
+    writer.add("index", "type", "1", SOURCE);
+    writer.add("index", "type", "2", SOURCE);
+    writer.add("index", "type", "3", SOURCE);
+    writer.close();
+
+    assertEquals(3, writer.requests.size());
+    assertEquals(3, writer.requests.get(0).size());
+    assertEquals(1, writer.requests.get(1).size());
+    assertEquals("3", writer.requests.get(2).get(0).getId());
+    assertEquals(2, writer.meter.getCount());
+  }
+
+  @Test
+  public void testDropsAfterRetries() throws IOException {
+    RecordingWriter writer = new RecordingWriter(1, 0, 0, 0, 1);
+    writer.rejections = 10;
+    writer.add("index", "type", "1", SOURCE);
+    writer.close();
+
+    assertEquals(2, writer.requests.size());
+    assertEquals(2, writer.meter.getCount());
+  }
+
+  @Test
+  public void testWritesSource() throws IOException {
+    RecordingWriter writer = new RecordingWriter(1, 0, 0, 0, 0);
+    writer.add(
+        "index",
+        "type",
+        "1",
+        g -> {
+          g.writeStartObject();
+          g.writeStringField("key", "value");
+          g.writeEndObject();
+        });
+    writer.close();
+
+    assertEquals(
+        "{\"key\":\"value\"}",
+        new String(writer.requests.get(0).get(0).getSource(), StandardCharsets.UTF_8));
+  }
+
+  private static class RecordingWriter extends ElasticsearchBulkWriter {
+    private final List<List<IndexAction>> requests = new CopyOnWriteArrayList<>();
+    private final Timer timer;
+    private final Meter meter;
+    private int rejections = 0;
+
+    RecordingWriter(
+        int maxActions, long maxBytes, long flushInterval, int concurrentRequests, int maxRetries) {
+      this(maxActions, maxBytes, flushInterval, concurrentRequests, maxRetries, new Timer());
+    }
+
+    private RecordingWriter(
+        int maxActions,
+        long maxBytes,
+        long flushInterval,
+        int concurrentRequests,
+        int maxRetries,
+        Timer timer) {
+      this(maxActions, maxBytes, flushInterval, concurrentRequests, maxRetries, timer, new Meter());
+    }
+
+    private RecordingWriter(
+        int maxActions,
+        long maxBytes,
+        long flushInterval,
+        int concurrentRequests,
+        int maxRetries,
+        Timer timer,
+        Meter meter) {
+      super(maxActions, maxBytes, flushInterval, concurrentRequests, maxRetries, timer, meter);
+      this.timer = timer;
+      this.meter = meter;
+    }
+
+    int sent() {
+      return requests.stream().mapToInt(List::size).sum();
+    }
+
+    @Override
+    protected byte[] toSource(Map<String, Object> source) {
+      return "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected byte[] toSource(SourceWriter source) throws IOException {
+      return toSource(new ObjectMapper(), source);
+    }
+
+    @Override
+    protected List<Integer> send(List<IndexAction> actions) {
+      requests.add(new ArrayList<>(actions));
+
+      // Reject the last document each time, while there are rejections left
+      if (rejections > 0) {
+        rejections--;
+        return Collections.singletonList(actions.size() - 1);
+      }
+      return Collections.emptyList();
+    }
+  }
+}
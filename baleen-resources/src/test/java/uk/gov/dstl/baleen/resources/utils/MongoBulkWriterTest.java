@@ -0,0 +1,140 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.resources.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.BsonSerializationException;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.fakemongo.Fongo;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+
+public class MongoBulkWriterTest {
+
+  private MongoCollection<Document> collection;
+
+  @Before
+  public void before() {
+    collection =
+        new Fongo("bulk_writer_test").getDatabase("baleen").getCollection("bulk_writer_test");
+  }
+
+  @Test
+  public void testWritesWhenFull() {
+    try (MongoBulkWriter writer = new MongoBulkWriter(2, 0, 0)) {
+      writer.replace(collection, new Document("doc", "a"), documents("a", 2));
+      writer.completeDocument();
+      assertEquals(0, collection.count());
+
+      writer.replace(collection, new Document("doc", "b"), documents("b", 1));
+      writer.completeDocument();
+      assertEquals(3, collection.count());
+    }
+  }
+
+  @Test
+  public void testReplacesExisting() {
+    collection.insertMany(documents("a", 3));
+    collection.insertMany(documents("b", 1));
+
+    try (MongoBulkWriter writer = new MongoBulkWriter(1, 0, 0)) {
+      writer.replace(collection, new Document("doc", "a"), documents("a", 1));
+      writer.completeDocument();
+    }
+
+    assertEquals(1, collection.count(new Document("doc", "a")));
+    assertEquals(1, collection.count(new Document("doc", "b")));
+  }
+
+  @Test
+  public void testLaterReplaceSupersedesBuffered() {
+    try (MongoBulkWriter writer = new MongoBulkWriter(10, 0, 0)) {
+      writer.replace(collection, new Document("doc", "a"), documents("a", 2));
+      writer.completeDocument();
+      writer.replace(collection, new Document("doc", "a"), documents("a", 1));
+      writer.completeDocument();
+    }
+
+    assertEquals(1, collection.count(new Document("doc", "a")));
+  }
+
+  @Test
+  public void testWritesOnFlushAndClose() {
+    MongoBulkWriter writer = new MongoBulkWriter(10, 0, 0);
+    writer.replace(collection, new Document("doc", "a"), documents("a", 1));
+    writer.completeDocument();
+    writer.flush();
+    assertEquals(1, collection.count());
+
+    writer.replace(collection, new Document("doc", "b"), Collections.emptyList());
+    writer.replace(collection, new Document("doc", "c"), documents("c", 2));
+    writer.completeDocument();
+    writer.close();
+    assertEquals(3, collection.count());
+  }
+
+  @Test
+  public void testWritesWhenOld() throws InterruptedException {
+    try (MongoBulkWriter writer = new MongoBulkWriter(10, 50, 0)) {
+      writer.replace(collection, new Document("doc", "a"), documents("a", 1));
+      writer.completeDocument();
+
+      long deadline = System.currentTimeMillis() + 5000;
+      while (collection.count() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, collection.count());
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSkipsOnlyUnserialisableDocuments() {
+    Document bad = new Document("doc", "bad");
+    MongoCollection<Document> failing = mock(MongoCollection.class);
+    when(failing.getNamespace()).thenReturn(collection.getNamespace());
+    when(failing.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+        .thenAnswer(
+            invocation -> {
+              List<WriteModel<Document>> writes = invocation.getArgument(0);
+              for (WriteModel<Document> w : writes) {
+                if (w instanceof InsertOneModel
+                    && ((InsertOneModel<Document>) w).getDocument() == bad) {
+                  throw new BsonSerializationException("Too large");
+                }
+              }
+              return collection.bulkWrite(writes, invocation.getArgument(1));
+            });
+
+    try (MongoBulkWriter writer = new MongoBulkWriter(10, 0, 0)) {
+      writer.replace(failing, new Document("doc", "a"), documents("a", 2));
+      writer.replace(failing, new Document("doc", "bad"), Collections.singletonList(bad));
+      writer.replace(failing, new Document("doc", "c"), documents("c", 1));
+      writer.completeDocument();
+    }
+
+    assertEquals(3, collection.count());
+    assertEquals(0, collection.count(new Document("doc", "bad")));
+  }
+
+  private static List<Document> documents(String doc, int count) {
+    Document[] documents = new Document[count];
+    for (int i = 0; i < count; i++) {
+      documents[i] = new Document("doc", doc).append("index", i);
+    }
+    return Arrays.asList(documents);
+  }
+}
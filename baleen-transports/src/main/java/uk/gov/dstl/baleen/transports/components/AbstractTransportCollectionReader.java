@@ -2,6 +2,8 @@
 package uk.gov.dstl.baleen.transports.components;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 
 import org.apache.uima.UimaContext;
@@ -11,8 +13,9 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
 import uk.gov.dstl.baleen.exceptions.BaleenException;
-import uk.gov.dstl.baleen.transports.serialisation.JsonJCasConverter;
-import uk.gov.dstl.baleen.transports.serialisation.JsonJCasConverterBuilder;
+import uk.gov.dstl.baleen.transports.serialisation.JCasCodec;
+import uk.gov.dstl.baleen.transports.serialisation.JCasCodecBuilder;
+import uk.gov.dstl.baleen.transports.serialisation.MessageBatch;
 import uk.gov.dstl.baleen.uima.BaleenCollectionReader;
 
 /**
@@ -21,6 +24,9 @@ import uk.gov.dstl.baleen.uima.BaleenCollectionReader;
  * provides the common deserialization, implementations should manage the transport by implementing
  * the abstract {@link #createQueue()} {@link #closeQueue()} and {@link #readFromQueue()}.
  *
+ * <p>Messages sent in batches by an {@link AbstractTransportConsumer} are unpacked transparently,
+ * returning each document in turn.
+ *
  * @baleen.javadoc
  */
 public abstract class AbstractTransportCollectionReader extends BaleenCollectionReader {
@@ -58,18 +64,32 @@ public abstract class AbstractTransportCollectionReader extends BaleenCollection
   @ConfigurationParameter(name = PARAM_WHITELIST, mandatory = false)
   private List<String> whitelist = null;
 
-  private JsonJCasConverter converter;
+  /**
+   * The codec used to deserialise the JCas, as the class name of a {@link JCasCodec}. This must be
+   * the same as the codec used by the sender.
+   *
+   * @baleen.config JsonJCasCodec
+   */
+  public static final String PARAM_CODEC = "codec";
+
+  @ConfigurationParameter(name = PARAM_CODEC, defaultValue = JCasCodecBuilder.DEFAULT_CODEC)
+  private String codecName;
+
+  private JCasCodec codec;
+
+  private final Deque<byte[]> pending = new ArrayDeque<>();
 
   @Override
   protected void doInitialize(final UimaContext context) throws ResourceInitializationException {
 
-    converter =
-        new JsonJCasConverterBuilder(getMonitor())
-            .withWhitelist(whitelist)
-            .withBlacklist(blacklist)
-            .build();
-
     try {
+      codec =
+          new JCasCodecBuilder(getMonitor())
+              .withCodec(codecName)
+              .withWhitelist(whitelist)
+              .withBlacklist(blacklist)
+              .build();
+
       createQueue();
     } catch (final BaleenException e) {
       throw new ResourceInitializationException(e);
@@ -84,8 +104,10 @@ public abstract class AbstractTransportCollectionReader extends BaleenCollection
 
   @Override
   protected void doGetNext(final JCas jCas) throws IOException, CollectionException {
-    final String serialized = readFromQueue();
-    converter.deserialise(jCas, serialized);
+    while (pending.isEmpty()) {
+      pending.addAll(MessageBatch.unpack(readFromQueue()));
+    }
+    codec.deserialise(jCas, pending.poll());
   }
 
   @Override
@@ -113,5 +135,5 @@ public abstract class AbstractTransportCollectionReader extends BaleenCollection
    * @return the data read
    * @throws IOException if reading can not be completed correctly
    */
-  protected abstract String readFromQueue() throws IOException;
+  protected abstract byte[] readFromQueue() throws IOException;
 }
@@ -2,7 +2,15 @@
 package uk.gov.dstl.baleen.transports.components;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
@@ -13,8 +21,11 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 import uk.gov.dstl.baleen.core.utils.ConfigUtils;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
-import uk.gov.dstl.baleen.transports.serialisation.JsonJCasConverter;
-import uk.gov.dstl.baleen.transports.serialisation.JsonJCasConverterBuilder;
+import uk.gov.dstl.baleen.exceptions.InvalidParameterException;
+import uk.gov.dstl.baleen.transports.serialisation.Compression;
+import uk.gov.dstl.baleen.transports.serialisation.JCasCodec;
+import uk.gov.dstl.baleen.transports.serialisation.JCasCodecBuilder;
+import uk.gov.dstl.baleen.transports.serialisation.MessageBatch;
 import uk.gov.dstl.baleen.uima.BaleenConsumer;
 
 /**
@@ -24,11 +35,19 @@ import uk.gov.dstl.baleen.uima.BaleenConsumer;
  * the abstract {@link #createQueue()} {@link #closeQueue()} and {@link #writeToQueue()}.
  *
  * <p>It also supports providing an optional whitelist or blacklist of types to filter the
- * transported types.
+ * transported types, and the {@link JCasCodec} used to serialise the JCas. The receiver must be
+ * configured with the same codec.
+ *
+ * <p>Documents can optionally be sent in batches, see {@link MessageBatch}, which are written when
+ * the batch reaches the configured number of documents or bytes, or when the oldest document in the
+ * batch has waited for the configured latency. Batches can be compressed. By default each document
+ * is sent individually and uncompressed, as before, and the collection readers accept either form.
  *
  * <p>A simple throttling mechanism is provided using the queue capacity and the getQueueLength
- * method, implemented with exponential backoff. This process is not threadsafe, so if your queue
- * has a hard maximum capacity it must be check in you implementation.
+ * method. Writing waits, with a capped exponential backoff, until the queue is below capacity;
+ * implementations which know when the queue drains can call {@link #signalCapacity()} to wake the
+ * writer early. This process is not threadsafe, so if your queue has a hard maximum capacity it
+ * must be check in you implementation.
  *
  * @baleen.javadoc
  */
@@ -67,6 +86,17 @@ public abstract class AbstractTransportConsumer extends BaleenConsumer {
   @ConfigurationParameter(name = PARAM_WHITELIST, mandatory = false)
   private List<String> whitelist = null;
 
+  /**
+   * The codec used to serialise the JCas, as the class name of a {@link JCasCodec}. The package may
+   * be omitted for the codecs provided with Baleen, for example JsonJCasCodec or BinaryJCasCodec.
+   *
+   * @baleen.config JsonJCasCodec
+   */
+  public static final String PARAM_CODEC = "codec";
+
+  @ConfigurationParameter(name = PARAM_CODEC, defaultValue = JCasCodecBuilder.DEFAULT_CODEC)
+  private String codecName;
+
   /**
    * The optional capacity of the blocking queue. This can be set larger if working with small
    * documents.
@@ -78,31 +108,125 @@ public abstract class AbstractTransportConsumer extends BaleenConsumer {
   @ConfigurationParameter(name = QUEUE_CAPACITY, mandatory = false)
   private String capacity;
 
-  private JsonJCasConverter converter;
+  /**
+   * The maximum number of documents to send in a single message. Values above 1 send documents in
+   * batches, which must be received by a transport collection reader.
+   *
+   * @baleen.config 1
+   */
+  public static final String PARAM_BATCH_DOCUMENTS = "batchDocuments";
+
+  @ConfigurationParameter(name = PARAM_BATCH_DOCUMENTS, defaultValue = "1")
+  private int batchDocuments;
+
+  /**
+   * The maximum number of (uncompressed) bytes to hold in a batch before it is sent.
+   *
+   * @baleen.config 1048576
+   */
+  public static final String PARAM_BATCH_BYTES = "batchBytes";
+
+  @ConfigurationParameter(name = PARAM_BATCH_BYTES, defaultValue = "1048576")
+  private int batchBytes;
+
+  /**
+   * The maximum time, in milliseconds, a document is held in a partial batch before it is sent.
+   *
+   * @baleen.config 1000
+   */
+  public static final String PARAM_BATCH_LATENCY = "batchLatency";
+
+  @ConfigurationParameter(name = PARAM_BATCH_LATENCY, defaultValue = "1000")
+  private long batchLatency;
+
+  /**
+   * The compression to apply to each message, one of none, gzip, lz4 or zstd. Any compression other
+   * than none sends the documents in batches, even if only a single document is batched.
+   *
+   * @baleen.config none
+   */
+  public static final String PARAM_COMPRESSION = "compression";
+
+  @ConfigurationParameter(name = PARAM_COMPRESSION, defaultValue = "none")
+  private String compressionName;
+
+  private static final long MAX_BACKOFF = 10000;
+
+  private JCasCodec codec;
 
   private int queueCapacity;
 
+  private Compression compression;
+
+  private boolean batching;
+
+  private final Lock batchLock = new ReentrantLock();
+
+  private final List<byte[]> batch = new ArrayList<>();
+
+  private String batchId;
+
+  private int batchSize;
+
+  private long batchStarted;
+
+  private ScheduledExecutorService flusher;
+
+  private final Lock capacityLock = new ReentrantLock();
+
+  private final Condition capacityAvailable = capacityLock.newCondition();
+
   @Override
   public void doInitialize(final UimaContext aContext) throws ResourceInitializationException {
     super.doInitialize(aContext);
 
     queueCapacity = ConfigUtils.stringToInteger(capacity, getDefaultCapacity());
 
-    converter =
-        new JsonJCasConverterBuilder(getMonitor())
-            .withWhitelist(whitelist)
-            .withBlacklist(blacklist)
-            .build();
     try {
+      compression = Compression.valueOf(compressionName.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new ResourceInitializationException(
+          new InvalidParameterException("Unknown compression " + compressionName, e));
+    }
+    batching = batchDocuments > 1 || compression != Compression.NONE;
+
+    try {
+      codec =
+          new JCasCodecBuilder(getMonitor())
+              .withCodec(codecName)
+              .withWhitelist(whitelist)
+              .withBlacklist(blacklist)
+              .build();
 
       createQueue();
     } catch (final BaleenException e) {
       throw new ResourceInitializationException(e);
     }
+
+    if (batching && batchLatency > 0) {
+      flusher =
+          Executors.newSingleThreadScheduledExecutor(
+              r -> {
+                Thread t = new Thread(r, "transport-batch-" + topic);
+                t.setDaemon(true);
+                return t;
+              });
+      long period = Math.max(1, batchLatency / 4);
+      flusher.scheduleWithFixedDelay(this::flushIfExpired, period, period, TimeUnit.MILLISECONDS);
+    }
   }
 
   @Override
   protected void doDestroy() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+      flusher = null;
+    }
+    try {
+      flush();
+    } catch (IOException e) {
+      getMonitor().warn("Error sending final batch", e);
+    }
     try {
       closeQueue();
     } catch (IOException e) {
@@ -116,14 +240,30 @@ public abstract class AbstractTransportConsumer extends BaleenConsumer {
     return Integer.MAX_VALUE;
   }
 
+  /**
+   * Signal that the queue may have dropped below capacity, waking any writer waiting for capacity.
+   */
+  protected void signalCapacity() {
+    capacityLock.lock();
+    try {
+      capacityAvailable.signalAll();
+    } finally {
+      capacityLock.unlock();
+    }
+  }
+
   private void waitForQueueToBeBelowCapacity() {
-    int n = 0;
-    while (getQueueLength() > queueCapacity) {
-      try {
-        Thread.sleep((int) (Math.round(Math.pow(2, n++)) * 100));
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
+    long backoff = 100;
+    capacityLock.lock();
+    try {
+      while (getQueueLength() > queueCapacity) {
+        capacityAvailable.await(backoff, TimeUnit.MILLISECONDS);
+        backoff = Math.min(backoff * 2, MAX_BACKOFF);
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      capacityLock.unlock();
     }
   }
 
@@ -132,14 +272,65 @@ public abstract class AbstractTransportConsumer extends BaleenConsumer {
 
     try {
       final DocumentAnnotation documentAnnotation = getDocumentAnnotation(jCas);
-      final String serialized = converter.serialise(jCas);
-      waitForQueueToBeBelowCapacity();
-      writeToQueue(documentAnnotation.getHash(), serialized);
+      final byte[] serialized = codec.serialise(jCas);
+      if (batching) {
+        addToBatch(documentAnnotation.getHash(), serialized);
+      } else {
+        waitForQueueToBeBelowCapacity();
+        writeToQueue(documentAnnotation.getHash(), serialized);
+      }
     } catch (final IOException e) {
       throw new AnalysisEngineProcessException(e);
     }
   }
 
+  private void addToBatch(final String id, final byte[] serialized) throws IOException {
+    batchLock.lock();
+    try {
+      if (batch.isEmpty()) {
+        batchId = id;
+        batchStarted = System.currentTimeMillis();
+      }
+      batch.add(serialized);
+      batchSize += serialized.length;
+      if (batch.size() >= batchDocuments || batchSize >= batchBytes) {
+        flush();
+      }
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
+  private void flushIfExpired() {
+    batchLock.lock();
+    try {
+      if (!batch.isEmpty() && System.currentTimeMillis() - batchStarted >= batchLatency) {
+        flush();
+      }
+    } catch (IOException e) {
+      getMonitor().warn("Error sending batch", e);
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
+  private void flush() throws IOException {
+    batchLock.lock();
+    try {
+      if (batch.isEmpty()) {
+        return;
+      }
+      final byte[] message = MessageBatch.pack(batch, compression);
+      final String id = batchId;
+      batch.clear();
+      batchSize = 0;
+      waitForQueueToBeBelowCapacity();
+      writeToQueue(id, message);
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
   /**
    * Create the Queue for the transport of the data
    *
@@ -161,7 +352,7 @@ public abstract class AbstractTransportConsumer extends BaleenConsumer {
    * @param data to write
    * @throws IOException if writing fails
    */
-  protected abstract void writeToQueue(String id, String data) throws IOException;
+  protected abstract void writeToQueue(String id, byte[] data) throws IOException;
 
   /**
    * Get the current length of the queue. This is used, with the capacity to determine if we should
@@ -0,0 +1,127 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.CasCopier;
+
+import uk.gov.dstl.baleen.resources.SharedMemoryQueueResource;
+import uk.gov.dstl.baleen.types.BaleenAnnotation;
+import uk.gov.dstl.baleen.uima.utils.TypeSystemSingleton;
+import uk.gov.dstl.baleen.uima.utils.TypeUtils;
+
+/**
+ * Shared logic for the {@link MemoryCasTransportSender} and {@link MemoryCasTransportReceiver}.
+ *
+ * <p>The sender copies each document into a JCas taken from a pool, and puts that JCas on the
+ * queue. The receiver copies it into its own JCas, then resets it and returns it to the pool. The
+ * copies are made heap to heap with a {@link CasCopier}, so no serialisation takes place.
+ */
+final class CasHandover {
+
+  private static final String POOL_SUFFIX = ".pool";
+
+  private final BlockingDeque<JCas> pool;
+
+  private final Collection<Class<? extends BaleenAnnotation>> whitelist;
+
+  private final Collection<Class<? extends BaleenAnnotation>> blacklist;
+
+  /**
+   * Create a handover for the topic
+   *
+   * @param resource the shared memory resource holding the queues
+   * @param topic the topic
+   * @param whitelist the type names to keep (optionally including package), may be null
+   * @param blacklist the type names to remove (optionally including package), may be null
+   * @throws UIMAException if the type names can not be resolved
+   */
+  CasHandover(
+      SharedMemoryQueueResource resource,
+      String topic,
+      List<String> whitelist,
+      List<String> blacklist)
+      throws UIMAException {
+    this.pool = resource.getQueue(topic + POOL_SUFFIX);
+    TypeSystem typeSystem = TypeSystemSingleton.getTypeSystemInstance();
+    this.whitelist = toClasses(whitelist, typeSystem);
+    this.blacklist = toClasses(blacklist, typeSystem);
+  }
+
+  /**
+   * Take an empty JCas from the pool, creating a new one if the pool is empty
+   *
+   * @return an empty JCas
+   * @throws UIMAException if a new JCas can not be created
+   */
+  JCas borrow() throws UIMAException {
+    JCas jCas = pool.poll();
+    if (jCas == null) {
+      jCas = JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance());
+    }
+    return jCas;
+  }
+
+  /**
+   * Reset the JCas and return it to the pool. If the pool is full the JCas is discarded.
+   *
+   * @param jCas the JCas to return
+   */
+  void release(JCas jCas) {
+    jCas.reset();
+    pool.offer(jCas);
+  }
+
+  /**
+   * Copy all views of the source into the (empty) target, then remove any annotations excluded by
+   * the white or black list.
+   *
+   * @param source the JCas to copy from
+   * @param target the JCas to copy to
+   */
+  void copy(JCas source, JCas target) {
+    CasCopier.copyCas(source.getCas(), target.getCas(), true);
+
+    if (whitelist.isEmpty() && blacklist.isEmpty()) {
+      return;
+    }
+
+    List<BaleenAnnotation> excluded = new ArrayList<>();
+    for (BaleenAnnotation annotation : JCasUtil.select(target, BaleenAnnotation.class)) {
+      if (!isIncluded(annotation)) {
+        excluded.add(annotation);
+      }
+    }
+    excluded.forEach(BaleenAnnotation::removeFromIndexes);
+  }
+
+  private boolean isIncluded(BaleenAnnotation annotation) {
+    if (!whitelist.isEmpty() && whitelist.stream().noneMatch(c -> c.isInstance(annotation))) {
+      return false;
+    }
+    return blacklist.stream().noneMatch(c -> c.isInstance(annotation));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<Class<? extends BaleenAnnotation>> toClasses(
+      List<String> types, TypeSystem typeSystem) {
+    if (types == null || types.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Class<? extends BaleenAnnotation>> classes = new ArrayList<>(types.size());
+    for (String type : types) {
+      classes.add(
+          (Class<? extends BaleenAnnotation>) (Class<?>) TypeUtils.getType(type, typeSystem));
+    }
+    return classes;
+  }
+}
@@ -0,0 +1,98 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.memory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.UimaContext;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.descriptor.ExternalResource;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import uk.gov.dstl.baleen.resources.SharedMemoryQueueResource;
+import uk.gov.dstl.baleen.transports.components.AbstractTransportCollectionReader;
+import uk.gov.dstl.baleen.uima.BaleenCollectionReader;
+
+/**
+ * This class receives the JCas, without serialisation, from a {@link MemoryCasTransportSender} in
+ * another pipeline running in the same Baleen instance.
+ *
+ * @baleen.javadoc
+ */
+public class MemoryCasTransportReceiver extends BaleenCollectionReader {
+
+  /**
+   * The topic for transport use
+   *
+   * @baleen.config transport
+   */
+  public static final String PARAM_TOPIC = "topic";
+
+  @ConfigurationParameter(
+    name = PARAM_TOPIC,
+    defaultValue = AbstractTransportCollectionReader.PARAM_TOPIC_DEFAULT
+  )
+  private String topic;
+
+  /**
+   * A list of types to blacklist (optionally including package)
+   *
+   * @baleen.config
+   */
+  public static final String PARAM_BLACKLIST = "blacklist";
+
+  @ConfigurationParameter(name = PARAM_BLACKLIST, mandatory = false)
+  private List<String> blacklist = null;
+
+  /**
+   * A list of types to whitelist (optionally including package)
+   *
+   * @baleen.config
+   */
+  public static final String PARAM_WHITELIST = "whitelist";
+
+  @ConfigurationParameter(name = PARAM_WHITELIST, mandatory = false)
+  private List<String> whitelist = null;
+
+  @ExternalResource(key = SharedMemoryQueueResource.RESOURCE_KEY)
+  private SharedMemoryQueueResource mqResource;
+
+  private CasHandover handover;
+
+  private Supplier<JCas> supplier;
+
+  @Override
+  protected void doInitialize(final UimaContext context) throws ResourceInitializationException {
+    try {
+      handover = new CasHandover(mqResource, topic, whitelist, blacklist);
+    } catch (UIMAException e) {
+      throw new ResourceInitializationException(e);
+    }
+    supplier = mqResource.createBlockingSupplier(topic);
+  }
+
+  @Override
+  public boolean doHasNext() throws IOException, CollectionException {
+    // Always assume that more is coming
+    return true;
+  }
+
+  @Override
+  protected void doGetNext(final JCas jCas) throws IOException, CollectionException {
+    final JCas received = supplier.get();
+    try {
+      handover.copy(received, jCas);
+    } finally {
+      handover.release(received);
+    }
+  }
+
+  @Override
+  protected void doClose() throws IOException {
+    supplier = null;
+  }
+}
@@ -23,7 +23,7 @@ public class MemoryTransportReceiver extends AbstractTransportCollectionReader {
   @ExternalResource(key = SharedMemoryQueueResource.RESOURCE_KEY)
   private SharedMemoryQueueResource mqResource;
 
-  private Supplier<String> supplier;
+  private Supplier<byte[]> supplier;
 
   @Override
   protected void createQueue() throws BaleenException {
@@ -36,7 +36,7 @@ public class MemoryTransportReceiver extends AbstractTransportCollectionReader {
   }
 
   @Override
-  protected String readFromQueue() throws IOException {
+  protected byte[] readFromQueue() throws IOException {
     return supplier.get();
   }
 }
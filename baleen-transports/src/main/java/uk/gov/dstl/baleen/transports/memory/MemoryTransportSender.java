@@ -23,7 +23,7 @@ public class MemoryTransportSender extends AbstractTransportConsumer {
   @ExternalResource(key = SharedMemoryQueueResource.RESOURCE_KEY)
   private SharedMemoryQueueResource mqResource;
 
-  private Consumer<String> consumer;
+  private Consumer<byte[]> consumer;
 
   @Override
   protected void createQueue() throws BaleenException {
@@ -38,7 +38,7 @@ public class MemoryTransportSender extends AbstractTransportConsumer {
   }
 
   @Override
-  protected void writeToQueue(final String id, final String jCas) throws IOException {
+  protected void writeToQueue(final String id, final byte[] jCas) throws IOException {
     consumer.accept(jCas);
   }
 
@@ -0,0 +1,789 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.BooleanArray;
+import org.apache.uima.jcas.cas.ByteArray;
+import org.apache.uima.jcas.cas.DoubleArray;
+import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.cas.FloatArray;
+import org.apache.uima.jcas.cas.IntegerArray;
+import org.apache.uima.jcas.cas.LongArray;
+import org.apache.uima.jcas.cas.ShortArray;
+import org.apache.uima.jcas.cas.StringArray;
+import org.apache.uima.jcas.tcas.DocumentAnnotation;
+
+import uk.gov.dstl.baleen.types.BaleenAnnotation;
+import uk.gov.dstl.baleen.uima.UimaMonitor;
+import uk.gov.dstl.baleen.uima.UimaSupport;
+import uk.gov.dstl.baleen.uima.utils.FeatureMetadata;
+import uk.gov.dstl.baleen.uima.utils.RangeKind;
+import uk.gov.dstl.baleen.uima.utils.TypeSystemMetadata;
+import uk.gov.dstl.baleen.uima.utils.UimaTypesUtils;
+
+/**
+ * A {@link JCasCodec} which writes the JCas in a compact binary form, directly from the feature
+ * structures and without building an intermediate JSON map.
+ *
+ * <p>The same content is sent as by {@link JsonJCasCodec}: the document text, language and document
+ * annotation, and every (filtered) {@link BaleenAnnotation} with its primitive features and its
+ * references to other annotations. The first time each type appears in a document its name and
+ * feature names are written, and its annotations then refer to it by number. Features are matched
+ * by name when reading, so features missing from the receiver's type system are skipped.
+ */
+public class BinaryJCasCodec implements JCasCodec {
+
+  private static final int MAGIC = 0x424a4331;
+
+  private final UimaMonitor monitor;
+  private final Collection<Class<? extends BaleenAnnotation>> whiteList;
+  private final Collection<Class<? extends BaleenAnnotation>> blackList;
+
+  // Derived from the type system, so discarded if the type system changes
+  private TypeSystem typeSystem;
+  private final Map<Type, FeatureMetadata[]> typeFeatures = new IdentityHashMap<>();
+  private final Map<Class<?>, Boolean> included = new HashMap<>();
+
+  /**
+   * Construct a BinaryJCasCodec using the given {@link UimaMonitor} and, optional, white and black
+   * lists to filter by.
+   *
+   * <p>NB: a null or empty filter list implies no filtering.
+   *
+   * @param monitor the {@link UimaMonitor} to use
+   * @param whiteList given annotation classes (optional)
+   * @param blackList given annotation classes (optional)
+   */
+  public BinaryJCasCodec(
+      final UimaMonitor monitor,
+      final Collection<Class<? extends BaleenAnnotation>> whiteList,
+      final Collection<Class<? extends BaleenAnnotation>> blackList) {
+    this.monitor = monitor;
+    this.whiteList = whiteList;
+    this.blackList = blackList;
+  }
+
+  @Override
+  public byte[] serialise(final JCas jCas) throws IOException {
+    useTypeSystem(jCas.getTypeSystem());
+
+    final String text = jCas.getDocumentText();
+    final ByteArrayOutputStream bytes =
+        new ByteArrayOutputStream(text == null ? 256 : 256 + text.length() * 2);
+    final DataOutputStream out = new DataOutputStream(bytes);
+
+    out.writeInt(MAGIC);
+    writeString(out, text);
+    writeString(out, jCas.getDocumentLanguage());
+
+    final DocumentAnnotation da = UimaSupport.getDocumentAnnotation(jCas);
+    writeString(out, da.getDocType());
+    writeString(out, da.getLanguage());
+    writeString(out, da.getSourceUri());
+    writeString(out, da.getDocumentClassification());
+    writeVarLong(out, da.getTimestamp());
+    writeStrings(out, da.getDocumentCaveats() != null ? da.getDocumentCaveats().toArray() : null);
+    writeStrings(
+        out,
+        da.getDocumentReleasability() != null ? da.getDocumentReleasability().toArray() : null);
+
+    final List<BaleenAnnotation> annotations = new ArrayList<>();
+    for (final BaleenAnnotation a : JCasUtil.select(jCas, BaleenAnnotation.class)) {
+      if (isIncluded(a.getClass())) {
+        annotations.add(a);
+      }
+    }
+
+    writeVarLong(out, annotations.size());
+    final Map<Type, Integer> typeIds = new IdentityHashMap<>();
+    for (final BaleenAnnotation a : annotations) {
+      final Type type = a.getType();
+      final FeatureMetadata[] features = getFeatures(type);
+
+      Integer id = typeIds.get(type);
+      if (id == null) {
+        // First use of this type in the document, so define it
+        id = typeIds.size();
+        typeIds.put(type, id);
+        writeVarLong(out, id);
+        writeString(out, type.getName());
+        writeVarLong(out, features.length);
+        for (final FeatureMetadata f : features) {
+          writeString(out, f.getFeature().getShortName());
+          out.writeByte(f.getKind().ordinal());
+        }
+      } else {
+        writeVarLong(out, id);
+      }
+
+      for (final FeatureMetadata f : features) {
+        writeValue(out, a, f.getFeature(), f.getKind());
+      }
+    }
+
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public void deserialise(final JCas jCas, final byte[] data) throws IOException {
+    useTypeSystem(jCas.getTypeSystem());
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Data is not a binary serialised JCas");
+    }
+
+    final String text = readString(in);
+    jCas.setDocumentText(text != null ? text : "");
+    final String language = readString(in);
+    jCas.setDocumentLanguage(language != null ? language : "");
+
+    final DocumentAnnotation da = UimaSupport.getDocumentAnnotation(jCas);
+    da.setDocType(orEmpty(readString(in)));
+    da.setLanguage(orEmpty(readString(in)));
+    da.setSourceUri(orEmpty(readString(in)));
+    da.setDocumentClassification(orEmpty(readString(in)));
+    da.setTimestamp(readVarLong(in));
+    da.setDocumentCaveats(UimaTypesUtils.toArray(jCas, asList(readStrings(in))));
+    da.setDocumentReleasability(UimaTypesUtils.toArray(jCas, asList(readStrings(in))));
+
+    final Type baleenAnnotation = jCas.getTypeSystem().getType(BaleenAnnotation.class.getName());
+    final List<ReceivedType> types = new ArrayList<>();
+    final Map<Long, BaleenAnnotation> byId = new HashMap<>();
+    final List<Reference> references = new ArrayList<>();
+
+    final long count = readVarLong(in);
+    for (long i = 0; i < count; i++) {
+      final int id = (int) readVarLong(in);
+      if (id == types.size()) {
+        types.add(readType(in, jCas.getTypeSystem(), baleenAnnotation));
+      } else if (id > types.size()) {
+        throw new IOException("Undefined type " + id);
+      }
+      final ReceivedType received = types.get(id);
+
+      BaleenAnnotation annotation = null;
+      if (received.type != null && !Boolean.FALSE.equals(received.included)) {
+        annotation = (BaleenAnnotation) jCas.getCas().createAnnotation(received.type, 0, 0);
+        if (received.included == null) {
+          received.included = isIncluded(annotation.getClass());
+          if (!received.included) {
+            annotation = null;
+          }
+        }
+      }
+
+      for (int f = 0; f < received.kinds.length; f++) {
+        readValue(in, annotation, received.features[f], received.kinds[f], references);
+      }
+
+      if (annotation != null) {
+        annotation.addToIndexes(jCas);
+        byId.put(annotation.getInternalId(), annotation);
+      }
+    }
+
+    for (final Reference r : references) {
+      r.rehydrate(jCas, byId);
+    }
+  }
+
+  private void useTypeSystem(final TypeSystem ts) {
+    if (typeSystem != ts) {
+      typeSystem = ts;
+      typeFeatures.clear();
+    }
+  }
+
+  private FeatureMetadata[] getFeatures(final Type type) {
+    return typeFeatures.computeIfAbsent(
+        type,
+        t ->
+            TypeSystemMetadata.forTypeSystem(typeSystem)
+                .getFeatures(t)
+                .stream()
+                .filter(f -> !CAS.FEATURE_FULL_NAME_SOFA.equals(f.getName()))
+                .toArray(FeatureMetadata[]::new));
+  }
+
+  private boolean isIncluded(final Class<?> clazz) {
+    return included.computeIfAbsent(
+        clazz,
+        c ->
+            (whiteList == null || whiteList.isEmpty() || isTypeInList(whiteList, c))
+                && (blackList == null || blackList.isEmpty() || !isTypeInList(blackList, c)));
+  }
+
+  private static boolean isTypeInList(
+      final Collection<Class<? extends BaleenAnnotation>> typeList, final Class<?> clazz) {
+    for (final Class<? extends BaleenAnnotation> c : typeList) {
+      if (c.isAssignableFrom(clazz)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private ReceivedType readType(
+      final DataInputStream in, final TypeSystem ts, final Type baleenAnnotation)
+      throws IOException {
+    final String name = readString(in);
+    final int size = (int) readVarLong(in);
+
+    Type type = ts.getType(name);
+    if (type == null || !ts.subsumes(baleenAnnotation, type)) {
+      monitor.warn("Unable to deserialise annotations of unknown type {}", name);
+      type = null;
+    }
+
+    final Feature[] features = new Feature[size];
+    final RangeKind[] kinds = new RangeKind[size];
+    for (int i = 0; i < size; i++) {
+      final String feature = readString(in);
+      final int kind = in.readUnsignedByte();
+      if (kind >= RangeKind.values().length) {
+        throw new IOException("Unknown kind of feature " + kind);
+      }
+      kinds[i] = RangeKind.values()[kind];
+
+      // Only use the feature if it's the same kind on this side
+      final Feature f = type != null ? type.getFeatureByBaseName(feature) : null;
+      if (f != null && RangeKind.of(f) == kinds[i]) {
+        features[i] = f;
+      } else if (type != null) {
+        monitor.trace("Skipping feature {} of type {}", feature, name);
+      }
+    }
+
+    return new ReceivedType(type, features, kinds);
+  }
+
+  private void writeValue(
+      final DataOutputStream out, final BaleenAnnotation a, final Feature f, final RangeKind kind)
+      throws IOException {
+    switch (kind) {
+      case BOOLEAN:
+        out.writeBoolean(a.getBooleanValue(f));
+        break;
+      case BYTE:
+        out.writeByte(a.getByteValue(f));
+        break;
+      case SHORT:
+        writeVarLong(out, a.getShortValue(f));
+        break;
+      case INT:
+        writeVarLong(out, a.getIntValue(f));
+        break;
+      case LONG:
+        writeVarLong(out, a.getLongValue(f));
+        break;
+      case FLOAT:
+        out.writeFloat(a.getFloatValue(f));
+        break;
+      case DOUBLE:
+        out.writeDouble(a.getDoubleValue(f));
+        break;
+      case STRING:
+        writeString(out, a.getStringValue(f));
+        break;
+      case BOOLEAN_ARRAY:
+        writePrimitiveArray(out, (BooleanArray) a.getFeatureValue(f));
+        break;
+      case BYTE_ARRAY:
+        writePrimitiveArray(out, (ByteArray) a.getFeatureValue(f));
+        break;
+      case SHORT_ARRAY:
+        writePrimitiveArray(out, (ShortArray) a.getFeatureValue(f));
+        break;
+      case INT_ARRAY:
+        writePrimitiveArray(out, (IntegerArray) a.getFeatureValue(f));
+        break;
+      case LONG_ARRAY:
+        writePrimitiveArray(out, (LongArray) a.getFeatureValue(f));
+        break;
+      case FLOAT_ARRAY:
+        writePrimitiveArray(out, (FloatArray) a.getFeatureValue(f));
+        break;
+      case DOUBLE_ARRAY:
+        writePrimitiveArray(out, (DoubleArray) a.getFeatureValue(f));
+        break;
+      case STRING_ARRAY:
+        final StringArray strings = (StringArray) a.getFeatureValue(f);
+        writeStrings(out, strings != null ? strings.toArray() : null);
+        break;
+      case REFERENCE:
+        final FeatureStructure fs = a.getFeatureValue(f);
+        if (fs instanceof BaleenAnnotation) {
+          out.writeBoolean(true);
+          writeVarLong(out, ((BaleenAnnotation) fs).getInternalId());
+        } else {
+          out.writeBoolean(false);
+        }
+        break;
+      case REFERENCE_ARRAY:
+      default:
+        writeReferences(out, (FSArray) a.getFeatureValue(f));
+        break;
+    }
+  }
+
+  private void readValue(
+      final DataInputStream in,
+      final BaleenAnnotation a,
+      final Feature target,
+      final RangeKind kind,
+      final List<Reference> references)
+      throws IOException {
+    // Values are always read, but only set if there is somewhere to set them
+    final Feature f = a != null ? target : null;
+    switch (kind) {
+      case BOOLEAN:
+        final boolean z = in.readBoolean();
+        if (f != null) {
+          a.setBooleanValue(f, z);
+        }
+        break;
+      case BYTE:
+        final byte b = in.readByte();
+        if (f != null) {
+          a.setByteValue(f, b);
+        }
+        break;
+      case SHORT:
+        final short s = (short) readVarLong(in);
+        if (f != null) {
+          a.setShortValue(f, s);
+        }
+        break;
+      case INT:
+        final int i = (int) readVarLong(in);
+        if (f != null) {
+          a.setIntValue(f, i);
+        }
+        break;
+      case LONG:
+        final long j = readVarLong(in);
+        if (f != null) {
+          a.setLongValue(f, j);
+        }
+        break;
+      case FLOAT:
+        final float x = in.readFloat();
+        if (f != null) {
+          a.setFloatValue(f, x);
+        }
+        break;
+      case DOUBLE:
+        final double d = in.readDouble();
+        if (f != null) {
+          a.setDoubleValue(f, d);
+        }
+        break;
+      case STRING:
+        final String string = readString(in);
+        if (f != null && string != null) {
+          setString(a, f, string);
+        }
+        break;
+      case STRING_ARRAY:
+        final String[] strings = readStrings(in);
+        if (f != null && strings != null) {
+          final StringArray array = new StringArray(getJCas(a), strings.length);
+          array.copyFromArray(strings, 0, 0, strings.length);
+          a.setFeatureValue(f, array);
+        }
+        break;
+      case REFERENCE:
+        if (in.readBoolean()) {
+          final long id = readVarLong(in);
+          if (f != null) {
+            references.add(new Reference(a, f, new long[] {id}));
+          }
+        }
+        break;
+      case REFERENCE_ARRAY:
+        final long[] ids = readLongs(in);
+        if (f != null && ids != null) {
+          references.add(new Reference(a, f, ids));
+        }
+        break;
+      default:
+        readPrimitiveArray(in, a, f, kind);
+        break;
+    }
+  }
+
+  private void setString(final BaleenAnnotation a, final Feature f, final String value) {
+    try {
+      a.setStringValue(f, value);
+    } catch (final Exception e) {
+      // For example, not one of the allowed values of a string subtype
+      monitor.warn("Couldn't set {} to {}", f.getName(), value, e);
+    }
+  }
+
+  private static void writePrimitiveArray(final DataOutputStream out, final BooleanArray array)
+      throws IOException {
+    if (writeLength(out, array == null ? -1 : array.size())) {
+      for (int i = 0; i < array.size(); i++) {
+        out.writeBoolean(array.get(i));
+      }
+    }
+  }
+
+  private static void writePrimitiveArray(final DataOutputStream out, final ByteArray array)
+      throws IOException {
+    if (writeLength(out, array == null ? -1 : array.size())) {
+      out.write(array.toArray());
+    }
+  }
+
+  private static void writePrimitiveArray(final DataOutputStream out, final ShortArray array)
+      throws IOException {
+    if (writeLength(out, array == null ? -1 : array.size())) {
+      for (int i = 0; i < array.size(); i++) {
+        writeVarLong(out, array.get(i));
+      }
+    }
+  }
+
+  private static void writePrimitiveArray(final DataOutputStream out, final IntegerArray array)
+      throws IOException {
+    if (writeLength(out, array == null ? -1 : array.size())) {
+      for (int i = 0; i < array.size(); i++) {
+        writeVarLong(out, array.get(i));
+      }
+    }
+  }
+
+  private static void writePrimitiveArray(final DataOutputStream out, final LongArray array)
+      throws IOException {
+    if (writeLength(out, array == null ? -1 : array.size())) {
+      for (int i = 0; i < array.size(); i++) {
+        writeVarLong(out, array.get(i));
+      }
+    }
+  }
+
+  private static void writePrimitiveArray(final DataOutputStream out, final FloatArray array)
+      throws IOException {
+    if (writeLength(out, array == null ? -1 : array.size())) {
+      for (int i = 0; i < array.size(); i++) {
+        out.writeFloat(array.get(i));
+      }
+    }
+  }
+
+  private static void writePrimitiveArray(final DataOutputStream out, final DoubleArray array)
+      throws IOException {
+    if (writeLength(out, array == null ? -1 : array.size())) {
+      for (int i = 0; i < array.size(); i++) {
+        out.writeDouble(array.get(i));
+      }
+    }
+  }
+
+  private static void readPrimitiveArray(
+      final DataInputStream in, final BaleenAnnotation a, final Feature f, final RangeKind kind)
+      throws IOException {
+    final int size = readLength(in);
+    if (size < 0) {
+      return;
+    }
+
+    final JCas jCas = f != null ? getJCas(a) : null;
+    FeatureStructure array = null;
+    switch (kind) {
+      case BOOLEAN_ARRAY:
+        final boolean[] booleans = new boolean[size];
+        for (int i = 0; i < size; i++) {
+          booleans[i] = in.readBoolean();
+        }
+        if (jCas != null) {
+          final BooleanArray ba = new BooleanArray(jCas, size);
+          ba.copyFromArray(booleans, 0, 0, size);
+          array = ba;
+        }
+        break;
+      case BYTE_ARRAY:
+        final byte[] bytes = new byte[size];
+        in.readFully(bytes);
+        if (jCas != null) {
+          final ByteArray ba = new ByteArray(jCas, size);
+          ba.copyFromArray(bytes, 0, 0, size);
+          array = ba;
+        }
+        break;
+      case SHORT_ARRAY:
+        final short[] shorts = new short[size];
+        for (int i = 0; i < size; i++) {
+          shorts[i] = (short) readVarLong(in);
+        }
+        if (jCas != null) {
+          final ShortArray sa = new ShortArray(jCas, size);
+          sa.copyFromArray(shorts, 0, 0, size);
+          array = sa;
+        }
+        break;
+      case INT_ARRAY:
+        final int[] ints = new int[size];
+        for (int i = 0; i < size; i++) {
+          ints[i] = (int) readVarLong(in);
+        }
+        if (jCas != null) {
+          final IntegerArray ia = new IntegerArray(jCas, size);
+          ia.copyFromArray(ints, 0, 0, size);
+          array = ia;
+        }
+        break;
+      case LONG_ARRAY:
+        final long[] longs = new long[size];
+        for (int i = 0; i < size; i++) {
+          longs[i] = readVarLong(in);
+        }
+        if (jCas != null) {
+          final LongArray la = new LongArray(jCas, size);
+          la.copyFromArray(longs, 0, 0, size);
+          array = la;
+        }
+        break;
+      case FLOAT_ARRAY:
+        final float[] floats = new float[size];
+        for (int i = 0; i < size; i++) {
+          floats[i] = in.readFloat();
+        }
+        if (jCas != null) {
+          final FloatArray fa = new FloatArray(jCas, size);
+          fa.copyFromArray(floats, 0, 0, size);
+          array = fa;
+        }
+        break;
+      case DOUBLE_ARRAY:
+        final double[] doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+          doubles[i] = in.readDouble();
+        }
+        if (jCas != null) {
+          final DoubleArray da = new DoubleArray(jCas, size);
+          da.copyFromArray(doubles, 0, 0, size);
+          array = da;
+        }
+        break;
+      default:
+        throw new IOException("Unexpected kind of feature " + kind);
+    }
+
+    if (array != null) {
+      a.setFeatureValue(f, array);
+    }
+  }
+
+  private static void writeReferences(final DataOutputStream out, final FSArray array)
+      throws IOException {
+    if (array == null) {
+      writeLength(out, -1);
+      return;
+    }
+
+    final List<BaleenAnnotation> annotations = new ArrayList<>(array.size());
+    for (int i = 0; i < array.size(); i++) {
+      final FeatureStructure fs = array.get(i);
+      if (fs instanceof BaleenAnnotation) {
+        annotations.add((BaleenAnnotation) fs);
+      }
+    }
+
+    writeLength(out, annotations.size());
+    for (final BaleenAnnotation a : annotations) {
+      writeVarLong(out, a.getInternalId());
+    }
+  }
+
+  private static long[] readLongs(final DataInputStream in) throws IOException {
+    final int size = readLength(in);
+    if (size < 0) {
+      return null;
+    }
+    final long[] longs = new long[size];
+    for (int i = 0; i < size; i++) {
+      longs[i] = readVarLong(in);
+    }
+    return longs;
+  }
+
+  private static void writeStrings(final DataOutputStream out, final String[] strings)
+      throws IOException {
+    if (writeLength(out, strings == null ? -1 : strings.length)) {
+      for (final String s : strings) {
+        writeString(out, s);
+      }
+    }
+  }
+
+  private static String[] readStrings(final DataInputStream in) throws IOException {
+    final int size = readLength(in);
+    if (size < 0) {
+      return null;
+    }
+    final String[] strings = new String[size];
+    for (int i = 0; i < size; i++) {
+      strings[i] = readString(in);
+    }
+    return strings;
+  }
+
+  private static void writeString(final DataOutputStream out, final String s) throws IOException {
+    if (s == null) {
+      writeLength(out, -1);
+    } else {
+      final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeLength(out, bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(final DataInputStream in) throws IOException {
+    final int size = readLength(in);
+    if (size < 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[size];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Write a length, where -1 represents null, returning true if not null */
+  private static boolean writeLength(final DataOutputStream out, final int length)
+      throws IOException {
+    writeUnsignedVarLong(out, length + 1L);
+    return length >= 0;
+  }
+
+  private static int readLength(final DataInputStream in) throws IOException {
+    return (int) (readUnsignedVarLong(in) - 1);
+  }
+
+  /** Write a signed value as a zig-zag variable length integer */
+  private static void writeVarLong(final DataOutputStream out, final long value)
+      throws IOException {
+    writeUnsignedVarLong(out, (value << 1) ^ (value >> 63));
+  }
+
+  private static long readVarLong(final DataInputStream in) throws IOException {
+    final long raw = readUnsignedVarLong(in);
+    return (raw >>> 1) ^ -(raw & 1);
+  }
+
+  private static void writeUnsignedVarLong(final DataOutputStream out, final long value)
+      throws IOException {
+    long v = value;
+    while ((v & ~0x7FL) != 0) {
+      out.writeByte((int) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.writeByte((int) v);
+  }
+
+  private static long readUnsignedVarLong(final DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length integer");
+  }
+
+  private static String orEmpty(final String s) {
+    return s != null ? s : "";
+  }
+
+  private static List<String> asList(final String[] strings) {
+    if (strings == null) {
+      return null;
+    }
+    final List<String> list = new ArrayList<>(strings.length);
+    for (final String s : strings) {
+      list.add(s);
+    }
+    return list;
+  }
+
+  private static JCas getJCas(final BaleenAnnotation a) throws IOException {
+    try {
+      return a.getCAS().getJCas();
+    } catch (final CASException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /** A type as defined in the received data, with the matching features on this side */
+  private static class ReceivedType {
+    private final Type type;
+    private final Feature[] features;
+    private final RangeKind[] kinds;
+    private Boolean included;
+
+    ReceivedType(final Type type, final Feature[] features, final RangeKind[] kinds) {
+      this.type = type;
+      this.features = features;
+      this.kinds = kinds;
+    }
+  }
+
+  /** A feature holding references to other annotations, set once all annotations are read */
+  private static class Reference {
+    private final BaleenAnnotation annotation;
+    private final Feature feature;
+    private final long[] ids;
+
+    Reference(final BaleenAnnotation annotation, final Feature feature, final long[] ids) {
+      this.annotation = annotation;
+      this.feature = feature;
+      this.ids = ids;
+    }
+
+    void rehydrate(final JCas jCas, final Map<Long, BaleenAnnotation> annotations) {
+      if (feature.getRange().isArray()) {
+        final List<BaleenAnnotation> referenced = new ArrayList<>(ids.length);
+        for (final long id : ids) {
+          final BaleenAnnotation a = annotations.get(id);
+          if (a != null) {
+            referenced.add(a);
+          }
+        }
+        if (!referenced.isEmpty()) {
+          annotation.setFeatureValue(feature, UimaTypesUtils.toFSArray(jCas, referenced));
+        }
+      } else {
+        final BaleenAnnotation a = annotations.get(ids[0]);
+        if (a != null) {
+          annotation.setFeatureValue(feature, a);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * The compression applied to a {@link MessageBatch}.
+ *
+ * <p>LZ4 is the cheapest in CPU and a good default for fast networks, ZSTD gives a better ratio for
+ * a little more CPU and GZIP is provided for environments where the native libraries can not be
+ * loaded.
+ */
+public enum Compression {
+  /** No compression */
+  NONE {
+    @Override
+    public byte[] compress(byte[] data) {
+      return data;
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int length) {
+      return data;
+    }
+  },
+
+  /** GZIP compression, using the JDK */
+  GZIP {
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+        gzip.write(data);
+      }
+      return out.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int length) throws IOException {
+      byte[] result = new byte[length];
+      try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+        int read = 0;
+        while (read < length) {
+          int n = gzip.read(result, read, length - read);
+          if (n < 0) {
+            throw new IOException("Unexpected end of compressed data");
+          }
+          read += n;
+        }
+      }
+      return result;
+    }
+  },
+
+  /** LZ4 compression */
+  LZ4 {
+    @Override
+    public byte[] compress(byte[] data) {
+      return LZ4Factory.fastestInstance().fastCompressor().compress(data);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int length) throws IOException {
+      try {
+        return LZ4Factory.fastestInstance().fastDecompressor().decompress(data, length);
+      } catch (LZ4Exception e) {
+        throw new IOException("Unable to decompress LZ4 data", e);
+      }
+    }
+  },
+
+  /** Zstandard compression */
+  ZSTD {
+    @Override
+    public byte[] compress(byte[] data) {
+      return Zstd.compress(data);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int length) throws IOException {
+      try {
+        return Zstd.decompress(data, length);
+      } catch (RuntimeException e) {
+        throw new IOException("Unable to decompress zstd data", e);
+      }
+    }
+  };
+
+  /**
+   * Compress the data
+   *
+   * @param data the data to compress
+   * @return the compressed data
+   * @throws IOException if the data can not be compressed
+   */
+  public abstract byte[] compress(byte[] data) throws IOException;
+
+  /**
+   * Decompress the data
+   *
+   * @param data the compressed data
+   * @param length the length of the uncompressed data
+   * @return the uncompressed data
+   * @throws IOException if the data can not be decompressed
+   */
+  public abstract byte[] decompress(byte[] data, int length) throws IOException;
+}
@@ -0,0 +1,35 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import java.io.IOException;
+
+import org.apache.uima.jcas.JCas;
+
+/**
+ * A codec which converts a JCas to and from the bytes sent over a transport.
+ *
+ * <p>Implementations must have a public constructor taking a {@link
+ * uk.gov.dstl.baleen.uima.UimaMonitor} and the white and black lists of annotation classes (as
+ * {@link JsonJCasCodec} does), so that they can be created by {@link JCasCodecBuilder}. The sender
+ * and receiver of a transport must use the same codec.
+ */
+public interface JCasCodec {
+
+  /**
+   * Serialise the JCas
+   *
+   * @param jCas to serialise
+   * @return the serialised bytes
+   * @throws IOException if the serialisation cannot be performed
+   */
+  byte[] serialise(JCas jCas) throws IOException;
+
+  /**
+   * Deserialise the given bytes by populating the given JCas.
+   *
+   * @param jCas to populate
+   * @param data to deserialise
+   * @throws IOException if there is an error while deserialising
+   */
+  void deserialise(JCas jCas, byte[] data) throws IOException;
+}
@@ -0,0 +1,119 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import uk.gov.dstl.baleen.core.utils.BuilderUtils;
+import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.exceptions.InvalidParameterException;
+import uk.gov.dstl.baleen.types.BaleenAnnotation;
+import uk.gov.dstl.baleen.uima.UimaMonitor;
+import uk.gov.dstl.baleen.uima.utils.TypeSystemSingleton;
+import uk.gov.dstl.baleen.uima.utils.TypeUtils;
+
+/**
+ * A builder for creating a {@link JCasCodec}. The codec is given by its class name, which may omit
+ * the package if it is in this package. Optional whitelist and blacklist can be added using the
+ * string names of the types, optionally including the package.
+ */
+public class JCasCodecBuilder {
+
+  /** The default codec, which sends JSON */
+  public static final String DEFAULT_CODEC = "JsonJCasCodec";
+
+  private static final String DEFAULT_PACKAGE = JCasCodecBuilder.class.getPackage().getName();
+
+  private final TypeSystem typeSystem;
+  private final UimaMonitor monitor;
+  private String codec = DEFAULT_CODEC;
+  private Collection<String> whitelist = Collections.emptyList();
+  private Collection<String> blacklist = Collections.emptyList();
+
+  /**
+   * Construct the builder with the mandatory arguments
+   *
+   * @param monitor the {@link UimaMonitor}
+   * @throws ResourceInitializationException if unable to initialise
+   */
+  public JCasCodecBuilder(UimaMonitor monitor) throws ResourceInitializationException {
+    typeSystem = TypeSystemSingleton.getTypeSystemInstance();
+    this.monitor = monitor;
+  }
+
+  /**
+   * Set the codec
+   *
+   * @param codec the class name of the codec (optionally including the package)
+   * @return this
+   */
+  public JCasCodecBuilder withCodec(String codec) {
+    if (codec != null && !codec.isEmpty()) {
+      this.codec = codec;
+    }
+    return this;
+  }
+
+  /**
+   * Add a whitelist
+   *
+   * @param whitelist collection of types names (optionally including the package) to whitelist
+   * @return this
+   */
+  public JCasCodecBuilder withWhitelist(Collection<String> whitelist) {
+    if (whitelist != null) {
+      this.whitelist = whitelist;
+    }
+    return this;
+  }
+
+  /**
+   * Add a blacklist
+   *
+   * @param blacklist collection of types names (optionally including the package) to blacklist
+   * @return this
+   */
+  public JCasCodecBuilder withBlacklist(Collection<String> blacklist) {
+    if (blacklist != null) {
+      this.blacklist = blacklist;
+    }
+    return this;
+  }
+
+  /**
+   * Build the {@link JCasCodec}
+   *
+   * @return the {@link JCasCodec}
+   * @throws BaleenException if the codec can't be found or created
+   */
+  public JCasCodec build() throws BaleenException {
+    Collection<Class<? extends BaleenAnnotation>> white = createList(whitelist);
+    Collection<Class<? extends BaleenAnnotation>> black = createList(blacklist);
+
+    Class<? extends JCasCodec> clazz = BuilderUtils.getClassFromString(codec, DEFAULT_PACKAGE);
+    if (!JCasCodec.class.isAssignableFrom(clazz)) {
+      throw new InvalidParameterException(codec + " is not a JCasCodec");
+    }
+
+    try {
+      return clazz
+          .getConstructor(UimaMonitor.class, Collection.class, Collection.class)
+          .newInstance(monitor, white, black);
+    } catch (ReflectiveOperationException e) {
+      throw new InvalidParameterException("Unable to create codec " + codec, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Collection<Class<? extends BaleenAnnotation>> createList(Collection<String> types) {
+    Collection<Class<? extends BaleenAnnotation>> list = new ArrayList<>();
+    for (String type : types) {
+      list.add((Class<? extends BaleenAnnotation>) (Class<?>) TypeUtils.getType(type, typeSystem));
+    }
+    return list;
+  }
+}
@@ -2,12 +2,17 @@
 package uk.gov.dstl.baleen.transports.serialisation;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -20,6 +25,8 @@ import org.apache.uima.jcas.tcas.DocumentAnnotation;
 import uk.gov.dstl.baleen.types.BaleenAnnotation;
 import uk.gov.dstl.baleen.uima.UimaMonitor;
 import uk.gov.dstl.baleen.uima.UimaSupport;
+import uk.gov.dstl.baleen.uima.utils.FeatureMetadata;
+import uk.gov.dstl.baleen.uima.utils.TypeSystemMetadata;
 import uk.gov.dstl.baleen.uima.utils.UimaTypesUtils;
 
 /**
@@ -33,6 +40,7 @@ public class JCasDeserialiser {
   private final UimaMonitor monitor;
   private final Collection<Class<? extends BaleenAnnotation>> whiteList;
   private final Collection<Class<? extends BaleenAnnotation>> blackList;
+  private final Map<String, Optional<MethodHandle>> constructors = new ConcurrentHashMap<>();
 
   /**
    * Construct a JCasDeserialiser using the given {@link UimaSupport}, {@link UimaMonitor} and,
@@ -117,33 +125,19 @@ public class JCasDeserialiser {
       final String typeName = (String) a.get(JsonJCas.ANNOTATION_CLASS);
 
       try {
-        // If you want to use the actual type in the JSON you can use ANNOTATION_TYPE
-        // and then TypeUtils.getType(typeName, typeSystem) but it's very slow...
-        final Class<?> typeClazz = getClass().getClassLoader().loadClass(typeName);
-
-        if (typeClazz == null || !BaleenAnnotation.class.isAssignableFrom(typeClazz)) {
-          // Not a type we know.. can't deserialise
-          continue;
-        }
-
-        if (CollectionUtils.isNotEmpty(whiteList) && !isTypeInList(whiteList, typeClazz)) {
-          // Not in whiltelist, ignore
-          continue;
-        }
-
-        if (CollectionUtils.isNotEmpty(blackList) && isTypeInList(blackList, typeClazz)) {
-          // In blacklist, ignore
+        final Optional<MethodHandle> constructor =
+            constructors.computeIfAbsent(typeName, this::findConstructor);
+        if (!constructor.isPresent()) {
           continue;
         }
 
-        final BaleenAnnotation annotation =
-            (BaleenAnnotation) typeClazz.getConstructor(JCas.class).newInstance(jCas);
+        final BaleenAnnotation annotation = (BaleenAnnotation) constructor.get().invoke(jCas);
 
         populateFeaturesForAnnotation(jCas, annotation, a, featuresToDereference);
 
         annotation.addToIndexes(jCas);
 
-      } catch (final Exception e) {
+      } catch (final Throwable e) {
         getMonitor().warn("Unable to process annotations", e);
       }
     }
@@ -151,6 +145,43 @@ public class JCasDeserialiser {
     return featuresToDereference;
   }
 
+  /**
+   * Find the constructor for an annotation class, or empty if the annotations of the class should
+   * not be deserialised. The result is cached, as the same few classes are seen in every document.
+   */
+  private Optional<MethodHandle> findConstructor(final String typeName) {
+    try {
+      // If you want to use the actual type in the JSON you can use ANNOTATION_TYPE
+      // and then TypeUtils.getType(typeName, typeSystem)
+      final Class<?> typeClazz = getClass().getClassLoader().loadClass(typeName);
+
+      if (!BaleenAnnotation.class.isAssignableFrom(typeClazz)) {
+        // Not a type we know.. can't deserialise
+        return Optional.empty();
+      }
+
+      if (CollectionUtils.isNotEmpty(whiteList) && !isTypeInList(whiteList, typeClazz)) {
+        // Not in whiltelist, ignore
+        return Optional.empty();
+      }
+
+      if (CollectionUtils.isNotEmpty(blackList) && isTypeInList(blackList, typeClazz)) {
+        // In blacklist, ignore
+        return Optional.empty();
+      }
+
+      return Optional.of(
+          MethodHandles.publicLookup()
+              .findConstructor(typeClazz, MethodType.methodType(void.class, JCas.class)));
+    } catch (final ClassNotFoundException
+        | NoSuchMethodException
+        | IllegalAccessException
+        | RuntimeException e) {
+      getMonitor().warn("Unable to deserialise annotations of type {}", typeName, e);
+      return Optional.empty();
+    }
+  }
+
   private boolean isTypeInList(
       Collection<Class<? extends BaleenAnnotation>> typeList, Class<?> typeClazz) {
     for (final Class<? extends BaleenAnnotation> clazz : typeList) {
@@ -166,9 +197,11 @@ public class JCasDeserialiser {
       final BaleenAnnotation annotation,
       final Map<String, Object> map,
       final List<ReferencedFeatures> featuresToDereference) {
-    for (final Feature f : annotation.getType().getFeatures()) {
+    final TypeSystemMetadata metadata = TypeSystemMetadata.forJCas(jCas);
+    for (final FeatureMetadata fm : metadata.getFeatures(annotation.getType())) {
+      final Feature f = fm.getFeature();
       try {
-        populateFeature(jCas, map, annotation, f, featuresToDereference);
+        populateFeature(jCas, map, annotation, fm, featuresToDereference);
       } catch (final Exception e) {
         getMonitor()
             .warn(
@@ -184,17 +217,16 @@ public class JCasDeserialiser {
       final JCas jCas,
       final Map<String, Object> map,
       final BaleenAnnotation annotation,
-      final Feature f,
+      final FeatureMetadata fm,
       final List<ReferencedFeatures> featuresToDereference) {
 
-    final String name = JsonJCas.normalizeFeatureName(f);
+    final Feature f = fm.getFeature();
+    final String name = fm.getFieldName();
 
-    if (f.getRange().isPrimitive()) {
+    if (fm.getKind().isPrimitive()) {
       // Straight primitive...
       NewFeatureUtils.setPrimitive(annotation, f, map.get(name));
-    } else if (f.getRange().isArray()
-        && f.getRange().getComponentType() != null
-        && f.getRange().getComponentType().isPrimitive()) {
+    } else if (fm.getKind().isPrimitiveArray()) {
       NewFeatureUtils.setPrimitiveArray(jCas, annotation, f, map.get(name));
     } else {
       // Not a primitive or an array of primitives... looks if its references to other annotators
@@ -24,7 +24,9 @@ import com.google.common.collect.Maps;
 import uk.gov.dstl.baleen.types.BaleenAnnotation;
 import uk.gov.dstl.baleen.uima.UimaMonitor;
 import uk.gov.dstl.baleen.uima.UimaSupport;
+import uk.gov.dstl.baleen.uima.utils.FeatureMetadata;
 import uk.gov.dstl.baleen.uima.utils.FeatureUtils;
+import uk.gov.dstl.baleen.uima.utils.TypeSystemMetadata;
 
 /**
  * This class is responsible for serialisation of the JCas to a JSON Map.
@@ -185,13 +187,16 @@ public class JCasSerialiser {
   }
 
   private void convertFeatures(final Map<String, Object> map, final BaleenAnnotation base) {
-    for (final Feature f : base.getType().getFeatures()) {
+    final TypeSystemMetadata metadata =
+        TypeSystemMetadata.forTypeSystem(base.getCAS().getTypeSystem());
+    for (final FeatureMetadata fm : metadata.getFeatures(base.getType())) {
+      final Feature f = fm.getFeature();
       if (stopFeatures.contains(f.getName())) {
         continue;
       }
 
       try {
-        convertFeature(map, base, f);
+        convertFeature(map, base, fm);
       } catch (final Exception e) {
         getMonitor()
             .warn(
@@ -208,15 +213,14 @@ public class JCasSerialiser {
   }
 
   private void convertFeature(
-      final Map<String, Object> map, final BaleenAnnotation base, final Feature f) {
-    final String name = JsonJCas.normalizeFeatureName(f);
-    if (f.getRange().isPrimitive()) {
+      final Map<String, Object> map, final BaleenAnnotation base, final FeatureMetadata fm) {
+    final Feature f = fm.getFeature();
+    final String name = fm.getFieldName();
+    if (fm.getKind().isPrimitive()) {
       getMonitor().trace("Converting primitive feature to an object");
       map.put(name, FeatureUtils.featureToObject(f, base));
 
-    } else if (f.getRange().isArray()
-        && f.getRange().getComponentType() != null
-        && f.getRange().getComponentType().isPrimitive()) {
+    } else if (fm.getKind().isPrimitiveArray()) {
       getMonitor().trace("Converting primitive feature to an array");
       map.put(name, FeatureUtils.featureToList(f, base));
     } else {
@@ -225,7 +229,7 @@ public class JCasSerialiser {
       getMonitor()
           .trace(
               "Feature is not a primitive type / array of primitives - will try to treat the feature as an annotation");
-      if (f.getRange().isArray()) {
+      if (fm.getKind().isArray()) {
         getMonitor()
             .trace("Feature is an array - attempting converstion to an array of annotations");
         final FSArray fArr = (FSArray) base.getFeatureValue(f);
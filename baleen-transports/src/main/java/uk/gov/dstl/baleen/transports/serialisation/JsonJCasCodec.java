@@ -0,0 +1,47 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import org.apache.uima.jcas.JCas;
+
+import uk.gov.dstl.baleen.types.BaleenAnnotation;
+import uk.gov.dstl.baleen.uima.UimaMonitor;
+
+/**
+ * A {@link JCasCodec} which sends the JCas as UTF-8 encoded JSON, using {@link JsonJCasConverter}.
+ *
+ * <p>This is the default codec, and is compatible with the JSON strings previously sent by the
+ * transports.
+ */
+public class JsonJCasCodec implements JCasCodec {
+
+  private final JsonJCasConverter converter;
+
+  /**
+   * Construct a JsonJCasCodec using the given {@link UimaMonitor} and, optional, white and black
+   * lists to filter by.
+   *
+   * @param monitor the {@link UimaMonitor} to use
+   * @param whiteList given annotation classes (optional)
+   * @param blackList given annotation classes (optional)
+   */
+  public JsonJCasCodec(
+      final UimaMonitor monitor,
+      final Collection<Class<? extends BaleenAnnotation>> whiteList,
+      final Collection<Class<? extends BaleenAnnotation>> blackList) {
+    converter = new JsonJCasConverter(monitor, whiteList, blackList);
+  }
+
+  @Override
+  public byte[] serialise(final JCas jCas) throws IOException {
+    return converter.serialise(jCas).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void deserialise(final JCas jCas, final byte[] data) throws IOException {
+    converter.deserialise(jCas, new String(data, StandardCharsets.UTF_8));
+  }
+}
@@ -6,8 +6,7 @@ import java.util.Collection;
 import java.util.Collections;
 
 import org.apache.uima.UIMAException;
-import org.apache.uima.fit.factory.JCasFactory;
-import org.apache.uima.jcas.JCas;
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.resource.ResourceInitializationException;
 
 import uk.gov.dstl.baleen.types.BaleenAnnotation;
@@ -22,7 +21,7 @@ import uk.gov.dstl.baleen.uima.utils.TypeUtils;
  */
 public class JsonJCasConverterBuilder {
 
-  private final JCas jCas;
+  private final TypeSystem typeSystem;
   private final UimaMonitor monitor;
   private Collection<String> whitelist = Collections.emptyList();
   private Collection<String> blacklist = Collections.emptyList();
@@ -35,18 +34,10 @@ public class JsonJCasConverterBuilder {
    * @throws UIMAException if unable to initialise
    */
   public JsonJCasConverterBuilder(UimaMonitor monitor) throws ResourceInitializationException {
-    jCas = createJas();
+    typeSystem = TypeSystemSingleton.getTypeSystemInstance();
     this.monitor = monitor;
   }
 
-  private JCas createJas() throws ResourceInitializationException {
-    try {
-      return JCasFactory.createJCas(TypeSystemSingleton.getTypeSystemDescriptionInstance());
-    } catch (UIMAException e) {
-      throw new ResourceInitializationException(e);
-    }
-  }
-
   /**
    * Add a whitelist
    *
@@ -89,7 +80,7 @@ public class JsonJCasConverterBuilder {
   private Collection<Class<? extends BaleenAnnotation>> createList(Collection<String> types) {
     Collection<Class<? extends BaleenAnnotation>> list = new ArrayList<>();
     for (String type : types) {
-      list.add((Class<? extends BaleenAnnotation>) TypeUtils.getType(type, jCas));
+      list.add((Class<? extends BaleenAnnotation>) (Class<?>) TypeUtils.getType(type, typeSystem));
     }
     return list;
   }
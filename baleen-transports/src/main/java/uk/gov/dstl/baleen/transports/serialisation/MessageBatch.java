@@ -0,0 +1,111 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Packs a number of serialised documents into a single, optionally compressed, transport message.
+ *
+ * <p>A batch starts with a magic number, followed by the {@link Compression}, the number of
+ * documents and the uncompressed length. The (compressed) body then holds each document as a length
+ * prefixed byte array. Messages which do not start with the magic number are treated as a single
+ * unbatched document, so readers can accept messages from senders which do not batch.
+ */
+public final class MessageBatch {
+
+  /** The magic number at the start of every batch ("BTB1") */
+  public static final int MAGIC = 0x42544231;
+
+  private static final int HEADER_LENGTH = 13;
+
+  private static final Compression[] COMPRESSIONS = Compression.values();
+
+  private MessageBatch() {
+    // Utility class
+  }
+
+  /**
+   * Pack the documents into a batch
+   *
+   * @param documents the serialised documents
+   * @param compression the compression to apply to the body
+   * @return the batch
+   * @throws IOException if the batch can not be compressed
+   */
+  public static byte[] pack(List<byte[]> documents, Compression compression) throws IOException {
+    int length = 0;
+    for (byte[] document : documents) {
+      length += 4 + document.length;
+    }
+
+    ByteBuffer body = ByteBuffer.allocate(length);
+    for (byte[] document : documents) {
+      body.putInt(document.length);
+      body.put(document);
+    }
+
+    byte[] compressed = compression.compress(body.array());
+    return ByteBuffer.allocate(HEADER_LENGTH + compressed.length)
+        .putInt(MAGIC)
+        .put((byte) compression.ordinal())
+        .putInt(documents.size())
+        .putInt(length)
+        .put(compressed)
+        .array();
+  }
+
+  /**
+   * Unpack the documents from a message.
+   *
+   * @param message the message, either a batch or a single serialised document
+   * @return the serialised documents in the message
+   * @throws IOException if the batch is corrupt
+   */
+  public static List<byte[]> unpack(byte[] message) throws IOException {
+    if (!isBatch(message)) {
+      return Collections.singletonList(message);
+    }
+
+    ByteBuffer header = ByteBuffer.wrap(message);
+    header.getInt();
+    int compressionId = header.get();
+    int count = header.getInt();
+    int length = header.getInt();
+    if (compressionId < 0 || compressionId >= COMPRESSIONS.length || count < 0 || length < 0) {
+      throw new IOException("Corrupt message batch header");
+    }
+
+    byte[] compressed = new byte[message.length - HEADER_LENGTH];
+    System.arraycopy(message, HEADER_LENGTH, compressed, 0, compressed.length);
+    ByteBuffer body = ByteBuffer.wrap(COMPRESSIONS[compressionId].decompress(compressed, length));
+
+    try {
+      List<byte[]> documents = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        byte[] document = new byte[body.getInt()];
+        body.get(document);
+        documents.add(document);
+      }
+      return documents;
+    } catch (BufferUnderflowException | NegativeArraySizeException e) {
+      throw new IOException("Corrupt message batch body", e);
+    }
+  }
+
+  /**
+   * Check if the message is a batch
+   *
+   * @param message the message
+   * @return true if the message starts with the batch header
+   */
+  public static boolean isBatch(byte[] message) {
+    return message != null
+        && message.length >= HEADER_LENGTH
+        && ByteBuffer.wrap(message).getInt() == MAGIC;
+  }
+}
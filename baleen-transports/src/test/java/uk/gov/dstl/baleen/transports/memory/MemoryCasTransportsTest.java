@@ -0,0 +1,139 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.gov.dstl.baleen.uima.BaleenCollectionReader.KEY_CONTENT_EXTRACTOR;
+
+import java.io.IOException;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.resource.ExternalResourceDescription;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import uk.gov.dstl.baleen.resources.SharedMemoryQueueResource;
+import uk.gov.dstl.baleen.transports.util.FakeBaleenContentExtractor;
+import uk.gov.dstl.baleen.transports.util.TransportTester;
+import uk.gov.dstl.baleen.types.common.Person;
+import uk.gov.dstl.baleen.types.semantic.Location;
+import uk.gov.dstl.baleen.uima.utils.TypeSystemSingleton;
+
+public class MemoryCasTransportsTest {
+
+  private final ExternalResourceDescription erd =
+      ExternalResourceFactory.createExternalResourceDescription(
+          SharedMemoryQueueResource.RESOURCE_KEY, SharedMemoryQueueResource.class);
+
+  @Test
+  public void testTransportCanSendAndRecieve() throws UIMAException, IOException {
+    AnalysisEngine sender = createSender("cas");
+    MemoryCasTransportReceiver receiver = createReciever("cas");
+
+    TransportTester tester = new TransportTester(sender, receiver);
+    tester.run();
+    tester.assertCompleteMatch();
+  }
+
+  @Test
+  public void testTransportReusesPooledJCas() throws UIMAException, IOException {
+    AnalysisEngine sender = createSender("pool");
+    MemoryCasTransportReceiver receiver = createReciever("pool");
+
+    TransportTester tester = new TransportTester(sender, receiver);
+    tester.run();
+    assertEquals(1, queueSize("pool.pool"));
+
+    tester.getOut().reset();
+    tester.run();
+    assertEquals(1, queueSize("pool.pool"));
+    assertEquals(0, queueSize("pool"));
+    tester.assertCompleteMatch();
+  }
+
+  @Test
+  public void testTransportFiltersBlacklist() throws UIMAException, IOException {
+    AnalysisEngine sender =
+        createSender(
+            "blacklist",
+            MemoryCasTransportSender.PARAM_BLACKLIST,
+            ImmutableList.of(Person.class.getName()));
+    MemoryCasTransportReceiver receiver = createReciever("blacklist");
+
+    TransportTester tester = new TransportTester(sender, receiver);
+    tester.run();
+    tester.assertTopLevel();
+    tester.assertLocationMatches();
+    assertFalse(JCasUtil.exists(tester.getOut(), Person.class));
+  }
+
+  @Test
+  public void testTransportFiltersWhitelist() throws UIMAException, IOException {
+    AnalysisEngine sender = createSender("whitelist");
+    MemoryCasTransportReceiver receiver =
+        createReciever(
+            "whitelist",
+            MemoryCasTransportReceiver.PARAM_WHITELIST,
+            ImmutableList.of(Location.class.getName()));
+
+    TransportTester tester = new TransportTester(sender, receiver);
+    tester.run();
+    tester.assertTopLevel();
+    tester.assertLocationMatches();
+    assertFalse(JCasUtil.exists(tester.getOut(), Person.class));
+    assertTrue(JCasUtil.exists(tester.getIn(), Person.class));
+  }
+
+  @Test
+  public void testTransportCanClose() throws UIMAException, IOException {
+    TransportTester tester = new TransportTester(createSender("close"), createReciever("close"));
+    tester.close();
+  }
+
+  private int queueSize(String topic) {
+    return new SharedMemoryQueueResource().getQueue(topic).size();
+  }
+
+  private MemoryCasTransportReceiver createReciever(String topic, Object... args)
+      throws ResourceInitializationException {
+    return (MemoryCasTransportReceiver)
+        CollectionReaderFactory.createReader(
+            MemoryCasTransportReceiver.class,
+            TypeSystemSingleton.getTypeSystemDescriptionInstance(),
+            ArrayUtils.addAll(
+                new Object[] {
+                  KEY_CONTENT_EXTRACTOR,
+                  ExternalResourceFactory.createExternalResourceDescription(
+                      KEY_CONTENT_EXTRACTOR, FakeBaleenContentExtractor.class),
+                  SharedMemoryQueueResource.RESOURCE_KEY,
+                  erd,
+                  MemoryCasTransportReceiver.PARAM_TOPIC,
+                  topic
+                },
+                args));
+  }
+
+  private AnalysisEngine createSender(String topic, Object... args)
+      throws ResourceInitializationException {
+    return AnalysisEngineFactory.createEngine(
+        MemoryCasTransportSender.class,
+        TypeSystemSingleton.getTypeSystemDescriptionInstance(),
+        ArrayUtils.addAll(
+            new Object[] {
+              SharedMemoryQueueResource.RESOURCE_KEY,
+              erd,
+              MemoryCasTransportSender.PARAM_TOPIC,
+              topic
+            },
+            args));
+  }
+}
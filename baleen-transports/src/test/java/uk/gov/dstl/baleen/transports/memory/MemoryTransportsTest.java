@@ -13,6 +13,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.uima.UIMAException;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
@@ -20,6 +21,7 @@ import org.apache.uima.fit.factory.CollectionReaderFactory;
 import org.apache.uima.fit.factory.ExternalResourceFactory;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ExternalResourceDescription;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.junit.Test;
@@ -51,6 +53,86 @@ public class MemoryTransportsTest {
     tester.assertCompleteMatch();
   }
 
+  @Test
+  public void testTransportCanSendAndRecieveBinary() throws UIMAException, IOException {
+
+    AnalysisEngine sender =
+        createAnalysisEngine(
+            SharedMemoryQueueResource.RESOURCE_KEY,
+            erd,
+            MemoryTransportSender.PARAM_CODEC,
+            "BinaryJCasCodec");
+    MemoryTransportReceiver receiver =
+        createReciever(MemoryTransportReceiver.PARAM_CODEC, "BinaryJCasCodec");
+
+    TransportTester tester = new TransportTester(sender, receiver);
+    tester.run();
+    tester.assertCompleteMatch();
+  }
+
+  @Test
+  public void testTransportCanSendAndRecieveBatches() throws UIMAException, IOException {
+
+    AnalysisEngine sender =
+        createAnalysisEngine(
+            SharedMemoryQueueResource.RESOURCE_KEY,
+            erd,
+            MemoryTransportSender.PARAM_TOPIC,
+            "batches",
+            MemoryTransportSender.PARAM_BATCH_DOCUMENTS,
+            2,
+            MemoryTransportSender.PARAM_COMPRESSION,
+            "lz4");
+    MemoryTransportReceiver receiver =
+        createReciever(MemoryTransportReceiver.PARAM_TOPIC, "batches");
+
+    TransportTester tester = new TransportTester(sender, receiver);
+    sender.process(tester.getIn());
+    assertEquals(0, queueSize("batches"));
+    sender.process(tester.getIn());
+    assertEquals(1, queueSize("batches"));
+
+    receiver.getNext(tester.getOut());
+    assertEquals(0, queueSize("batches"));
+
+    JCas second = JCasFactory.createJCas();
+    receiver.getNext(second);
+    tester.assertCompleteMatch();
+    assertEquals(tester.getOut().getDocumentText(), second.getDocumentText());
+  }
+
+  @Test(timeout = 10000)
+  public void testTransportSendsPartialBatchAfterLatency() throws UIMAException, IOException {
+
+    AnalysisEngine sender =
+        createAnalysisEngine(
+            SharedMemoryQueueResource.RESOURCE_KEY,
+            erd,
+            MemoryTransportSender.PARAM_TOPIC,
+            "latency",
+            MemoryTransportSender.PARAM_BATCH_DOCUMENTS,
+            100,
+            MemoryTransportSender.PARAM_BATCH_LATENCY,
+            50L,
+            MemoryTransportSender.PARAM_COMPRESSION,
+            "zstd");
+    MemoryTransportReceiver receiver =
+        createReciever(MemoryTransportReceiver.PARAM_TOPIC, "latency");
+
+    TransportTester tester = new TransportTester(sender, receiver);
+    tester.run();
+    tester.assertCompleteMatch();
+  }
+
+  @Test(expected = ResourceInitializationException.class)
+  public void testInvalidCompression() throws UIMAException {
+    createAnalysisEngine(
+        SharedMemoryQueueResource.RESOURCE_KEY,
+        erd,
+        MemoryTransportSender.PARAM_COMPRESSION,
+        "missing");
+  }
+
   @Test
   public void testTransportCanFiltersBlacklist() throws UIMAException, IOException {
 
@@ -164,16 +246,25 @@ public class MemoryTransportsTest {
     }
   }
 
-  private MemoryTransportReceiver createReciever() throws ResourceInitializationException {
+  private int queueSize(String topic) {
+    return new SharedMemoryQueueResource().getQueue(topic).size();
+  }
+
+  private MemoryTransportReceiver createReciever(Object... args)
+      throws ResourceInitializationException {
     return (MemoryTransportReceiver)
         CollectionReaderFactory.createReader(
             MemoryTransportReceiver.class,
             TypeSystemSingleton.getTypeSystemDescriptionInstance(),
-            KEY_CONTENT_EXTRACTOR,
-            ExternalResourceFactory.createExternalResourceDescription(
-                KEY_CONTENT_EXTRACTOR, FakeBaleenContentExtractor.class),
-            SharedMemoryQueueResource.RESOURCE_KEY,
-            erd);
+            ArrayUtils.addAll(
+                new Object[] {
+                  KEY_CONTENT_EXTRACTOR,
+                  ExternalResourceFactory.createExternalResourceDescription(
+                      KEY_CONTENT_EXTRACTOR, FakeBaleenContentExtractor.class),
+                  SharedMemoryQueueResource.RESOURCE_KEY,
+                  erd
+                },
+                args));
   }
 
   private AnalysisEngine createAnalysisEngine() throws ResourceInitializationException {
@@ -0,0 +1,176 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.StringArray;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import uk.gov.dstl.baleen.transports.util.JCasSerializationTester;
+import uk.gov.dstl.baleen.types.BaleenAnnotation;
+import uk.gov.dstl.baleen.types.common.Buzzword;
+import uk.gov.dstl.baleen.types.common.Person;
+import uk.gov.dstl.baleen.types.semantic.Location;
+import uk.gov.dstl.baleen.types.semantic.Relation;
+import uk.gov.dstl.baleen.uima.UimaMonitor;
+
+public class BinaryJCasCodecTest {
+
+  @Test
+  public void testRoundTrip() throws IOException, UIMAException {
+    final JCasCodec codec = createCodec();
+
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+
+    final byte[] bytes = codec.serialise(testUtil.getIn());
+    codec.deserialise(testUtil.getOut(), bytes);
+
+    testUtil.assertCompleteMatch();
+  }
+
+  @Test
+  public void testSmallerThanJson() throws IOException, UIMAException {
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    for (int i = 0; i < 100; i++) {
+      final Person p = new Person(testUtil.getIn(), 0, 4);
+      p.setValue("This");
+      p.setConfidence(0.5);
+      p.addToIndexes();
+    }
+
+    final byte[] binary = createCodec().serialise(testUtil.getIn());
+    final byte[] json =
+        new JsonJCasCodec(
+                new UimaMonitor("test", JsonJCasCodec.class),
+                Collections.emptyList(),
+                Collections.emptyList())
+            .serialise(testUtil.getIn());
+
+    assertTrue(binary.length < json.length / 2);
+  }
+
+  @Test
+  public void testArraysAndReferences() throws IOException, UIMAException {
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    final JCas in = testUtil.getIn();
+
+    final Buzzword buzzword = new Buzzword(in, 0, 4);
+    final StringArray tags = new StringArray(in, 2);
+    tags.copyFromArray(new String[] {"a", "b"}, 0, 0, 2);
+    buzzword.setTags(tags);
+    buzzword.addToIndexes();
+
+    final Relation relation = new Relation(in, 0, 12);
+    relation.setSource(JCasUtil.selectSingle(in, Person.class));
+    relation.setTarget(JCasUtil.selectSingle(in, Location.class));
+    relation.setRelationshipType("at");
+    relation.addToIndexes();
+
+    final JCasCodec codec = createCodec();
+    codec.deserialise(testUtil.getOut(), codec.serialise(in));
+    final JCas out = testUtil.getOut();
+
+    testUtil.assertCompleteMatch();
+
+    final Buzzword outBuzzword = JCasUtil.selectSingle(out, Buzzword.class);
+    assertArrayEquals(new String[] {"a", "b"}, outBuzzword.getTags().toArray());
+
+    final Relation outRelation = JCasUtil.selectSingle(out, Relation.class);
+    assertEquals("at", outRelation.getRelationshipType());
+    assertEquals(JCasUtil.selectSingle(out, Person.class), outRelation.getSource());
+    assertEquals(JCasUtil.selectSingle(out, Location.class), outRelation.getTarget());
+  }
+
+  @Test
+  public void testSerializeWhitelist() throws IOException, UIMAException {
+    List<Class<? extends BaleenAnnotation>> whiteList =
+        ImmutableList.<Class<? extends BaleenAnnotation>>of(Location.class);
+
+    final JCasCodec serializer = createCodec(whiteList, Collections.emptyList());
+    final JCasCodec deserializer = createCodec();
+
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    deserializer.deserialise(testUtil.getOut(), serializer.serialise(testUtil.getIn()));
+
+    testUtil.assertTopLevel();
+    testUtil.assertLocationMatches();
+    assertFalse(JCasUtil.exists(testUtil.getOut(), Person.class));
+  }
+
+  @Test
+  public void testSerializeBlacklist() throws IOException, UIMAException {
+    List<Class<? extends BaleenAnnotation>> blackList =
+        ImmutableList.<Class<? extends BaleenAnnotation>>of(Person.class);
+
+    final JCasCodec serializer = createCodec(Collections.emptyList(), blackList);
+    final JCasCodec deserializer = createCodec();
+
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    deserializer.deserialise(testUtil.getOut(), serializer.serialise(testUtil.getIn()));
+
+    testUtil.assertTopLevel();
+    testUtil.assertLocationMatches();
+    assertFalse(JCasUtil.exists(testUtil.getOut(), Person.class));
+  }
+
+  @Test
+  public void testDeserializeWhitelist() throws IOException, UIMAException {
+    List<Class<? extends BaleenAnnotation>> whiteList =
+        ImmutableList.<Class<? extends BaleenAnnotation>>of(Location.class);
+
+    final JCasCodec serializer = createCodec();
+    final JCasCodec deserializer = createCodec(whiteList, Collections.emptyList());
+
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    deserializer.deserialise(testUtil.getOut(), serializer.serialise(testUtil.getIn()));
+
+    testUtil.assertTopLevel();
+    testUtil.assertLocationMatches();
+    assertFalse(JCasUtil.exists(testUtil.getOut(), Person.class));
+  }
+
+  @Test
+  public void testDeserializeBlacklist() throws IOException, UIMAException {
+    List<Class<? extends BaleenAnnotation>> blackList =
+        ImmutableList.<Class<? extends BaleenAnnotation>>of(Person.class);
+
+    final JCasCodec serializer = createCodec();
+    final JCasCodec deserializer = createCodec(Collections.emptyList(), blackList);
+
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    deserializer.deserialise(testUtil.getOut(), serializer.serialise(testUtil.getIn()));
+
+    testUtil.assertTopLevel();
+    testUtil.assertLocationMatches();
+    assertFalse(JCasUtil.exists(testUtil.getOut(), Person.class));
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsJson() throws IOException, UIMAException {
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    createCodec().deserialise(testUtil.getOut(), JCasSerializationTester.TEST_JSON.getBytes());
+  }
+
+  private JCasCodec createCodec() {
+    return createCodec(Collections.emptyList(), Collections.emptyList());
+  }
+
+  private JCasCodec createCodec(
+      List<Class<? extends BaleenAnnotation>> whiteList,
+      List<Class<? extends BaleenAnnotation>> blackList) {
+    final UimaMonitor monitor = new UimaMonitor("test", BinaryJCasCodec.class);
+    return new BinaryJCasCodec(monitor, whiteList, blackList);
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.util.JCasUtil;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.exceptions.InvalidParameterException;
+import uk.gov.dstl.baleen.transports.util.JCasSerializationTester;
+import uk.gov.dstl.baleen.types.common.Person;
+import uk.gov.dstl.baleen.uima.UimaMonitor;
+
+public class JCasCodecBuilderTest {
+
+  @Test
+  public void testDefault() throws UIMAException, BaleenException {
+    assertTrue(createBuilder().build() instanceof JsonJCasCodec);
+    assertTrue(createBuilder().withCodec(null).build() instanceof JsonJCasCodec);
+  }
+
+  @Test
+  public void testCodec() throws UIMAException, BaleenException {
+    assertTrue(createBuilder().withCodec("BinaryJCasCodec").build() instanceof BinaryJCasCodec);
+    assertTrue(
+        createBuilder().withCodec(BinaryJCasCodec.class.getName()).build()
+            instanceof BinaryJCasCodec);
+  }
+
+  @Test(expected = InvalidParameterException.class)
+  public void testMissingCodec() throws UIMAException, BaleenException {
+    createBuilder().withCodec("MissingCodec").build();
+  }
+
+  @Test(expected = InvalidParameterException.class)
+  public void testNotACodec() throws UIMAException, BaleenException {
+    createBuilder().withCodec("JsonJCasConverter").build();
+  }
+
+  @Test
+  public void testBlacklist() throws IOException, UIMAException, BaleenException {
+    final JCasCodec codec =
+        createBuilder()
+            .withCodec("BinaryJCasCodec")
+            .withBlacklist(ImmutableList.of("common.Person"))
+            .build();
+
+    JCasSerializationTester testUtil = new JCasSerializationTester();
+    codec.deserialise(testUtil.getOut(), codec.serialise(testUtil.getIn()));
+
+    testUtil.assertTopLevel();
+    testUtil.assertLocationMatches();
+    assertFalse(JCasUtil.exists(testUtil.getOut(), Person.class));
+  }
+
+  private JCasCodecBuilder createBuilder() throws UIMAException {
+    final UimaMonitor monitor = new UimaMonitor("test", JCasCodecBuilder.class);
+    return new JCasCodecBuilder(monitor);
+  }
+}
@@ -0,0 +1,68 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.transports.serialisation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import uk.gov.dstl.baleen.transports.util.JCasSerializationTester;
+
+public class MessageBatchTest {
+
+  private static final List<byte[]> DOCUMENTS =
+      ImmutableList.of(
+          "{\"text\":\"first\"}".getBytes(StandardCharsets.UTF_8),
+          new byte[0],
+          "{\"text\":\"second second second second\"}".getBytes(StandardCharsets.UTF_8));
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    for (Compression compression : Compression.values()) {
+      final byte[] message = MessageBatch.pack(DOCUMENTS, compression);
+      assertTrue(MessageBatch.isBatch(message));
+
+      final List<byte[]> unpacked = MessageBatch.unpack(message);
+      assertEquals(compression.name(), DOCUMENTS.size(), unpacked.size());
+      for (int i = 0; i < DOCUMENTS.size(); i++) {
+        assertArrayEquals(compression.name(), DOCUMENTS.get(i), unpacked.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testCompresses() throws IOException {
+    final byte[] document = new byte[10000];
+    final List<byte[]> documents = ImmutableList.of(document, document);
+    final int uncompressed = MessageBatch.pack(documents, Compression.NONE).length;
+
+    assertTrue(MessageBatch.pack(documents, Compression.GZIP).length < uncompressed / 10);
+    assertTrue(MessageBatch.pack(documents, Compression.LZ4).length < uncompressed / 10);
+    assertTrue(MessageBatch.pack(documents, Compression.ZSTD).length < uncompressed / 10);
+  }
+
+  @Test
+  public void testUnbatchedPassthrough() throws IOException {
+    final byte[] json = JCasSerializationTester.TEST_JSON.getBytes(StandardCharsets.UTF_8);
+    assertFalse(MessageBatch.isBatch(json));
+
+    final List<byte[]> unpacked = MessageBatch.unpack(json);
+    assertEquals(1, unpacked.size());
+    assertArrayEquals(json, unpacked.get(0));
+  }
+
+  @Test(expected = IOException.class)
+  public void testCorrupt() throws IOException {
+    final byte[] message = MessageBatch.pack(DOCUMENTS, Compression.NONE);
+    MessageBatch.unpack(Arrays.copyOf(message, message.length - 5));
+  }
+}
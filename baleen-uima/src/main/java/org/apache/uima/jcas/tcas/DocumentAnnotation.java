@@ -7,8 +7,7 @@ import org.apache.uima.jcas.JCasRegistry;
 import org.apache.uima.jcas.cas.StringArray;
 import org.apache.uima.jcas.cas.TOP_Type;
 
-import uk.gov.dstl.baleen.core.utils.IdentityUtils;
-import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.uima.IdentityCache;
 
 /**
  * Overriding the base DocumentAnntation to add additional features. The JCasGen code generated from
@@ -414,12 +413,8 @@ public class DocumentAnnotation extends Annotation {
         i,
         v);
   }
-  /** Get hash of current document text */
+  /** Get hash of current document text, which is only computed once per document */
   public String getHash() {
-    try {
-      return IdentityUtils.hashStrings(getCAS().getDocumentText());
-    } catch (BaleenException e) {
-      return "";
-    }
+    return IdentityCache.getInstance().getDocumentHash(getCAS());
   }
 }
@@ -2,21 +2,13 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.types;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.apache.uima.cas.Feature;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.JCasRegistry;
 import org.apache.uima.jcas.cas.TOP_Type;
 import org.apache.uima.jcas.tcas.Annotation;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.google.common.base.Strings;
 
 import uk.gov.dstl.baleen.core.utils.IdentityUtils;
-import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.uima.IdentityCache;
 
 /**
  * A base class for annotations used by Baleen. Includes things like an internal ID and a function
@@ -136,48 +128,16 @@ public class BaleenAnnotation extends Annotation {
         addr, ((BaleenAnnotation_Type) jcasType).casFeatCode_internalId, v);
   }
 
-  private static final Logger LOGGER = LoggerFactory.getLogger(BaleenAnnotation.class);
-
   /**
    * Produces an ID that is based on the properties of the current annotation. This ID is repeatable
    * (i.e. if you call the method twice without changing the object you will get the same ID), and
    * should be used whenever an entity is being persisted.
    *
    * <p>This ID should be unique within the document, but is not guaranteed to be unique across
-   * documents.
+   * documents. It is cached by {@link IdentityCache}, so is only hashed again once the annotation
+   * may have changed.
    */
   public String getExternalId() {
-    List<String> properties = new ArrayList<>();
-
-    properties.add(this.getType().getName());
-    properties.add(this.getCoveredText());
-
-    for (Feature f : this.getType().getFeatures()) {
-      if (!f.getRange().isPrimitive()
-          || "uk.gov.dstl.baleen.types.BaleenAnnotation:internalId".equals(f.getName())) {
-        continue;
-      }
-
-      try {
-        String s = this.getFeatureValueAsString(f);
-        if (!Strings.isNullOrEmpty(s)) {
-          properties.add(s);
-        }
-      } catch (Exception e) {
-        LOGGER.debug(
-            "Couldn't read feature value for feature {} - property will be ignored in hash generation",
-            f.getName(),
-            e);
-      }
-    }
-
-    try {
-      return IdentityUtils.hashStrings(properties.toArray(new String[0]));
-    } catch (BaleenException e) {
-      LOGGER.error(
-          "Unable to generate external ID for entity with internal ID {}", getInternalId(), e);
-    }
-
-    return null;
+    return IdentityCache.getInstance().getExternalId(this);
   }
 }
@@ -89,6 +89,11 @@ public abstract class BaleenAnnotator extends JCasAnnotator_ImplBase {
 
     doProcess(aJCas);
 
+    // Features may have been modified, so identities must be computed again. Consumers only read.
+    if (!(this instanceof BaleenConsumer)) {
+      IdentityCache.getInstance().invalidate(aJCas.getCas());
+    }
+
     monitor.finishFunction("process");
     monitor.persistCounts();
     monitor.trace("Finished: " + getClass().getSimpleName());
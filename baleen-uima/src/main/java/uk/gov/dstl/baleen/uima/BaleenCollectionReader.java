@@ -15,8 +15,11 @@ import org.apache.uima.util.Progress;
 
 import uk.gov.dstl.baleen.core.history.BaleenHistory;
 import uk.gov.dstl.baleen.core.metrics.MetricsFactory;
+import uk.gov.dstl.baleen.core.pipelines.DocumentSignal;
 import uk.gov.dstl.baleen.core.pipelines.PipelineBuilder;
+import uk.gov.dstl.baleen.core.pipelines.SignallingCollectionReader;
 import uk.gov.dstl.baleen.core.pipelines.content.ContentExtractor;
+import uk.gov.dstl.baleen.core.pipelines.content.ContentExtractor.StreamOpener;
 import uk.gov.dstl.baleen.uima.utils.UimaUtils;
 
 /**
@@ -25,11 +28,17 @@ import uk.gov.dstl.baleen.uima.utils.UimaUtils;
  * should inherit from this class and use any utility methods it provides as required to ensure we
  * standardise logging and metrics as much as possible.
  *
+ * <p>When idle, the pipeline waits with an increasing backoff before asking for more documents.
+ * Collection readers which are told of new documents, for example by a watch service or a message
+ * listener, should call {@link #signalDocumentAvailable()} to wake the pipeline immediately.
+ *
  * @baleen.javadoc
  */
-public abstract class BaleenCollectionReader extends JCasCollectionReader_ImplBase {
+public abstract class BaleenCollectionReader extends JCasCollectionReader_ImplBase
+    implements SignallingCollectionReader {
   private UimaMonitor monitor;
   private UimaSupport support;
+  private volatile DocumentSignal documentSignal;
 
   /**
    * Baleen History resource
@@ -173,6 +182,19 @@ public abstract class BaleenCollectionReader extends JCasCollectionReader_ImplBa
    */
   public abstract boolean doHasNext() throws IOException, CollectionException;
 
+  @Override
+  public void setDocumentSignal(DocumentSignal signal) {
+    this.documentSignal = signal;
+  }
+
+  /** Wake the pipeline, if it is waiting, as new documents are available */
+  protected void signalDocumentAvailable() {
+    DocumentSignal signal = documentSignal;
+    if (signal != null) {
+      signal.signal();
+    }
+  }
+
   protected UimaMonitor getMonitor() {
     return monitor;
   }
@@ -193,4 +215,26 @@ public abstract class BaleenCollectionReader extends JCasCollectionReader_ImplBa
       throws IOException {
     contentExtractor.processStream(inputStream, source, jCas);
   }
+
+  /**
+   * Get the number of upcoming documents the content extractor would like to know about, see {@link
+   * #prefetchContent(StreamOpener, String)}.
+   *
+   * @return the number of documents to prefetch, 0 if the content extractor doesn't prefetch
+   */
+  protected int getContentPrefetchSize() {
+    return contentExtractor.getPrefetchSize();
+  }
+
+  /**
+   * Tell the content extractor about a document which will be passed to {@link
+   * #extractContent(InputStream, String, JCas)} soon, so it can start extracting its content in the
+   * background.
+   *
+   * @param opener opens a stream of the document's data
+   * @param source The source URI it will be extracted with
+   */
+  protected void prefetchContent(StreamOpener opener, String source) {
+    contentExtractor.prefetch(opener, source);
+  }
 }
@@ -0,0 +1,293 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import uk.gov.dstl.baleen.types.language.Dependency;
+import uk.gov.dstl.baleen.types.language.PhraseChunk;
+import uk.gov.dstl.baleen.types.language.WordToken;
+import uk.gov.dstl.baleen.types.structure.Structure;
+import uk.gov.dstl.baleen.uima.grammar.DependencyGraph;
+import uk.gov.dstl.baleen.uima.grammar.ParseTree;
+import uk.gov.dstl.baleen.uima.utils.StructureHierarchy;
+
+/**
+ * A cache of structures derived from the annotations of a JCas, such as the {@link
+ * DependencyGraph}, shared by all the annotators and consumers which process the JCas.
+ *
+ * <p>Each structure is built the first time it is requested for a document, from the annotations of
+ * its source types, and then returned to everyone who asks for it until those annotations change. A
+ * structure is rebuilt if annotations of a source type (or a subtype) are added or removed through
+ * {@link UimaSupport}, if the number of annotations of a source type has changed, or if the JCas
+ * now holds a different document. Changes to the features of existing annotations are not detected,
+ * so anything that changes them should call {@link #invalidate(CAS, Type)}.
+ *
+ * <p>The structures are shared, so must not be modified by those using them.
+ */
+public class CasDerivedDataCache {
+
+  /** The dependency graph of the whole document. */
+  public static final Key<DependencyGraph> DEPENDENCY_GRAPH =
+      Key.of(DependencyGraph::build, Dependency.class);
+
+  /** The parse tree of the whole document. */
+  public static final Key<ParseTree> PARSE_TREE =
+      Key.of(ParseTree::build, PhraseChunk.class, WordToken.class);
+
+  private static final CasDerivedDataCache INSTANCE = new CasDerivedDataCache();
+
+  // Weak keys, so the derived data goes with the CAS. The stores only hold soft references to the
+  // derived data, which refers back to the CAS, so they do not keep the CAS alive.
+  private final ConcurrentMap<CAS, Store> stores =
+      CacheBuilder.newBuilder().weakKeys().<CAS, Store>build().asMap();
+
+  /**
+   * Get the shared instance.
+   *
+   * @return the cache
+   */
+  public static CasDerivedDataCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get a structure derived from the JCas, building it if it is not cached or is out of date.
+   *
+   * @param jCas the JCas
+   * @param key the structure to get
+   * @return the (shared) structure
+   */
+  public <T> T get(JCas jCas, Key<T> key) {
+    return stores.computeIfAbsent(jCas.getCas(), c -> new Store()).get(jCas, key);
+  }
+
+  /**
+   * Get the dependency graph of the document, as {@link DependencyGraph#build(JCas)}.
+   *
+   * @param jCas the JCas
+   * @return the (shared) dependency graph
+   */
+  public DependencyGraph getDependencyGraph(JCas jCas) {
+    return get(jCas, DEPENDENCY_GRAPH);
+  }
+
+  /**
+   * Get the parse tree of the document, as {@link ParseTree#build(JCas)}.
+   *
+   * @param jCas the JCas
+   * @return the (shared) parse tree
+   */
+  public ParseTree getParseTree(JCas jCas) {
+    return get(jCas, PARSE_TREE);
+  }
+
+  /**
+   * Get the structure hierarchy of the document, as {@link StructureHierarchy#build(JCas, Set)}.
+   *
+   * @param jCas the JCas
+   * @param types the structural classes
+   * @return the (shared) structure hierarchy
+   */
+  public StructureHierarchy getStructureHierarchy(
+      JCas jCas, Set<Class<? extends Structure>> types) {
+    Set<Class<? extends Structure>> copy = ImmutableSet.copyOf(types);
+    return get(
+        jCas,
+        new Key<>(
+            Arrays.asList("structure", copy),
+            j -> StructureHierarchy.build(j, copy),
+            ImmutableList.of(Structure.class)));
+  }
+
+  /**
+   * Get the annotations covered by each annotation of a type, as {@link JCasUtil#indexCovered(JCas,
+   * Class, Class)}.
+   *
+   * @param jCas the JCas
+   * @param type the covering type
+   * @param coveredType the covered type
+   * @return unmodifiable (shared) map from each annotation to those it covers
+   */
+  public <T extends Annotation, S extends Annotation> Map<T, Collection<S>> indexCovered(
+      JCas jCas, Class<? extends T> type, Class<? extends S> coveredType) {
+    return get(
+        jCas,
+        new Key<>(
+            Arrays.asList("covered", type, coveredType),
+            j -> Collections.unmodifiableMap(JCasUtil.<T, S>indexCovered(j, type, coveredType)),
+            ImmutableList.of(type, coveredType)));
+  }
+
+  /**
+   * Get the annotations covering each annotation of a type, as {@link JCasUtil#indexCovering(JCas,
+   * Class, Class)}.
+   *
+   * @param jCas the JCas
+   * @param type the covered type
+   * @param coveringType the covering type
+   * @return unmodifiable (shared) map from each annotation to those covering it
+   */
+  public <T extends Annotation, S extends Annotation> Map<T, Collection<S>> indexCovering(
+      JCas jCas, Class<? extends T> type, Class<? extends S> coveringType) {
+    return get(
+        jCas,
+        new Key<>(
+            Arrays.asList("covering", type, coveringType),
+            j -> Collections.unmodifiableMap(JCasUtil.<T, S>indexCovering(j, type, coveringType)),
+            ImmutableList.of(type, coveringType)));
+  }
+
+  /**
+   * Discard the structures derived from annotations of the given type, or of a supertype of it.
+   *
+   * @param cas the CAS
+   * @param type the type of annotation which has changed
+   */
+  public void invalidate(CAS cas, Type type) {
+    Store store = stores.get(cas);
+    if (store != null) {
+      store.invalidate(cas.getTypeSystem(), type);
+    }
+  }
+
+  /**
+   * Discard everything derived from the JCas.
+   *
+   * @param jCas the JCas
+   */
+  public void clear(JCas jCas) {
+    stores.remove(jCas.getCas());
+  }
+
+  /**
+   * Identifies a derived structure, and says how to build it and which annotation types it is built
+   * from.
+   *
+   * @param <T> the type of the structure
+   */
+  public static final class Key<T> {
+    private final Object id;
+    private final Function<JCas, T> builder;
+    private final List<Class<? extends Annotation>> sources;
+
+    private Key(Object id, Function<JCas, T> builder, List<Class<? extends Annotation>> sources) {
+      this.id = id;
+      this.builder = builder;
+      this.sources = sources;
+    }
+
+    /**
+     * Create a new key. Each key identifies a different structure, so keys should be held as
+     * constants.
+     *
+     * @param builder builds the structure from the JCas
+     * @param sources the annotation types the structure is built from
+     * @return the key
+     */
+    @SafeVarargs
+    public static <T> Key<T> of(Function<JCas, T> builder, Class<? extends Annotation>... sources) {
+      return new Key<>(new Object(), builder, ImmutableList.copyOf(sources));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return this == o || o instanceof Key && id.equals(((Key<?>) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+      return id.hashCode();
+    }
+  }
+
+  /** The derived structures of a single CAS. */
+  private static class Store {
+    private Reference<FeatureStructure> document = new WeakReference<>(null);
+    private final Map<Key<?>, Entry> entries = new HashMap<>();
+
+    synchronized <T> T get(JCas jCas, Key<T> key) {
+      FeatureStructure current = jCas.getDocumentAnnotationFs();
+      if (document.get() != current) {
+        entries.clear();
+        document = new WeakReference<>(current);
+      }
+
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        Object cached = entry.value.get();
+        if (cached != null && Arrays.equals(entry.sizes, sizes(jCas, entry.types))) {
+          @SuppressWarnings("unchecked")
+          T value = (T) cached;
+          return value;
+        }
+      }
+
+      Type[] types = new Type[key.sources.size()];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = JCasUtil.getType(jCas, key.sources.get(i));
+      }
+      T value = Objects.requireNonNull(key.builder.apply(jCas));
+      entries.put(key, new Entry(value, types, sizes(jCas, types)));
+      return value;
+    }
+
+    synchronized void invalidate(TypeSystem typeSystem, Type type) {
+      if (!entries.isEmpty()) {
+        entries.values().removeIf(e -> e.isDerivedFrom(typeSystem, type));
+      }
+    }
+
+    private static int[] sizes(JCas jCas, Type[] types) {
+      int[] sizes = new int[types.length];
+      for (int i = 0; i < types.length; i++) {
+        sizes[i] = jCas.getAnnotationIndex(types[i]).size();
+      }
+      return sizes;
+    }
+  }
+
+  private static class Entry {
+    private final Reference<Object> value;
+    private final Type[] types;
+    private final int[] sizes;
+
+    Entry(Object value, Type[] types, int[] sizes) {
+      this.value = new SoftReference<>(value);
+      this.types = types;
+      this.sizes = sizes;
+    }
+
+    boolean isDerivedFrom(TypeSystem typeSystem, Type type) {
+      for (Type t : types) {
+        if (typeSystem.subsumes(t, type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+
+import uk.gov.dstl.baleen.core.utils.IdentityUtils;
+import uk.gov.dstl.baleen.exceptions.BaleenException;
+import uk.gov.dstl.baleen.uima.utils.FeatureUtils;
+
+/**
+ * Computes the external identities of annotations and the hashes of documents, remembering them for
+ * each CAS so they are only hashed once.
+ *
+ * <p>The hash of a document is kept until the document text of the CAS changes. The identity of an
+ * annotation is kept until it is invalidated, which happens when the annotation is added or removed
+ * through {@link UimaSupport}, and for the whole CAS once each annotator (other than a consumer)
+ * has processed it. An annotator which modifies the features of an annotation and then needs its
+ * new identity, in the same call to process, should call {@link #invalidate(Annotation)} first.
+ *
+ * <p>The hash algorithm is configured through {@link IdentityUtils}.
+ */
+public class IdentityCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IdentityCache.class);
+
+  private static final String INTERNAL_ID = "uk.gov.dstl.baleen.types.BaleenAnnotation:internalId";
+
+  private static final IdentityCache INSTANCE = new IdentityCache();
+
+  // Weak keys, so the identities go with the CAS
+  private final ConcurrentMap<CAS, Store> stores =
+      CacheBuilder.newBuilder().weakKeys().<CAS, Store>build().asMap();
+
+  /**
+   * Get the shared instance.
+   *
+   * @return the cache
+   */
+  public static IdentityCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the hash of the document text of the CAS.
+   *
+   * @param cas the CAS
+   * @return the hash, or an empty string if it could not be created
+   */
+  public String getDocumentHash(CAS cas) {
+    return getStore(cas).getDocumentHash(cas.getDocumentText());
+  }
+
+  /**
+   * Get the external identity of an annotation, based on its type, covered text and primitive
+   * feature values (other than the internal id).
+   *
+   * @param annotation the annotation
+   * @return the identity, or null if it could not be created
+   */
+  public String getExternalId(Annotation annotation) {
+    CAS cas = annotation.getCAS();
+    return getStore(cas).getExternalId(cas.getDocumentText(), annotation);
+  }
+
+  /**
+   * Forget the identity of an annotation, so it is computed again from its current state.
+   *
+   * @param annotation the annotation
+   */
+  public void invalidate(Annotation annotation) {
+    Store store = stores.get(annotation.getCAS());
+    if (store != null) {
+      store.invalidate(annotation);
+    }
+  }
+
+  /**
+   * Forget the identities of all the annotations in the CAS.
+   *
+   * @param cas the CAS
+   */
+  public void invalidate(CAS cas) {
+    Store store = stores.get(cas);
+    if (store != null) {
+      store.invalidateAll();
+    }
+  }
+
+  private Store getStore(CAS cas) {
+    return stores.computeIfAbsent(cas, c -> new Store());
+  }
+
+  private static String hash(Annotation annotation) {
+    try {
+      return IdentityUtils.getInstance().hash(getProperties(annotation));
+    } catch (BaleenException e) {
+      LOGGER.error("Unable to generate external ID for annotation {}", annotation.getAddress(), e);
+      return null;
+    }
+  }
+
+  private static String[] getProperties(Annotation annotation) {
+    List<String> properties = new ArrayList<>();
+
+    properties.add(annotation.getType().getName());
+    properties.add(annotation.getCoveredText());
+
+    for (Feature f : FeatureUtils.getFeatures(annotation.getType())) {
+      if (!f.getRange().isPrimitive() || INTERNAL_ID.equals(f.getName())) {
+        continue;
+      }
+
+      try {
+        String s = annotation.getFeatureValueAsString(f);
+        if (!Strings.isNullOrEmpty(s)) {
+          properties.add(s);
+        }
+      } catch (Exception e) {
+        LOGGER.debug(
+            "Couldn't read feature value for feature {} - property will be ignored in hash generation",
+            f.getName(),
+            e);
+      }
+    }
+
+    return properties.toArray(new String[0]);
+  }
+
+  /** The identities of a single CAS, for its current document. */
+  private static class Store {
+    private String documentText;
+    private String documentHash;
+    // Weak, identity, keys: after a reset the CAS reuses addresses, but not the annotation objects
+    private final ConcurrentMap<Annotation, String> ids =
+        CacheBuilder.newBuilder().weakKeys().<Annotation, String>build().asMap();
+
+    synchronized String getDocumentHash(String text) {
+      checkDocument(text);
+      if (documentHash == null) {
+        try {
+          documentHash = IdentityUtils.getInstance().hash(text);
+        } catch (BaleenException e) {
+          LOGGER.warn("Unable to generate document hash", e);
+          return "";
+        }
+      }
+      return documentHash;
+    }
+
+    synchronized String getExternalId(String text, Annotation annotation) {
+      checkDocument(text);
+      // Not stored if it couldn't be created
+      return ids.computeIfAbsent(annotation, IdentityCache::hash);
+    }
+
+    synchronized void invalidate(Annotation annotation) {
+      ids.remove(annotation);
+    }
+
+    synchronized void invalidateAll() {
+      ids.clear();
+    }
+
+    private void checkDocument(String text) {
+      // The text of a CAS can only be set once, so a different string is a different document
+      if (documentText != text) {
+        documentText = text;
+        documentHash = null;
+        ids.clear();
+      }
+    }
+  }
+}
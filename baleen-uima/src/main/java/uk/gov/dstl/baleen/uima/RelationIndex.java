@@ -0,0 +1,143 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.cas.FSIndex;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.jcas.JCas;
+
+import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.types.semantic.Relation;
+
+/**
+ * A reverse index from entities to the relations which have them as a source or target, for a
+ * single JCas.
+ *
+ * <p>The index is built lazily on first use, and then kept up to date by {@link UimaSupport} as it
+ * adds, removes and merges annotations. Relations may also be added or removed directly on the
+ * JCas, so the index records which document it was built for and how many relations there were, and
+ * is rebuilt if either has changed. Changes to the source or target of an existing relation made
+ * outside of {@link UimaSupport} are not detected, although relations are always checked to still
+ * refer to the entity before they are returned.
+ */
+class RelationIndex {
+  private FeatureStructure document;
+  private int relationCount;
+  private Map<Entity, List<Relation>> byEntity;
+
+  /**
+   * Get the relations which have the entity as their source or target
+   *
+   * @param jCas The JCas containing the entity
+   * @param entity The entity
+   * @return The relations, in index order
+   */
+  Collection<Relation> get(JCas jCas, Entity entity) {
+    ensureCurrent(jCas);
+
+    List<Relation> indexed = byEntity.get(entity);
+    if (indexed == null) {
+      return Collections.emptyList();
+    }
+
+    List<Relation> relations = new ArrayList<>(indexed.size());
+    for (Relation r : indexed) {
+      if (r.getSource() == entity || r.getTarget() == entity) {
+        relations.add(r);
+      }
+    }
+    return relations;
+  }
+
+  /** Record that a relation has been added to the JCas indexes */
+  void added(Relation relation) {
+    if (byEntity == null) {
+      return;
+    }
+
+    relationCount++;
+    index(relation);
+  }
+
+  /** Record that a relation has been removed from the JCas indexes */
+  void removed(Relation relation) {
+    if (byEntity == null) {
+      return;
+    }
+
+    boolean found = unindex(relation, relation.getSource());
+    found |= unindex(relation, relation.getTarget());
+    if (found) {
+      relationCount--;
+    }
+  }
+
+  /** Record that the source or target of a relation has been changed from one entity to another */
+  void moved(Relation relation, Entity from, Entity to) {
+    if (byEntity == null) {
+      return;
+    }
+
+    unindex(relation, from);
+    add(to, relation);
+  }
+
+  /** Discard the index, so that it is rebuilt the next time it is used */
+  void invalidate() {
+    document = null;
+    byEntity = null;
+  }
+
+  private void ensureCurrent(JCas jCas) {
+    FSIndex<Relation> relations = jCas.getAnnotationIndex(Relation.class);
+    if (byEntity != null
+        && document == jCas.getDocumentAnnotationFs()
+        && relationCount == relations.size()) {
+      return;
+    }
+
+    document = jCas.getDocumentAnnotationFs();
+    relationCount = relations.size();
+    byEntity = new HashMap<>();
+    for (Relation r : relations) {
+      index(r);
+    }
+  }
+
+  private void index(Relation relation) {
+    add(relation.getSource(), relation);
+    if (relation.getTarget() != relation.getSource()) {
+      add(relation.getTarget(), relation);
+    }
+  }
+
+  private void add(Entity entity, Relation relation) {
+    if (entity != null) {
+      List<Relation> relations = byEntity.computeIfAbsent(entity, k -> new ArrayList<>(2));
+      if (!relations.contains(relation)) {
+        relations.add(relation);
+      }
+    }
+  }
+
+  private boolean unindex(Relation relation, Entity entity) {
+    if (entity == null) {
+      return false;
+    }
+
+    List<Relation> relations = byEntity.get(entity);
+    if (relations == null || !relations.remove(relation)) {
+      return false;
+    }
+    if (relations.isEmpty()) {
+      byEntity.remove(entity);
+    }
+    return true;
+  }
+}
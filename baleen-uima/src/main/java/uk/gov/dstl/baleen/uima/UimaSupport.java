@@ -4,12 +4,10 @@ package uk.gov.dstl.baleen.uima;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.stream.Collectors;
 
 import org.apache.uima.UIMAException;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASException;
-import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.apache.uima.jcas.tcas.DocumentAnnotation;
@@ -46,6 +44,9 @@ public class UimaSupport {
   private final boolean mergeDistinctEntities;
   private final BaleenHistory history;
   private final String pipelineName;
+  private final RelationIndex relationIndex = new RelationIndex();
+  private final CasDerivedDataCache derivedData = CasDerivedDataCache.getInstance();
+  private final IdentityCache identities = IdentityCache.getInstance();
 
   /**
    * New instance.
@@ -97,6 +98,11 @@ public class UimaSupport {
     for (Annotation annot : annotations) {
       annot.addToIndexes();
       monitor.entityAdded(annot.getType().getName());
+      derivedData.invalidate(annot.getCAS(), annot.getType());
+
+      if (annot instanceof Relation) {
+        relationIndex.added((Relation) annot);
+      }
 
       if (annot instanceof Entity) {
         Entity entity = (Entity) annot;
@@ -108,13 +114,17 @@ public class UimaSupport {
 
         addToHistory(annot.getCAS(), HistoryEvents.createAdded((Recordable) annot, referrer));
       }
+
+      identities.invalidate(annot);
     }
   }
 
   /**
    * Remove an annotation to the JCas index, notifying UimaMonitor of the fact we have done so.
    *
-   * <p>Relations that refer to the given annotation will also be removed.
+   * <p>Relations that refer to the given annotation will also be removed. The annotations are
+   * removed in a single pass, so it is much more efficient to remove many annotations with one call
+   * to this method than to call it for each annotation in turn.
    *
    * @param annot Annotation(s) to remove
    */
@@ -134,12 +144,20 @@ public class UimaSupport {
         for (Relation r : getRelations((Entity) annot)) {
           monitor.entityRemoved(r.getType().getName());
           r.removeFromIndexes();
+          relationIndex.removed(r);
+          derivedData.invalidate(r.getCAS(), r.getType());
         }
       }
 
       monitor.entityRemoved(annot.getType().getName());
 
       annot.removeFromIndexes();
+      derivedData.invalidate(annot.getCAS(), annot.getType());
+      identities.invalidate(annot);
+
+      if (annot instanceof Relation) {
+        relationIndex.removed((Relation) annot);
+      }
     }
   }
 
@@ -247,6 +265,7 @@ public class UimaSupport {
         if (r.getTarget() == entity) {
           r.setTarget(targetEntity);
         }
+        relationIndex.moved(r, entity, targetEntity);
       }
 
       remove(entity);
@@ -338,21 +357,30 @@ public class UimaSupport {
     return (DocumentAnnotation) jCas.getDocumentAnnotationFs();
   }
 
+  /**
+   * Get the cache of structures derived from the annotations of a document, such as the dependency
+   * graph, which are shared with the other annotators processing the document.
+   *
+   * <p>Annotations added and removed through this class are reflected in the cache.
+   *
+   * @return the derived data cache
+   */
+  public CasDerivedDataCache getDerivedData() {
+    return derivedData;
+  }
+
   /**
    * Get relations that have a given entity as either the source or the target
    *
+   * <p>Relations are looked up in an index, which is built the first time this is called for a
+   * document and then maintained as annotations are added and removed through this class.
+   *
    * @param e The given entity
    * @return Collection of relations that refer to the given Entity
    */
   public Collection<Relation> getRelations(Entity e) {
     try {
-      JCas jCas = e.getCAS().getJCas();
-      Collection<Relation> relations = JCasUtil.select(jCas, Relation.class);
-
-      return relations
-          .stream()
-          .filter(r -> r.getSource() == e || r.getTarget() == e)
-          .collect(Collectors.toList());
+      return relationIndex.get(e.getCAS().getJCas(), e);
     } catch (UIMAException ue) {
       monitor.warn("Unable to get relations from entity", ue);
       return Collections.emptyList();
@@ -0,0 +1,42 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima.utils;
+
+import org.apache.uima.cas.Feature;
+
+/**
+ * A feature with the details serialisers and consumers need of it, resolved once.
+ *
+ * <p>Instances are obtained from {@link TypeSystemMetadata#getFeatures(org.apache.uima.cas.Type)}.
+ */
+public class FeatureMetadata {
+  private final Feature feature;
+  private final String fieldName;
+  private final RangeKind kind;
+
+  FeatureMetadata(Feature feature) {
+    this.feature = feature;
+    String shortName = feature.getShortName();
+    this.fieldName = shortName.substring(0, 1).toLowerCase() + shortName.substring(1);
+    this.kind = RangeKind.of(feature);
+  }
+
+  /** @return the feature */
+  public Feature getFeature() {
+    return feature;
+  }
+
+  /** @return the full name of the feature, as {@link Feature#getName()} */
+  public String getName() {
+    return feature.getName();
+  }
+
+  /** @return the short name of the feature, in camel case, as used for field names in output */
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  /** @return the kind of value held by the feature */
+  public RangeKind getKind() {
+    return kind;
+  }
+}
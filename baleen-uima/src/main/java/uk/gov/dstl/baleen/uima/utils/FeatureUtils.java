@@ -8,6 +8,8 @@ import java.util.List;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CommonArrayFS;
 import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.impl.TypeImpl;
 import org.apache.uima.jcas.tcas.Annotation;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +20,24 @@ public class FeatureUtils {
     // Singleton
   }
 
+  /**
+   * Get the features of a type.
+   *
+   * <p>{@link Type#getFeatures()} creates a new list on each call, so this should be preferred when
+   * walking the features of many annotations.
+   *
+   * @param type UIMA CAS Type
+   * @return unmodifiable list of the features of the type, cached in the {@link TypeSystemMetadata}
+   *     of its type system
+   */
+  public static List<Feature> getFeatures(Type type) {
+    if (type instanceof TypeImpl) {
+      return TypeSystemMetadata.forTypeSystem(((TypeImpl) type).getTypeSystem())
+          .getFeatureList(type);
+    }
+    return Collections.unmodifiableList(type.getFeatures());
+  }
+
   /**
    * Convert a UIMA feature to a Java object of the correct type
    *
@@ -0,0 +1,94 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima.utils;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+
+/**
+ * The kind of value held by a feature, derived from its range.
+ *
+ * <p>The order of the constants is used by serialised forms, so new kinds must only be added at the
+ * end.
+ */
+public enum RangeKind {
+  BOOLEAN,
+  BYTE,
+  SHORT,
+  INT,
+  LONG,
+  FLOAT,
+  DOUBLE,
+  STRING,
+  BOOLEAN_ARRAY,
+  BYTE_ARRAY,
+  SHORT_ARRAY,
+  INT_ARRAY,
+  LONG_ARRAY,
+  FLOAT_ARRAY,
+  DOUBLE_ARRAY,
+  STRING_ARRAY,
+  REFERENCE,
+  REFERENCE_ARRAY;
+
+  /**
+   * Get the kind of a feature.
+   *
+   * <p>This inspects the range of the feature, so where possible use the cached {@link
+   * FeatureMetadata#getKind()}.
+   *
+   * @param f the feature
+   * @return the kind of the feature
+   */
+  public static RangeKind of(Feature f) {
+    Type range = f.getRange();
+    if (range.isPrimitive()) {
+      return ofPrimitive(range.getName(), false);
+    } else if (range.isArray()) {
+      Type component = range.getComponentType();
+      if (component != null && component.isPrimitive()) {
+        return ofPrimitive(component.getName(), true);
+      }
+      return REFERENCE_ARRAY;
+    } else {
+      return REFERENCE;
+    }
+  }
+
+  private static RangeKind ofPrimitive(String name, boolean array) {
+    switch (name) {
+      case CAS.TYPE_NAME_BOOLEAN:
+        return array ? BOOLEAN_ARRAY : BOOLEAN;
+      case CAS.TYPE_NAME_BYTE:
+        return array ? BYTE_ARRAY : BYTE;
+      case CAS.TYPE_NAME_SHORT:
+        return array ? SHORT_ARRAY : SHORT;
+      case CAS.TYPE_NAME_INTEGER:
+        return array ? INT_ARRAY : INT;
+      case CAS.TYPE_NAME_LONG:
+        return array ? LONG_ARRAY : LONG;
+      case CAS.TYPE_NAME_FLOAT:
+        return array ? FLOAT_ARRAY : FLOAT;
+      case CAS.TYPE_NAME_DOUBLE:
+        return array ? DOUBLE_ARRAY : DOUBLE;
+      default:
+        // Strings, including subtypes of string with allowed values
+        return array ? STRING_ARRAY : STRING;
+    }
+  }
+
+  /** @return true if the feature holds a single primitive value */
+  public boolean isPrimitive() {
+    return ordinal() <= STRING.ordinal();
+  }
+
+  /** @return true if the feature holds an array of primitive values */
+  public boolean isPrimitiveArray() {
+    return ordinal() >= BOOLEAN_ARRAY.ordinal() && ordinal() <= STRING_ARRAY.ordinal();
+  }
+
+  /** @return true if the feature holds an array, of primitives or references */
+  public boolean isArray() {
+    return isPrimitiveArray() || this == REFERENCE_ARRAY;
+  }
+}
@@ -0,0 +1,123 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+
+/**
+ * Runs the analysis of each sentence of a document, optionally in parallel, and writes the results
+ * to the CAS in sentence order.
+ *
+ * <p>The CAS is not thread safe, so the work for each sentence is split in three:
+ *
+ * <ol>
+ *   <li>{@link Preparation}, on the calling thread, reads what is needed from the CAS;
+ *   <li>{@link Analysis}, which may be on another thread, does the expensive work (tagging, parsing
+ *       etc) without touching the CAS;
+ *   <li>{@link Commit}, on the calling thread and in sentence order, writes the result to the CAS.
+ * </ol>
+ *
+ * <p>In parallel, the analyses run on the common {@link ForkJoinPool}, so are shared with
+ * everything else in the JVM. Analyses must therefore be thread safe, for example by holding models
+ * which are not thread safe in a {@link ThreadLocal}.
+ */
+public class SentenceExecutor {
+
+  private SentenceExecutor() {
+    // Singleton
+  }
+
+  /**
+   * Prepares the analysis of a sentence, reading from the CAS.
+   *
+   * @param <T> the type of sentence
+   */
+  @FunctionalInterface
+  public interface Preparation<T> {
+    /**
+     * Prepare the analysis, on the calling thread
+     *
+     * @param sentence the sentence
+     * @return the analysis to perform
+     * @throws Exception if the sentence can't be read
+     */
+    Analysis prepare(T sentence) throws Exception;
+  }
+
+  /** Analyses a sentence, without touching the CAS. */
+  @FunctionalInterface
+  public interface Analysis {
+    /**
+     * Analyse the sentence, on any thread
+     *
+     * @return the changes to make to the CAS
+     * @throws Exception if the analysis fails
+     */
+    Commit analyse() throws Exception;
+  }
+
+  /** Writes the results of analysing a sentence to the CAS. */
+  @FunctionalInterface
+  public interface Commit {
+    /**
+     * Write the results, on the calling thread
+     *
+     * @throws Exception if the results can't be written
+     */
+    void commit() throws Exception;
+  }
+
+  /**
+   * Prepare, analyse and commit each sentence.
+   *
+   * @param sentences the sentences, in order
+   * @param parallel true to analyse the sentences in parallel
+   * @param preparation prepares each sentence
+   * @throws AnalysisEngineProcessException if any stage fails for any sentence
+   */
+  public static <T> void execute(
+      Collection<T> sentences, boolean parallel, Preparation<T> preparation)
+      throws AnalysisEngineProcessException {
+    try {
+      if (!parallel || sentences.size() < 2) {
+        for (T sentence : sentences) {
+          preparation.prepare(sentence).analyse().commit();
+        }
+      } else {
+        executeInParallel(sentences, preparation);
+      }
+    } catch (AnalysisEngineProcessException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+
+  private static <T> void executeInParallel(Collection<T> sentences, Preparation<T> preparation)
+      throws Exception {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    List<ForkJoinTask<Commit>> tasks = new ArrayList<>(sentences.size());
+    try {
+      for (T sentence : sentences) {
+        tasks.add(pool.submit(ForkJoinTask.adapt(preparation.prepare(sentence)::analyse)));
+      }
+      for (ForkJoinTask<Commit> task : tasks) {
+        task.get().commit();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisEngineProcessException(e);
+    } catch (ExecutionException e) {
+      throw new AnalysisEngineProcessException(e.getCause());
+    } finally {
+      // No-op for those complete, frees the pool if we've failed
+      tasks.forEach(t -> t.cancel(false));
+    }
+  }
+}
@@ -0,0 +1,221 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.AnnotationBase;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
+import com.googlecode.concurrenttrees.suffix.ConcurrentSuffixTree;
+import com.googlecode.concurrenttrees.suffix.SuffixTree;
+
+/**
+ * Metadata about the types and features of a type system, resolved once and shared.
+ *
+ * <p>Looking up the annotation class for a type name requires loading the class of every type in
+ * the type system, and UIMA creates a new list each time the features of a type are requested. This
+ * caches both, along with the field name and {@link RangeKind} of each feature, for each type
+ * system. All the CASes of a pipeline share a type system, so the metadata is built once for each
+ * pipeline. The metadata of a type system which is no longer used is released when memory is
+ * needed, or after it hasn't been used for a while.
+ */
+public class TypeSystemMetadata {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TypeSystemMetadata.class);
+
+  // The metadata holds types and features, which refer to their type system, so weak keys alone
+  // would keep every type system for ever. Soft values let the metadata of type systems which are
+  // no longer used be cleared, after which the type system itself can be collected.
+  private static final LoadingCache<TypeSystem, TypeSystemMetadata> INSTANCES =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .softValues()
+          .build(
+              new CacheLoader<TypeSystem, TypeSystemMetadata>() {
+                @Override
+                public TypeSystemMetadata load(TypeSystem typeSystem) {
+                  return new TypeSystemMetadata(typeSystem);
+                }
+              });
+
+  private final TypeSystem typeSystem;
+  private final Map<Type, TypeFeatures> features = new ConcurrentHashMap<>();
+  private final Map<String, Optional<Class<AnnotationBase>>> classes = new ConcurrentHashMap<>();
+  private volatile SuffixTree<Class<AnnotationBase>> classTree;
+
+  private TypeSystemMetadata(TypeSystem typeSystem) {
+    this.typeSystem = typeSystem;
+  }
+
+  /**
+   * Get the metadata for a type system.
+   *
+   * @param typeSystem the type system
+   * @return the (shared) metadata
+   */
+  public static TypeSystemMetadata forTypeSystem(TypeSystem typeSystem) {
+    return INSTANCES.getUnchecked(typeSystem);
+  }
+
+  /**
+   * Get the metadata for the type system of a JCas.
+   *
+   * @param jCas the JCas
+   * @return the (shared) metadata
+   */
+  public static TypeSystemMetadata forJCas(JCas jCas) {
+    return forTypeSystem(jCas.getTypeSystem());
+  }
+
+  /**
+   * Get the metadata for the type system of {@link TypeSystemSingleton}.
+   *
+   * @return the (shared) metadata
+   * @throws ResourceInitializationException if the type system can't be created
+   */
+  public static TypeSystemMetadata getInstance() throws ResourceInitializationException {
+    return forTypeSystem(TypeSystemSingleton.getTypeSystemInstance());
+  }
+
+  /** @return the type system this describes */
+  public TypeSystem getTypeSystem() {
+    return typeSystem;
+  }
+
+  /**
+   * Get the features of a type.
+   *
+   * @param type a type of this type system
+   * @return unmodifiable list of the features of the type
+   */
+  public List<FeatureMetadata> getFeatures(Type type) {
+    return getTypeFeatures(type).metadata;
+  }
+
+  /**
+   * Get the features of a type, as UIMA features. Prefer {@link FeatureUtils#getFeatures(Type)}.
+   *
+   * @param type a type of this type system
+   * @return unmodifiable list of the features of the type
+   */
+  public List<Feature> getFeatureList(Type type) {
+    return getTypeFeatures(type).features;
+  }
+
+  private TypeFeatures getTypeFeatures(Type type) {
+    return features.computeIfAbsent(type, TypeFeatures::new);
+  }
+
+  /**
+   * Get the annotation class for a type name, as {@link TypeUtils#getType(String, TypeSystem)}.
+   *
+   * @param typeName the name of the type, optionally including the package
+   * @return the class, or null if there is no uniquely matching class
+   */
+  public Class<AnnotationBase> getAnnotationClass(String typeName) {
+    return classes.computeIfAbsent(typeName, this::findAnnotationClass).orElse(null);
+  }
+
+  private Optional<Class<AnnotationBase>> findAnnotationClass(String typeName) {
+    SuffixTree<Class<AnnotationBase>> types = getClassTree();
+
+    Class<AnnotationBase> ret = getClassFromType("." + typeName, types);
+    if (ret == null) {
+      ret = getClassFromType(typeName, types);
+    }
+    return Optional.ofNullable(ret);
+  }
+
+  private static Class<AnnotationBase> getClassFromType(
+      String typeName, SuffixTree<Class<AnnotationBase>> types) {
+    Iterator<CharSequence> itMatchedTypes = types.getKeysEndingWith(typeName).iterator();
+    if (!itMatchedTypes.hasNext()) {
+      return null; // No match found
+    }
+
+    Class<AnnotationBase> ret = types.getValueForExactKey(itMatchedTypes.next());
+
+    if (itMatchedTypes.hasNext()) {
+      return null; // More than one match found
+    }
+
+    return ret;
+  }
+
+  private SuffixTree<Class<AnnotationBase>> getClassTree() {
+    SuffixTree<Class<AnnotationBase>> tree = classTree;
+    if (tree == null) {
+      synchronized (this) {
+        tree = classTree;
+        if (tree == null) {
+          tree = createClassTree();
+          classTree = tree;
+        }
+      }
+    }
+    return tree;
+  }
+
+  @SuppressWarnings("unchecked")
+  private SuffixTree<Class<AnnotationBase>> createClassTree() {
+    SuffixTree<Class<AnnotationBase>> types =
+        new ConcurrentSuffixTree<>(new DefaultByteArrayNodeFactory());
+
+    Iterator<Type> itTypes = typeSystem.getTypeIterator();
+    while (itTypes.hasNext()) {
+      Type t = itTypes.next();
+
+      try {
+        String clazz = t.getName();
+        if (clazz.startsWith("uima.")) {
+          continue;
+        } else if (clazz.endsWith("[]")) {
+          clazz = clazz.substring(0, clazz.length() - 2);
+        }
+
+        Class<?> unchecked = Class.forName(clazz);
+
+        if (AnnotationBase.class.isAssignableFrom(unchecked)) {
+          types.put(t.getName(), (Class<AnnotationBase>) unchecked);
+        } else {
+          LOGGER.debug("Skipping class {} that doesn't inherit from AnnotationBase", clazz);
+        }
+      } catch (ClassNotFoundException e) {
+        LOGGER.warn("Unable to load class {} from type system", t.getName(), e);
+      }
+    }
+
+    return types;
+  }
+
+  /** The features of a type, both as UIMA features and with their metadata */
+  private static class TypeFeatures {
+    private final List<Feature> features;
+    private final List<FeatureMetadata> metadata;
+
+    TypeFeatures(Type type) {
+      List<Feature> typeFeatures = type.getFeatures();
+      List<FeatureMetadata> list = new ArrayList<>(typeFeatures.size());
+      for (Feature f : typeFeatures) {
+        list.add(new FeatureMetadata(f));
+      }
+      this.features = Collections.unmodifiableList(typeFeatures);
+      this.metadata = Collections.unmodifiableList(list);
+    }
+  }
+}
@@ -1,9 +1,11 @@
 // Dstl (c) Crown Copyright 2017
 package uk.gov.dstl.baleen.uima.utils;
 
+import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
 
 /**
  * Class to hold a singleton instance of the TypeSystem, to save having to generate it repeatedly.
@@ -14,6 +16,7 @@ import org.apache.uima.resource.metadata.TypeSystemDescription;
  */
 public class TypeSystemSingleton {
   private static TypeSystemDescription tsd = null;
+  private static TypeSystem ts = null;
 
   private TypeSystemSingleton() {}
 
@@ -26,4 +29,16 @@ public class TypeSystemSingleton {
 
     return tsd;
   }
+
+  /** Return the singleton TypeSystem instance, created from the singleton TypeSystemDescription. */
+  public static synchronized TypeSystem getTypeSystemInstance()
+      throws ResourceInitializationException {
+    if (ts == null) {
+      ts =
+          CasCreationUtils.createCas(getTypeSystemDescriptionInstance(), null, null)
+              .getTypeSystem();
+    }
+
+    return ts;
+  }
 }
@@ -5,11 +5,9 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
-import org.apache.uima.cas.Type;
 import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.AnnotationBase;
@@ -18,9 +16,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableSet;
-import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
-import com.googlecode.concurrenttrees.suffix.ConcurrentSuffixTree;
-import com.googlecode.concurrenttrees.suffix.SuffixTree;
 
 import uk.gov.dstl.baleen.core.utils.ReflectionUtils;
 import uk.gov.dstl.baleen.exceptions.BaleenException;
@@ -55,45 +50,16 @@ public class TypeUtils {
    * of the same name (but different packages) exist, then null will be returned and the package
    * will need to be included in the typeName.
    *
+   * <p>The classes of the type system are resolved once, and the result for each type name cached,
+   * by {@link TypeSystemMetadata}.
+   *
    * @param typeName The name of the type, optionally including the package
    * @param typeSystem The type system to search
    * @return The class associated with that type
    */
-  @SuppressWarnings("unchecked")
   public static Class<AnnotationBase> getType(String typeName, TypeSystem typeSystem) {
-    SuffixTree<Class<AnnotationBase>> types =
-        new ConcurrentSuffixTree<>(new DefaultByteArrayNodeFactory());
-
-    Iterator<Type> itTypes = typeSystem.getTypeIterator();
-    while (itTypes.hasNext()) {
-      Type t = itTypes.next();
-
-      Class<AnnotationBase> c;
-      try {
-        String clazz = t.getName();
-        if (clazz.startsWith("uima.")) {
-          continue;
-        } else if (clazz.endsWith("[]")) {
-          clazz = clazz.substring(0, clazz.length() - 2);
-        }
-
-        Class<?> unchecked = Class.forName(clazz);
-
-        if (AnnotationBase.class.isAssignableFrom(unchecked)) {
-          c = (Class<AnnotationBase>) unchecked;
-          types.put(t.getName(), c);
-        } else {
-          LOGGER.debug("Skipping class {} that doesn't inherit from AnnotationBase", clazz);
-        }
-      } catch (ClassNotFoundException e) {
-        LOGGER.warn("Unable to load class {} from type system", t.getName(), e);
-      }
-    }
-
-    Class<AnnotationBase> ret = getClassFromType("." + typeName, types);
-    if (ret == null) {
-      ret = getClassFromType(typeName, types);
-    }
+    Class<AnnotationBase> ret =
+        TypeSystemMetadata.forTypeSystem(typeSystem).getAnnotationClass(typeName);
 
     if (ret == null) {
       LOGGER.warn("No uniquely matching class found for type {}", typeName);
@@ -102,34 +68,32 @@ public class TypeUtils {
     return ret;
   }
 
-  private static Class<AnnotationBase> getClassFromType(
-      String typeName, SuffixTree<Class<AnnotationBase>> types) {
-    Iterator<CharSequence> itMatchedTypes = types.getKeysEndingWith(typeName).iterator();
-    if (!itMatchedTypes.hasNext()) {
-      return null; // No match found
-    }
-
-    Class<AnnotationBase> ret = types.getValueForExactKey(itMatchedTypes.next());
-
-    if (itMatchedTypes.hasNext()) {
-      return null; // More than one match found
-    }
-
-    return ret;
+  /**
+   * Get the class of a specified type, that extends from the Entity base class
+   *
+   * @param typeName The name of the type, optionally including the package
+   * @param jCas A JCas object containing the type system
+   * @return The class associated with that type, which will extend from Entity
+   * @throws BaleenException is thrown if a suitable class can't be found
+   */
+  public static Class<? extends Entity> getEntityClass(String typeName, JCas jCas)
+      throws BaleenException {
+    return getEntityClass(typeName, jCas.getTypeSystem());
   }
 
   /**
    * Get the class of a specified type, that extends from the Entity base class
    *
    * @param typeName The name of the type, optionally including the package
-   * @param jCas A JCas object containing the type system
+   * @param typeSystem The type system to search, e.g. {@link
+   *     TypeSystemSingleton#getTypeSystemInstance()}
    * @return The class associated with that type, which will extend from Entity
    * @throws BaleenException is thrown if a suitable class can't be found
    */
   @SuppressWarnings("unchecked")
-  public static Class<? extends Entity> getEntityClass(String typeName, JCas jCas)
+  public static Class<? extends Entity> getEntityClass(String typeName, TypeSystem typeSystem)
       throws BaleenException {
-    Class<? extends AnnotationBase> at = getType(typeName, jCas);
+    Class<? extends AnnotationBase> at = getType(typeName, typeSystem);
 
     if (at == null) {
       throw new BaleenException("Couldn't find type '" + typeName + "'");
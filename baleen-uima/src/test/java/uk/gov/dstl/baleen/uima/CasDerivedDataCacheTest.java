@@ -0,0 +1,123 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import uk.gov.dstl.baleen.core.history.noop.NoopBaleenHistory;
+import uk.gov.dstl.baleen.types.common.Person;
+import uk.gov.dstl.baleen.types.language.Sentence;
+import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.types.semantic.Location;
+import uk.gov.dstl.baleen.uima.grammar.DependencyGraph;
+import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
+
+public class CasDerivedDataCacheTest {
+
+  private final CasDerivedDataCache cache = CasDerivedDataCache.getInstance();
+  private final AtomicInteger builds = new AtomicInteger();
+  private final CasDerivedDataCache.Key<Integer> entityCount =
+      CasDerivedDataCache.Key.of(
+          j -> {
+            builds.incrementAndGet();
+            return j.getAnnotationIndex(Entity.class).size();
+          },
+          Entity.class);
+
+  private JCas jCas;
+  private UimaSupport support;
+
+  @Before
+  public void before() throws UIMAException {
+    jCas = JCasSingleton.getJCasInstance();
+    jCas.setDocumentText("James went to London. He liked it.");
+    new Sentence(jCas, 0, 21).addToIndexes();
+    new Sentence(jCas, 22, 35).addToIndexes();
+    new Person(jCas, 0, 5).addToIndexes();
+
+    support =
+        new UimaSupport(
+            null,
+            CasDerivedDataCacheTest.class,
+            NoopBaleenHistory.getInstance(),
+            Mockito.mock(UimaMonitor.class),
+            false);
+  }
+
+  @Test
+  public void testBuildsOnce() {
+    assertEquals(Integer.valueOf(1), cache.get(jCas, entityCount));
+    assertEquals(Integer.valueOf(1), cache.get(jCas, entityCount));
+    assertEquals(1, builds.get());
+
+    DependencyGraph graph = cache.getDependencyGraph(jCas);
+    assertSame(graph, support.getDerivedData().getDependencyGraph(jCas));
+  }
+
+  @Test
+  public void testRebuildsWhenSourceAdded() {
+    cache.get(jCas, entityCount);
+
+    new Location(jCas, 14, 20).addToIndexes();
+    assertEquals(Integer.valueOf(2), cache.get(jCas, entityCount));
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  public void testRebuildsWhenChangedThroughSupport() {
+    Map<Sentence, Collection<Entity>> before =
+        cache.indexCovered(jCas, Sentence.class, Entity.class);
+    assertSame(before, cache.indexCovered(jCas, Sentence.class, Entity.class));
+
+    // Same number of entities, but different ones
+    Person person = JCasUtil.selectSingle(jCas, Person.class);
+    support.remove(person);
+    support.add(new Location(jCas, 14, 20));
+
+    Map<Sentence, Collection<Entity>> after =
+        cache.indexCovered(jCas, Sentence.class, Entity.class);
+    assertNotSame(before, after);
+    assertTrue(
+        after.values().stream().flatMap(Collection::stream).allMatch(Location.class::isInstance));
+  }
+
+  @Test
+  public void testIgnoresUnrelatedChanges() {
+    cache.get(jCas, entityCount);
+    support.add(new Sentence(jCas, 6, 10));
+    cache.get(jCas, entityCount);
+    assertEquals(1, builds.get());
+  }
+
+  @Test
+  public void testRebuildsForNewDocument() throws UIMAException {
+    cache.get(jCas, entityCount);
+
+    JCas next = JCasSingleton.getJCasInstance();
+    next.setDocumentText("Another document");
+    new Person(next, 0, 7).addToIndexes();
+    cache.get(next, entityCount);
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  public void testClear() {
+    cache.get(jCas, entityCount);
+    cache.clear(jCas);
+    cache.get(jCas, entityCount);
+    assertEquals(2, builds.get());
+  }
+}
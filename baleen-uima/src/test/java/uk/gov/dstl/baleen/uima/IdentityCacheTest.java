@@ -0,0 +1,124 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.factory.UimaContextFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.dstl.baleen.core.pipelines.PipelineBuilder;
+import uk.gov.dstl.baleen.core.pipelines.orderers.AnalysisEngineAction;
+import uk.gov.dstl.baleen.core.utils.IdentityUtils;
+import uk.gov.dstl.baleen.types.common.CommsIdentifier;
+import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
+
+public class IdentityCacheTest {
+
+  private static final String TEXT = "E-mail address: example@foo.com";
+
+  private final IdentityCache cache = IdentityCache.getInstance();
+
+  private JCas jCas;
+
+  @Before
+  public void before() throws UIMAException {
+    jCas = JCasSingleton.getJCasInstance();
+    jCas.setDocumentText(TEXT);
+  }
+
+  @Test
+  public void testDocumentHash() throws Exception {
+    String hash = cache.getDocumentHash(jCas.getCas());
+    assertEquals(IdentityUtils.hashStrings(TEXT), hash);
+    assertSame(hash, cache.getDocumentHash(jCas.getCas()));
+
+    jCas.reset();
+    jCas.setDocumentText("Another document");
+    assertEquals(
+        IdentityUtils.hashStrings("Another document"), cache.getDocumentHash(jCas.getCas()));
+  }
+
+  @Test
+  public void testExternalId() {
+    CommsIdentifier ci = new CommsIdentifier(jCas, 16, 31);
+    ci.addToIndexes();
+
+    String id = cache.getExternalId(ci);
+    assertSame(id, cache.getExternalId(ci));
+    assertEquals(id, ci.getExternalId());
+
+    // The id is kept until it is invalidated, then reflects the modification
+    ci.setSubType("email");
+    assertSame(id, cache.getExternalId(ci));
+    cache.invalidate(ci);
+    String modified = cache.getExternalId(ci);
+    assertNotEquals(id, modified);
+    ci.setSubType(null);
+    cache.invalidate(jCas.getCas());
+    assertEquals(id, cache.getExternalId(ci));
+
+    // Internal ids are not part of the identity
+    ci.setInternalId(999);
+    assertEquals(id, cache.getExternalId(ci));
+  }
+
+  @Test
+  public void testResetWithSameText() throws Exception {
+    CommsIdentifier ci = new CommsIdentifier(jCas, 16, 31);
+    ci.addToIndexes();
+    String id = cache.getExternalId(ci);
+
+    // The same text object, and the new annotation may be at the same address
+    jCas.reset();
+    jCas.setDocumentText(TEXT);
+    CommsIdentifier other = new CommsIdentifier(jCas, 16, 31);
+    other.setSubType("email");
+    other.addToIndexes();
+    assertNotEquals(id, cache.getExternalId(other));
+  }
+
+  @Test
+  public void testUimaSupportInvalidates() {
+    UimaSupport support =
+        new UimaSupport(
+            "test", IdentityCacheTest.class, null, new UimaMonitor("test", getClass()), false);
+    CommsIdentifier ci = new CommsIdentifier(jCas, 16, 31);
+    String id = cache.getExternalId(ci);
+
+    // Adding the entity sets its value, which is part of its identity
+    support.add(ci);
+    assertNotEquals(id, cache.getExternalId(ci));
+  }
+
+  @Test
+  public void testAnnotatorInvalidates() throws Exception {
+    CommsIdentifier ci = new CommsIdentifier(jCas, 16, 31);
+    ci.addToIndexes();
+    String id = cache.getExternalId(ci);
+
+    BaleenAnnotator annotator =
+        new BaleenAnnotator() {
+          @Override
+          protected void doProcess(JCas jCas) {
+            ci.setSubType("email");
+          }
+
+          @Override
+          public AnalysisEngineAction getAction() {
+            return new AnalysisEngineAction(Collections.emptySet(), Collections.emptySet());
+          }
+        };
+    annotator.initialize(
+        UimaContextFactory.createUimaContext(PipelineBuilder.PIPELINE_NAME, "test"));
+    annotator.process(jCas);
+
+    assertNotEquals(id, cache.getExternalId(ci));
+  }
+}
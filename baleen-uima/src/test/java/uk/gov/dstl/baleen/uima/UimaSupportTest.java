@@ -8,6 +8,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.uima.UIMAException;
@@ -365,4 +366,77 @@ public class UimaSupportTest {
     assertEquals(1, relations.size());
     assertEquals(r1, relations.get(0));
   }
+
+  @Test
+  public void testRemoveWithRelations() {
+    UimaSupport support = new UimaSupport(PIPELINE, UimaSupportTest.class, history, monitor, false);
+
+    Person p1 = createPerson(0);
+    Person p2 = createPerson(1);
+    Person p3 = createPerson(2);
+
+    Relation r1 = createRelation(p1, p2);
+    Relation r2 = createRelation(p2, p3);
+    Relation r3 = createRelation(p3, p3);
+
+    // Build the index, then remove several entities at once
+    assertEquals(2, support.getRelations(p2).size());
+    support.remove(Arrays.asList(p1, p2));
+
+    assertEquals(1, JCasUtil.select(jCas, Person.class).size());
+    assertEquals(Arrays.asList(r3), new ArrayList<>(JCasUtil.select(jCas, Relation.class)));
+    assertEquals(Arrays.asList(r3), new ArrayList<>(support.getRelations(p3)));
+    assertFalse(JCasUtil.select(jCas, Relation.class).contains(r1));
+    assertFalse(JCasUtil.select(jCas, Relation.class).contains(r2));
+  }
+
+  @Test
+  public void testGetRelationsAfterChanges() {
+    UimaSupport support = new UimaSupport(PIPELINE, UimaSupportTest.class, history, monitor, false);
+
+    Person p1 = createPerson(0);
+    Person p2 = createPerson(1);
+    assertTrue(support.getRelations(p1).isEmpty());
+
+    // Added directly to the JCas, rather than through the support
+    Relation r1 = createRelation(p1, p2);
+    assertEquals(Arrays.asList(r1), new ArrayList<>(support.getRelations(p1)));
+
+    // Added through the support
+    Relation r2 = new Relation(jCas);
+    r2.setSource(p2);
+    r2.setTarget(p1);
+    support.add(r2);
+    assertEquals(Arrays.asList(r1, r2), new ArrayList<>(support.getRelations(p1)));
+
+    // Removed directly from the JCas
+    r1.removeFromIndexes();
+    assertEquals(Arrays.asList(r2), new ArrayList<>(support.getRelations(p2)));
+
+    // A new document in the same JCas
+    jCas.reset();
+    jCas.setDocumentText("Another document");
+    Person p3 = createPerson(0);
+    Person p4 = createPerson(1);
+    Relation r3 = createRelation(p3, p4);
+    assertEquals(Arrays.asList(r3), new ArrayList<>(support.getRelations(p4)));
+  }
+
+  private Person createPerson(int begin) {
+    Person p = new Person(jCas);
+    p.setBegin(begin);
+    p.setEnd(begin + 1);
+    p.addToIndexes();
+    return p;
+  }
+
+  private Relation createRelation(Person source, Person target) {
+    Relation r = new Relation(jCas);
+    r.setBegin(source.getBegin());
+    r.setEnd(target.getEnd());
+    r.setSource(source);
+    r.setTarget(target);
+    r.addToIndexes();
+    return r;
+  }
 }
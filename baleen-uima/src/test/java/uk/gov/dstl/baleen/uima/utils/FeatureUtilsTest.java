@@ -3,6 +3,7 @@ package uk.gov.dstl.baleen.uima.utils;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
@@ -183,4 +184,13 @@ public class FeatureUtilsTest {
     List<Object> o = FeatureUtils.featureToList(f, da);
     assertEquals(Collections.emptyList(), o);
   }
+
+  @Test
+  public void testGetFeatures() {
+    Entity e = new Entity(jCas);
+
+    List<Feature> features = FeatureUtils.getFeatures(e.getType());
+    assertEquals(e.getType().getFeatures(), features);
+    assertSame(features, FeatureUtils.getFeatures(e.getType()));
+  }
 }
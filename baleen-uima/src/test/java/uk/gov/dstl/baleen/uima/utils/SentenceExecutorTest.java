@@ -0,0 +1,75 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.junit.Test;
+
+import com.google.common.base.Throwables;
+
+public class SentenceExecutorTest {
+
+  private final List<Integer> sentences =
+      IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+  private List<Integer> execute(boolean parallel) throws AnalysisEngineProcessException {
+    Thread caller = Thread.currentThread();
+    List<Integer> committed = new ArrayList<>();
+    SentenceExecutor.execute(
+        sentences,
+        parallel,
+        s -> {
+          assertSame(caller, Thread.currentThread());
+          return () -> {
+            // Finish in a different order
+            Thread.sleep((100 - s) % 7);
+            int result = s * 2;
+            return () -> {
+              assertSame(caller, Thread.currentThread());
+              committed.add(result);
+            };
+          };
+        });
+    return committed;
+  }
+
+  @Test
+  public void testSerial() throws AnalysisEngineProcessException {
+    List<Integer> expected = sentences.stream().map(s -> s * 2).collect(Collectors.toList());
+    assertEquals(expected, execute(false));
+  }
+
+  @Test
+  public void testParallelCommitsInOrder() throws AnalysisEngineProcessException {
+    List<Integer> expected = sentences.stream().map(s -> s * 2).collect(Collectors.toList());
+    assertEquals(expected, execute(true));
+  }
+
+  @Test
+  public void testParallelFailure() {
+    IllegalStateException cause = new IllegalStateException();
+    try {
+      SentenceExecutor.execute(
+          sentences,
+          true,
+          s ->
+              () -> {
+                if (s == 50) {
+                  throw cause;
+                }
+                return () -> {};
+              });
+      fail("Expected exception");
+    } catch (AnalysisEngineProcessException e) {
+      assertSame(cause, Throwables.getRootCause(e));
+    }
+  }
+}
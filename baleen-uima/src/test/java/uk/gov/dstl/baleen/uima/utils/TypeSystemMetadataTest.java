@@ -0,0 +1,70 @@
+// Copyright (c) Committed Software 2018, opensource@committed.io
+package uk.gov.dstl.baleen.uima.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.JCas;
+import org.junit.Test;
+
+import uk.gov.dstl.baleen.types.common.Person;
+import uk.gov.dstl.baleen.types.semantic.Entity;
+import uk.gov.dstl.baleen.uima.testing.JCasSingleton;
+
+public class TypeSystemMetadataTest {
+
+  @Test
+  public void testSharedForTypeSystem() throws UIMAException {
+    JCas jCas = JCasSingleton.getJCasInstance();
+    TypeSystemMetadata metadata = TypeSystemMetadata.forJCas(jCas);
+
+    assertSame(metadata, TypeSystemMetadata.forTypeSystem(jCas.getTypeSystem()));
+    assertSame(jCas.getTypeSystem(), metadata.getTypeSystem());
+  }
+
+  @Test
+  public void testAnnotationClass() throws UIMAException {
+    TypeSystemMetadata metadata = TypeSystemMetadata.forJCas(JCasSingleton.getJCasInstance());
+
+    assertEquals(Person.class, metadata.getAnnotationClass("Person"));
+    assertEquals(Person.class, metadata.getAnnotationClass("common.Person"));
+    assertEquals(Entity.class, metadata.getAnnotationClass(Entity.class.getName()));
+    assertNull(metadata.getAnnotationClass("NotAType"));
+  }
+
+  @Test
+  public void testFeatures() throws UIMAException {
+    JCas jCas = JCasSingleton.getJCasInstance();
+    TypeSystemMetadata metadata = TypeSystemMetadata.forJCas(jCas);
+    Type type = jCas.getTypeSystem().getType(Entity.class.getName());
+
+    List<FeatureMetadata> features = metadata.getFeatures(type);
+    assertSame(features, metadata.getFeatures(type));
+    assertEquals(FeatureUtils.getFeatures(type).size(), features.size());
+
+    FeatureMetadata value = find(features, "value");
+    assertEquals(Entity.class.getName() + ":value", value.getName());
+    assertEquals(RangeKind.STRING, value.getKind());
+
+    FeatureMetadata confidence = find(features, "confidence");
+    assertEquals(RangeKind.DOUBLE, confidence.getKind());
+    assertTrue(confidence.getKind().isPrimitive());
+
+    FeatureMetadata referent = find(features, "referent");
+    assertEquals(RangeKind.REFERENCE, referent.getKind());
+  }
+
+  private static FeatureMetadata find(List<FeatureMetadata> features, String fieldName) {
+    return features
+        .stream()
+        .filter(f -> fieldName.equals(f.getFieldName()))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("Missing feature " + fieldName));
+  }
+}